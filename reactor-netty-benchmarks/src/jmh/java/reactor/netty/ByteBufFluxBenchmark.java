@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty;
+
+import java.util.concurrent.TimeUnit;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+/**
+ * Measures {@link ByteBufFlux#aggregate()} depending on the number and the size of the aggregated
+ * buffers, as it happens when a request or a response body is received in several reads.
+ * <p>Run with {@code ./gradlew :reactor-netty-benchmarks:jmh -PjmhInclude=ByteBufFluxBenchmark}</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ByteBufFluxBenchmark {
+
+	@Param({"1", "16", "128"})
+	int chunks;
+
+	@Param({"64", "8192"})
+	int chunkSize;
+
+	ByteBuf[] buffers;
+	ByteBuf[] retained;
+
+	@Setup
+	public void setup() {
+		buffers = new ByteBuf[chunks];
+		retained = new ByteBuf[chunks];
+		for (int i = 0; i < chunks; i++) {
+			ByteBuf buffer = PooledByteBufAllocator.DEFAULT.directBuffer(chunkSize);
+			for (int j = 0; j < chunkSize; j++) {
+				buffer.writeByte('a' + j % 26);
+			}
+			buffers[i] = buffer;
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		for (ByteBuf buffer : buffers) {
+			buffer.release();
+		}
+	}
+
+	@Benchmark
+	public int aggregate() {
+		// The inbound buffers are owned by the caller, as when they are received by FluxReceive
+		for (int i = 0; i < buffers.length; i++) {
+			retained[i] = buffers[i].retainedDuplicate();
+		}
+		// The aggregated buffer is released once the Mono completes, it is only read in map
+		Integer bytes = ByteBufFlux.fromInbound(Flux.fromArray(retained))
+		                           .aggregate()
+		                           .map(ByteBuf::readableBytes)
+		                           .block();
+		for (ByteBuf buffer : retained) {
+			buffer.release();
+		}
+		if (bytes == null) {
+			throw new IllegalStateException("No content");
+		}
+		return bytes;
+	}
+}
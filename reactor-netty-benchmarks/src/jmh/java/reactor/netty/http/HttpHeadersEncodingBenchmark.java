@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http;
+
+import java.util.concurrent.TimeUnit;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpResponseEncoder;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.AsciiString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the encoding of a response head, depending on the number of headers, on whether the
+ * headers are validated when they are added and on whether the names and values are {@link String}
+ * or pre-encoded {@link AsciiString}.
+ * <p>Run with {@code ./gradlew :reactor-netty-benchmarks:jmh -PjmhInclude=HttpHeadersEncodingBenchmark}</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HttpHeadersEncodingBenchmark {
+
+	@Param({"4", "16"})
+	int headers;
+
+	@Param({"false", "true"})
+	boolean validate;
+
+	@Param({"false", "true"})
+	boolean ascii;
+
+	CharSequence[] names;
+	CharSequence[] values;
+	EmbeddedChannel channel;
+
+	@Setup
+	public void setup() {
+		names = new CharSequence[headers];
+		values = new CharSequence[headers];
+		for (int i = 0; i < headers; i++) {
+			String name = "x-benchmark-header-" + i;
+			String value = "value-" + i + "-0123456789abcdef";
+			names[i] = ascii ? AsciiString.cached(name) : name;
+			values[i] = ascii ? AsciiString.cached(value) : value;
+		}
+		channel = new EmbeddedChannel(new HttpResponseEncoder());
+	}
+
+	@TearDown
+	public void tearDown() {
+		channel.finishAndReleaseAll();
+	}
+
+	@Benchmark
+	public int encode() {
+		HttpHeaders headers = new DefaultHttpHeaders(validate);
+		for (int i = 0; i < names.length; i++) {
+			headers.add(names[i], values[i]);
+		}
+		channel.writeOutbound(new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK, headers));
+		ByteBuf encoded = channel.readOutbound();
+		int bytes = encoded.readableBytes();
+		encoded.release();
+		return bytes;
+	}
+}
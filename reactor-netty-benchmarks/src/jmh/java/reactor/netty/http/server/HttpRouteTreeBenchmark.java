@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http.server;
+
+import java.util.concurrent.TimeUnit;
+
+import io.netty.handler.codec.http.HttpMethod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of selecting a route depending on the number of registered routes,
+ * comparing the {@link HttpRouteTree} with the linear evaluation of each {@link HttpPredicate}.
+ * <p>Run with {@code ./gradlew :reactor-netty-benchmarks:jmh -PjmhInclude=HttpRouteTreeBenchmark}</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HttpRouteTreeBenchmark {
+
+	static final HttpMethod[] METHODS = {HttpMethod.GET, HttpMethod.POST, HttpMethod.PUT, HttpMethod.DELETE};
+
+	@Param({"10", "100", "400"})
+	int routes;
+
+	HttpPredicate[] predicates;
+	HttpRouteTree   tree;
+	HttpMethod[]    methods;
+	String[]        uris;
+	int             next;
+
+	@Setup
+	public void setup() {
+		predicates = new HttpPredicate[routes];
+		tree = new HttpRouteTree();
+		for (int i = 0; i < routes; i++) {
+			HttpMethod method = METHODS[i % METHODS.length];
+			String uri = i % 2 == 0 ? "/api/v1/resource" + i + "/{id}" : "/api/v1/resource" + i + "/{id}/items/{item}";
+			predicates[i] = (HttpPredicate) HttpPredicate.http(uri, null, method);
+			HttpRouteTree.Template template = HttpRouteTree.compile(predicates[i]);
+			if (template == null) {
+				throw new IllegalStateException("Template cannot be compiled " + uri);
+			}
+			tree.add(i, template);
+		}
+
+		// Requests spread over the registered routes, the last one does not match any route
+		int requests = 64;
+		methods = new HttpMethod[requests];
+		uris = new String[requests];
+		for (int i = 0; i < requests - 1; i++) {
+			int route = (int) ((long) i * routes / (requests - 1));
+			methods[i] = METHODS[route % METHODS.length];
+			uris[i] = route % 2 == 0 ? "/api/v1/resource" + route + "/42?q=reactor" :
+					"/api/v1/resource" + route + "/42/items/7";
+		}
+		methods[requests - 1] = HttpMethod.GET;
+		uris[requests - 1] = "/api/v2/unknown";
+	}
+
+	@Benchmark
+	public int linear() {
+		int i = next++ & (uris.length - 1);
+		HttpMethod method = methods[i];
+		String uri = uris[i];
+		for (int r = 0; r < predicates.length; r++) {
+			HttpPredicate predicate = predicates[r];
+			if (predicate.method.equals(method) && predicate.template.matches(uri)) {
+				return r;
+			}
+		}
+		return HttpRouteTree.NO_MATCH;
+	}
+
+	@Benchmark
+	public int tree() {
+		int i = next++ & (uris.length - 1);
+		String uri = uris[i];
+		return tree.find(methods[i], uri, HttpRouteTree.pathEnd(uri), HttpRouteTree.NO_MATCH);
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http.server;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Measures a keep-alive HTTP/1.1 request/response served by the pipeline that {@link HttpServer}
+ * configures, i.e. the codec, {@link HttpTrafficHandler}, {@link HttpServerOperations} and the send
+ * path, without the cost of the sockets. The pipeline is installed on an {@link EmbeddedChannel},
+ * the request bytes are written inbound and the response bytes are drained from the outbound queue.
+ * <p>Run with {@code ./gradlew :reactor-netty-benchmarks:jmh -PjmhInclude=HttpServerBenchmark}</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HttpServerBenchmark {
+
+	static final byte[] REQUEST = ("GET /api/v1/resource7/42?q=reactor HTTP/1.1\r\n" +
+			"Host: localhost\r\n" +
+			"User-Agent: reactor-netty-benchmarks\r\n" +
+			"Accept: */*\r\n" +
+			"\r\n").getBytes(StandardCharsets.US_ASCII);
+
+	static final int ROUTES = 20;
+
+	/**
+	 * {@code handle} serves all requests with a single handler, {@code routes} dispatches them
+	 * through {@link HttpServerRoutes} with {@value #ROUTES} templated routes.
+	 */
+	@Param({"handle", "routes"})
+	String dispatch;
+
+	/**
+	 * {@code mono} sends the body as a single buffer, {@code flux} sends it as several buffers.
+	 */
+	@Param({"mono", "flux"})
+	String body;
+
+	@Param({"false", "true"})
+	boolean metrics;
+
+	EmbeddedChannel channel;
+	ByteBuf         request;
+
+	@Setup
+	public void setup() {
+		HttpServer server = HttpServer.create();
+		if (metrics) {
+			server = server.metrics(true, uri -> uri);
+		}
+		if ("routes".equals(dispatch)) {
+			server = server.route(routes -> {
+				for (int i = 0; i < ROUTES; i++) {
+					routes.get("/api/v1/resource" + i + "/{id}", (req, res) -> respond(res));
+				}
+			});
+		}
+		else {
+			server = server.handle((req, res) -> respond(res));
+		}
+
+		HttpServerConfig config = server.configuration();
+		channel = new EmbeddedChannel(config.channelInitializer(config.childObserver(), null, true));
+		request = Unpooled.unreleasableBuffer(Unpooled.directBuffer(REQUEST.length).writeBytes(REQUEST));
+	}
+
+	@TearDown
+	public void tearDown() {
+		channel.finishAndReleaseAll();
+	}
+
+	@Benchmark
+	public int requestResponse() {
+		channel.writeInbound(request.duplicate());
+		channel.runPendingTasks();
+		int bytes = 0;
+		Object msg;
+		while ((msg = channel.readOutbound()) != null) {
+			if (msg instanceof ByteBuf) {
+				bytes += ((ByteBuf) msg).readableBytes();
+			}
+			else if (msg instanceof ByteBufHolder) {
+				bytes += ((ByteBufHolder) msg).content().readableBytes();
+			}
+			ReferenceCountUtil.release(msg);
+		}
+		if (bytes == 0) {
+			throw new IllegalStateException("No response");
+		}
+		return bytes;
+	}
+
+	Publisher<Void> respond(HttpServerResponse res) {
+		res.header("Content-Type", "text/plain")
+		   .header("Content-Length", "12");
+		if ("flux".equals(body)) {
+			return res.sendString(Flux.just("Hello", " ", "World!"));
+		}
+		return res.sendString(Mono.just("Hello World!"));
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http.server;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the recording of the metrics of a served request with the built-in Micrometer
+ * integration, i.e. the calls that {@link HttpServerMetricsHandler} makes once the response is sent,
+ * with the meters either updated directly or accumulated per thread, see
+ * {@link reactor.netty.ReactorNetty#HTTP_METRICS_EVENT_LOOP_LOCAL}.
+ * <p>Run with {@code ./gradlew :reactor-netty-benchmarks:jmh -PjmhInclude=HttpServerMetricsRecorderBenchmark}</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class HttpServerMetricsRecorderBenchmark {
+
+	static final InetSocketAddress REMOTE_ADDRESS = InetSocketAddress.createUnresolved("127.0.0.1", 54321);
+
+	static final Duration TIME = Duration.ofNanos(150_000);
+
+	@Param({"1", "100"})
+	int uris;
+
+	MeterRegistry             registry;
+	HttpServerMetricsRecorder recorder;
+	String[]                  uriTags;
+
+	@Setup
+	public void setup() {
+		registry = new SimpleMeterRegistry();
+		Metrics.addRegistry(registry);
+		recorder = MicrometerHttpServerMetricsRecorder.INSTANCE;
+		uriTags = new String[uris];
+		for (int i = 0; i < uris; i++) {
+			uriTags[i] = "/api/v1/resource" + i + "/{id}";
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		Metrics.removeRegistry(registry);
+		registry.close();
+	}
+
+	@Benchmark
+	@Fork(1)
+	public void record() {
+		recordResponse();
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = "-Dreactor.netty.http.metrics.eventLoopLocal=true")
+	public void recordEventLoopLocal() {
+		recordResponse();
+	}
+
+	void recordResponse() {
+		String uri = uriTags[ThreadLocalRandom.current().nextInt(uriTags.length)];
+		recorder.recordDataReceivedTime(uri, "GET", TIME);
+		recorder.recordDataReceived(REMOTE_ADDRESS, uri, 128);
+		recorder.recordDataSentTime(uri, "GET", "200", TIME);
+		recorder.recordResponseTime(uri, "GET", "200", TIME);
+		recorder.recordDataSent(REMOTE_ADDRESS, uri, 1024);
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.resources;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.netty.Connection;
+import reactor.netty.DisposableServer;
+import reactor.netty.tcp.TcpClient;
+import reactor.netty.tcp.TcpServer;
+
+/**
+ * Measures the acquisition and the release of a pooled connection to a server bound on the
+ * loopback interface. The connections are established during the warmup, so that the measurement
+ * covers only the pool, i.e. the acquisition from the idle connections and the release back to them.
+ * <p>Run with {@code ./gradlew :reactor-netty-benchmarks:jmh -PjmhInclude=PooledConnectionProviderBenchmark}</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class PooledConnectionProviderBenchmark {
+
+	@Param({"16", "500"})
+	int maxConnections;
+
+	DisposableServer   server;
+	ConnectionProvider provider;
+	TcpClient          client;
+
+	@Setup
+	public void setup() {
+		server = TcpServer.create()
+		                  .host("127.0.0.1")
+		                  .port(0)
+		                  .bindNow();
+
+		provider = ConnectionProvider.builder("benchmark")
+		                             .maxConnections(maxConnections)
+		                             .pendingAcquireMaxCount(-1)
+		                             .build();
+
+		client = TcpClient.create(provider)
+		                  .remoteAddress(server::address);
+	}
+
+	@TearDown
+	public void tearDown() {
+		provider.disposeLater()
+		        .block(Duration.ofSeconds(30));
+		server.disposeNow();
+	}
+
+	@Benchmark
+	public Connection acquireRelease() {
+		Connection connection = client.connectNow();
+		// Disposing a pooled connection releases it back to the pool
+		connection.dispose();
+		return connection;
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.loadtest;
+
+import java.security.cert.CertificateException;
+
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.util.SelfSignedCertificate;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.tcp.TcpServer;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_TYPE;
+import static io.netty.handler.codec.http.HttpHeaderValues.APPLICATION_OCTET_STREAM;
+
+/**
+ * The in-process echo servers, equivalent to the ones of {@code reactor-netty-examples}:
+ * {@code reactor.netty.examples.http.echo.EchoServer} ({@code POST /echo}),
+ * {@code reactor.netty.examples.http.websocket.echo.EchoServer} ({@code /ws}) and
+ * {@code reactor.netty.examples.tcp.echo.EchoServer}.
+ */
+final class EchoTargets {
+
+	/**
+	 * Starts the echo server of the given scenario on the loopback interface.
+	 *
+	 * @param scenario the scenario
+	 * @param port the port, {@code 0} for an ephemeral port
+	 * @return the bound server
+	 */
+	static DisposableServer start(LoadTest.Scenario scenario, int port) throws CertificateException {
+		if (scenario == LoadTest.Scenario.TCP) {
+			return TcpServer.create()
+			                .host(LoadTest.LOOPBACK)
+			                .port(port)
+			                .handle((in, out) -> out.send(in.receive().retain()))
+			                .bindNow();
+		}
+
+		HttpServer server =
+				HttpServer.create()
+				          .host(LoadTest.LOOPBACK)
+				          .port(port)
+				          .route(r -> r.post("/echo",
+				                          (req, res) -> res.header(CONTENT_TYPE, APPLICATION_OCTET_STREAM)
+				                                           .send(req.receive().retain()))
+				                       .ws("/ws",
+				                          (in, out) -> out.sendObject(in.receiveFrames()
+				                                                        .map(WebSocketFrame::retain))));
+
+		if (scenario == LoadTest.Scenario.H2C) {
+			server = server.protocol(HttpProtocol.HTTP11, HttpProtocol.H2C);
+		}
+		else if (scenario == LoadTest.Scenario.HTTPS) {
+			SelfSignedCertificate ssc = new SelfSignedCertificate();
+			server = server.secure(
+					spec -> spec.sslContext(SslContextBuilder.forServer(ssc.certificate(), ssc.privateKey())));
+		}
+
+		return server.bindNow();
+	}
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.loadtest;
+
+import java.time.Duration;
+
+import io.netty.buffer.ByteBuf;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Sends each request as a {@code POST /echo} with the payload as body, over pooled connections.
+ */
+final class HttpLoadClient implements LoadClient {
+
+	final ConnectionProvider provider;
+	final HttpClient         client;
+	final ByteBuf            payload;
+	final LatencyRecorder    recorder;
+
+	HttpLoadClient(ConnectionProvider provider, HttpClient client, ByteBuf payload, LatencyRecorder recorder) {
+		this.provider = provider;
+		this.client = client;
+		this.payload = payload;
+		this.recorder = recorder;
+	}
+
+	@Override
+	public void send(long intendedStartNanos, long startNanos) {
+		client.post()
+		      .uri("/echo")
+		      .send(Mono.fromSupplier(payload::retainedDuplicate))
+		      .responseSingle((res, body) -> body.map(ByteBuf::readableBytes))
+		      .subscribe(bytes -> recorder.complete(intendedStartNanos, startNanos),
+		                 error -> recorder.fail());
+	}
+
+	@Override
+	public void dispose() {
+		provider.disposeLater()
+		        .block(Duration.ofSeconds(30));
+	}
+}
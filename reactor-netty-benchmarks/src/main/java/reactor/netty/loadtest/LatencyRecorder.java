@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.loadtest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Records the outcome of the requests issued by the {@link LoadTest}, from any thread.
+ * <p>The latency of a request is measured from the time it was intended to be sent according
+ * to the arrival rate, so that the requests delayed because the load generator or the server
+ * fell behind are accounted for, i.e. it is corrected for the coordinated omission. The service
+ * time is measured from the time the request was actually sent.
+ */
+final class LatencyRecorder {
+
+	static final long HIGHEST_TRACKABLE_VALUE = TimeUnit.MINUTES.toNanos(1);
+
+	final Recorder      latency = new Recorder(HIGHEST_TRACKABLE_VALUE, 3);
+	final Recorder      serviceTime = new Recorder(HIGHEST_TRACKABLE_VALUE, 3);
+	final LongAdder     completed = new LongAdder();
+	final LongAdder     errors = new LongAdder();
+	final LongAdder     rejected = new LongAdder();
+	final AtomicInteger outstanding = new AtomicInteger();
+	final int           maxOutstanding;
+
+	LatencyRecorder(int maxOutstanding) {
+		this.maxOutstanding = maxOutstanding;
+	}
+
+	/**
+	 * Reserves a slot for a request about to be sent.
+	 *
+	 * @return false if there are already {@code maxOutstanding} requests in flight, in which
+	 * case the request is counted as rejected and must not be sent
+	 */
+	boolean tryStart() {
+		if (outstanding.incrementAndGet() > maxOutstanding) {
+			outstanding.decrementAndGet();
+			rejected.increment();
+			return false;
+		}
+		return true;
+	}
+
+	void complete(long intendedStartNanos, long startNanos) {
+		long now = System.nanoTime();
+		latency.recordValue(Math.min(now - intendedStartNanos, HIGHEST_TRACKABLE_VALUE));
+		serviceTime.recordValue(Math.min(now - startNanos, HIGHEST_TRACKABLE_VALUE));
+		completed.increment();
+		outstanding.decrementAndGet();
+	}
+
+	void fail() {
+		errors.increment();
+		outstanding.decrementAndGet();
+	}
+
+	/**
+	 * Discards what was recorded so far, e.g. during the warmup.
+	 */
+	void reset() {
+		latency.reset();
+		serviceTime.reset();
+		completed.reset();
+		errors.reset();
+		rejected.reset();
+	}
+
+	Histogram latencyHistogram() {
+		return latency.getIntervalHistogram();
+	}
+
+	Histogram serviceTimeHistogram() {
+		return serviceTime.getIntervalHistogram();
+	}
+}
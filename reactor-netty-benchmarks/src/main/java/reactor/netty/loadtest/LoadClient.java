@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.loadtest;
+
+import reactor.core.Disposable;
+
+/**
+ * Sends the echo requests of a {@link LoadTest} scenario.
+ */
+interface LoadClient extends Disposable {
+
+	/**
+	 * Sends a request and reports its outcome to the {@link LatencyRecorder} of the client.
+	 * This method must not block, it is invoked by the single thread that paces the requests.
+	 *
+	 * @param intendedStartNanos the time when the request was intended to be sent
+	 * @param startNanos the time when the request is actually sent
+	 */
+	void send(long intendedStartNanos, long startNanos);
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.loadtest;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import org.HdrHistogram.Histogram;
+import reactor.netty.Connection;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.tcp.TcpClient;
+
+/**
+ * A load generator that sends echo requests at a fixed arrival rate over the loopback interface
+ * and reports the throughput, the latency distribution and the allocation rate per request.
+ * <p>The target is either an in-process echo server started for the scenario, see {@link EchoTargets},
+ * or one of the echo servers of {@code reactor-netty-examples} started separately, e.g.
+ * {@code reactor.netty.examples.http.echo.EchoServer} for the {@code http11} scenario.
+ * <p>The configuration is read from the following system properties:
+ * <ul>
+ *     <li>{@code loadtest.scenario} - {@code http11} (keep-alive), {@code h2c} (multiplexed streams),
+ *     {@code https}, {@code websocket} or {@code tcp}, fallback to {@code http11}</li>
+ *     <li>{@code loadtest.embedded} - whether to start the in-process echo server, fallback to {@code true}</li>
+ *     <li>{@code loadtest.host} and {@code loadtest.port} - the address of the echo server when it is
+ *     not embedded, fallback to {@code 127.0.0.1} and {@code 8080}</li>
+ *     <li>{@code loadtest.rate} - the number of requests per second, fallback to {@code 10000}</li>
+ *     <li>{@code loadtest.warmup} and {@code loadtest.duration} - the duration of the warmup and
+ *     of the measurement in seconds, fallback to {@code 10} and {@code 30}</li>
+ *     <li>{@code loadtest.connections} - the maximum number of connections, fallback to {@code 16}</li>
+ *     <li>{@code loadtest.payload} - the size of the echoed payload in bytes, fallback to {@code 256}</li>
+ *     <li>{@code loadtest.maxOutstanding} - the maximum number of requests in flight, above which
+ *     the requests are rejected instead of sent, fallback to {@code 10000}</li>
+ *     <li>{@code loadtest.histogram} - the file where to write the latency distribution in the
+ *     HdrHistogram percentile format, in microseconds, not written by default</li>
+ * </ul>
+ * <p>Run with {@code ./gradlew :reactor-netty-benchmarks:loadTest -Dloadtest.scenario=h2c -Dloadtest.rate=20000}</p>
+ */
+public final class LoadTest {
+
+	static final String LOOPBACK = "127.0.0.1";
+
+	static final Scenario SCENARIO =
+			Scenario.valueOf(System.getProperty("loadtest.scenario", "http11").toUpperCase(Locale.ROOT));
+	static final boolean EMBEDDED = Boolean.parseBoolean(System.getProperty("loadtest.embedded", "true"));
+	static final String HOST = System.getProperty("loadtest.host", LOOPBACK);
+	static final int PORT = Integer.parseInt(System.getProperty("loadtest.port", EMBEDDED ? "0" : "8080"));
+	static final double RATE = Double.parseDouble(System.getProperty("loadtest.rate", "10000"));
+	static final long WARMUP = Long.parseLong(System.getProperty("loadtest.warmup", "10"));
+	static final long DURATION = Long.parseLong(System.getProperty("loadtest.duration", "30"));
+	static final int CONNECTIONS = Integer.parseInt(System.getProperty("loadtest.connections", "16"));
+	static final int PAYLOAD = Integer.parseInt(System.getProperty("loadtest.payload", "256"));
+	static final int MAX_OUTSTANDING = Integer.parseInt(System.getProperty("loadtest.maxOutstanding", "10000"));
+	static final String HISTOGRAM = System.getProperty("loadtest.histogram");
+
+	enum Scenario {
+		HTTP11, H2C, HTTPS, WEBSOCKET, TCP
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (RATE <= 0 || CONNECTIONS <= 0 || PAYLOAD <= 0 || MAX_OUTSTANDING <= 0) {
+			throw new IllegalArgumentException("loadtest.rate, loadtest.connections, loadtest.payload and " +
+					"loadtest.maxOutstanding must be strictly positive");
+		}
+
+		DisposableServer server = EMBEDDED ? EchoTargets.start(SCENARIO, PORT) : null;
+		SocketAddress address = server != null ? server.address() : new InetSocketAddress(HOST, PORT);
+
+		byte[] bytes = new byte[PAYLOAD];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) ('a' + i % 26);
+		}
+		ByteBuf payload = Unpooled.unreleasableBuffer(Unpooled.directBuffer(PAYLOAD).writeBytes(bytes));
+
+		LatencyRecorder recorder = new LatencyRecorder(MAX_OUTSTANDING);
+		LoadClient client = client(address, payload, recorder);
+		try {
+			System.out.printf(Locale.ROOT, "Scenario %s against %s (%s), %.0f requests/s, %d connections, %d bytes payload%n",
+					SCENARIO, address, server != null ? "embedded" : "remote", RATE, CONNECTIONS, PAYLOAD);
+
+			drive(client, recorder, TimeUnit.SECONDS.toNanos(WARMUP));
+			awaitOutstanding(recorder);
+			recorder.reset();
+
+			long allocatedBefore = allocatedBytes();
+			long start = System.nanoTime();
+			drive(client, recorder, TimeUnit.SECONDS.toNanos(DURATION));
+			long elapsed = System.nanoTime() - start;
+			boolean drained = awaitOutstanding(recorder);
+			long allocated = allocatedBytes() - allocatedBefore;
+
+			report(recorder, elapsed, drained, allocatedBefore != -1 ? allocated : -1);
+		}
+		finally {
+			client.dispose();
+			if (server != null) {
+				server.disposeNow();
+			}
+		}
+	}
+
+	static LoadClient client(SocketAddress address, ByteBuf payload, LatencyRecorder recorder) throws InterruptedException {
+		switch (SCENARIO) {
+			case HTTP11:
+			case H2C:
+			case HTTPS:
+				ConnectionProvider provider = ConnectionProvider.builder("loadtest")
+				                                                .maxConnections(CONNECTIONS)
+				                                                .pendingAcquireMaxCount(-1)
+				                                                .build();
+				HttpClient client = HttpClient.create(provider)
+				                              .remoteAddress(() -> address);
+				if (SCENARIO == Scenario.H2C) {
+					client = client.protocol(HttpProtocol.H2C);
+				}
+				else if (SCENARIO == Scenario.HTTPS) {
+					client = client.secure(spec -> spec.sslContext(
+							SslContextBuilder.forClient().trustManager(InsecureTrustManagerFactory.INSTANCE)));
+				}
+				return new HttpLoadClient(provider, client, payload, recorder);
+			case WEBSOCKET:
+				return new StreamLoadClient(websocketSessions(address, payload, recorder));
+			case TCP:
+				List<StreamLoadClient.Session> sessions = new CopyOnWriteArrayList<>();
+				for (int i = 0; i < CONNECTIONS; i++) {
+					Connection connection = TcpClient.newConnection()
+					                                 .remoteAddress(() -> address)
+					                                 .connectNow();
+					StreamLoadClient.Session session = new StreamLoadClient.Session(connection, payload, false, recorder);
+					connection.inbound()
+					          .receive()
+					          .subscribe(buf -> session.received(buf.readableBytes()));
+					sessions.add(session);
+				}
+				return new StreamLoadClient(sessions);
+			default:
+				throw new IllegalArgumentException("Unknown scenario " + SCENARIO);
+		}
+	}
+
+	static List<StreamLoadClient.Session> websocketSessions(SocketAddress address, ByteBuf payload,
+			LatencyRecorder recorder) throws InterruptedException {
+		List<StreamLoadClient.Session> sessions = new CopyOnWriteArrayList<>();
+		CountDownLatch connected = new CountDownLatch(CONNECTIONS);
+		HttpClient client = HttpClient.newConnection()
+		                              .remoteAddress(() -> address);
+		for (int i = 0; i < CONNECTIONS; i++) {
+			client.websocket()
+			      .uri("/ws")
+			      .handle((in, out) -> {
+			          StreamLoadClient.Session[] session = new StreamLoadClient.Session[1];
+			          in.withConnection(connection -> {
+			              session[0] = new StreamLoadClient.Session(connection, payload, true, recorder);
+			              sessions.add(session[0]);
+			              connected.countDown();
+			          });
+			          return in.receiveFrames()
+			                   .doOnNext(frame -> session[0].received(frame.content().readableBytes()))
+			                   .then();
+			      })
+			      .subscribe();
+		}
+		if (!connected.await(30, TimeUnit.SECONDS)) {
+			throw new IllegalStateException("Only " + sessions.size() + " WebSocket connections were established");
+		}
+		return sessions;
+	}
+
+	/**
+	 * Sends the requests at the configured rate during the given duration. The intended start time
+	 * of each request is computed from the start of the run, a request that is sent late because the
+	 * previous ones took too long keeps its intended start time.
+	 */
+	static void drive(LoadClient client, LatencyRecorder recorder, long durationNanos) {
+		double intervalNanos = TimeUnit.SECONDS.toNanos(1) / RATE;
+		long start = System.nanoTime();
+		for (long i = 0; ; i++) {
+			long intendedStart = start + (long) (i * intervalNanos);
+			if (intendedStart - start >= durationNanos) {
+				return;
+			}
+			long now = System.nanoTime();
+			while (now < intendedStart) {
+				LockSupport.parkNanos(intendedStart - now);
+				now = System.nanoTime();
+			}
+			if (recorder.tryStart()) {
+				client.send(intendedStart, now);
+			}
+		}
+	}
+
+	static boolean awaitOutstanding(LatencyRecorder recorder) {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		while (recorder.outstanding.get() > 0) {
+			if (System.nanoTime() - deadline > 0) {
+				return false;
+			}
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the number of bytes allocated so far by the live threads of this JVM, i.e. including
+	 * the embedded server, or {@code -1} when the JVM cannot report it.
+	 */
+	static long allocatedBytes() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+			return -1;
+		}
+		com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+		if (!allocations.isThreadAllocatedMemorySupported() || !allocations.isThreadAllocatedMemoryEnabled()) {
+			return -1;
+		}
+		long total = 0;
+		for (long allocated : allocations.getThreadAllocatedBytes(allocations.getAllThreadIds())) {
+			if (allocated > 0) {
+				total += allocated;
+			}
+		}
+		return total;
+	}
+
+	static void report(LatencyRecorder recorder, long elapsedNanos, boolean drained, long allocated) throws IOException {
+		Histogram latency = recorder.latencyHistogram();
+		Histogram serviceTime = recorder.serviceTimeHistogram();
+		long completed = recorder.completed.sum();
+
+		System.out.printf(Locale.ROOT, "Requests: %d completed, %d failed, %d rejected, %d outstanding%s%n",
+				completed, recorder.errors.sum(), recorder.rejected.sum(), recorder.outstanding.get(),
+				drained ? "" : " (timed out)");
+		System.out.printf(Locale.ROOT, "Throughput: %.1f requests/s%n",
+				completed / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1)));
+		print("Latency", latency);
+		print("Service time", serviceTime);
+		if (allocated != -1 && completed > 0) {
+			System.out.printf(Locale.ROOT, "Allocation: %d bytes/request%n", allocated / completed);
+		}
+
+		if (HISTOGRAM != null) {
+			try (PrintStream out = new PrintStream(new FileOutputStream(HISTOGRAM), false, "UTF-8")) {
+				latency.outputPercentileDistribution(out, 1000.0);
+			}
+		}
+	}
+
+	static void print(String name, Histogram histogram) {
+		System.out.printf(Locale.ROOT, "%s (us): p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n",
+				name,
+				histogram.getValueAtPercentile(50) / 1000.0,
+				histogram.getValueAtPercentile(90) / 1000.0,
+				histogram.getValueAtPercentile(99) / 1000.0,
+				histogram.getValueAtPercentile(99.9) / 1000.0,
+				histogram.getMaxValue() / 1000.0);
+	}
+}
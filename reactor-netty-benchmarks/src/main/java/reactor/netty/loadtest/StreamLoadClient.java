@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.loadtest;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import reactor.netty.Connection;
+
+/**
+ * Sends each request as a message over one of several long-lived connections, i.e. as a binary
+ * frame over a WebSocket connection or as raw bytes over a TCP connection. The echo server
+ * preserves the order of the messages on a connection, so the responses are matched with the
+ * requests in order.
+ */
+final class StreamLoadClient implements LoadClient {
+
+	final List<Session> sessions;
+	final AtomicInteger next = new AtomicInteger();
+
+	StreamLoadClient(List<Session> sessions) {
+		this.sessions = sessions;
+	}
+
+	@Override
+	public void send(long intendedStartNanos, long startNanos) {
+		Session session = sessions.get((next.getAndIncrement() & Integer.MAX_VALUE) % sessions.size());
+		session.send(intendedStartNanos, startNanos);
+	}
+
+	@Override
+	public void dispose() {
+		for (Session session : sessions) {
+			session.connection.dispose();
+		}
+	}
+
+	/**
+	 * A connection and the requests waiting for their response, in the order they were sent.
+	 */
+	static final class Session {
+
+		final Connection      connection;
+		final ByteBuf         payload;
+		final boolean         websocket;
+		final LatencyRecorder recorder;
+		final Queue<long[]>   pending = new ArrayDeque<>();
+
+		/**
+		 * The number of bytes of the response being received, a TCP response may be split
+		 * in several reads or share a read with the next response
+		 */
+		long received;
+
+		Session(Connection connection, ByteBuf payload, boolean websocket, LatencyRecorder recorder) {
+			this.connection = connection;
+			this.payload = payload;
+			this.websocket = websocket;
+			this.recorder = recorder;
+		}
+
+		void send(long intendedStartNanos, long startNanos) {
+			Channel channel = connection.channel();
+			long[] request = {intendedStartNanos, startNanos};
+			channel.eventLoop().execute(() -> {
+				pending.add(request);
+				channel.writeAndFlush(websocket ? new BinaryWebSocketFrame(payload.retainedDuplicate()) :
+						payload.retainedDuplicate())
+				       .addListener(f -> {
+				           if (!f.isSuccess()) {
+				               pending.remove(request);
+				               recorder.fail();
+				           }
+				       });
+			});
+		}
+
+		/**
+		 * Invoked on the event loop of the connection when a message or some bytes are received.
+		 */
+		void received(int bytes) {
+			if (websocket) {
+				complete();
+				return;
+			}
+			received += bytes;
+			int size = payload.readableBytes();
+			while (received >= size) {
+				received -= size;
+				complete();
+			}
+		}
+
+		void complete() {
+			long[] request = pending.poll();
+			if (request != null) {
+				recorder.complete(request[0], request[1]);
+			}
+		}
+	}
+}
@@ -122,6 +122,18 @@ public class Metrics {
 	 */
 	public static final String RESPONSE_TIME = ".response.time";
 
+	/**
+	 * Number of the uri tag values replaced with {@link #OVERFLOW} because the maximum number of uri tags was reached
+	 */
+	public static final String URI_TAGS_COLLAPSED = ".uri.tags.collapsed";
+
+
+	// AccessLog Metrics
+	/**
+	 * Number of the access log records dropped because the appender queue was full
+	 */
+	public static final String ACCESS_LOG_DROPPED = ".access.log.dropped";
+
 
 	// AddressResolverGroup Metrics
 	/**
@@ -218,6 +230,8 @@ public class Metrics {
 
 	public static final String ERROR = "ERROR";
 
+	public static final String OVERFLOW = "OVERFLOW";
+
 
 	@Nullable
 	public static String formatSocketAddress(@Nullable SocketAddress socketAddress) {
@@ -35,7 +35,6 @@ import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.DefaultFileRegion;
-import io.netty.handler.stream.ChunkedNioFile;
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
 import reactor.core.Exceptions;
@@ -167,7 +166,7 @@ public interface NettyOutbound extends Publisher<Void> {
 					if (ReactorNetty.mustChunkFileTransfer(c, file)) {
 						ReactorNetty.addChunkedWriter(c);
 						try {
-							return new ChunkedNioFile(fc, position, count, 1024);
+							return ReactorNetty.chunkedFile(c, fc, position, count, false);
 						}
 						catch (Exception ioe) {
 							throw Exceptions.propagate(ioe);
@@ -178,6 +177,42 @@ public interface NettyOutbound extends Publisher<Void> {
 				ReactorNetty.fileCloser);
 	}
 
+	/**
+	 * Sends content from the given {@link FileChannel}, already opened for the given {@link Path}, with the same
+	 * zero-byte copy and chunked read/write rules as {@link #sendFile(Path, long, long)}.
+	 * The {@link FileChannel} is not closed once the content is sent, so that it can be shared by
+	 * concurrent transfers, it must remain open until the returned {@link NettyOutbound} terminates.
+	 * <p>Note: Nesting any send* method is not supported.</p>
+	 *
+	 * @param file the file Path
+	 * @param channel the {@link FileChannel} opened for the file Path
+	 * @param position where to start
+	 * @param count how much to transfer
+	 *
+	 * @return A Publisher to signal successful sequence write (e.g. after "flush") or any
+	 * error during write
+	 * @since 1.0.0
+	 */
+	default NettyOutbound sendFile(Path file, FileChannel channel, long position, long count) {
+		Objects.requireNonNull(file, "filepath");
+		Objects.requireNonNull(channel, "channel");
+
+		return sendUsing(() -> channel,
+				(c, fc) -> {
+					if (ReactorNetty.mustChunkFileTransfer(c, file)) {
+						ReactorNetty.addChunkedWriter(c);
+						try {
+							return ReactorNetty.chunkedFile(c, fc, position, count, true);
+						}
+						catch (Exception ioe) {
+							throw Exceptions.propagate(ioe);
+						}
+					}
+					return new ReactorNetty.SharedFileRegion(fc, position, count);
+				},
+				fc -> {});
+	}
+
 	/**
 	 * Sends content from given {@link Path} using chunked read/write. <p>It will listen
 	 * for any error on write and close on terminal signal (complete|error). If more than
@@ -199,7 +234,7 @@ public interface NettyOutbound extends Publisher<Void> {
 				(c, fc) -> {
 					ReactorNetty.addChunkedWriter(c);
 					try {
-						return new ChunkedNioFile(fc, position, count, 1024);
+						return ReactorNetty.chunkedFile(c, fc, position, count, false);
 					}
 					catch (Exception e) {
 						throw Exceptions.propagate(e);
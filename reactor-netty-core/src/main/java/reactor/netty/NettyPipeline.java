@@ -42,6 +42,7 @@ import io.netty.channel.ChannelInboundHandler;
  * -> http/1.1 decompressor ? [HttpDecompressor]
  * -> h2 to http/1.1 codec ? [H2ToHttp11Codec]
  * -> http traffic handler ? [HttpTrafficHandler]
+ * -> http pipelining handler ? [HttpPipeliningHandler]
  * -> http metrics ? [HttpMetricsHandler]
  * -> http form/multipart/send file ? [ChunkedWriter]
  * -> request timeout handler ? [RequestTimeoutHandler]
@@ -99,6 +100,7 @@ public interface NettyPipeline {
 	String HttpCodec             = LEFT + "httpCodec";
 	String HttpDecompressor      = LEFT + "httpDecompressor";
 	String HttpMetricsHandler    = LEFT + "httpMetricsHandler";
+	String HttpPipeliningHandler = LEFT + "httpPipeliningHandler";
 	String HttpTrafficHandler    = LEFT + "httpTrafficHandler";
 	String LoggingHandler        = LEFT + "loggingHandler";
 	String OnChannelReadIdle     = LEFT + "onChannelReadIdle";
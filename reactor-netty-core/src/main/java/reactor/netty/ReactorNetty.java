@@ -15,7 +15,9 @@
  */
 package reactor.netty;
 
+import java.io.IOException;
 import java.net.SocketAddress;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.util.Objects;
@@ -37,8 +39,12 @@ import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.ChannelPipeline;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.ServerChannel;
 import io.netty.channel.nio.NioEventLoop;
 import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedInput;
+import io.netty.handler.stream.ChunkedNioFile;
 import io.netty.handler.stream.ChunkedWriteHandler;
 import io.netty.handler.timeout.IdleState;
 import io.netty.handler.timeout.IdleStateEvent;
@@ -52,6 +58,7 @@ import reactor.core.publisher.BaseSubscriber;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.SignalType;
+import reactor.netty.channel.ChannelOperations;
 import reactor.util.Logger;
 import reactor.util.Loggers;
 import reactor.util.annotation.Nullable;
@@ -149,6 +156,18 @@ public final class ReactorNetty {
 	 * fallback to SSL debugging disabled
 	 */
 	public static final String SSL_SERVER_DEBUG = "reactor.netty.tcp.ssl.server.debug";
+	/**
+	 * Specifies the size of the chunks read from a file when it cannot be sent with zero-byte copy,
+	 * e.g. with SSL/TLS, compression or HTTP/2. By default it is chosen for each connection, the maximum
+	 * TLS record size with SSL/TLS or HTTP/2, 8 KiB otherwise, capped to half the write buffer high water mark.
+	 */
+	public static final String FILE_CHUNK_SIZE = "reactor.netty.file.chunkSize";
+	/**
+	 * Specifies whether the chunks of a file that cannot be sent with zero-byte copy will be sliced from
+	 * a memory mapping of the file, instead of being read into buffers. A mapping is released when it is garbage
+	 * collected. By default it is disabled.
+	 */
+	public static final String FILE_MEMORY_MAPPED = "reactor.netty.file.memoryMapped";
 
 
 	/**
@@ -156,6 +175,96 @@ public final class ReactorNetty {
 	 * By default it is disabled.
 	 */
 	public static final String ACCESS_LOG_ENABLED = "reactor.netty.http.server.accessLogEnabled";
+	/**
+	 * Specifies the destination of the Http Server access log, either a file path or {@code stdout}.
+	 * When specified, the access log records are encoded on the event loop and written by a
+	 * dedicated background appender instead of the {@code reactor.netty.http.server.AccessLog} logger.
+	 * By default it is not specified.
+	 */
+	public static final String ACCESS_LOG_FILE = "reactor.netty.http.server.accessLogFile";
+	/**
+	 * Default number of access log records waiting to be written by the background appender,
+	 * fallback to 65536. The records that do not fit are dropped.
+	 */
+	public static final String ACCESS_LOG_QUEUE_SIZE = "reactor.netty.http.server.accessLogQueueSize";
+	/**
+	 * Specifies the comma separated addresses and networks in CIDR notation, such as {@code 10.0.0.0/8},
+	 * of the proxies allowed to send the {@code Forwarded}/{@code X-Forwarded-*} headers to an Http Server
+	 * with {@code forwarded(true)}. When specified, the headers of the other peers are ignored and the client is
+	 * the first address of the chain of proxies, from the right, that is not trusted.
+	 * By default it is not specified and the client is the first address of the chain.
+	 */
+	public static final String FORWARDED_TRUSTED_PROXIES = "reactor.netty.http.server.forwardedTrustedProxies";
+	/**
+	 * Specifies whether the Http Server and Http Client Micrometer metrics will be accumulated per event loop
+	 * and merged into function meters when they are scraped, instead of being recorded in shared meters.
+	 * The timers then provide only the count and the total time, and the data received/sent meters are counters.
+	 * By default it is disabled.
+	 */
+	public static final String HTTP_METRICS_EVENT_LOOP_LOCAL = "reactor.netty.http.metrics.eventLoopLocal";
+	/**
+	 * Default maximum number of distinct uri tag values per Http Server and Http Client Micrometer recorder,
+	 * fallback to 1000. Once reached, the idle uri tag values are evicted together with their meters,
+	 * and the new ones are replaced with {@link reactor.netty.Metrics#OVERFLOW}.
+	 */
+	public static final String HTTP_METRICS_MAX_URI_TAGS = "reactor.netty.http.metrics.maxUriTags";
+	/**
+	 * Default time in milliseconds after which an unused uri tag value can be evicted together with its meters,
+	 * fallback to 600000 (10 minutes).
+	 */
+	public static final String HTTP_METRICS_URI_TAG_IDLE_TIMEOUT = "reactor.netty.http.metrics.uriTagIdleTimeout";
+	/**
+	 * Default maximum number of open files kept by the Http Server static file handler,
+	 * fallback to 1024. When 0, the files are opened for each request.
+	 */
+	public static final String STATIC_FILE_CACHE_SIZE = "reactor.netty.http.server.staticFileCacheSize";
+	/**
+	 * Default time in milliseconds during which the metadata of a file kept by the Http Server static file handler
+	 * is not checked for changes, fallback to 1000.
+	 */
+	public static final String STATIC_FILE_CACHE_VALIDITY = "reactor.netty.http.server.staticFileCacheValidity";
+	/**
+	 * Default whether the Http Server static file handler serves the {@code .br} and {@code .gz} sidecar files
+	 * of a file to the clients accepting these encodings, fallback to false.
+	 */
+	public static final String STATIC_FILE_PRECOMPRESSED = "reactor.netty.http.server.staticFilePrecompressed";
+	/**
+	 * Default directory where the Http Server static file handler compresses with gzip the files without
+	 * {@code .gz} sidecar file on their first request. When set, the sidecar files are served too.
+	 */
+	public static final String STATIC_FILE_COMPRESSION_CACHE = "reactor.netty.http.server.staticFileCompressionCache";
+	/**
+	 * Default maximum number of {@code scheme://host[:port]} kept by the Http Client with their parsed
+	 * scheme, host, port and remote address, fallback to 256. When 0, the urls are parsed for each request.
+	 */
+	public static final String HTTP_CLIENT_URI_ENDPOINT_CACHE_SIZE = "reactor.netty.http.client.uriEndpointCacheSize";
+	/**
+	 * Default percentage of the maximum concurrent streams of an HTTP/2 connection above which
+	 * the Http Client prefers opening a new connection, fallback to 100. The streams are opened on the
+	 * least loaded connection below this mark.
+	 */
+	public static final String HTTP2_STREAMS_HIGH_WATER_MARK = "reactor.netty.http2.streamsHighWaterMark";
+	/**
+	 * Default maximum number of HTTP/2 stream acquisitions waiting for a connection below the high-water mark
+	 * when the maximum number of HTTP/2 connections is reached, fallback to -1 (no limit).
+	 */
+	public static final String HTTP2_PENDING_STREAMS_MAX_COUNT = "reactor.netty.http2.pendingStreamsMaxCount";
+	/**
+	 * Default maximum number of streams opened by the Http Client on an HTTP/2 connection, fallback to -1 (no limit).
+	 * Once reached, no more streams are opened on the connection, which is closed when its active streams complete.
+	 */
+	public static final String HTTP2_MAX_STREAMS_PER_CONNECTION = "reactor.netty.http2.maxStreamsPerConnection";
+	/**
+	 * Default maximum age in milliseconds of an HTTP/2 connection used by the Http Client, fallback to -1 (no limit).
+	 * Once reached, no more streams are opened on the connection, which is closed when its active streams complete.
+	 */
+	public static final String HTTP2_MAX_CONNECTION_AGE = "reactor.netty.http2.maxConnectionAge";
+	/**
+	 * Default maximum number of concurrent websocket sessions keeping their compression context between messages,
+	 * fallback to -1 (no limit). Above, the sessions negotiate {@code no_context_takeover} and release
+	 * their compression context after each message.
+	 */
+	public static final String WEBSOCKET_MAX_CONTEXT_TAKEOVER_SESSIONS = "reactor.netty.websocket.maxContextTakeoverSessions";
 
 
 	/**
@@ -336,18 +445,78 @@ public final class ReactorNetty {
 		}
 	}
 
+	/**
+	 * Returns the input reading the given region of a file in chunks, for the connections where
+	 * it cannot be sent with zero-byte copy.
+	 *
+	 * @param c the connection
+	 * @param fc the file channel
+	 * @param position where to start
+	 * @param count how much to transfer
+	 * @param shared whether the file channel is owned by the caller and must not be closed
+	 * @return the input reading the file in chunks
+	 * @throws IOException when the file cannot be read
+	 * @see #FILE_CHUNK_SIZE
+	 * @see #FILE_MEMORY_MAPPED
+	 */
+	static ChunkedInput<ByteBuf> chunkedFile(Connection c, FileChannel fc, long position, long count, boolean shared)
+			throws IOException {
+		int chunkSize = fileChunkSize(c);
+		if (FILE_MAPPED && count <= Integer.MAX_VALUE) {
+			try {
+				return new MappedChunkedFile(fc.map(FileChannel.MapMode.READ_ONLY, position, count), chunkSize);
+			}
+			catch (UnsupportedOperationException e) {
+				// the file system does not support memory mapping, read the chunks instead
+			}
+		}
+		return shared ? new SharedChunkedNioFile(fc, position, count, chunkSize) :
+				new ChunkedNioFile(fc, position, count, chunkSize);
+	}
+
+	/**
+	 * Returns the size of the chunks read from a file. A chunk fills a TLS record or an HTTP/2 DATA frame
+	 * of the default maximum size, and never makes the channel unwritable on its own.
+	 *
+	 * @param c the connection
+	 * @return the size of the chunks
+	 */
+	static int fileChunkSize(Connection c) {
+		if (FILE_CHUNK_SIZE_VALUE > 0) {
+			return FILE_CHUNK_SIZE_VALUE;
+		}
+		Channel channel = c.channel();
+		Channel parent = channel.parent();
+		int chunkSize = channel.pipeline().get(SslHandler.class) != null ||
+				(isMultiplexed(channel) && (parent.pipeline().get(NettyPipeline.H2MultiplexHandler) != null ||
+						parent.pipeline().get(SslHandler.class) != null)) ?
+				MAX_TLS_RECORD_SIZE : DEFAULT_FILE_CHUNK_SIZE;
+		return Math.max(MIN_FILE_CHUNK_SIZE,
+				Math.min(chunkSize, channel.config().getWriteBufferHighWaterMark() / 2));
+	}
+
 	static boolean mustChunkFileTransfer(Connection c, Path file) {
-		// if channel multiplexing a parent channel as an http2 stream
-		if (c.channel().parent() != null && c.channel().parent().pipeline().get(NettyPipeline.H2MultiplexHandler) != null) {
+		// if channel multiplexing a parent channel as an http2 stream or a pipelined http/1.1 request
+		if (isMultiplexed(c.channel())) {
 			return true;
 		}
 		ChannelPipeline p = c.channel().pipeline();
 		return p.get(SslHandler.class) != null  ||
-				p.get(NettyPipeline.CompressionHandler) != null ||
+				(p.get(NettyPipeline.CompressionHandler) != null &&
+						!(c instanceof ChannelOperations && ((ChannelOperations<?, ?>) c).isContentEncoded())) ||
 				(!(c.channel().eventLoop() instanceof NioEventLoop) &&
 						!"file".equals(file.toUri().getScheme()));
 	}
 
+	/**
+	 * Returns whether the channel multiplexes its parent connection, such as an HTTP/2 stream,
+	 * rather than being a connection accepted by a server channel.
+	 */
+	static boolean isMultiplexed(Channel channel) {
+		Channel parent = channel.parent();
+		return parent != null && !(parent instanceof ServerChannel);
+	}
+
 	static void registerForClose(boolean shouldCleanupOnClose,
 			String name,
 			Connection context) {
@@ -747,6 +916,88 @@ public final class ReactorNetty {
 		}
 	};
 
+	/**
+	 * A {@link ChunkedInput} slicing the chunks from a memory mapping of a file region.
+	 */
+	static final class MappedChunkedFile implements ChunkedInput<ByteBuf> {
+
+		final ByteBuf content;
+		final int chunkSize;
+
+		MappedChunkedFile(MappedByteBuffer mapped, int chunkSize) {
+			this.content = Unpooled.wrappedBuffer(mapped);
+			this.chunkSize = chunkSize;
+		}
+
+		@Override
+		public boolean isEndOfInput() {
+			return !content.isReadable();
+		}
+
+		@Override
+		public void close() {
+			content.release();
+		}
+
+		@Override
+		@Deprecated
+		public ByteBuf readChunk(ChannelHandlerContext ctx) {
+			return readChunk(ctx.alloc());
+		}
+
+		@Override
+		@Nullable
+		public ByteBuf readChunk(ByteBufAllocator allocator) {
+			if (!content.isReadable()) {
+				return null;
+			}
+			return content.readRetainedSlice(Math.min(chunkSize, content.readableBytes()));
+		}
+
+		@Override
+		public long length() {
+			return content.writerIndex();
+		}
+
+		@Override
+		public long progress() {
+			return content.readerIndex();
+		}
+	}
+
+	/**
+	 * A {@link DefaultFileRegion} over a {@link FileChannel} owned by the caller, which is
+	 * not closed when the region is released.
+	 */
+	static final class SharedFileRegion extends DefaultFileRegion {
+
+		SharedFileRegion(FileChannel file, long position, long count) {
+			super(file, position, count);
+		}
+
+		@Override
+		protected void deallocate() {
+			// the file channel is closed by its owner
+		}
+	}
+
+	/**
+	 * A {@link ChunkedNioFile} over a {@link FileChannel} owned by the caller, which is
+	 * not closed when the input is closed. The chunks are read with positional reads
+	 * so that the {@link FileChannel} can be shared by concurrent transfers.
+	 */
+	static final class SharedChunkedNioFile extends ChunkedNioFile {
+
+		SharedChunkedNioFile(FileChannel in, long offset, long length, int chunkSize) throws IOException {
+			super(in, offset, length, chunkSize);
+		}
+
+		@Override
+		public void close() {
+			// the file channel is closed by its owner
+		}
+	}
+
 	/**
 	 * A handler that can be used to extract {@link ByteBuf} out of {@link ByteBufHolder},
 	 * optionally also outputting additional messages
@@ -907,6 +1158,16 @@ public final class ReactorNetty {
 	};
 
 
+	static final int FILE_CHUNK_SIZE_VALUE = Integer.parseInt(System.getProperty(FILE_CHUNK_SIZE, "-1"));
+
+	static final boolean FILE_MAPPED = Boolean.parseBoolean(System.getProperty(FILE_MEMORY_MAPPED, "false"));
+
+	static final int MAX_TLS_RECORD_SIZE = 16 * 1024;
+
+	static final int DEFAULT_FILE_CHUNK_SIZE = 8 * 1024;
+
+	static final int MIN_FILE_CHUNK_SIZE = 1024;
+
 	static final Predicate<ByteBuf>        PREDICATE_BB_FLUSH    = b -> false;
 
 	static final Predicate<Object>         PREDICATE_FLUSH       = o -> false;
@@ -27,12 +27,15 @@ import reactor.util.annotation.Nullable;
 
 import java.net.SocketAddress;
 import java.time.Duration;
+import java.util.function.LongConsumer;
 
 import static reactor.netty.Metrics.ERROR;
 import static reactor.netty.Metrics.SUCCESS;
 
 /**
  * {@link ChannelHandler} for collecting metrics on protocol level.
+ * <p>The received and sent bytes are accumulated per connection and recorded once per read
+ * batch, i.e. on {@code channelReadComplete}, and once per flush, instead of once per buffer.
  *
  * @author Violeta Georgieva
  */
@@ -43,6 +46,21 @@ public class ChannelMetricsHandler extends ChannelDuplexHandler {
 
 	final boolean onServer;
 
+	long dataReceived;
+
+	long dataSent;
+
+	/**
+	 * The data received meter, resolved once per connection when supported by the recorder
+	 */
+	LongConsumer dataReceivedRecorder;
+
+	/**
+	 * The data sent meter, resolved once per connection when supported by the recorder
+	 */
+	LongConsumer dataSentRecorder;
+
+	boolean metersResolved;
 
 	ChannelMetricsHandler(ChannelMetricsRecorder recorder, @Nullable SocketAddress remoteAddress, boolean onServer) {
 		this.recorder = recorder;
@@ -65,46 +83,55 @@ public class ChannelMetricsHandler extends ChannelDuplexHandler {
 	@Override
 	public void channelRead(ChannelHandlerContext ctx, Object msg) {
 		if (msg instanceof ByteBuf) {
-			ByteBuf buffer = (ByteBuf) msg;
-			if (buffer.readableBytes() > 0) {
-				recorder.recordDataReceived(remoteAddress, buffer.readableBytes());
-			}
+			dataReceived += ((ByteBuf) msg).readableBytes();
 		}
 		else if (msg instanceof DatagramPacket) {
 			DatagramPacket p = (DatagramPacket) msg;
 			ByteBuf buffer = p.content();
-			if (buffer.readableBytes() > 0) {
-				if (remoteAddress != null) {
-					recorder.recordDataReceived(remoteAddress, buffer.readableBytes());
-				}
-				else {
-					recorder.recordDataReceived(p.sender(), buffer.readableBytes());
-				}
+			if (remoteAddress != null) {
+				dataReceived += buffer.readableBytes();
+			}
+			else if (buffer.readableBytes() > 0) {
+				recorder.recordDataReceived(p.sender(), buffer.readableBytes());
 			}
 		}
 
 		ctx.fireChannelRead(msg);
 	}
 
+	@Override
+	public void channelReadComplete(ChannelHandlerContext ctx) {
+		recordDataReceived();
+		ctx.fireChannelReadComplete();
+	}
+
+	@Override
+	public void channelInactive(ChannelHandlerContext ctx) {
+		recordDataReceived();
+		recordDataSent();
+		ctx.fireChannelInactive();
+	}
+
+	@Override
+	public void handlerRemoved(ChannelHandlerContext ctx) {
+		recordDataReceived();
+		recordDataSent();
+	}
+
 	@Override
 	@SuppressWarnings("FutureReturnValueIgnored")
 	public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
 		if (msg instanceof ByteBuf) {
-			ByteBuf buffer = (ByteBuf) msg;
-			if (buffer.readableBytes() > 0) {
-				recorder.recordDataSent(remoteAddress, buffer.readableBytes());
-			}
+			dataSent += ((ByteBuf) msg).readableBytes();
 		}
 		else if (msg instanceof DatagramPacket) {
 			DatagramPacket p = (DatagramPacket) msg;
 			ByteBuf buffer = p.content();
-			if (buffer.readableBytes() > 0) {
-				if (remoteAddress != null) {
-					recorder.recordDataSent(remoteAddress, buffer.readableBytes());
-				}
-				else {
-					recorder.recordDataSent(p.recipient(), buffer.readableBytes());
-				}
+			if (remoteAddress != null) {
+				dataSent += buffer.readableBytes();
+			}
+			else if (buffer.readableBytes() > 0) {
+				recorder.recordDataSent(p.recipient(), buffer.readableBytes());
 			}
 		}
 
@@ -112,6 +139,12 @@ public class ChannelMetricsHandler extends ChannelDuplexHandler {
 		ctx.write(msg, promise);
 	}
 
+	@Override
+	public void flush(ChannelHandlerContext ctx) {
+		recordDataSent();
+		ctx.flush();
+	}
+
 	@Override
 	public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
 		if (remoteAddress != null) {
@@ -128,6 +161,45 @@ public class ChannelMetricsHandler extends ChannelDuplexHandler {
 		return recorder;
 	}
 
+	void recordDataReceived() {
+		long bytes = dataReceived;
+		if (bytes > 0) {
+			dataReceived = 0;
+			resolveMeters();
+			if (dataReceivedRecorder != null) {
+				dataReceivedRecorder.accept(bytes);
+			}
+			else {
+				recorder.recordDataReceived(remoteAddress, bytes);
+			}
+		}
+	}
+
+	void recordDataSent() {
+		long bytes = dataSent;
+		if (bytes > 0) {
+			dataSent = 0;
+			resolveMeters();
+			if (dataSentRecorder != null) {
+				dataSentRecorder.accept(bytes);
+			}
+			else {
+				recorder.recordDataSent(remoteAddress, bytes);
+			}
+		}
+	}
+
+	void resolveMeters() {
+		if (!metersResolved) {
+			metersResolved = true;
+			if (remoteAddress != null && recorder instanceof MicrometerChannelMetricsRecorder) {
+				MicrometerChannelMetricsRecorder micrometerRecorder = (MicrometerChannelMetricsRecorder) recorder;
+				dataReceivedRecorder = micrometerRecorder.dataReceivedRecorder(remoteAddress);
+				dataSentRecorder = micrometerRecorder.dataSentRecorder(remoteAddress);
+			}
+		}
+	}
+
 	static final class ConnectMetricsHandler extends ChannelOutboundHandlerAdapter {
 
 		final ChannelMetricsRecorder recorder;
@@ -309,6 +309,16 @@ public class ChannelOperations<INBOUND extends NettyInbound, OUTBOUND extends Ne
 		);
 	}
 
+	/**
+	 * Return true if the outbound content is already encoded, e.g. a precompressed file,
+	 * in which case a compression handler lets it through as is.
+	 *
+	 * @return true if the outbound content is already encoded
+	 */
+	public boolean isContentEncoded() {
+		return false;
+	}
+
 	/**
 	 * Return a Mono succeeding when a {@link ChannelOperations} has been terminated
 	 *
@@ -40,6 +40,16 @@ public final class MeterKey {
 		this.status = status;
 	}
 
+	/**
+	 * Returns the uri tag value or null.
+	 *
+	 * @return the uri tag value or null
+	 */
+	@Nullable
+	public String uri() {
+		return uri;
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) {
@@ -26,6 +26,7 @@ import reactor.util.annotation.Nullable;
 import java.net.SocketAddress;
 import java.time.Duration;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongConsumer;
 
 import static reactor.netty.Metrics.ADDRESS_RESOLVER;
 import static reactor.netty.Metrics.CONNECT_TIME;
@@ -64,8 +65,28 @@ public class MicrometerChannelMetricsRecorder implements ChannelMetricsRecorder
 	final Timer.Builder addressResolverTimeBuilder;
 	final ConcurrentMap<MeterKey, Timer> addressResolverTimeCache = PlatformDependent.newConcurrentHashMap();
 
+	/**
+	 * Whether {@link #recordDataReceived(SocketAddress, long)} and {@link #recordDataSent(SocketAddress, long)}
+	 * record to the meters of this class, so that the meters can be resolved once per connection
+	 */
+	final boolean resolveDataMeters;
 
 	public MicrometerChannelMetricsRecorder(String name, String protocol) {
+		this(name, protocol, true);
+	}
+
+	/**
+	 * Creates a recorder whose data received and sent meters are resolved once per connection when
+	 * {@code resolveDataMeters} is {@code true}, the connections then record to these meters without invoking
+	 * {@link #recordDataReceived(SocketAddress, long)} and {@link #recordDataSent(SocketAddress, long)}.
+	 * The subclasses overriding these methods must pass {@code false}.
+	 *
+	 * @param name the meters name prefix
+	 * @param protocol the protocol tag value
+	 * @param resolveDataMeters whether the data received and sent meters are resolved once per connection
+	 * @since 1.0.0
+	 */
+	protected MicrometerChannelMetricsRecorder(String name, String protocol, boolean resolveDataMeters) {
 		this.dataReceivedBuilder =
 				DistributionSummary.builder(name + DATA_RECEIVED)
 				                   .baseUnit("bytes")
@@ -94,14 +115,13 @@ public class MicrometerChannelMetricsRecorder implements ChannelMetricsRecorder
 		this.addressResolverTimeBuilder =
 				Timer.builder(name + ADDRESS_RESOLVER)
 				     .description("Time spent for resolving the address");
+
+		this.resolveDataMeters = resolveDataMeters;
 	}
 
 	@Override
 	public void recordDataReceived(SocketAddress remoteAddress, long bytes) {
-		String address = reactor.netty.Metrics.formatSocketAddress(remoteAddress);
-		DistributionSummary ds = dataReceivedCache.computeIfAbsent(address,
-				key -> filter(dataReceivedBuilder.tag(REMOTE_ADDRESS, address)
-				                                 .register(REGISTRY)));
+		DistributionSummary ds = dataReceived(remoteAddress);
 		if (ds != null) {
 			ds.record(bytes);
 		}
@@ -109,10 +129,7 @@ public class MicrometerChannelMetricsRecorder implements ChannelMetricsRecorder
 
 	@Override
 	public void recordDataSent(SocketAddress remoteAddress, long bytes) {
-		String address = reactor.netty.Metrics.formatSocketAddress(remoteAddress);
-		DistributionSummary ds = dataSentCache.computeIfAbsent(address,
-				key -> filter(dataSentBuilder.tag(REMOTE_ADDRESS, address)
-				                             .register(REGISTRY)));
+		DistributionSummary ds = dataSent(remoteAddress);
 		if (ds != null) {
 			ds.record(bytes);
 		}
@@ -162,6 +179,56 @@ public class MicrometerChannelMetricsRecorder implements ChannelMetricsRecorder
 		}
 	}
 
+	/**
+	 * Resolves the data received meter for the given remote address, so that a connection can
+	 * record to it without looking it up again.
+	 *
+	 * @param remoteAddress the remote peer
+	 * @return the recorder or null if it cannot be resolved once per connection
+	 */
+	@Nullable
+	LongConsumer dataReceivedRecorder(SocketAddress remoteAddress) {
+		if (!resolveDataMeters) {
+			return null;
+		}
+		DistributionSummary ds = dataReceived(remoteAddress);
+		return ds != null ? ds::record : NOOP;
+	}
+
+	/**
+	 * Resolves the data sent meter for the given remote address, so that a connection can
+	 * record to it without looking it up again.
+	 *
+	 * @param remoteAddress the remote peer
+	 * @return the recorder or null if it cannot be resolved once per connection
+	 */
+	@Nullable
+	LongConsumer dataSentRecorder(SocketAddress remoteAddress) {
+		if (!resolveDataMeters) {
+			return null;
+		}
+		DistributionSummary ds = dataSent(remoteAddress);
+		return ds != null ? ds::record : NOOP;
+	}
+
+	@Nullable
+	DistributionSummary dataReceived(SocketAddress remoteAddress) {
+		String address = reactor.netty.Metrics.formatSocketAddress(remoteAddress);
+		return dataReceivedCache.computeIfAbsent(address,
+				key -> filter(dataReceivedBuilder.tag(REMOTE_ADDRESS, address)
+				                                 .register(REGISTRY)));
+	}
+
+	@Nullable
+	DistributionSummary dataSent(SocketAddress remoteAddress) {
+		String address = reactor.netty.Metrics.formatSocketAddress(remoteAddress);
+		return dataSentCache.computeIfAbsent(address,
+				key -> filter(dataSentBuilder.tag(REMOTE_ADDRESS, address)
+				                             .register(REGISTRY)));
+	}
+
+	static final LongConsumer NOOP = bytes -> {};
+
 	@Nullable
 	protected static <M extends Meter> M filter(M meter) {
 		if (meter instanceof NoopMeter) {
@@ -281,6 +281,7 @@ public interface ConnectionProvider extends Disposable {
 		Duration maxLifeTime;
 		boolean  metricsEnabled;
 		String   leasingStrategy        = DEFAULT_POOL_LEASING_STRATEGY;
+		int      stripes                = 1;
 		Supplier<? extends ConnectionProvider.MeterRegistrar> registrar;
 
 		/**
@@ -344,6 +345,30 @@ public interface ConnectionProvider extends Disposable {
 			return get();
 		}
 
+		/**
+		 * Set the number of stripes the connection pool of a remote host is split into, in order to reduce
+		 * the contention when many threads acquire connections to the same remote host.
+		 * A thread always acquires from the same stripe, each stripe gets its share of the
+		 * {@link #maxConnections(int) maximum connections} and of the
+		 * {@link #pendingAcquireMaxCount(int) maximum pending acquires}, so that the maximum connections
+		 * remains the budget for the whole remote host. When its stripe has neither an idle connection
+		 * nor room for a new one, a thread acquires an idle connection from another stripe, if any.
+		 * The number of stripes is capped to the maximum connections.
+		 * Default to {@code 1}, i.e. a single connection pool per remote host.
+		 *
+		 * @param stripes the number of stripes per remote host
+		 * @return {@literal this}
+		 * @throws IllegalArgumentException if stripes is not positive
+		 * @since 1.0.0
+		 */
+		public final SPEC stripes(int stripes) {
+			if (stripes <= 0) {
+				throw new IllegalArgumentException("Stripes value must be strictly positive");
+			}
+			this.stripes = stripes;
+			return get();
+		}
+
 		/**
 		 * Set the options to use for configuring {@link ConnectionProvider} max idle time (resolution: ms).
 		 * Default to {@link #DEFAULT_POOL_MAX_IDLE_TIME} if specified otherwise - no max idle time.
@@ -92,14 +92,16 @@ public abstract class PooledConnectionProvider<T extends Connection> implements
 		Objects.requireNonNull(resolverGroup, "resolverGroup");
 		return Mono.create(sink -> {
 			SocketAddress remoteAddress = Objects.requireNonNull(remote.get(), "Remote Address supplier returned null");
-			PoolKey holder = new PoolKey(remoteAddress, config.channelHash());
 			PoolFactory<T> poolFactory = poolFactory(remoteAddress);
+			int stripe = poolFactory.stripes > 1 ? stripe(poolFactory.stripes) : 0;
+			PoolKey holder = new PoolKey(remoteAddress, config.channelHash(), stripe);
 			InstrumentedPool<T> pool = channelPools.computeIfAbsent(holder, poolKey -> {
+				PoolFactory<T> stripeFactory = poolFactory.stripes > 1 ? poolFactory.stripe(stripe) : poolFactory;
 				if (log.isDebugEnabled()) {
-					log.debug("Creating a new [{}] client pool [{}] for [{}]", name, poolFactory, remoteAddress);
+					log.debug("Creating a new [{}] client pool [{}] for [{}]", name, stripeFactory, remoteAddress);
 				}
 
-				InstrumentedPool<T> newPool = createPool(config, poolFactory, remoteAddress, resolverGroup);
+				InstrumentedPool<T> newPool = createPool(config, stripeFactory, remoteAddress, resolverGroup);
 
 				if (poolFactory.metricsEnabled || config.metricsRecorder() != null) {
 					// registrar is null when metrics are enabled on HttpClient level or
@@ -115,6 +117,10 @@ public abstract class PooledConnectionProvider<T extends Connection> implements
 				return newPool;
 			});
 
+			if (poolFactory.stripes > 1) {
+				pool = steal(pool, holder, poolFactory.stripes);
+			}
+
 			pool.acquire(Duration.ofMillis(poolFactory.pendingAcquireTimeout))
 			    .subscribe(createDisposableAcquire(connectionObserver, config.channelOperationsProvider(),
 			            poolFactory.pendingAcquireTimeout, pool, sink));
@@ -180,6 +186,41 @@ public abstract class PooledConnectionProvider<T extends Connection> implements
 		return this.defaultPoolFactory;
 	}
 
+	/**
+	 * Returns a stripe with an idle connection when the given stripe has neither an idle connection
+	 * nor room for a new one, so that a thread does not wait for its own stripe while connections
+	 * to the same remote host are available in the other stripes.
+	 *
+	 * @param pool the stripe of the current thread
+	 * @param key the key of the stripe of the current thread
+	 * @param stripes the number of stripes
+	 * @return the stripe to acquire from
+	 */
+	final InstrumentedPool<T> steal(InstrumentedPool<T> pool, PoolKey key, int stripes) {
+		InstrumentedPool.PoolMetrics metrics = pool.metrics();
+		if (metrics.idleSize() > 0 || metrics.allocatedSize() < metrics.getMaxAllocatedSize()) {
+			return pool;
+		}
+		for (int i = 1; i < stripes; i++) {
+			InstrumentedPool<T> sibling = channelPools.get(new PoolKey(key, (key.stripe + i) % stripes));
+			if (sibling != null && sibling.metrics().idleSize() > 0) {
+				return sibling;
+			}
+		}
+		return pool;
+	}
+
+	/**
+	 * Maps the current thread to a stripe, the event loops have consecutive ids and are spread
+	 * evenly over the stripes.
+	 *
+	 * @param stripes the number of stripes
+	 * @return the stripe of the current thread
+	 */
+	static int stripe(int stripes) {
+		return (int) (Thread.currentThread().getId() % stripes);
+	}
+
 	final boolean compareAddresses(SocketAddress origin, SocketAddress target) {
 		if (origin.equals(target)) {
 			return true;
@@ -207,6 +248,7 @@ public abstract class PooledConnectionProvider<T extends Connection> implements
 		final int pendingAcquireMaxCount;
 		final long pendingAcquireTimeout;
 		final Supplier<? extends MeterRegistrar> registrar;
+		final int stripes;
 
 		PoolFactory(ConnectionPoolSpec<?> conf) {
 			this.leasingStrategy = conf.leasingStrategy;
@@ -218,6 +260,36 @@ public abstract class PooledConnectionProvider<T extends Connection> implements
 					2 * conf.maxConnections : conf.pendingAcquireMaxCount;
 			this.pendingAcquireTimeout = conf.pendingAcquireTimeout.toMillis();
 			this.registrar = conf.registrar;
+			this.stripes = Math.min(conf.stripes, conf.maxConnections);
+		}
+
+		PoolFactory(PoolFactory<T> parent, int maxConnections, int pendingAcquireMaxCount) {
+			this.leasingStrategy = parent.leasingStrategy;
+			this.maxConnections = maxConnections;
+			this.maxIdleTime = parent.maxIdleTime;
+			this.maxLifeTime = parent.maxLifeTime;
+			this.metricsEnabled = parent.metricsEnabled;
+			this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+			this.pendingAcquireTimeout = parent.pendingAcquireTimeout;
+			this.registrar = parent.registrar;
+			this.stripes = 1;
+		}
+
+		/**
+		 * Returns the configuration of the given stripe, with its share of the maximum connections
+		 * and of the maximum pending acquires.
+		 *
+		 * @param stripe the stripe index
+		 * @return the configuration of the stripe
+		 */
+		PoolFactory<T> stripe(int stripe) {
+			int pendingAcquireMaxCount = this.pendingAcquireMaxCount == -1 ? -1 :
+					Math.max(1, share(this.pendingAcquireMaxCount, stripe));
+			return new PoolFactory<>(this, share(maxConnections, stripe), pendingAcquireMaxCount);
+		}
+
+		int share(int total, int stripe) {
+			return total / stripes + (stripe < total % stripes ? 1 : 0);
 		}
 
 		public InstrumentedPool<T> newPool(
@@ -252,6 +324,7 @@ public abstract class PooledConnectionProvider<T extends Connection> implements
 					", metricsEnabled=" + metricsEnabled +
 					", pendingAcquireMaxCount=" + pendingAcquireMaxCount +
 					", pendingAcquireTimeout=" + pendingAcquireTimeout +
+					", stripes=" + stripes +
 					'}';
 		}
 	}
@@ -260,11 +333,24 @@ public abstract class PooledConnectionProvider<T extends Connection> implements
 		final String fqdn;
 		final SocketAddress holder;
 		final int pipelineKey;
+		final int stripe;
 
 		PoolKey(SocketAddress holder, int pipelineKey) {
+			this(holder, pipelineKey, 0);
+		}
+
+		PoolKey(SocketAddress holder, int pipelineKey, int stripe) {
 			this.fqdn = holder.toString();
 			this.holder = holder;
 			this.pipelineKey = pipelineKey;
+			this.stripe = stripe;
+		}
+
+		PoolKey(PoolKey key, int stripe) {
+			this.fqdn = key.fqdn;
+			this.holder = key.holder;
+			this.pipelineKey = key.pipelineKey;
+			this.stripe = stripe;
 		}
 
 		@Override
@@ -278,12 +364,13 @@ public abstract class PooledConnectionProvider<T extends Connection> implements
 			PoolKey poolKey = (PoolKey) o;
 			return Objects.equals(fqdn, poolKey.fqdn) &&
 						   Objects.equals(holder, poolKey.holder) &&
-						   pipelineKey == poolKey.pipelineKey;
+						   pipelineKey == poolKey.pipelineKey &&
+						   stripe == poolKey.stripe;
 		}
 
 		@Override
 		public int hashCode() {
-			return Objects.hash(fqdn, holder, pipelineKey);
+			return Objects.hash(fqdn, holder, pipelineKey, stripe);
 		}
 	}
 }
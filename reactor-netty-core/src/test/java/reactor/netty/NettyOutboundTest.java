@@ -41,6 +41,7 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.DefaultFileRegion;
 import io.netty.channel.FileRegion;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.handler.codec.MessageToMessageEncoder;
 import io.netty.handler.ssl.SslContext;
@@ -177,6 +178,8 @@ public class NettyOutboundTest {
 					}
 				});
 
+		//caps the chunks to half the high water mark
+		channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(1024, 2048));
 		Connection mockContext = () -> channel;
 		NettyOutbound outbound = new NettyOutbound() {
 			@Override
@@ -266,6 +269,8 @@ public class NettyOutboundTest {
 						out.add(msg);
 					}
 				});
+		//caps the chunks to half the high water mark
+		channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(1024, 2048));
 		Connection mockContext = () -> channel;
 		NettyOutbound outbound = new NettyOutbound() {
 			@Override
@@ -327,6 +332,30 @@ public class NettyOutboundTest {
 		assertThat(channel.finishAndReleaseAll()).isTrue();
 	}
 
+	@Test
+	public void fileChunkSizeAdaptsToTlsAndWriteBufferWaterMark() throws SSLException, CertificateException {
+		EmbeddedChannel channel = new EmbeddedChannel();
+		Connection connection = () -> channel;
+
+		assertThat(ReactorNetty.fileChunkSize(connection)).isEqualTo(8 * 1024);
+
+		SelfSignedCertificate ssc = new SelfSignedCertificate();
+		SslContext sslCtx = SslContextBuilder.forServer(ssc.certificate(), ssc.privateKey()).build();
+		channel.pipeline().addFirst(sslCtx.newHandler(ByteBufAllocator.DEFAULT));
+
+		assertThat(ReactorNetty.fileChunkSize(connection)).isEqualTo(16 * 1024);
+
+		channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(4 * 1024, 8 * 1024));
+
+		assertThat(ReactorNetty.fileChunkSize(connection)).isEqualTo(4 * 1024);
+
+		channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(256, 512));
+
+		assertThat(ReactorNetty.fileChunkSize(connection)).isEqualTo(1024);
+
+		channel.finishAndReleaseAll();
+	}
+
 	static<S> Mono<Void> mockSendUsing(Connection c, Callable<? extends S> sourceInput,
 			BiFunction<? super Connection, ? super S, ?> mappedInput,
 			Consumer<? super S> sourceCleanup) {
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.channel;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ChannelMetricsHandlerTest {
+
+	static final SocketAddress REMOTE_ADDRESS = InetSocketAddress.createUnresolved("localhost", 8080);
+
+	@Test
+	public void dataReceivedIsRecordedOncePerReadBatch() {
+		RecordingMetricsRecorder recorder = new RecordingMetricsRecorder();
+		EmbeddedChannel channel = new EmbeddedChannel(new ChannelMetricsHandler(recorder, REMOTE_ADDRESS, true));
+
+		channel.writeInbound(Unpooled.wrappedBuffer(new byte[3]), Unpooled.wrappedBuffer(new byte[5]));
+		assertThat(recorder.dataReceived).containsExactly(8L);
+
+		channel.writeInbound(Unpooled.EMPTY_BUFFER);
+		assertThat(recorder.dataReceived).containsExactly(8L);
+
+		channel.finishAndReleaseAll();
+	}
+
+	@Test
+	public void dataSentIsRecordedOncePerFlush() {
+		RecordingMetricsRecorder recorder = new RecordingMetricsRecorder();
+		EmbeddedChannel channel = new EmbeddedChannel(new ChannelMetricsHandler(recorder, REMOTE_ADDRESS, true));
+
+		channel.write(Unpooled.wrappedBuffer(new byte[2]));
+		channel.write(Unpooled.wrappedBuffer(new byte[4]));
+		assertThat(recorder.dataSent).isEmpty();
+
+		channel.flush();
+		assertThat(recorder.dataSent).containsExactly(6L);
+
+		channel.finishAndReleaseAll();
+	}
+
+	@Test
+	public void pendingDataIsRecordedOnClose() {
+		RecordingMetricsRecorder recorder = new RecordingMetricsRecorder();
+		EmbeddedChannel channel = new EmbeddedChannel(new ChannelMetricsHandler(recorder, REMOTE_ADDRESS, true));
+
+		channel.pipeline().fireChannelRead(Unpooled.wrappedBuffer(new byte[7]));
+		channel.write(Unpooled.wrappedBuffer(new byte[9]));
+		assertThat(recorder.dataReceived).isEmpty();
+		assertThat(recorder.dataSent).isEmpty();
+
+		channel.finishAndReleaseAll();
+		assertThat(recorder.dataReceived).containsExactly(7L);
+		assertThat(recorder.dataSent).containsExactly(9L);
+	}
+
+	@Test
+	public void metersAreResolvedUnlessDisabledBySubclass() {
+		assertThat(new MicrometerChannelMetricsRecorder("reactor.netty.test", "tcp").resolveDataMeters).isTrue();
+		assertThat(new MicrometerChannelMetricsRecorder("reactor.netty.test", "tcp", false) {
+			@Override
+			public void recordDataSent(SocketAddress remoteAddress, long bytes) {
+				super.recordDataSent(remoteAddress, bytes);
+			}
+		}.resolveDataMeters).isFalse();
+	}
+
+	static final class RecordingMetricsRecorder implements ChannelMetricsRecorder {
+
+		final List<Long> dataReceived = new ArrayList<>();
+		final List<Long> dataSent = new ArrayList<>();
+
+		@Override
+		public void recordDataReceived(SocketAddress remoteAddress, long bytes) {
+			dataReceived.add(bytes);
+		}
+
+		@Override
+		public void recordDataSent(SocketAddress remoteAddress, long bytes) {
+			dataSent.add(bytes);
+		}
+
+		@Override
+		public void incrementErrorsCount(SocketAddress remoteAddress) {
+		}
+
+		@Override
+		public void recordTlsHandshakeTime(SocketAddress remoteAddress, Duration time, String status) {
+		}
+
+		@Override
+		public void recordConnectTime(SocketAddress remoteAddress, Duration time, String status) {
+		}
+
+		@Override
+		public void recordResolveAddressTime(SocketAddress remoteAddress, Duration time, String status) {
+		}
+	}
+}
@@ -362,6 +362,96 @@ public class DefaultPooledConnectionProviderTest {
 		}
 	}
 
+	@Test
+	public void stripesShareMaxConnections() {
+		ConnectionProvider.Builder builder =
+				ConnectionProvider.builder("stripesShareMaxConnections")
+				                  .maxConnections(5)
+				                  .pendingAcquireMaxCount(3)
+				                  .stripes(2);
+		PooledConnectionProvider.PoolFactory<PooledConnection> factory = new PooledConnectionProvider.PoolFactory<>(builder);
+
+		assertThat(factory.stripes).isEqualTo(2);
+		assertThat(factory.stripe(0).maxConnections).isEqualTo(3);
+		assertThat(factory.stripe(1).maxConnections).isEqualTo(2);
+		assertThat(factory.stripe(0).pendingAcquireMaxCount).isEqualTo(2);
+		assertThat(factory.stripe(1).pendingAcquireMaxCount).isEqualTo(1);
+
+		factory = new PooledConnectionProvider.PoolFactory<>(builder.maxConnections(1));
+		assertThat(factory.stripes).as("stripes capped to max connections").isEqualTo(1);
+	}
+
+	@Test
+	public void stripeWithoutIdleConnectionStealsFromOtherStripe() throws Exception {
+		DisposableServer server =
+				TcpServer.create()
+				         .port(0)
+				         .wiretap(true)
+				         .bindNow();
+		DefaultPooledConnectionProvider provider =
+				(DefaultPooledConnectionProvider) ConnectionProvider.builder("stripeWithoutIdleConnectionStealsFromOtherStripe")
+				                                                    .maxConnections(2)
+				                                                    .stripes(2)
+				                                                    .build();
+		EventLoopGroup group = new NioEventLoopGroup(1);
+		try {
+			InetSocketAddress address = InetSocketAddress.createUnresolved("localhost", server.port());
+			Supplier<? extends SocketAddress> remoteAddress = () -> address;
+			ConnectionObserver observer = ConnectionObserver.emptyListener();
+			ClientTransportConfig<?> config =
+					new ClientTransportConfigImpl(group, provider, Collections.emptyMap(), remoteAddress);
+
+			// fill the single slot of the stripe of the current thread
+			PooledConnection c1 = (PooledConnection) provider.acquire(config, observer, remoteAddress, config.resolver())
+			                                                 .block(Duration.ofSeconds(30));
+			assertThat(c1).isNotNull();
+
+			// leave an idle connection in the other stripe
+			AtomicReference<PooledConnection> c2 = new AtomicReference<>();
+			Runnable acquireAndRelease = () -> {
+				PooledConnection c = (PooledConnection) provider.acquire(config, observer, remoteAddress, config.resolver())
+				                                                .block(Duration.ofSeconds(30));
+				c2.set(c);
+				if (c != null) {
+					c.onStateChange(c, ConnectionObserver.State.DISCONNECTING);
+				}
+			};
+			Thread other = new Thread(acquireAndRelease);
+			while (other.getId() % 2 == Thread.currentThread().getId() % 2) {
+				other = new Thread(acquireAndRelease);
+			}
+			other.start();
+			other.join(30_000);
+			assertThat(c2.get()).isNotNull();
+			assertThat(c2.get().pool).isNotSameAs(c1.pool);
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (c2.get().pool.metrics().idleSize() == 0 && System.nanoTime() < deadline) {
+				LockSupport.parkNanos(100);
+			}
+
+			PooledConnection c3 = (PooledConnection) provider.acquire(config, observer, remoteAddress, config.resolver())
+			                                                 .block(Duration.ofSeconds(30));
+			assertThat(c3).as("idle connection of the other stripe").isSameAs(c2.get());
+
+			assertThat(provider.channelPools).hasSize(2);
+			assertThat(provider.channelPools.values()
+			                                .stream()
+			                                .mapToInt(pool -> pool.metrics().allocatedSize())
+			                                .sum())
+					.as("max connections for the remote host")
+					.isEqualTo(2);
+
+			c1.onStateChange(c1, ConnectionObserver.State.DISCONNECTING);
+			c3.onStateChange(c3, ConnectionObserver.State.DISCONNECTING);
+		}
+		finally {
+			server.disposeNow();
+			provider.dispose();
+			group.shutdownGracefully()
+			     .get(5, TimeUnit.SECONDS);
+		}
+	}
+
 	static final class PoolImpl extends AtomicInteger implements InstrumentedPool<PooledConnection> {
 
 		@Override
@@ -21,6 +21,8 @@ import reactor.core.publisher.Mono;
 import reactor.netty.DisposableServer;
 import reactor.netty.http.server.HttpServer;
 
+import java.util.function.Function;
+
 public class Application {
 
 	public static void main(String[] args) {
@@ -30,17 +32,9 @@ public class Application {
 
 		DisposableServer server =
 				HttpServer.create()
-				          .metrics(true, s -> {
-				              if (s.startsWith("/stream/")) { //<2>
-				                  return "/stream/{n}";
-				              }
-				              else if (s.startsWith("/bytes/")) {
-				                  return "/bytes/{n}";
-				              }
-				              return s;
-				          }) //<3>
+				          .metrics(true, Function.identity()) //<2>
 				          .route(r ->
-				              r.get("/stream/{n}",
+				              r.get("/stream/{n}", //<3>
 				                   (req, res) -> res.sendString(Mono.just(req.param("n"))))
 				               .get("/bytes/{n}",
 				                   (req, res) -> res.sendString(Mono.just(req.param("n")))))
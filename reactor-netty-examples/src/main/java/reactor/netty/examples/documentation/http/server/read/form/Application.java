@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.examples.documentation.http.server.read.form;
+
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerFormDecoderSpec;
+
+public class Application {
+
+	public static void main(String[] args) {
+		HttpServerFormDecoderSpec spec =
+				HttpServerFormDecoderSpec.builder()
+				                         .maxInMemorySize(16 * 1024) //<1>
+				                         .maxSize(10 * 1024 * 1024)  //<2>
+				                         .build();
+
+		DisposableServer server =
+				HttpServer.create()
+				          .handle((request, response) ->
+				                  response.sendString(request.receiveForm(spec) //<3>
+				                                             .map(data -> data.getName() + ": " + data.length() + "\n")))
+				          .bindNow();
+
+		server.onDispose()
+		      .block();
+	}
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.examples.http.websocket.echo;
+
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.util.SelfSignedCertificate;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * A WebSocket server that sends back the received frames.
+ */
+public final class EchoServer {
+
+	static final boolean SECURE = System.getProperty("secure") != null;
+	static final int PORT = Integer.parseInt(System.getProperty("port", SECURE ? "8443" : "8080"));
+	static final boolean WIRETAP = System.getProperty("wiretap") != null;
+
+	public static void main(String[] args) throws Exception {
+		HttpServer server =
+				HttpServer.create()
+				          .port(PORT)
+				          .wiretap(WIRETAP)
+				          .route(r -> r.ws("/ws",
+				                  (in, out) -> out.sendObject(in.receiveFrames()
+				                                                .map(WebSocketFrame::retain))));
+
+		if (SECURE) {
+			SelfSignedCertificate ssc = new SelfSignedCertificate();
+			server = server.secure(
+					spec -> spec.sslContext(SslContextBuilder.forServer(ssc.certificate(), ssc.privateKey())));
+		}
+
+		server.bindNow()
+		      .onDispose()
+		      .block();
+	}
+}
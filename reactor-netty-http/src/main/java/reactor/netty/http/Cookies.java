@@ -19,10 +19,10 @@ package reactor.netty.http;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpHeaders;
@@ -30,6 +30,7 @@ import io.netty.handler.codec.http.cookie.ClientCookieDecoder;
 import io.netty.handler.codec.http.cookie.Cookie;
 import io.netty.handler.codec.http.cookie.CookieDecoder;
 import io.netty.handler.codec.http.cookie.ServerCookieDecoder;
+import reactor.util.annotation.Nullable;
 
 /**
  * Store cookies for the http channel.
@@ -57,10 +58,6 @@ public final class Cookies {
 	}
 
 
-	final static int NOT_READ = 0;
-	final static int READING  = 1;
-
-	final static int READ     = 2;
 	final HttpHeaders  nettyHeaders;
 	final CharSequence cookiesHeaderName;
 
@@ -68,11 +65,7 @@ public final class Cookies {
 
 	final CookieDecoder decoder;
 
-	Map<CharSequence, Set<Cookie>> cachedCookies;
-	volatile     int                                state = 0;
-
-	static final AtomicIntegerFieldUpdater<Cookies> STATE =
-			AtomicIntegerFieldUpdater.newUpdater(Cookies.class, "state");
+	volatile Map<CharSequence, Set<Cookie>> cachedCookies;
 
 	private Cookies(HttpHeaders nettyHeaders, CharSequence cookiesHeaderName, boolean isClientChannel,
 					CookieDecoder decoder) {
@@ -80,23 +73,75 @@ public final class Cookies {
 		this.cookiesHeaderName = cookiesHeaderName;
 		this.isClientChannel = isClientChannel;
 		this.decoder = decoder;
-		cachedCookies = Collections.emptyMap();
 	}
 
 	/**
-	 * Wait for the cookies to become available, cache them and subsequently return the
-	 * cached map of cookies.
+	 * Decode the cookies on the first call, cache them and subsequently return the
+	 * cached map of cookies. Concurrent first calls may decode the cookies each, the
+	 * decoding having no side effect.
 	 */
 	public Map<CharSequence, Set<Cookie>> getCachedCookies() {
-		if (!STATE.compareAndSet(this, NOT_READ, READING)) {
-			for (; ; ) {
-				if (state == READ) {
-					return cachedCookies;
+		Map<CharSequence, Set<Cookie>> cookies = cachedCookies;
+		if (cookies == null) {
+			cookies = decodeCookies();
+			cachedCookies = cookies;
+		}
+		return cookies;
+	}
+
+	/**
+	 * Return the first cookie with the given name. Unless the cookies are already cached, the cookie
+	 * headers are scanned for that name and only the matching cookie is decoded.
+	 *
+	 * @param name the cookie name
+	 * @return the first cookie with the given name or {@code null}
+	 * @since 1.0.0
+	 */
+	@Nullable
+	public Cookie getCookie(CharSequence name) {
+		Map<CharSequence, Set<Cookie>> cookies = cachedCookies;
+		if (cookies != null) {
+			Set<Cookie> cookiesOfName = cookies.get(name.toString());
+			return cookiesOfName == null || cookiesOfName.isEmpty() ? null : cookiesOfName.iterator().next();
+		}
+		Iterator<String> it = nettyHeaders.valueStringIterator(cookiesHeaderName);
+		while (it.hasNext()) {
+			String header = it.next();
+			if (isClientChannel) {
+				// a Set-Cookie header holds a single cookie, its name comes first
+				int start = skipSeparators(header, 0, header.length());
+				if (nameMatches(header, start, header.length(), name)) {
+					Cookie cookie = ((ClientCookieDecoder) decoder).decode(header);
+					if (cookie != null) {
+						return cookie;
+					}
+				}
+				continue;
+			}
+			int length = header.length();
+			int i = 0;
+			while (i < length) {
+				int end = header.indexOf(';', i);
+				if (end == -1) {
+					end = length;
+				}
+				int start = skipSeparators(header, i, end);
+				if (nameMatches(header, start, end, name)) {
+					for (Cookie cookie : ((ServerCookieDecoder) decoder).decode(header.substring(start, end))) {
+						return cookie;
+					}
 				}
+				i = end + 1;
 			}
 		}
+		return null;
+	}
 
+	Map<CharSequence, Set<Cookie>> decodeCookies() {
 		List<String> allCookieHeaders = nettyHeaders.getAll(cookiesHeaderName);
+		if (allCookieHeaders.isEmpty()) {
+			return Collections.emptyMap();
+		}
 		Map<String, Set<Cookie>> cookies = new HashMap<>();
 		for (String aCookieHeader : allCookieHeaders) {
 			Set<Cookie> decode;
@@ -124,8 +169,36 @@ public final class Cookies {
 				}
 			}
 		}
-		cachedCookies = Collections.unmodifiableMap(cookies);
-		state = READ;
-		return cachedCookies;
+		return Collections.unmodifiableMap(cookies);
+	}
+
+	/**
+	 * Skip the characters that the cookie decoders skip before a cookie name.
+	 */
+	static int skipSeparators(String header, int start, int end) {
+		while (start < end) {
+			char c = header.charAt(start);
+			if (c != ' ' && c != '\t' && c != '\n' && c != 0x0b && c != '\f' && c != '\r' && c != ',') {
+				break;
+			}
+			start++;
+		}
+		return start;
+	}
+
+	/**
+	 * Return whether the {@code name=value} pair starting at {@code start} has the given name.
+	 */
+	static boolean nameMatches(String header, int start, int end, CharSequence name) {
+		int nameEnd = start + name.length();
+		if (nameEnd > end) {
+			return false;
+		}
+		for (int i = 0; i < name.length(); i++) {
+			if (header.charAt(start + i) != name.charAt(i)) {
+				return false;
+			}
+		}
+		return nameEnd == end || header.charAt(nameEnd) == '=';
 	}
 }
@@ -0,0 +1,335 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.netty.util.concurrent.FastThreadLocal;
+import io.netty.util.internal.PlatformDependent;
+import reactor.util.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import static reactor.netty.Metrics.DATA_RECEIVED;
+import static reactor.netty.Metrics.DATA_RECEIVED_TIME;
+import static reactor.netty.Metrics.DATA_SENT;
+import static reactor.netty.Metrics.DATA_SENT_TIME;
+import static reactor.netty.Metrics.ERRORS;
+import static reactor.netty.Metrics.METHOD;
+import static reactor.netty.Metrics.REGISTRY;
+import static reactor.netty.Metrics.REMOTE_ADDRESS;
+import static reactor.netty.Metrics.RESPONSE_TIME;
+import static reactor.netty.Metrics.STATUS;
+import static reactor.netty.Metrics.URI;
+
+/**
+ * Accumulates the HTTP metrics in cells owned by the recording thread, typically an event loop,
+ * so that recording a value is a map lookup with a reusable key followed by two field writes.
+ * A function meter is registered once per meter and tags, and sums the cells of all threads
+ * when it is scraped.
+ *
+ * @since 1.0.0
+ * @see reactor.netty.ReactorNetty#HTTP_METRICS_EVENT_LOOP_LOCAL
+ */
+final class EventLoopLocalMeters {
+
+	static final int DATA_RECEIVED_TIME_METER = 0;
+	static final int DATA_SENT_TIME_METER = 1;
+	static final int RESPONSE_TIME_METER = 2;
+	static final int DATA_RECEIVED_METER = 3;
+	static final int DATA_SENT_METER = 4;
+	static final int ERRORS_METER = 5;
+
+	final String name;
+
+	final ConcurrentMap<Probe, Aggregate> aggregates = PlatformDependent.newConcurrentHashMap();
+
+	volatile int evictions;
+
+	final FastThreadLocal<Stripe> stripes = new FastThreadLocal<Stripe>() {
+		@Override
+		protected Stripe initialValue() {
+			return new Stripe();
+		}
+	};
+
+	EventLoopLocalMeters(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Records a value for the given meter and tags in the cell of the current thread.
+	 *
+	 * @param meter the meter id
+	 * @param remoteAddress the formatted remote address tag
+	 * @param uri the uri tag
+	 * @param method the method tag
+	 * @param status the status tag
+	 * @param amount the time in nanoseconds, the number of bytes or {@code 1} for the errors
+	 */
+	void record(int meter, @Nullable String remoteAddress, @Nullable String uri,
+			@Nullable String method, @Nullable String status, long amount) {
+		stripes.get()
+		       .cell(this, meter, remoteAddress, uri, method, status)
+		       .add(amount);
+	}
+
+	/**
+	 * Unregisters the meters with the given uri tag value. The cells of these meters are
+	 * dropped by the recording threads the next time they look them up.
+	 *
+	 * @param uri the evicted uri tag value
+	 */
+	void evict(String uri) {
+		Iterator<Map.Entry<Probe, Aggregate>> it = aggregates.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<Probe, Aggregate> entry = it.next();
+			if (uri.equals(entry.getKey().uri)) {
+				it.remove();
+				Aggregate aggregate = entry.getValue();
+				aggregate.evicted = true;
+				if (aggregate.meter != null) {
+					REGISTRY.remove(aggregate.meter);
+				}
+			}
+		}
+		EVICTIONS.incrementAndGet(this);
+	}
+
+	Aggregate aggregate(Probe key) {
+		return aggregates.computeIfAbsent(key, this::register);
+	}
+
+	Aggregate register(Probe key) {
+		Aggregate aggregate = new Aggregate();
+		Tags tags = key.tags();
+		switch (key.meter) {
+			case DATA_RECEIVED_TIME_METER:
+				aggregate.meter = timer(aggregate, name + DATA_RECEIVED_TIME, "Time spent in consuming incoming data", tags);
+				break;
+			case DATA_SENT_TIME_METER:
+				aggregate.meter = timer(aggregate, name + DATA_SENT_TIME, "Time spent in sending outgoing data", tags);
+				break;
+			case RESPONSE_TIME_METER:
+				aggregate.meter = timer(aggregate, name + RESPONSE_TIME, "Total time for the request/response", tags);
+				break;
+			case DATA_RECEIVED_METER:
+				aggregate.meter = FunctionCounter.builder(name + DATA_RECEIVED, aggregate, Aggregate::total)
+				                                 .baseUnit("bytes")
+				                                 .description("Amount of the data received, in bytes")
+				                                 .tags(tags)
+				                                 .register(REGISTRY);
+				break;
+			case DATA_SENT_METER:
+				aggregate.meter = FunctionCounter.builder(name + DATA_SENT, aggregate, Aggregate::total)
+				                                 .baseUnit("bytes")
+				                                 .description("Amount of the data sent, in bytes")
+				                                 .tags(tags)
+				                                 .register(REGISTRY);
+				break;
+			case ERRORS_METER:
+				aggregate.meter = FunctionCounter.builder(name + ERRORS, aggregate, Aggregate::count)
+				                                 .description("Number of errors that occurred")
+				                                 .tags(tags)
+				                                 .register(REGISTRY);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown meter " + key.meter);
+		}
+		return aggregate;
+	}
+
+	static Meter timer(Aggregate aggregate, String name, String description, Tags tags) {
+		return FunctionTimer.builder(name, aggregate, Aggregate::count, Aggregate::total, TimeUnit.NANOSECONDS)
+		                    .description(description)
+		                    .tags(tags)
+		                    .register(REGISTRY);
+	}
+
+	static final AtomicIntegerFieldUpdater<EventLoopLocalMeters> EVICTIONS =
+			AtomicIntegerFieldUpdater.newUpdater(EventLoopLocalMeters.class, "evictions");
+
+	/**
+	 * The cells of a single thread, only accessed by that thread.
+	 */
+	static final class Stripe {
+
+		final HashMap<Probe, Cell> cells = new HashMap<>();
+
+		final Probe probe = new Probe();
+
+		int evictions;
+
+		Cell cell(EventLoopLocalMeters meters, int meter, @Nullable String remoteAddress,
+				@Nullable String uri, @Nullable String method, @Nullable String status) {
+			Cell cell = cells.get(probe.set(meter, remoteAddress, uri, method, status));
+			if (cell == null || cell.aggregate.evicted) {
+				if (evictions != meters.evictions) {
+					evictions = meters.evictions;
+					cells.values().removeIf(c -> c.aggregate.evicted);
+				}
+				Probe key = probe.copy();
+				Aggregate aggregate = meters.aggregate(key);
+				cell = new Cell(aggregate);
+				aggregate.cells.add(cell);
+				cells.put(key, cell);
+			}
+			return cell;
+		}
+	}
+
+	/**
+	 * The values recorded by a single thread for a given meter and tags. There is a single
+	 * writer, the values are published with ordered writes and read when the meter is scraped.
+	 */
+	static final class Cell {
+
+		final Aggregate aggregate;
+
+		volatile long count;
+		volatile long total;
+
+		Cell(Aggregate aggregate) {
+			this.aggregate = aggregate;
+		}
+
+		void add(long amount) {
+			COUNT.lazySet(this, count + 1);
+			TOTAL.lazySet(this, total + amount);
+		}
+
+		static final AtomicLongFieldUpdater<Cell> COUNT =
+				AtomicLongFieldUpdater.newUpdater(Cell.class, "count");
+
+		static final AtomicLongFieldUpdater<Cell> TOTAL =
+				AtomicLongFieldUpdater.newUpdater(Cell.class, "total");
+	}
+
+	/**
+	 * The cells of all threads for a given meter and tags.
+	 */
+	static final class Aggregate {
+
+		final List<Cell> cells = new CopyOnWriteArrayList<>();
+
+		Meter meter;
+
+		volatile boolean evicted;
+
+		long count() {
+			long count = 0;
+			for (Cell cell : cells) {
+				count += cell.count;
+			}
+			return count;
+		}
+
+		double total() {
+			long total = 0;
+			for (Cell cell : cells) {
+				total += cell.total;
+			}
+			return total;
+		}
+	}
+
+	/**
+	 * A meter id and its tag values. The instance owned by a {@link Stripe} is mutated to look up
+	 * the cells without allocating, a copy is made when a cell is created. The remote addresses are
+	 * compared once formatted, so that the addresses rendered to the same tag value share the same cell.
+	 */
+	static final class Probe {
+
+		int meter;
+		String remoteAddress;
+		String uri;
+		String method;
+		String status;
+		int hash;
+
+		Probe set(int meter, @Nullable String remoteAddress, @Nullable String uri,
+				@Nullable String method, @Nullable String status) {
+			this.meter = meter;
+			this.remoteAddress = remoteAddress;
+			this.uri = uri;
+			this.method = method;
+			this.status = status;
+			int hash = meter;
+			hash = 31 * hash + Objects.hashCode(remoteAddress);
+			hash = 31 * hash + Objects.hashCode(uri);
+			hash = 31 * hash + Objects.hashCode(method);
+			hash = 31 * hash + Objects.hashCode(status);
+			this.hash = hash;
+			return this;
+		}
+
+		Probe copy() {
+			return new Probe().set(meter, remoteAddress, uri, method, status);
+		}
+
+		Tags tags() {
+			List<Tag> tags = new ArrayList<>(4);
+			if (remoteAddress != null) {
+				tags.add(Tag.of(REMOTE_ADDRESS, remoteAddress));
+			}
+			if (uri != null) {
+				tags.add(Tag.of(URI, uri));
+			}
+			if (method != null) {
+				tags.add(Tag.of(METHOD, method));
+			}
+			if (status != null) {
+				tags.add(Tag.of(STATUS, status));
+			}
+			return Tags.of(tags);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Probe)) {
+				return false;
+			}
+			Probe that = (Probe) o;
+			return meter == that.meter &&
+					hash == that.hash &&
+					Objects.equals(remoteAddress, that.remoteAddress) &&
+					Objects.equals(uri, that.uri) &&
+					Objects.equals(method, that.method) &&
+					Objects.equals(status, that.status);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+}
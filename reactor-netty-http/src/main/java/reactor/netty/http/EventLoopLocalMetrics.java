@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http;
+
+import reactor.util.annotation.Nullable;
+
+import java.time.Duration;
+
+import static reactor.netty.http.EventLoopLocalMeters.DATA_RECEIVED_METER;
+import static reactor.netty.http.EventLoopLocalMeters.DATA_RECEIVED_TIME_METER;
+import static reactor.netty.http.EventLoopLocalMeters.DATA_SENT_METER;
+import static reactor.netty.http.EventLoopLocalMeters.DATA_SENT_TIME_METER;
+import static reactor.netty.http.EventLoopLocalMeters.ERRORS_METER;
+import static reactor.netty.http.EventLoopLocalMeters.RESPONSE_TIME_METER;
+
+/**
+ * Internal helpers for the HTTP server and client Micrometer recorders, which record to the event loop
+ * local meters of a {@link MicrometerHttpMetricsRecorder} when they are enabled.
+ * Not intended to be used outside of Reactor Netty.
+ *
+ * @since 1.0.0
+ * @see reactor.netty.ReactorNetty#HTTP_METRICS_EVENT_LOOP_LOCAL
+ */
+public final class EventLoopLocalMetrics {
+
+	/**
+	 * Records the time spent in consuming incoming data in the event loop local meters, when enabled.
+	 *
+	 * @param recorder the recorder
+	 * @param address the formatted remote address tag value or {@code null}
+	 * @param uriTag the uri tag value
+	 * @param method the method tag value
+	 * @param status the status tag value or {@code null}
+	 * @param time the time spent in consuming incoming data
+	 * @return {@code true} if recorded, {@code false} if the event loop local meters are not enabled
+	 */
+	public static boolean recordDataReceivedTime(MicrometerHttpMetricsRecorder recorder, @Nullable String address,
+			String uriTag, String method, @Nullable String status, Duration time) {
+		return recorder.recordLocally(DATA_RECEIVED_TIME_METER, address, uriTag, method, status, time.toNanos());
+	}
+
+	/**
+	 * Records the time spent in sending outgoing data in the event loop local meters, when enabled.
+	 *
+	 * @param recorder the recorder
+	 * @param address the formatted remote address tag value or {@code null}
+	 * @param uriTag the uri tag value
+	 * @param method the method tag value
+	 * @param status the status tag value or {@code null}
+	 * @param time the time spent in sending outgoing data
+	 * @return {@code true} if recorded, {@code false} if the event loop local meters are not enabled
+	 */
+	public static boolean recordDataSentTime(MicrometerHttpMetricsRecorder recorder, @Nullable String address,
+			String uriTag, String method, @Nullable String status, Duration time) {
+		return recorder.recordLocally(DATA_SENT_TIME_METER, address, uriTag, method, status, time.toNanos());
+	}
+
+	/**
+	 * Records the total time for the request/response in the event loop local meters, when enabled.
+	 *
+	 * @param recorder the recorder
+	 * @param address the formatted remote address tag value or {@code null}
+	 * @param uriTag the uri tag value
+	 * @param method the method tag value
+	 * @param status the status tag value
+	 * @param time the total time for the request/response
+	 * @return {@code true} if recorded, {@code false} if the event loop local meters are not enabled
+	 */
+	public static boolean recordResponseTime(MicrometerHttpMetricsRecorder recorder, @Nullable String address,
+			String uriTag, String method, String status, Duration time) {
+		return recorder.recordLocally(RESPONSE_TIME_METER, address, uriTag, method, status, time.toNanos());
+	}
+
+	/**
+	 * Records the amount of the data received in the event loop local meters, when enabled.
+	 *
+	 * @param recorder the recorder
+	 * @param address the formatted remote address tag value or {@code null}
+	 * @param uriTag the uri tag value
+	 * @param bytes the amount of the data received, in bytes
+	 * @return {@code true} if recorded, {@code false} if the event loop local meters are not enabled
+	 */
+	public static boolean recordDataReceived(MicrometerHttpMetricsRecorder recorder, @Nullable String address,
+			String uriTag, long bytes) {
+		return recorder.recordLocally(DATA_RECEIVED_METER, address, uriTag, null, null, bytes);
+	}
+
+	/**
+	 * Records the amount of the data sent in the event loop local meters, when enabled.
+	 *
+	 * @param recorder the recorder
+	 * @param address the formatted remote address tag value or {@code null}
+	 * @param uriTag the uri tag value
+	 * @param bytes the amount of the data sent, in bytes
+	 * @return {@code true} if recorded, {@code false} if the event loop local meters are not enabled
+	 */
+	public static boolean recordDataSent(MicrometerHttpMetricsRecorder recorder, @Nullable String address,
+			String uriTag, long bytes) {
+		return recorder.recordLocally(DATA_SENT_METER, address, uriTag, null, null, bytes);
+	}
+
+	/**
+	 * Increments the number of the errors in the event loop local meters, when enabled.
+	 *
+	 * @param recorder the recorder
+	 * @param address the formatted remote address tag value or {@code null}
+	 * @param uriTag the uri tag value
+	 * @return {@code true} if recorded, {@code false} if the event loop local meters are not enabled
+	 */
+	public static boolean incrementErrorsCount(MicrometerHttpMetricsRecorder recorder, @Nullable String address,
+			String uriTag) {
+		return recorder.recordLocally(ERRORS_METER, address, uriTag, null, null, 1);
+	}
+
+	private EventLoopLocalMetrics() {
+	}
+}
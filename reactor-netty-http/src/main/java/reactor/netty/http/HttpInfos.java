@@ -21,6 +21,7 @@ import java.util.Set;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpVersion;
 import io.netty.handler.codec.http.cookie.Cookie;
+import reactor.util.annotation.Nullable;
 
 /**
  * An Http Reactive Channel with several accessors related to HTTP flow: headers, params,
@@ -38,6 +39,19 @@ public interface HttpInfos {
 	 */
 	Map<CharSequence, Set<Cookie>> cookies();
 
+	/**
+	 * Returns the first resolved HTTP cookie with the given name. Unlike {@link #cookies()},
+	 * it does not need to resolve all the cookies.
+	 *
+	 * @param name the cookie name
+	 * @return the first resolved HTTP cookie with the given name or null
+	 * @since 1.0.0
+	 */
+	@Nullable
+	default Cookie cookie(CharSequence name) {
+		Set<Cookie> cookies = cookies().get(name.toString());
+		return cookies == null || cookies.isEmpty() ? null : cookies.iterator().next();
+	}
 
 	/**
 	 * Is the request keep alive
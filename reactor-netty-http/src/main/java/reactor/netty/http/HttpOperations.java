@@ -17,6 +17,7 @@
 package reactor.netty.http;
 
 import java.net.URI;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.util.Objects;
 import java.util.concurrent.Callable;
@@ -215,10 +216,25 @@ public abstract class HttpOperations<INBOUND extends NettyInbound, OUTBOUND exte
 	public final NettyOutbound sendFile(Path file, long position, long count) {
 		Objects.requireNonNull(file);
 
-		if (hasSentHeaders()) {
-			return super.sendFile(file, position, count);
+		if (!hasSentHeaders()) {
+			fileContentLength(count);
+		}
+
+		return super.sendFile(file, position, count);
+	}
+
+	@Override
+	public final NettyOutbound sendFile(Path file, FileChannel channel, long position, long count) {
+		Objects.requireNonNull(file);
+
+		if (!hasSentHeaders()) {
+			fileContentLength(count);
 		}
 
+		return super.sendFile(file, channel, position, count);
+	}
+
+	final void fileContentLength(long count) {
 		if (!HttpUtil.isTransferEncodingChunked(outboundHttpMessage()) && !HttpUtil.isContentLengthSet(
 				outboundHttpMessage()) && count < Integer.MAX_VALUE) {
 			outboundHttpMessage().headers()
@@ -230,8 +246,12 @@ public abstract class HttpOperations<INBOUND extends NettyInbound, OUTBOUND exte
 			                     .remove(HttpHeaderNames.TRANSFER_ENCODING);
 			HttpUtil.setTransferEncodingChunked(outboundHttpMessage(), true);
 		}
+	}
 
-		return super.sendFile(file, position, count);
+	@Override
+	public boolean isContentEncoded() {
+		// the compression handler lets through any message with a Content-Encoding, identity included
+		return outboundHttpMessage().headers().contains(HttpHeaderNames.CONTENT_ENCODING);
 	}
 
 	@Override
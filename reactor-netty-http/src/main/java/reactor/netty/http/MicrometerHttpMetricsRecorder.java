@@ -17,24 +17,36 @@ package reactor.netty.http;
 
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.Timer;
 import io.netty.util.internal.PlatformDependent;
 import reactor.netty.Metrics;
+import reactor.netty.ReactorNetty;
 import reactor.netty.channel.MeterKey;
 import reactor.netty.channel.MicrometerChannelMetricsRecorder;
+import reactor.util.annotation.Nullable;
 
 import java.net.SocketAddress;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 import static reactor.netty.Metrics.DATA_RECEIVED;
 import static reactor.netty.Metrics.DATA_RECEIVED_TIME;
 import static reactor.netty.Metrics.DATA_SENT;
 import static reactor.netty.Metrics.DATA_SENT_TIME;
 import static reactor.netty.Metrics.ERRORS;
+import static reactor.netty.Metrics.OVERFLOW;
 import static reactor.netty.Metrics.REGISTRY;
 import static reactor.netty.Metrics.REMOTE_ADDRESS;
 import static reactor.netty.Metrics.RESPONSE_TIME;
 import static reactor.netty.Metrics.URI;
+import static reactor.netty.Metrics.URI_TAGS_COLLAPSED;
+import static reactor.netty.http.EventLoopLocalMeters.DATA_RECEIVED_METER;
+import static reactor.netty.http.EventLoopLocalMeters.DATA_SENT_METER;
+import static reactor.netty.http.EventLoopLocalMeters.ERRORS_METER;
 
 /**
  * An {@link HttpMetricsRecorder} implementation for integration with Micrometer.
@@ -62,8 +74,26 @@ public class MicrometerHttpMetricsRecorder extends MicrometerChannelMetricsRecor
 	protected final Counter.Builder errorsBuilder;
 	protected final ConcurrentMap<MeterKey, Counter> errorsCache = PlatformDependent.newConcurrentHashMap();
 
+	/**
+	 * The event loop local meters, {@code null} unless {@link ReactorNetty#HTTP_METRICS_EVENT_LOOP_LOCAL} is enabled
+	 */
+	@Nullable
+	final EventLoopLocalMeters localMeters;
+
+	final String protocol;
+
+	final UriTagLimiter uriTags;
+
 	protected MicrometerHttpMetricsRecorder(String name, String protocol) {
-		super(name, protocol);
+		// With the event loop local meters, the data received and sent are recorded to these meters only
+		super(name, protocol, !EVENT_LOOP_LOCAL);
+		this.protocol = protocol;
+		this.localMeters = EVENT_LOOP_LOCAL ? new EventLoopLocalMeters(name) : null;
+		this.uriTags = new UriTagLimiter(MAX_URI_TAGS, URI_TAG_IDLE_TIMEOUT_NANOS, this::evict);
+		FunctionCounter.builder(name + URI_TAGS_COLLAPSED, uriTags, UriTagLimiter::collapsed)
+		               .description("Number of the uri tag values replaced with " + OVERFLOW +
+		                       " because the maximum number of uri tags was reached")
+		               .register(REGISTRY);
 		this.dataReceivedTimeBuilder =
 				Timer.builder(name + DATA_RECEIVED_TIME)
 				     .description("Time spent in consuming incoming data");
@@ -91,11 +121,45 @@ public class MicrometerHttpMetricsRecorder extends MicrometerChannelMetricsRecor
 				       .description("Number of errors that occurred");
 	}
 
+	@Override
+	public void recordDataReceived(SocketAddress remoteAddress, long bytes) {
+		if (localMeters != null) {
+			localMeters.record(DATA_RECEIVED_METER, Metrics.formatSocketAddress(remoteAddress), protocol, null, null, bytes);
+		}
+		else {
+			super.recordDataReceived(remoteAddress, bytes);
+		}
+	}
+
+	@Override
+	public void recordDataSent(SocketAddress remoteAddress, long bytes) {
+		if (localMeters != null) {
+			localMeters.record(DATA_SENT_METER, Metrics.formatSocketAddress(remoteAddress), protocol, null, null, bytes);
+		}
+		else {
+			super.recordDataSent(remoteAddress, bytes);
+		}
+	}
+
+	@Override
+	public void incrementErrorsCount(SocketAddress remoteAddress) {
+		if (localMeters != null) {
+			localMeters.record(ERRORS_METER, Metrics.formatSocketAddress(remoteAddress), protocol, null, null, 1);
+		}
+		else {
+			super.incrementErrorsCount(remoteAddress);
+		}
+	}
+
 	@Override
 	public void recordDataReceived(SocketAddress remoteAddress, String uri, long bytes) {
+		String uriTag = limitUriTag(uri);
 		String address = Metrics.formatSocketAddress(remoteAddress);
-		DistributionSummary dataReceived = dataReceivedCache.computeIfAbsent(new MeterKey(uri, address, null, null),
-				key -> filter(dataReceivedBuilder.tags(REMOTE_ADDRESS, address, URI, uri)
+		if (recordLocally(DATA_RECEIVED_METER, address, uriTag, null, null, bytes)) {
+			return;
+		}
+		DistributionSummary dataReceived = dataReceivedCache.computeIfAbsent(new MeterKey(uriTag, address, null, null),
+				key -> filter(dataReceivedBuilder.tags(REMOTE_ADDRESS, address, URI, uriTag)
 				                                 .register(REGISTRY)));
 		if (dataReceived != null) {
 			dataReceived.record(bytes);
@@ -104,9 +168,13 @@ public class MicrometerHttpMetricsRecorder extends MicrometerChannelMetricsRecor
 
 	@Override
 	public void recordDataSent(SocketAddress remoteAddress, String uri, long bytes) {
+		String uriTag = limitUriTag(uri);
 		String address = Metrics.formatSocketAddress(remoteAddress);
-		DistributionSummary dataSent = dataSentCache.computeIfAbsent(new MeterKey(uri, address, null, null),
-				key -> filter(dataSentBuilder.tags(REMOTE_ADDRESS, address, URI, uri)
+		if (recordLocally(DATA_SENT_METER, address, uriTag, null, null, bytes)) {
+			return;
+		}
+		DistributionSummary dataSent = dataSentCache.computeIfAbsent(new MeterKey(uriTag, address, null, null),
+				key -> filter(dataSentBuilder.tags(REMOTE_ADDRESS, address, URI, uriTag)
 				                             .register(REGISTRY)));
 		if (dataSent != null) {
 			dataSent.record(bytes);
@@ -115,12 +183,80 @@ public class MicrometerHttpMetricsRecorder extends MicrometerChannelMetricsRecor
 
 	@Override
 	public void incrementErrorsCount(SocketAddress remoteAddress, String uri) {
+		String uriTag = limitUriTag(uri);
 		String address = Metrics.formatSocketAddress(remoteAddress);
-		Counter errors = errorsCache.computeIfAbsent(new MeterKey(uri, address, null, null),
-				key -> filter(errorsBuilder.tags(REMOTE_ADDRESS, address, URI, uri)
+		if (recordLocally(ERRORS_METER, address, uriTag, null, null, 1)) {
+			return;
+		}
+		Counter errors = errorsCache.computeIfAbsent(new MeterKey(uriTag, address, null, null),
+				key -> filter(errorsBuilder.tags(REMOTE_ADDRESS, address, URI, uriTag)
 				                           .register(REGISTRY)));
 		if (errors != null) {
 			errors.increment();
 		}
 	}
+
+	/**
+	 * Returns the given uri tag value, or {@link Metrics#OVERFLOW} when the maximum number of
+	 * uri tag values of this recorder is reached, see {@link ReactorNetty#HTTP_METRICS_MAX_URI_TAGS}.
+	 *
+	 * @param uri the uri tag value
+	 * @return the uri tag value to use
+	 */
+	protected final String limitUriTag(String uri) {
+		return uriTags.apply(uri);
+	}
+
+	/**
+	 * Records a value in the event loop local meters, when enabled.
+	 *
+	 * @return {@code true} if recorded, {@code false} if the event loop local meters are not enabled
+	 * @see EventLoopLocalMetrics
+	 */
+	boolean recordLocally(int meter, @Nullable String remoteAddress, @Nullable String uriTag,
+			@Nullable String method, @Nullable String status, long amount) {
+		EventLoopLocalMeters localMeters = this.localMeters;
+		if (localMeters == null) {
+			return false;
+		}
+		localMeters.record(meter, remoteAddress, uriTag, method, status, amount);
+		return true;
+	}
+
+	/**
+	 * Removes the meters with the given uri tag value from the caches and from the registry.
+	 *
+	 * @param uri the evicted uri tag value
+	 */
+	void evict(String uri) {
+		evict(dataReceivedTimeCache, uri);
+		evict(dataSentTimeCache, uri);
+		evict(responseTimeCache, uri);
+		evict(dataReceivedCache, uri);
+		evict(dataSentCache, uri);
+		evict(errorsCache, uri);
+		if (localMeters != null) {
+			localMeters.evict(uri);
+		}
+	}
+
+	static <M extends Meter> void evict(ConcurrentMap<MeterKey, M> cache, String uri) {
+		Iterator<Map.Entry<MeterKey, M>> it = cache.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<MeterKey, M> entry = it.next();
+			if (uri.equals(entry.getKey().uri())) {
+				it.remove();
+				REGISTRY.remove(entry.getValue());
+			}
+		}
+	}
+
+	static final int MAX_URI_TAGS =
+			Integer.parseInt(System.getProperty(ReactorNetty.HTTP_METRICS_MAX_URI_TAGS, "1000"));
+
+	static final long URI_TAG_IDLE_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(
+			Long.parseLong(System.getProperty(ReactorNetty.HTTP_METRICS_URI_TAG_IDLE_TIMEOUT, "600000")));
+
+	static final boolean EVENT_LOOP_LOCAL =
+			Boolean.parseBoolean(System.getProperty(ReactorNetty.HTTP_METRICS_EVENT_LOOP_LOCAL, "false"));
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http;
+
+import io.netty.util.internal.PlatformDependent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static reactor.netty.Metrics.OVERFLOW;
+
+/**
+ * Bounds the number of distinct uri tag values of a recorder.
+ * <p>A value is admitted while there are less than {@code maxUriTags} values, otherwise the values
+ * that were not used during the last {@code idleTimeout} are evicted first. When there is still
+ * no room, the value is replaced with {@link reactor.netty.Metrics#OVERFLOW} and counted as collapsed.
+ * <p>Using an admitted value only sets a flag when it is not already set, the flags are cleared
+ * by the eviction sweeps, which run at most once per {@code idleTimeout}. A value starts unflagged,
+ * so that a value used only once is evicted by the first sweep following its admission.
+ */
+final class UriTagLimiter {
+
+	final int                        maxUriTags;
+	final long                       idleTimeoutNanos;
+	final Consumer<String>           onEvict;
+	final ConcurrentMap<String, Tag> tags = PlatformDependent.newConcurrentHashMap();
+	final LongAdder                  collapsed = new LongAdder();
+
+	volatile long lastSweep;
+
+	UriTagLimiter(int maxUriTags, long idleTimeoutNanos, Consumer<String> onEvict) {
+		this.maxUriTags = maxUriTags;
+		this.idleTimeoutNanos = idleTimeoutNanos;
+		this.onEvict = onEvict;
+		this.lastSweep = System.nanoTime();
+	}
+
+	/**
+	 * Returns the given uri tag value if it is admitted, otherwise {@link reactor.netty.Metrics#OVERFLOW}.
+	 *
+	 * @param uri the uri tag value
+	 * @return the uri tag value to use
+	 */
+	String apply(String uri) {
+		Tag tag = tags.get(uri);
+		if (tag != null) {
+			if (!tag.used) {
+				tag.used = true;
+			}
+			return uri;
+		}
+		return admit(uri);
+	}
+
+	String admit(String uri) {
+		if (tags.size() >= maxUriTags) {
+			sweep(System.nanoTime());
+			if (tags.size() >= maxUriTags) {
+				collapsed.increment();
+				return OVERFLOW;
+			}
+		}
+		tags.putIfAbsent(uri, new Tag());
+		return uri;
+	}
+
+	/**
+	 * Evicts the values that were not used since the previous sweep, provided that it ran at
+	 * least {@code idleTimeout} ago.
+	 *
+	 * @param now the current time in nanoseconds
+	 */
+	void sweep(long now) {
+		long last = lastSweep;
+		if (now - last < idleTimeoutNanos || !LAST_SWEEP.compareAndSet(this, last, now)) {
+			return;
+		}
+		for (Map.Entry<String, Tag> entry : tags.entrySet()) {
+			Tag tag = entry.getValue();
+			if (tag.used) {
+				tag.used = false;
+			}
+			else if (tags.remove(entry.getKey(), tag)) {
+				onEvict.accept(entry.getKey());
+			}
+		}
+	}
+
+	double collapsed() {
+		return collapsed.sum();
+	}
+
+	static final AtomicLongFieldUpdater<UriTagLimiter> LAST_SWEEP =
+			AtomicLongFieldUpdater.newUpdater(UriTagLimiter.class, "lastSweep");
+
+	static final class Tag {
+		volatile boolean used;
+	}
+}
@@ -15,7 +15,9 @@
  */
 package reactor.netty.http.client;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
+import io.netty.handler.codec.http2.Http2ConnectionAdapter;
 import io.netty.handler.codec.http2.Http2FrameCodec;
 import io.netty.handler.codec.http2.Http2StreamChannel;
 import io.netty.handler.ssl.ApplicationProtocolNames;
@@ -35,6 +37,7 @@ import reactor.core.publisher.Operators;
 import reactor.netty.Connection;
 import reactor.netty.ConnectionObserver;
 import reactor.netty.NettyPipeline;
+import reactor.netty.ReactorNetty;
 import reactor.netty.channel.ChannelOperations;
 import reactor.netty.resources.ConnectionProvider;
 import reactor.netty.resources.PooledConnectionProvider;
@@ -52,7 +55,14 @@ import reactor.util.context.Context;
 import java.io.IOException;
 import java.net.SocketAddress;
 import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.function.BiPredicate;
@@ -75,8 +85,14 @@ final class Http2ConnectionProvider extends PooledConnectionProvider<Connection>
 	final ConnectionProvider parent;
 	final int maxHttp2Connections;
 
+	/**
+	 * The HTTP/2 connections of each pool, the streams are opened on the least loaded one
+	 */
+	final Map<InstrumentedPool<Connection>, List<ConnectionStreams>> connections =
+			Collections.synchronizedMap(new WeakHashMap<>());
+
 	Http2ConnectionProvider(ConnectionProvider parent, int maxHttp2Connections) {
-		super(ConnectionProvider.builder("http2").maxConnections(maxHttp2Connections).pendingAcquireMaxCount(-1));
+		super(ConnectionProvider.builder("http2").maxConnections(maxHttp2Connections).pendingAcquireMaxCount(PENDING_STREAMS_MAX_COUNT));
 		this.maxHttp2Connections = maxHttp2Connections;
 		this.parent = parent;
 	}
@@ -88,7 +104,8 @@ final class Http2ConnectionProvider extends PooledConnectionProvider<Connection>
 			long pendingAcquireTimeout,
 			InstrumentedPool<Connection> pool,
 			MonoSink<Connection> sink) {
-		return new DisposableAcquire(connectionObserver, opsFactory, pendingAcquireTimeout, pool, sink);
+		List<ConnectionStreams> poolConnections = connections.computeIfAbsent(pool, p -> new CopyOnWriteArrayList<>());
+		return new DisposableAcquire(connectionObserver, opsFactory, pendingAcquireTimeout, pool, poolConnections, sink);
 	}
 
 	@Override
@@ -139,6 +156,362 @@ final class Http2ConnectionProvider extends PooledConnectionProvider<Connection>
 
 	static final AttributeKey<ConnectionObserver> OWNER = AttributeKey.valueOf("http2ConnectionOwner");
 
+	static final AttributeKey<ConnectionStreams> STREAMS = AttributeKey.valueOf("http2ConnectionStreams");
+
+	/**
+	 * Default percentage of the maximum concurrent streams of a connection above which a new connection is preferred
+	 */
+	static final int STREAMS_HIGH_WATER_MARK =
+			Integer.parseInt(System.getProperty(ReactorNetty.HTTP2_STREAMS_HIGH_WATER_MARK, "100"));
+
+	/**
+	 * Default maximum number of stream acquisitions waiting for a connection
+	 */
+	static final int PENDING_STREAMS_MAX_COUNT =
+			Integer.parseInt(System.getProperty(ReactorNetty.HTTP2_PENDING_STREAMS_MAX_COUNT, "-1"));
+
+	/**
+	 * Default maximum number of streams opened on a connection before it is drained
+	 */
+	static final int MAX_STREAMS_PER_CONNECTION =
+			Integer.parseInt(System.getProperty(ReactorNetty.HTTP2_MAX_STREAMS_PER_CONNECTION, "-1"));
+
+	/**
+	 * Default maximum age in milliseconds of a connection before it is drained
+	 */
+	static final long MAX_CONNECTION_AGE =
+			Long.parseLong(System.getProperty(ReactorNetty.HTTP2_MAX_CONNECTION_AGE, "-1"));
+
+	/**
+	 * The active streams of a HTTP/2 connection. While the connection is above the high-water mark,
+	 * it is held out of the pool, so that the pool opens a new connection or queues the acquisitions
+	 * when the maximum number of connections is reached. It is released to the pool once enough
+	 * streams are closed.
+	 *
+	 * <p>A connection is drained when a GOAWAY is received, or when it reaches the maximum number of streams
+	 * or its maximum age: no more streams are opened on it, a replacement connection is warmed up in the pool,
+	 * and the connection is closed once its active streams complete.
+	 *
+	 * <p>A re-acquired stream that still finds the connection at its max active streams is parked until a stream
+	 * of the connection is closed, or until another connection is opened in the pool.
+	 */
+	static final class ConnectionStreams {
+		final Channel                 channel;
+		final List<ConnectionStreams> connections;
+		final AtomicInteger           active = new AtomicInteger();
+		final AtomicInteger           opened = new AtomicInteger();
+		final long                    createdAt = System.nanoTime();
+		final InstrumentedPool<Connection> pool;
+		final Queue<DisposableAcquire> parked = new ConcurrentLinkedQueue<>();
+
+		volatile int maxActive = Integer.MAX_VALUE;
+		volatile int draining;
+		static final AtomicIntegerFieldUpdater<ConnectionStreams> DRAINING =
+				AtomicIntegerFieldUpdater.newUpdater(ConnectionStreams.class, "draining");
+
+		/**
+		 * The pooled reference held while the connection is above the high-water mark,
+		 * accessed on the event loop of the connection
+		 */
+		PooledRef<Connection> held;
+
+		ConnectionStreams(Channel channel, List<ConnectionStreams> connections, @Nullable InstrumentedPool<Connection> pool) {
+			this.channel = channel;
+			this.connections = connections;
+			this.pool = pool;
+		}
+
+		static ConnectionStreams get(Channel channel, List<ConnectionStreams> connections, @Nullable InstrumentedPool<Connection> pool) {
+			ConnectionStreams streams = channel.attr(STREAMS).get();
+			if (streams == null) {
+				ConnectionStreams newStreams = new ConnectionStreams(channel, connections, pool);
+				streams = channel.attr(STREAMS).setIfAbsent(newStreams);
+				if (streams == null) {
+					streams = newStreams;
+					connections.add(streams);
+					for (ConnectionStreams other : connections) {
+						if (other != newStreams) {
+							other.onConnectionAdded();
+						}
+					}
+					channel.closeFuture()
+					       .addListener(f -> newStreams.onConnectionClosed());
+					Http2FrameCodec frameCodec = channel.pipeline().get(Http2FrameCodec.class);
+					if (frameCodec != null) {
+						if (frameCodec.connection().goAwayReceived()) {
+							newStreams.drain("GOAWAY received");
+						}
+						else {
+							frameCodec.connection().addListener(new Http2ConnectionAdapter() {
+								@Override
+								public void onGoAwayReceived(int lastStreamId, long errorCode, ByteBuf debugData) {
+									newStreams.drain("GOAWAY received");
+								}
+							});
+						}
+					}
+				}
+			}
+			return streams;
+		}
+
+		/**
+		 * Returns whether the connection of the channel is drained, or must be drained
+		 * because it reached its maximum age.
+		 */
+		static boolean isDraining(Channel channel) {
+			ConnectionStreams streams = channel.attr(STREAMS).get();
+			return streams != null && streams.isDraining();
+		}
+
+		boolean isDraining() {
+			if (draining == 0 && MAX_CONNECTION_AGE != -1 &&
+					System.nanoTime() - createdAt >= TimeUnit.MILLISECONDS.toNanos(MAX_CONNECTION_AGE)) {
+				drain("Max connection age is reached");
+			}
+			return draining == 1;
+		}
+
+		/**
+		 * Stops opening streams on the connection, the connection is closed once its active streams complete.
+		 * A replacement connection is warmed up unless acquisitions are already pending on the pool.
+		 */
+		void drain(String reason) {
+			if (!DRAINING.compareAndSet(this, 0, 1)) {
+				return;
+			}
+			connections.remove(this);
+			if (log.isDebugEnabled()) {
+				log.debug(format(channel, "{}, draining the connection with {} active streams"), reason, active.get());
+			}
+			// The connection may be drained while the pool is evicting it, act outside of the pool
+			channel.eventLoop().execute(() -> {
+				reacquireParked();
+				warmUp();
+				closeIfDrained();
+			});
+		}
+
+		/**
+		 * Warms up a replacement connection in the pool, unless acquisitions are already pending.
+		 * The h2c connections are upgraded on their first request, only the secured connections are warmed up.
+		 */
+		void warmUp() {
+			InstrumentedPool<Connection> pool = this.pool;
+			if (pool != null && channel.isActive() && channel.pipeline().get(SslHandler.class) != null &&
+					pool.metrics().pendingAcquireSize() == 0) {
+				pool.acquire()
+				    .flatMap(PooledRef::release)
+				    .subscribe(null, t -> {
+				        if (log.isDebugEnabled()) {
+				            log.debug(format(channel, "Failed to warm up a replacement connection"), t);
+				        }
+				    });
+			}
+		}
+
+		@SuppressWarnings("FutureReturnValueIgnored")
+		void closeIfDrained() {
+			if (!channel.eventLoop().inEventLoop()) {
+				channel.eventLoop().execute(this::closeIfDrained);
+				return;
+			}
+			if (active.get() == 0 && channel.isActive()) {
+				if (log.isDebugEnabled()) {
+					log.debug(format(channel, "Connection drained, closing it"));
+				}
+				//"FutureReturnValueIgnored" this is deliberate
+				channel.close();
+			}
+		}
+
+		/**
+		 * Counts a stream reserved on the connection, the connection is drained once it reaches
+		 * the maximum number of streams.
+		 */
+		void onStreamReserved() {
+			if (MAX_STREAMS_PER_CONNECTION != -1 && opened.incrementAndGet() >= MAX_STREAMS_PER_CONNECTION) {
+				drain("Max streams per connection is reached");
+			}
+		}
+
+		int highWaterMark() {
+			int max = maxActive;
+			return max == Integer.MAX_VALUE ? max : Math.max(1, (int) ((long) max * STREAMS_HIGH_WATER_MARK / 100));
+		}
+
+		boolean isAboveHighWaterMark() {
+			return active.get() >= highWaterMark();
+		}
+
+		/**
+		 * Reserves a stream if the connection stays below the high-water mark once the stream is opened.
+		 */
+		boolean tryReserve(int expected) {
+			if (!channel.isActive() || isDraining() || expected + 1 >= highWaterMark() ||
+					!active.compareAndSet(expected, expected + 1)) {
+				return false;
+			}
+			if (draining == 1) {
+				// Drained meanwhile
+				onStreamClosed();
+				return false;
+			}
+			onStreamReserved();
+			return true;
+		}
+
+		void updateMaxActive(@Nullable Http2FrameCodec frameCodec) {
+			if (frameCodec != null) {
+				maxActive = frameCodec.connection().local().maxActiveStreams();
+			}
+		}
+
+		void hold(PooledRef<Connection> pooledRef) {
+			if (!channel.eventLoop().inEventLoop()) {
+				channel.eventLoop().execute(() -> hold(pooledRef));
+				return;
+			}
+			if (!channel.isActive()) {
+				invalidate(pooledRef);
+				return;
+			}
+			if (log.isDebugEnabled()) {
+				log.debug(format(channel, "Connection above the high-water mark of {} active streams, " +
+						"holding it out of the pool"), highWaterMark());
+			}
+			held = pooledRef;
+			// Streams may have been closed meanwhile
+			releaseBelowHighWaterMark();
+		}
+
+		void onStreamClosed() {
+			active.decrementAndGet();
+			if (draining == 1) {
+				closeIfDrained();
+			}
+			else {
+				releaseBelowHighWaterMark();
+				resumeParked();
+			}
+		}
+
+		/**
+		 * Parks an acquisition until a stream of the connection is closed, or until another connection
+		 * is opened in the pool. The acquisition fails once the pending acquire timeout elapses.
+		 */
+		void park(DisposableAcquire acquire) {
+			if (log.isDebugEnabled()) {
+				log.debug(format(channel, "Max active streams is reached, parking the acquisition until a stream is closed"));
+			}
+			acquire.parked = true;
+			parked.offer(acquire);
+			if (acquire.pendingAcquireTimeout > 0) {
+				acquire.parkTimeout = channel.eventLoop().schedule(() -> {
+					if (parked.remove(acquire)) {
+						acquire.sink.error(new IOException("Error while acquiring from " + pool +
+								". Max active streams is reached, no stream was closed within " +
+								acquire.pendingAcquireTimeout + "ms."));
+					}
+				}, acquire.pendingAcquireTimeout, TimeUnit.MILLISECONDS);
+			}
+		}
+
+		/**
+		 * Opens a stream for the oldest parked acquisition once the connection can open a stream again,
+		 * a stream closed is a single stream freed.
+		 */
+		void resumeParked() {
+			if (parked.isEmpty()) {
+				return;
+			}
+			if (!channel.eventLoop().inEventLoop()) {
+				channel.eventLoop().execute(this::resumeParked);
+				return;
+			}
+			if (!channel.isActive() || draining == 1) {
+				reacquireParked();
+				return;
+			}
+			Http2FrameCodec frameCodec = channel.pipeline().get(Http2FrameCodec.class);
+			if (frameCodec == null || !frameCodec.connection().local().canOpenStream() || active.get() >= maxActive) {
+				return;
+			}
+			DisposableAcquire acquire;
+			while ((acquire = parked.poll()) != null) {
+				if (acquire.unpark()) {
+					active.incrementAndGet();
+					onStreamReserved();
+					acquire.openStream(this);
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Re-acquires the parked acquisitions from the pool, as another connection may have free streams.
+		 */
+		void reacquireParked() {
+			DisposableAcquire acquire;
+			while ((acquire = parked.poll()) != null) {
+				if (acquire.unpark()) {
+					acquire.reacquire();
+				}
+			}
+		}
+
+		void onConnectionAdded() {
+			if (!parked.isEmpty()) {
+				channel.eventLoop().execute(this::reacquireParked);
+			}
+		}
+
+		void releaseBelowHighWaterMark() {
+			PooledRef<Connection> pooledRef = held;
+			if (pooledRef != null && draining == 0 && !isAboveHighWaterMark()) {
+				held = null;
+				if (log.isDebugEnabled()) {
+					log.debug(format(channel, "Connection below the high-water mark, releasing it to the pool"));
+				}
+				pooledRef.release()
+				         .subscribe();
+			}
+		}
+
+		void onConnectionClosed() {
+			connections.remove(this);
+			reacquireParked();
+			PooledRef<Connection> pooledRef = held;
+			if (pooledRef != null) {
+				held = null;
+				invalidate(pooledRef);
+			}
+		}
+
+		static void invalidate(PooledRef<Connection> pooledRef) {
+			pooledRef.invalidate()
+			         .subscribe();
+		}
+
+		/**
+		 * Returns the least loaded connection that stays below the high-water mark once a stream is opened,
+		 * with a reserved stream.
+		 */
+		@Nullable
+		static ConnectionStreams reserveLeastLoaded(List<ConnectionStreams> connections) {
+			ConnectionStreams leastLoaded = null;
+			int min = Integer.MAX_VALUE;
+			for (ConnectionStreams streams : connections) {
+				int active = streams.active.get();
+				if (active < min && streams.channel.isActive() && !streams.isDraining() && active + 1 < streams.highWaterMark()) {
+					leastLoaded = streams;
+					min = active;
+				}
+			}
+			return leastLoaded != null && leastLoaded.tryReserve(min) ? leastLoaded : null;
+		}
+	}
+
 	static final class DelegatingConnectionObserver implements ConnectionObserver {
 
 		@Override
@@ -178,23 +551,36 @@ final class Http2ConnectionProvider extends PooledConnectionProvider<Connection>
 		final ChannelOperations.OnSetup opsFactory;
 		final long pendingAcquireTimeout;
 		final InstrumentedPool<Connection> pool;
+		final List<ConnectionStreams> connections;
 		final boolean retried;
 		final MonoSink<Connection> sink;
 
+		Channel channel;
 		PooledRef<Connection> pooledRef;
+		ConnectionStreams streams;
 		Subscription subscription;
 
+		/**
+		 * Whether the acquisition was parked on a connection at its max active streams,
+		 * its pooled reference is then held by the connection
+		 */
+		boolean parked;
+		Future<?> parkTimeout;
+		volatile boolean disposed;
+
 		DisposableAcquire(
 				ConnectionObserver obs,
 				ChannelOperations.OnSetup opsFactory,
 				long pendingAcquireTimeout,
 				InstrumentedPool<Connection> pool,
+				List<ConnectionStreams> connections,
 				MonoSink<Connection> sink) {
 			this.cancellations = Disposables.composite();
 			this.obs = obs;
 			this.opsFactory = opsFactory;
 			this.pendingAcquireTimeout = pendingAcquireTimeout;
 			this.pool = pool;
+			this.connections = connections;
 			this.retried = false;
 			this.sink = sink;
 		}
@@ -205,6 +591,7 @@ final class Http2ConnectionProvider extends PooledConnectionProvider<Connection>
 			this.opsFactory = parent.opsFactory;
 			this.pendingAcquireTimeout = parent.pendingAcquireTimeout;
 			this.pool = parent.pool;
+			this.connections = parent.connections;
 			this.retried = true;
 			this.sink = parent.sink;
 		}
@@ -216,9 +603,34 @@ final class Http2ConnectionProvider extends PooledConnectionProvider<Connection>
 
 		@Override
 		public void dispose() {
+			disposed = true;
 			subscription.cancel();
 		}
 
+		@Override
+		public boolean isDisposed() {
+			return disposed;
+		}
+
+		/**
+		 * Cancels the timeout of the parked acquisition.
+		 *
+		 * @return {@code true} if the acquisition is still to be resumed
+		 */
+		boolean unpark() {
+			Future<?> parkTimeout = this.parkTimeout;
+			if (parkTimeout != null) {
+				this.parkTimeout = null;
+				parkTimeout.cancel(false);
+			}
+			return !disposed;
+		}
+
+		void reacquire() {
+			pool.acquire(Duration.ofMillis(pendingAcquireTimeout))
+			    .subscribe(new DisposableAcquire(this));
+		}
+
 		@Override
 		public void onComplete() {
 			// noop
@@ -233,6 +645,7 @@ final class Http2ConnectionProvider extends PooledConnectionProvider<Connection>
 		public void onNext(PooledRef<Connection> pooledRef) {
 			this.pooledRef = pooledRef;
 			Channel channel = pooledRef.poolable().channel();
+			this.channel = channel;
 
 			if (log.isDebugEnabled()) {
 				log.debug(format(channel, "Channel activated, now {} active connections and {} inactive connections"),
@@ -265,6 +678,37 @@ final class Http2ConnectionProvider extends PooledConnectionProvider<Connection>
 				return;
 			}
 
+			ConnectionStreams streams = ConnectionStreams.get(channel, connections, pool);
+			streams.updateMaxActive(channel.pipeline().get(Http2FrameCodec.class));
+			if (streams.isDraining()) {
+				// The connection is closed once its active streams complete, acquire another one
+				if (log.isDebugEnabled()) {
+					log.debug(format(channel, "Connection is draining, re-acquiring a new channel"));
+				}
+				ConnectionStreams.invalidate(pooledRef);
+				pool.acquire(Duration.ofMillis(pendingAcquireTimeout))
+				    .subscribe(new DisposableAcquire(this));
+				return;
+			}
+			if (streams.active.get() >= streams.maxActive) {
+				// The streams opened on the least loaded connection reached the max active streams,
+				// hold the connection so that the pool opens a new one or queues the acquisition
+				if (log.isDebugEnabled()) {
+					log.debug(format(channel, "Max active streams is reached, re-acquiring a new channel"));
+				}
+				streams.hold(pooledRef);
+				pool.acquire(Duration.ofMillis(pendingAcquireTimeout))
+				    .subscribe(new DisposableAcquire(this));
+				return;
+			}
+			streams.active.incrementAndGet();
+			streams.onStreamReserved();
+			openStream(streams);
+		}
+
+		void openStream(ConnectionStreams streams) {
+			this.streams = streams;
+			this.channel = streams.channel;
 			HttpClientConfig.openStream(channel, obs, opsFactory)
 			                .addListener(this);
 		}
@@ -289,6 +733,13 @@ final class Http2ConnectionProvider extends PooledConnectionProvider<Connection>
 				if (!retried) {
 					sink.onCancel(cancellations);
 				}
+				ConnectionStreams leastLoaded = ConnectionStreams.reserveLeastLoaded(connections);
+				if (leastLoaded != null) {
+					// The least loaded connection stays below the high-water mark, no need to acquire from the pool
+					s.cancel();
+					openStream(leastLoaded);
+					return;
+				}
 				s.request(Long.MAX_VALUE);
 			}
 		}
@@ -299,24 +750,38 @@ final class Http2ConnectionProvider extends PooledConnectionProvider<Connection>
 		}
 
 		@Override
+		@SuppressWarnings("FutureReturnValueIgnored")
 		public void operationComplete(Future<Http2StreamChannel> future) {
-			Channel channel = pooledRef.poolable().channel();
+			Channel channel = this.channel;
+			ConnectionStreams streams = this.streams;
 			Http2FrameCodec frameCodec = channel.pipeline().get(Http2FrameCodec.class);
 			if (future.isSuccess()) {
 				Http2StreamChannel ch = future.getNow();
+				ch.closeFuture()
+				  .addListener(f -> streams.onStreamClosed());
+				streams.updateMaxActive(frameCodec);
 
 				if (!frameCodec.connection().local().canOpenStream()) {
+					if (pooledRef != null && !parked) {
+						streams.hold(pooledRef);
+					}
 					if (!retried) {
+						//"FutureReturnValueIgnored" this is deliberate
+						ch.close();
 						if (log.isDebugEnabled()) {
 							log.debug(format(ch, "Immediately aborted pooled channel max active streams is reached, " +
 								"re-acquiring a new channel"));
 						}
-						pool.acquire(Duration.ofMillis(pendingAcquireTimeout))
-						    .subscribe(new DisposableAcquire(this));
+						reacquire();
 					}
 					else {
-						sink.error(new IOException("Error while acquiring from " + pool + ". Max active streams is reached."));
+						// Parked before the stream is closed, so that the acquisition is resumed
+						// as soon as the connection can open a stream again
+						streams.park(this);
+						//"FutureReturnValueIgnored" this is deliberate
+						ch.close();
 					}
+					return;
 				}
 				else {
 					ChannelOperations<?, ?> ops = ChannelOperations.get(ch);
@@ -333,10 +798,18 @@ final class Http2ConnectionProvider extends PooledConnectionProvider<Connection>
 				}
 			}
 			else {
+				streams.onStreamClosed();
 				sink.error(future.cause());
 			}
 
-			release(this, channel);
+			if (pooledRef != null && !parked) {
+				if (streams.isAboveHighWaterMark()) {
+					streams.hold(pooledRef);
+				}
+				else {
+					release(this, channel);
+				}
+			}
 		}
 
 		boolean isH2cUpgrade() {
@@ -478,12 +951,18 @@ final class Http2ConnectionProvider extends PooledConnectionProvider<Connection>
 		}
 
 		static final BiPredicate<Connection, PooledRefMetadata> DEFAULT_EVICTION_PREDICATE =
-				(connection, metadata) -> !connection.channel().isActive() || !connection.isPersistent();
+				(connection, metadata) -> !connection.channel().isActive() || !connection.isPersistent() ||
+						ConnectionStreams.isDraining(connection.channel());
 
 		static final Function<Connection, Publisher<Void>> DEFAULT_DESTROY_HANDLER =
 				connection -> {
 					Channel channel = connection.channel();
-					if (channel.isActive()) {
+					ConnectionStreams streams = channel.attr(STREAMS).get();
+					if (streams != null && streams.draining == 1) {
+						// The connection is closed once its active streams complete
+						streams.closeIfDrained();
+					}
+					else if (channel.isActive()) {
 						Http2FrameCodec frameCodec = channel.pipeline().get(Http2FrameCodec.class);
 						if (frameCodec != null && frameCodec.connection().local().numActiveStreams() == 0) {
 							ChannelOperations<?, ?> ops = connection.as(ChannelOperations.class);
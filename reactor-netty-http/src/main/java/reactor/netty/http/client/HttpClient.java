@@ -1093,6 +1093,34 @@ public abstract class HttpClient extends ClientTransport<HttpClient, HttpClientC
 		return request(HttpMethod.PATCH);
 	}
 
+	/**
+	 * Specifies the maximum number of idempotent HTTP/1.1 requests pipelined per connection.
+	 * When enabled, the {@code GET} and {@code HEAD} requests share the connections to the same remote address:
+	 * a request is written to a connection that already waits for responses, as long as the connection has less
+	 * than this number of requests in flight, and the responses are matched to the requests in order.
+	 * The connection is released to the {@link ConnectionProvider} once it has no request in flight.
+	 * When the connection is closed, the requests without response are retried once on another connection,
+	 * unless {@link #disableRetry(boolean)} is set.
+	 * The other requests, and the requests using HTTP/2, acquire a connection each.
+	 * Default to {@code 0}, each request acquires a connection.
+	 *
+	 * @param maxInFlightRequests the maximum number of requests pipelined per connection,
+	 * {@code 0} to acquire a connection for each request
+	 * @return a new {@link HttpClient}
+	 * @since 1.0.0
+	 */
+	public final HttpClient pipelining(int maxInFlightRequests) {
+		if (maxInFlightRequests < 0) {
+			throw new IllegalArgumentException("maxInFlightRequests must be positive");
+		}
+		if (maxInFlightRequests == configuration().pipelining) {
+			return this;
+		}
+		HttpClient dup = duplicate();
+		dup.configuration().pipelining = maxInFlightRequests;
+		return dup;
+	}
+
 	@Override
 	public final HttpClient port(int port) {
 		return super.port(port);
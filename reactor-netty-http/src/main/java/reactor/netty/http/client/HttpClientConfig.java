@@ -203,6 +203,16 @@ public final class HttpClientConfig extends ClientTransportConfig<HttpClientConf
 		return method;
 	}
 
+	/**
+	 * Return the maximum number of idempotent HTTP/1.1 requests pipelined per connection,
+	 * or {@code 0} when each request acquires a connection.
+	 *
+	 * @return the maximum number of idempotent HTTP/1.1 requests pipelined per connection
+	 */
+	public int pipelining() {
+		return pipelining;
+	}
+
 	/**
 	 * Return the HTTP protocol to support. Default is {@link HttpProtocol#HTTP11}.
 	 *
@@ -296,6 +306,7 @@ public final class HttpClientConfig extends ClientTransportConfig<HttpClientConf
 	HttpHeaders headers;
 	Http2SettingsSpec http2Settings;
 	HttpMethod method;
+	int pipelining;
 	HttpProtocol[] protocols;
 	int _protocols;
 	Consumer<HttpClientRequest> redirectRequestConsumer;
@@ -342,6 +353,7 @@ public final class HttpClientConfig extends ClientTransportConfig<HttpClientConf
 		this.headers = parent.headers;
 		this.http2Settings = parent.http2Settings;
 		this.method = parent.method;
+		this.pipelining = parent.pipelining;
 		this.protocols = parent.protocols;
 		this._protocols = parent._protocols;
 		this.redirectRequestConsumer = parent.redirectRequestConsumer;
@@ -317,7 +317,7 @@ class HttpClientConnect extends HttpClient {
 					log.debug(format(connection.channel(), "The request will be redirected"));
 				}
 			}
-			else if (AbortedException.isConnectionReset(error) && handler.shouldRetry) {
+			else if (isRetryable(error) && handler.shouldRetry) {
 				HttpClientOperations ops = connection.as(HttpClientOperations.class);
 				if (ops != null) {
 					ops.retrying = true;
@@ -605,7 +605,7 @@ class HttpClientConnect extends HttpClient {
 				redirect(re.location);
 				return true;
 			}
-			if (AbortedException.isConnectionReset(throwable) && shouldRetry) {
+			if (isRetryable(throwable) && shouldRetry) {
 				shouldRetry = false;
 				redirect(toURI.toString());
 				return true;
@@ -619,6 +619,14 @@ class HttpClientConnect extends HttpClient {
 		}
 	}
 
+	/**
+	 * Return true if the request was not sent, or if it was pipelined and the connection
+	 * was closed before its response, the request can be retried on another connection.
+	 */
+	static boolean isRetryable(Throwable err) {
+		return AbortedException.isConnectionReset(err) || PrematureCloseException.isBeforePipelinedResponse(err);
+	}
+
 	static final AsciiString ALL = new AsciiString("*/*");
 
 	static final int DEFAULT_PORT = System.getenv("PORT") != null ? Integer.parseInt(System.getenv("PORT")) : 80;
@@ -48,8 +48,11 @@ public interface HttpClientForm {
 	HttpClientForm charset(Charset charset);
 
 	/**
-	 * Should file attributes be cleaned and eventually removed from disk.
-	 * Default to false.
+	 * Should the buffered parts be released and the files be closed as soon as the
+	 * form is sent or cancelled. The parts are never staged on disk, the pooled buffers and the
+	 * opened files and streams are always released once the form is sent or cancelled,
+	 * whatever this setting.
+	 * Default to true.
 	 *
 	 * @param clean true if cleaned on termination (successful or failed)
 	 *
@@ -70,7 +73,10 @@ public interface HttpClientForm {
 	 *
 	 * @param factory the new {@link HttpDataFactory} to use
 	 * @return this builder
+	 * @deprecated as of 1.0.0, the parts are streamed from their source without being staged
+	 * by an {@link HttpDataFactory}, the factory is not used. This method will be removed in version 1.1.0.
 	 */
+	@Deprecated
 	HttpClientForm factory(HttpDataFactory factory);
 
 	/**
@@ -16,123 +16,133 @@
 
 package reactor.netty.http.client;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
-import java.util.regex.Pattern;
+import java.util.concurrent.ThreadLocalRandom;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.FileRegion;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
 import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpRequest;
-import io.netty.handler.codec.http.multipart.DiskAttribute;
-import io.netty.handler.codec.http.multipart.DiskFileUpload;
-import io.netty.handler.codec.http.multipart.FileUpload;
+import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.multipart.HttpDataFactory;
-import io.netty.handler.codec.http.multipart.HttpPostRequestEncoder;
-import io.netty.handler.codec.http.multipart.MemoryFileUpload;
+import io.netty.handler.codec.http.multipart.HttpPostRequestEncoder.EncoderMode;
 import io.netty.handler.stream.ChunkedInput;
+import io.netty.util.CharsetUtil;
+import io.netty.util.ReferenceCountUtil;
 import reactor.core.Exceptions;
 import reactor.core.publisher.Sinks;
 import reactor.util.annotation.Nullable;
 
 /**
- * Modified {@link io.netty.handler.codec.http.multipart.HttpPostRequestEncoder} for
- * optional filename and builder support
+ * Encodes a FORM as the body of a POST request, {@code application/x-www-form-urlencoded}
+ * or {@code multipart/form-data}.
  * <p>
- * This encoder will help to encode Request for a FORM as POST.
+ * The url-encoded attributes are percent-encoded in a single pass into a pooled buffer. The multipart
+ * delimiters, headers and attributes are written into pooled buffers while the body is read, the files are
+ * streamed from their {@link FileChannel}, with zero-byte copy when the connection allows it. The parts
+ * are never staged on disk, the {@link InputStream}s are read chunk by chunk while the body is read, their
+ * size is unknown then. They are read into a pooled buffer only when the body is sent with a content length.
  */
-final class HttpClientFormEncoder extends HttpPostRequestEncoder
-		implements ChunkedInput<HttpContent>, Runnable, HttpClientForm {
+final class HttpClientFormEncoder implements ChunkedInput<Object>, Runnable, HttpClientForm {
 
+	final ByteBufAllocator alloc;
 	final Sinks.Many<Long> progressSink;
-	final HttpRequest request;
+	final HttpRequest      request;
+	final List<Part>       parts = new ArrayList<>();
 
-	boolean         needNewEncoder;
-	HttpDataFactory newFactory;
-	boolean         cleanOnTerminate;
-	Charset         newCharset;
-	boolean         newMultipart;
-	EncoderMode     newMode;
+	Charset     charset;
+	EncoderMode mode;
+	boolean     multipart;
 
 	/**
-	 * @param factory the factory used to create InterfaceHttpData
+	 * Whether the files are sent with zero-byte copy, set when the request is finalized
+	 */
+	boolean zeroCopy;
+	String  boundary;
+	long    length;
+
+	boolean   closed;
+	boolean   endOfInput;
+	long      progress;
+	int       partIndex;
+	@Nullable
+	FilePart  current;
+	@Nullable
+	FileChannel fileChannel;
+	long      filePosition;
+
+	/**
+	 * @param alloc the allocator of the encoded body
 	 * @param request the request to encode
 	 * @param multipart True if the FORM is a ENCTYPE="multipart/form-data"
 	 * @param charset the charset to use as default
 	 * @param encoderMode the mode for the encoder to use. See {@link EncoderMode} for the
 	 * details.
-	 *
-	 * @throws NullPointerException      for request or charset or factory
-	 * @throws ErrorDataEncoderException if the request is not a POST
 	 */
-	HttpClientFormEncoder(HttpDataFactory factory,
+	HttpClientFormEncoder(ByteBufAllocator alloc,
 			HttpRequest request,
 			boolean multipart,
 			Charset charset,
-			EncoderMode encoderMode) throws ErrorDataEncoderException {
-		super(factory, request, multipart, charset, encoderMode);
-		this.newCharset = charset;
-		this.request = request;
-		this.cleanOnTerminate = true;
+			EncoderMode encoderMode) {
+		this.alloc = Objects.requireNonNull(alloc, "alloc");
+		this.request = Objects.requireNonNull(request, "request");
+		this.charset = Objects.requireNonNull(charset, "charset");
+		this.mode = Objects.requireNonNull(encoderMode, "encoderMode");
+		this.multipart = multipart;
 		this.progressSink = Sinks.many().multicast().onBackpressureError();
-		this.newMode = encoderMode;
-		this.newFactory = factory;
-		this.newMultipart = multipart;
-	}
-
-	@Override
-	public HttpContent readChunk(ByteBufAllocator allocator) throws Exception {
-		HttpContent c = super.readChunk(allocator);
-		if (c == null) {
-			progressSink.emitComplete();
-		}
-		else {
-			progressSink.emitNext(progress());
-			if (isEndOfInput()) {
-				progressSink.emitComplete();
-			}
-		}
-		return c;
 	}
 
 	@Override
 	public HttpClientForm attr(String name, String value) {
-		try {
-			addBodyAttribute(name, value);
-		}
-		catch (ErrorDataEncoderException e) {
-			throw Exceptions.propagate(e);
-		}
+		Objects.requireNonNull(name, "name");
+		Objects.requireNonNull(value, "value");
+		parts.add(new AttributePart(name, value));
 		return this;
 	}
 
 	@Override
 	public HttpClientForm charset(Charset charset) {
-		this.newCharset = Objects.requireNonNull(charset, "charset");
-		this.needNewEncoder = true;
+		this.charset = Objects.requireNonNull(charset, "charset");
 		return this;
 	}
 
 	@Override
 	public HttpClientForm cleanOnTerminate(boolean clean) {
-		this.cleanOnTerminate = clean;
+		// the parts are never staged on disk, the pooled buffers and the opened files and streams
+		// are always released once the form is sent or cancelled
 		return this;
 	}
 
 	@Override
+	@Deprecated
 	public HttpClientForm factory(HttpDataFactory factory) {
-		if(!getBodyListAttributes().isEmpty()){
+		Objects.requireNonNull(factory, "factory");
+		if (!parts.isEmpty()) {
 			throw new IllegalStateException("Cannot set a new HttpDataFactory after " +
 					"starting appending Parts, call factory(f) at the earliest occasion" +
 					" offered");
 		}
-		this.newFactory = Objects.requireNonNull(factory, "factory");
-		this.needNewEncoder = true;
-		return applyChanges(request);
+		// the parts are streamed from their source, there is nothing to stage
+		return this;
 	}
 
 	@Override
@@ -155,27 +165,8 @@ final class HttpClientFormEncoder extends HttpPostRequestEncoder
 		Objects.requireNonNull(name, "name");
 		Objects.requireNonNull(file, "file");
 		Objects.requireNonNull(filename, "filename");
-		String scontentType = contentType;
-		if (contentType == null) {
-			scontentType = DEFAULT_BINARY_CONTENT_TYPE;
-		}
-		FileUpload fileUpload = newFactory.createFileUpload(request,
-				name,
-				filename,
-				scontentType,
-				DEFAULT_TRANSFER_ENCODING,
-				null,
-				file.length());
-		try {
-			fileUpload.setContent(file);
-			addBodyHttpData(fileUpload);
-		}
-		catch (ErrorDataEncoderException e) {
-			throw Exceptions.propagate(e);
-		}
-		catch (IOException e) {
-			throw Exceptions.propagate(new ErrorDataEncoderException(e));
-		}
+		parts.add(new FilePart(name, filename, contentType != null ? contentType : DEFAULT_BINARY_CONTENT_TYPE,
+				false, file, null));
 		return this;
 	}
 
@@ -186,27 +177,9 @@ final class HttpClientFormEncoder extends HttpPostRequestEncoder
 			@Nullable String contentType) {
 		Objects.requireNonNull(name, "name");
 		Objects.requireNonNull(stream, "stream");
-		try {
-			String scontentType = contentType;
-			if (contentType == null) {
-				scontentType = DEFAULT_BINARY_CONTENT_TYPE;
-			}
-			MemoryFileUpload fileUpload = new MemoryFileUpload(name,
-					filename,
-					scontentType,
-					DEFAULT_TRANSFER_ENCODING,
-					newCharset,
-					-1);
-			fileUpload.setMaxSize(-1);
-			fileUpload.setContent(stream);
-			addBodyHttpData(fileUpload);
-		}
-		catch (ErrorDataEncoderException e) {
-			throw Exceptions.propagate(e);
-		}
-		catch (IOException e) {
-			throw Exceptions.propagate(new ErrorDataEncoderException(e));
-		}
+		Objects.requireNonNull(filename, "filename");
+		parts.add(new FilePart(name, filename, contentType != null ? contentType : DEFAULT_BINARY_CONTENT_TYPE,
+				false, null, stream));
 		return this;
 	}
 
@@ -225,26 +198,29 @@ final class HttpClientFormEncoder extends HttpPostRequestEncoder
 			File[] files,
 			String[] contentTypes,
 			boolean[] textFiles) {
-		try {
-			addBodyFileUploads(name, files, contentTypes, textFiles);
+		if (files.length != contentTypes.length || files.length != textFiles.length) {
+			throw new IllegalArgumentException("Different array length");
 		}
-		catch (ErrorDataEncoderException e) {
-			throw Exceptions.propagate(e);
+		for (int i = 0; i < files.length; i++) {
+			if (textFiles[i]) {
+				textFile(name, files[i], contentTypes[i]);
+			}
+			else {
+				file(name, files[i], contentTypes[i]);
+			}
 		}
 		return this;
 	}
 
 	@Override
 	public HttpClientForm encoding(EncoderMode mode) {
-		this.newMode = Objects.requireNonNull(mode, "mode");
-		this.needNewEncoder = true;
+		this.mode = Objects.requireNonNull(mode, "mode");
 		return this;
 	}
 
 	@Override
 	public HttpClientForm multipart(boolean isMultipart) {
-		this.needNewEncoder = isChunked() != isMultipart;
-		this.newMultipart = isMultipart;
+		this.multipart = isMultipart;
 		return this;
 	}
 
@@ -256,12 +232,10 @@ final class HttpClientFormEncoder extends HttpPostRequestEncoder
 
 	@Override
 	public HttpClientForm textFile(String name, File file, @Nullable String contentType) {
-		try {
-			addBodyFileUpload(name, file, contentType, true);
-		}
-		catch (ErrorDataEncoderException e) {
-			throw Exceptions.propagate(e);
-		}
+		Objects.requireNonNull(name, "name");
+		Objects.requireNonNull(file, "file");
+		parts.add(new FilePart(name, file.getName(), contentType != null ? contentType : DEFAULT_TEXT_CONTENT_TYPE,
+				true, file, null));
 		return this;
 	}
 
@@ -277,71 +251,535 @@ final class HttpClientFormEncoder extends HttpPostRequestEncoder
 			@Nullable String contentType) {
 		Objects.requireNonNull(name, "name");
 		Objects.requireNonNull(stream, "stream");
-		try {
-			String scontentType = contentType;
+		parts.add(new FilePart(name, "", contentType != null ? contentType : DEFAULT_TEXT_CONTENT_TYPE,
+				true, null, stream));
+		return this;
+	}
+
+	boolean isMultipart() {
+		return multipart;
+	}
 
-			if (contentType == null) {
-				scontentType = DEFAULT_TEXT_CONTENT_TYPE;
+	/**
+	 * Returns whether the body is written by reading this {@link ChunkedInput}, a multipart body is,
+	 * an url-encoded body is the content of the request returned by {@link #finalizeRequest(boolean)}.
+	 */
+	boolean isChunked() {
+		return multipart;
+	}
+
+	/**
+	 * Sets the headers of the request and returns the request to write. The url-encoded attributes
+	 * are encoded into the content of the returned request.
+	 *
+	 * @param zeroCopy whether the files can be sent with zero-byte copy
+	 * @param chunked whether the body is sent with chunked transfer encoding, otherwise the content
+	 * of the {@link InputStream}s is read now so that the length of the body is known
+	 * @return the request to write
+	 */
+	HttpRequest finalizeRequest(boolean zeroCopy, boolean chunked) {
+		this.zeroCopy = zeroCopy;
+		if (multipart) {
+			if (!chunked) {
+				for (Part part : parts) {
+					if (part instanceof FilePart) {
+						((FilePart) part).readFully(alloc);
+					}
+				}
 			}
+			boundary = Long.toHexString(ThreadLocalRandom.current().nextLong());
+			request.headers()
+			       .set(HttpHeaderNames.CONTENT_TYPE,
+			            HttpHeaderValues.MULTIPART_FORM_DATA + "; " + HttpHeaderValues.BOUNDARY + '=' + boundary);
+			length = multipartLength();
+			HttpUtil.setTransferEncodingChunked(request, true);
+			return request;
+		}
 
-			MemoryFileUpload fileUpload =
-					new MemoryFileUpload(name, "", scontentType, null, newCharset, -1);
-			fileUpload.setMaxSize(-1);
-			fileUpload.setContent(stream);
-			addBodyHttpData(fileUpload);
+		request.headers()
+		       .set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_X_WWW_FORM_URLENCODED);
+		ByteBuf content = alloc.buffer();
+		try {
+			for (int i = 0; i < parts.size(); i++) {
+				Part part = parts.get(i);
+				if (i > 0) {
+					content.writeByte('&');
+				}
+				urlEncode(content, part.name);
+				content.writeByte('=');
+				// the files are sent by name
+				urlEncode(content, part instanceof AttributePart ? ((AttributePart) part).value : ((FilePart) part).filename);
+			}
+		}
+		catch (Throwable t) {
+			content.release();
+			throw t;
 		}
-		catch (ErrorDataEncoderException e) {
-			throw Exceptions.propagate(e);
+		length = content.readableBytes();
+		endOfInput = true;
+		close();
+		return new DefaultFullHttpRequest(request.protocolVersion(), request.method(), request.uri(), content,
+				request.headers(), new DefaultHttpHeaders());
+	}
+
+	@Override
+	public boolean isEndOfInput() {
+		return endOfInput;
+	}
+
+	@Override
+	public void close() {
+		if (closed) {
+			return;
 		}
-		catch (IOException e) {
-			throw Exceptions.propagate(new ErrorDataEncoderException(e));
+		closed = true;
+		for (Part part : parts) {
+			if (part instanceof FilePart) {
+				((FilePart) part).release();
+			}
 		}
-		return this;
+		closeFile();
+	}
+
+	@Override
+	@Deprecated
+	public Object readChunk(ChannelHandlerContext ctx) throws Exception {
+		return readChunk(ctx.alloc());
+	}
+
+	@Override
+	@Nullable
+	public Object readChunk(ByteBufAllocator allocator) throws Exception {
+		if (endOfInput) {
+			progressSink.emitComplete();
+			return null;
+		}
+		Object chunk = nextChunk(allocator);
+		progress += chunk instanceof FileRegion ? ((FileRegion) chunk).count() : ((HttpContent) chunk).content().readableBytes();
+		progressSink.emitNext(progress);
+		if (endOfInput) {
+			progressSink.emitComplete();
+		}
+		return chunk;
+	}
+
+	@Override
+	public long length() {
+		return length;
+	}
+
+	@Override
+	public long progress() {
+		return progress;
 	}
 
 	@Override
 	public void run() {
-		cleanFiles();
+		close();
 	}
 
-	final HttpClientFormEncoder applyChanges(HttpRequest request) {
-		if (!needNewEncoder) {
-			return this;
+	Object nextChunk(ByteBufAllocator allocator) throws IOException {
+		ByteBuf buf = null;
+		try {
+			for (;;) {
+				FilePart current = this.current;
+				if (current != null) {
+					if (buf != null) {
+						// the headers of the file part are sent first
+						return new DefaultHttpContent(buf);
+					}
+					Object content = readContent(allocator, current);
+					if (content != null) {
+						return content;
+					}
+					this.current = null;
+				}
+
+				if (buf == null) {
+					buf = allocator.buffer();
+				}
+				if (partIndex == parts.size()) {
+					endOfInput = true;
+					writeAscii(buf, partIndex == 0 ? "--" : "\r\n--");
+					writeAscii(buf, boundary);
+					writeAscii(buf, "--\r\n");
+					return new DefaultLastHttpContent(buf);
+				}
+
+				Part part = parts.get(partIndex);
+				writeAscii(buf, partIndex++ == 0 ? "--" : "\r\n--");
+				writeAscii(buf, boundary);
+				writeAscii(buf, "\r\n");
+				write(buf, part.header(charset));
+				if (part instanceof AttributePart) {
+					write(buf, ((AttributePart) part).value);
+					if (buf.readableBytes() >= CHUNK_SIZE) {
+						return new DefaultHttpContent(buf);
+					}
+				}
+				else {
+					this.current = (FilePart) part;
+					filePosition = 0;
+				}
+			}
+		}
+		catch (Throwable t) {
+			if (buf != null) {
+				buf.release();
+			}
+			throw t;
+		}
+	}
+
+	/**
+	 * Returns the next chunk of the content of a file part, or {@code null} once the content is sent.
+	 */
+	@Nullable
+	Object readContent(ByteBufAllocator allocator, FilePart part) throws IOException {
+		if (part.stream != null) {
+			return readStream(allocator, part);
+		}
+		if (part.file == null) {
+			ByteBuf content = part.content;
+			part.content = null;
+			return content != null ? new DefaultHttpContent(content) : null;
+		}
+
+		long remaining = part.size - filePosition;
+		if (remaining <= 0) {
+			closeFile();
+			return null;
+		}
+		FileChannel fileChannel = this.fileChannel;
+		if (fileChannel == null) {
+			fileChannel = FileChannel.open(part.file.toPath(), StandardOpenOption.READ);
+			this.fileChannel = fileChannel;
 		}
+		if (zeroCopy) {
+			// the region closes the file once it is sent
+			this.fileChannel = null;
+			filePosition = part.size;
+			return new DefaultFileRegion(fileChannel, 0, part.size);
+		}
+		int chunkSize = (int) Math.min(CHUNK_SIZE, remaining);
+		ByteBuf buf = allocator.ioBuffer(chunkSize);
+		try {
+			do {
+				int read = buf.writeBytes(fileChannel, filePosition, chunkSize - buf.readableBytes());
+				if (read < 0) {
+					throw new EOFException("The file " + part.file + " is shorter than " + part.size + " bytes");
+				}
+				filePosition += read;
+			}
+			while (buf.readableBytes() < chunkSize);
+		}
+		catch (Throwable t) {
+			buf.release();
+			throw t;
+		}
+		return new DefaultHttpContent(buf);
+	}
 
+	/**
+	 * Returns the next chunk of the stream of a file part, or {@code null} once the stream is read.
+	 */
+	@Nullable
+	Object readStream(ByteBufAllocator allocator, FilePart part) throws IOException {
+		InputStream stream = Objects.requireNonNull(part.stream, "stream");
+		ByteBuf buf = allocator.ioBuffer(CHUNK_SIZE);
 		try {
-			HttpClientFormEncoder encoder = new HttpClientFormEncoder(newFactory,
-					request,
-					newMultipart,
-					newCharset,
-					newMode);
+			while (buf.isWritable() && buf.writeBytes(stream, buf.writableBytes()) != -1) {
+				// fill the chunk until the end of the stream
+			}
+		}
+		catch (Throwable t) {
+			buf.release();
+			throw t;
+		}
+		if (buf.isReadable()) {
+			return new DefaultHttpContent(buf);
+		}
+		buf.release();
+		part.release();
+		return null;
+	}
+
+	void closeFile() {
+		FileChannel fileChannel = this.fileChannel;
+		if (fileChannel != null) {
+			this.fileChannel = null;
+			try {
+				fileChannel.close();
+			}
+			catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	long multipartLength() {
+		long length = 0;
+		for (int i = 0; i < parts.size(); i++) {
+			Part part = parts.get(i);
+			// [CRLF]--boundary CRLF
+			length += (i == 0 ? 4 : 6) + boundary.length() + byteLength(part.header(charset));
+			if (part instanceof AttributePart) {
+				length += byteLength(((AttributePart) part).value);
+			}
+			else if (((FilePart) part).size == -1) {
+				// the size of the streams is unknown
+				return -1;
+			}
+			else {
+				length += ((FilePart) part).size;
+			}
+		}
+		// [CRLF]--boundary-- CRLF
+		return length + (parts.isEmpty() ? 6 : 8) + boundary.length();
+	}
+
+	/**
+	 * Percent-encodes the value in a single pass, as {@link java.net.URLEncoder} followed by the
+	 * {@link EncoderMode#RFC3986} replacements when enabled.
+	 */
+	void urlEncode(ByteBuf buf, String value) {
+		boolean rfc3986 = mode == EncoderMode.RFC3986;
+		boolean ascii = isAsciiCompatible(charset);
+		int length = value.length();
+		int i = 0;
+		while (i < length) {
+			char c = value.charAt(i);
+			if (isUnreserved(c)) {
+				if (c == '*' && rfc3986) {
+					writePercentEncoded(buf, c);
+				}
+				else {
+					buf.writeByte(c);
+				}
+				i++;
+			}
+			else if (c == ' ') {
+				if (rfc3986) {
+					writePercentEncoded(buf, c);
+				}
+				else {
+					buf.writeByte('+');
+				}
+				i++;
+			}
+			else if (c == '~' && rfc3986) {
+				buf.writeByte(c);
+				i++;
+			}
+			else if (c < 0x80 && ascii) {
+				writePercentEncoded(buf, c);
+				i++;
+			}
+			else {
+				// the characters are encoded together, so that the surrogate pairs are preserved
+				int end = i + 1;
+				while (end < length && !isUnreserved(value.charAt(end)) && value.charAt(end) != ' ' &&
+						!(ascii && value.charAt(end) < 0x80)) {
+					end++;
+				}
+				for (byte b : value.substring(i, end).getBytes(charset)) {
+					writePercentEncoded(buf, b & 0xFF);
+				}
+				i = end;
+			}
+		}
+	}
 
-			encoder.setBodyHttpDatas(getBodyListAttributes());
+	long byteLength(String value) {
+		if (CharsetUtil.UTF_8.equals(charset)) {
+			return ByteBufUtil.utf8Bytes(value);
+		}
+		if (CharsetUtil.US_ASCII.equals(charset) || CharsetUtil.ISO_8859_1.equals(charset)) {
+			return value.length();
+		}
+		return value.getBytes(charset).length;
+	}
 
-			return encoder;
+	void write(ByteBuf buf, String value) {
+		if (CharsetUtil.UTF_8.equals(charset)) {
+			ByteBufUtil.writeUtf8(buf, value);
 		}
-		catch(ErrorDataEncoderException ee){
-			throw Exceptions.propagate(ee);
+		else {
+			buf.writeCharSequence(value, charset);
 		}
 	}
 
-	static final Map<Pattern, String> percentEncodings            = new HashMap<>();
-	static final String               DEFAULT_BINARY_CONTENT_TYPE =
-			"application/octet-stream";
-	static final String               DEFAULT_TRANSFER_ENCODING   = "binary";
-	static final String               DEFAULT_TEXT_CONTENT_TYPE   = "text/plain";
+	static void writeAscii(ByteBuf buf, String value) {
+		ByteBufUtil.writeAscii(buf, value);
+	}
 
-	static {
-		DiskFileUpload.deleteOnExitTemporaryFile = true; // should delete file
-		// on exit (in normal
-		// exit)
-		DiskFileUpload.baseDirectory = null; // system temp directory
-		DiskAttribute.deleteOnExitTemporaryFile = true; // should delete file on
-		// exit (in normal exit)
-		DiskAttribute.baseDirectory = null; // system temp directory
+	static void writePercentEncoded(ByteBuf buf, int b) {
+		buf.writeByte('%');
+		buf.writeByte(HEX_DIGITS[b >> 4]);
+		buf.writeByte(HEX_DIGITS[b & 0xF]);
+	}
+
+	static boolean isUnreserved(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') ||
+				c == '.' || c == '-' || c == '_' || c == '*';
+	}
 
-		percentEncodings.put(Pattern.compile("\\*"), "%2A");
-		percentEncodings.put(Pattern.compile("\\+"), "%20");
-		percentEncodings.put(Pattern.compile("%7E"), "~");
+	static boolean isAsciiCompatible(Charset charset) {
+		return CharsetUtil.UTF_8.equals(charset) || CharsetUtil.US_ASCII.equals(charset) ||
+				CharsetUtil.ISO_8859_1.equals(charset);
 	}
+
+	/**
+	 * Escapes the quotes and line breaks of a quoted multipart header value, as the HTML forms do.
+	 */
+	static String escapeQuoted(String value) {
+		if (value.indexOf('"') == -1 && value.indexOf('\r') == -1 && value.indexOf('\n') == -1) {
+			return value;
+		}
+		return value.replace("\"", "%22")
+		            .replace("\r", "%0D")
+		            .replace("\n", "%0A");
+	}
+
+	abstract static class Part {
+		final String name;
+
+		String header;
+
+		Part(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Returns the multipart headers of the part, followed by an empty line.
+		 */
+		final String header(Charset charset) {
+			String header = this.header;
+			if (header == null) {
+				header = newHeader(charset);
+				this.header = header;
+			}
+			return header;
+		}
+
+		abstract String newHeader(Charset charset);
+	}
+
+	static final class AttributePart extends Part {
+		final String value;
+
+		AttributePart(String name, String value) {
+			super(name);
+			this.value = value;
+		}
+
+		@Override
+		String newHeader(Charset charset) {
+			return HttpHeaderNames.CONTENT_DISPOSITION + ": " + HttpHeaderValues.FORM_DATA + "; " +
+					HttpHeaderValues.NAME + "=\"" + escapeQuoted(name) + "\"\r\n" +
+					HttpHeaderNames.CONTENT_TYPE + ": " + DEFAULT_TEXT_CONTENT_TYPE + "; " +
+					HttpHeaderValues.CHARSET + '=' + charset.name() + "\r\n\r\n";
+		}
+	}
+
+	static final class FilePart extends Part {
+		final String  filename;
+		final String  contentType;
+		final boolean text;
+		@Nullable
+		final File    file;
+		@Nullable
+		InputStream   stream;
+		@Nullable
+		ByteBuf       content;
+		long          size = -1;
+
+		FilePart(String name, String filename, String contentType, boolean text, @Nullable File file, @Nullable InputStream stream) {
+			super(name);
+			this.filename = filename;
+			this.contentType = contentType;
+			this.text = text;
+			this.file = file;
+			this.stream = stream;
+		}
+
+		/**
+		 * Reads the whole stream into a pooled buffer, so that the size of the part is known.
+		 */
+		void readFully(ByteBufAllocator alloc) {
+			InputStream stream = this.stream;
+			if (stream == null) {
+				return;
+			}
+			ByteBuf content = alloc.buffer();
+			try {
+				while (content.writeBytes(stream, CHUNK_SIZE) != -1) {
+					// read until the end of the stream
+				}
+			}
+			catch (IOException e) {
+				content.release();
+				throw Exceptions.propagate(e);
+			}
+			closeStream();
+			this.content = content;
+			this.size = content.readableBytes();
+		}
+
+		@Override
+		String newHeader(Charset charset) {
+			if (file != null && size == -1) {
+				size = file.length();
+			}
+			StringBuilder header = new StringBuilder(128)
+					.append(HttpHeaderNames.CONTENT_DISPOSITION).append(": ").append(HttpHeaderValues.FORM_DATA).append("; ")
+					.append(HttpHeaderValues.NAME).append("=\"").append(escapeQuoted(name)).append("\"; ")
+					.append(HttpHeaderValues.FILENAME).append("=\"").append(escapeQuoted(filename)).append("\"\r\n");
+			if (size != -1) {
+				header.append(HttpHeaderNames.CONTENT_LENGTH).append(": ").append(size).append("\r\n");
+			}
+			header.append(HttpHeaderNames.CONTENT_TYPE).append(": ").append(contentType);
+			if (text) {
+				header.append("; ").append(HttpHeaderValues.CHARSET).append('=').append(charset.name()).append("\r\n");
+			}
+			else {
+				header.append("\r\n")
+				      .append(HttpHeaderNames.CONTENT_TRANSFER_ENCODING).append(": ").append(DEFAULT_TRANSFER_ENCODING).append("\r\n");
+			}
+			return header.append("\r\n").toString();
+		}
+
+		void release() {
+			ByteBuf content = this.content;
+			if (content != null) {
+				this.content = null;
+				ReferenceCountUtil.release(content);
+			}
+			closeStream();
+		}
+
+		void closeStream() {
+			InputStream stream = this.stream;
+			if (stream != null) {
+				this.stream = null;
+				try {
+					stream.close();
+				}
+				catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+	}
+
+	static final String DEFAULT_BINARY_CONTENT_TYPE = "application/octet-stream";
+	static final String DEFAULT_TRANSFER_ENCODING   = "binary";
+	static final String DEFAULT_TEXT_CONTENT_TYPE   = "text/plain";
+
+	/**
+	 * The size of the chunks of the multipart body read from the files, and written before sending the attributes
+	 */
+	static final int CHUNK_SIZE = 8192;
+
+	static final byte[] HEX_DIGITS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'};
 }
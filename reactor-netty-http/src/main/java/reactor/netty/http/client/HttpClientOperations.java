@@ -58,10 +58,7 @@ import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.handler.codec.http.cookie.ClientCookieDecoder;
 import io.netty.handler.codec.http.cookie.ClientCookieEncoder;
 import io.netty.handler.codec.http.cookie.Cookie;
-import io.netty.handler.codec.http.multipart.DefaultHttpDataFactory;
-import io.netty.handler.codec.http.multipart.HttpDataFactory;
 import io.netty.handler.codec.http.multipart.HttpPostRequestEncoder;
-import io.netty.handler.codec.http.websocketx.extensions.compression.WebSocketClientCompressionHandler;
 import io.netty.handler.stream.ChunkedWriteHandler;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.util.ReferenceCountUtil;
@@ -247,6 +244,16 @@ class HttpClientOperations extends HttpOperations<NettyInbound, NettyOutbound>
 		return Collections.emptyMap();
 	}
 
+	@Override
+	@Nullable
+	public Cookie cookie(CharSequence name) {
+		ResponseState responseState = this.responseState;
+		if (responseState != null && responseState.cookieHolder != null) {
+			return responseState.cookieHolder.getCookie(name);
+		}
+		return null;
+	}
+
 	void followRedirectPredicate(BiPredicate<HttpClientRequest, HttpClientResponse> predicate) {
 		this.followRedirectPredicate = predicate;
 	}
@@ -279,6 +286,9 @@ class HttpClientOperations extends HttpOperations<NettyInbound, NettyOutbound>
 			else if (markSentBody()) {
 				listener().onUncaughtException(this, new PrematureCloseException("Connection has been closed BEFORE response, while sending request body"));
 			}
+			else if (channel() instanceof HttpPipelinedChannel) {
+				listener().onUncaughtException(this, PrematureCloseException.beforePipelinedResponse());
+			}
 			else {
 				listener().onUncaughtException(this, new PrematureCloseException("Connection prematurely closed BEFORE response"));
 			}
@@ -748,7 +758,8 @@ class HttpClientOperations extends HttpOperations<NettyInbound, NettyOutbound>
 				// Returned value is deliberately ignored
 				removeHandler(NettyPipeline.HttpDecompressor);
 				// Returned value is deliberately ignored
-				addHandlerFirst(NettyPipeline.WsCompressionHandler, WebSocketClientCompressionHandler.INSTANCE);
+				addHandlerFirst(NettyPipeline.WsCompressionHandler,
+						WebsocketClientCompressionHandshaker.newHandler(channel(), websocketClientSpec));
 			}
 
 			if (log.isDebugEnabled()) {
@@ -778,8 +789,6 @@ class HttpClientOperations extends HttpOperations<NettyInbound, NettyOutbound>
 
 	static final class SendForm extends Mono<Void> {
 
-		static final HttpDataFactory DEFAULT_FACTORY = new DefaultHttpDataFactory(DefaultHttpDataFactory.MINSIZE);
-
 		final HttpClientOperations                                  parent;
 		final BiConsumer<? super HttpClientRequest, HttpClientForm> formCallback;
 		final Consumer<Flux<Long>>                                  progressCallback;
@@ -815,10 +824,10 @@ class HttpClientOperations extends HttpOperations<NettyInbound, NettyOutbound>
 
 		@SuppressWarnings("FutureReturnValueIgnored")
 		void _subscribe(CoreSubscriber<? super Void> s) {
-			HttpDataFactory df = DEFAULT_FACTORY;
+			HttpClientFormEncoder encoder = null;
 
 			try {
-				HttpClientFormEncoder encoder = new HttpClientFormEncoder(df,
+				encoder = new HttpClientFormEncoder(parent.channel().alloc(),
 						parent.nettyRequest,
 						false,
 						HttpConstants.DEFAULT_CHARSET,
@@ -826,9 +835,6 @@ class HttpClientOperations extends HttpOperations<NettyInbound, NettyOutbound>
 
 				formCallback.accept(parent, encoder);
 
-				encoder = encoder.applyChanges(parent.nettyRequest);
-				df = encoder.newFactory;
-
 				if (!encoder.isMultipart()) {
 					parent.requestHeaders.remove(HttpHeaderNames.TRANSFER_ENCODING);
 				}
@@ -838,7 +844,10 @@ class HttpClientOperations extends HttpOperations<NettyInbound, NettyOutbound>
 
 				boolean chunked = HttpUtil.isTransferEncodingChunked(parent.nettyRequest);
 
-				HttpRequest r = encoder.finalizeRequest();
+				// The files are sent with zero-byte copy unless they must be encrypted,
+				// or the request is multiplexed as an HTTP/2 stream or a pipelined request
+				HttpRequest r = encoder.finalizeRequest(parent.channel().parent() == null &&
+						parent.channel().pipeline().get(NettyPipeline.SslHandler) == null, chunked);
 
 				if (!chunked) {
 					HttpUtil.setTransferEncodingChunked(r, false);
@@ -850,10 +859,12 @@ class HttpClientOperations extends HttpOperations<NettyInbound, NettyOutbound>
 
 				Flux<Long> tail = encoder.progressSink.asFlux().onBackpressureLatest();
 
-				if (encoder.cleanOnTerminate) {
-					tail = tail.doOnCancel(encoder)
-					           .doAfterTerminate(encoder);
-				}
+				// The encoder is closed on the event loop where it is read, releasing the pooled buffers
+				// and the opened files and streams whatever cleanOnTerminate
+				HttpClientFormEncoder toClean = encoder;
+				Runnable clean = () -> parent.channel().eventLoop().execute(toClean);
+				tail = tail.doOnCancel(clean)
+				           .doAfterTerminate(clean);
 
 				if (encoder.isChunked()) {
 					if (progressCallback != null) {
@@ -877,7 +888,9 @@ class HttpClientOperations extends HttpOperations<NettyInbound, NettyOutbound>
 			}
 			catch (Throwable e) {
 				Exceptions.throwIfJvmFatal(e);
-				df.cleanRequestHttpData(parent.nettyRequest);
+				if (encoder != null) {
+					encoder.close();
+				}
 				s.onError(Exceptions.unwrap(e));
 			}
 		}
@@ -43,7 +43,11 @@ final class HttpConnectionProvider implements ConnectionProvider {
 			ConnectionObserver connectionObserver,
 			@Nullable Supplier<? extends SocketAddress> remoteAddress,
 			@Nullable AddressResolverGroup<?> resolverGroup) {
-		if (((HttpClientConfig) config)._protocols == HttpClientConfig.h11) {
+		HttpClientConfig httpClientConfig = (HttpClientConfig) config;
+		if (httpClientConfig._protocols == HttpClientConfig.h11) {
+			if (HttpPipeliningConnectionProvider.canPipeline(httpClientConfig)) {
+				return pipeliningConnectionProvider.acquire(config, connectionObserver, remoteAddress, resolverGroup);
+			}
 			return http1ConnectionProvider.acquire(config, connectionObserver, remoteAddress, resolverGroup);
 		}
 		else {
@@ -58,6 +62,7 @@ final class HttpConnectionProvider implements ConnectionProvider {
 
 	final ConnectionProvider http1ConnectionProvider;
 	final Supplier<ConnectionProvider> h2ConnectionProviderSupplier;
+	final ConnectionProvider pipeliningConnectionProvider;
 
 	HttpConnectionProvider(ConnectionProvider http1ConnectionProvider) {
 		this(http1ConnectionProvider, DEFAULT_MAX_HTTP2_CONNECTIONS);
@@ -70,6 +75,7 @@ final class HttpConnectionProvider implements ConnectionProvider {
 	HttpConnectionProvider(ConnectionProvider http1ConnectionProvider, Supplier<ConnectionProvider> h2ConnectionProviderSupplier) {
 		this.http1ConnectionProvider = http1ConnectionProvider;
 		this.h2ConnectionProviderSupplier = h2ConnectionProviderSupplier;
+		this.pipeliningConnectionProvider = new HttpPipeliningConnectionProvider(http1ConnectionProvider);
 	}
 
 	static ConnectionProvider getOrCreate(ConnectionProvider http1ConnectionProvider, int maxHttp2Connections) {
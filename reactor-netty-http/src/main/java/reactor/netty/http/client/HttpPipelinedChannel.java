@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http.client;
+
+import java.net.SocketAddress;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import io.netty.channel.AbstractChannel;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelConfig;
+import io.netty.channel.ChannelMetadata;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.DefaultChannelConfig;
+import io.netty.channel.EventLoop;
+import io.netty.util.ReferenceCountUtil;
+import reactor.netty.Connection;
+import reactor.netty.ConnectionObserver;
+import reactor.util.annotation.Nullable;
+import reactor.util.context.Context;
+
+/**
+ * A {@link Channel} carrying a request pipelined on a HTTP/1.1 connection. The request written to this channel
+ * is buffered until the previous requests are sent, then it is written to the parent connection by the
+ * {@link HttpPipeliningHandler}, which also routes the response of the request to this channel.
+ *
+ * <p>The channel is registered to the event loop of its parent connection and becomes active without
+ * notifying the connection observers, it is closed once its {@link reactor.netty.channel.ChannelOperations}
+ * are terminated.
+ */
+final class HttpPipelinedChannel extends AbstractChannel implements ConnectionObserver, Runnable {
+
+	static final ChannelMetadata METADATA = new ChannelMetadata(false);
+
+	final HttpPipeliningHandler pipeliningHandler;
+	final ConnectionObserver    observer;
+	final ChannelConfig         config;
+
+	/**
+	 * The messages written before the previous requests are sent
+	 */
+	final Queue<Object> buffered = new ArrayDeque<>();
+
+	boolean open = true;
+	boolean active;
+
+	/**
+	 * Whether the previous requests are sent and the messages are written to the parent connection
+	 */
+	boolean requesting;
+
+	/**
+	 * Whether a message of the request is written to the parent connection
+	 */
+	boolean requestStarted;
+
+	/**
+	 * Whether the last message of the request is written to the parent connection
+	 */
+	boolean requested;
+
+	/**
+	 * Whether the last message of the response is received
+	 */
+	boolean responded;
+
+	HttpPipelinedChannel(Channel parent, HttpPipeliningHandler pipeliningHandler, ConnectionObserver observer) {
+		super(parent);
+		this.pipeliningHandler = pipeliningHandler;
+		this.observer = observer;
+		this.config = new DefaultChannelConfig(this);
+		this.config.setAutoRead(false);
+	}
+
+	@Override
+	public ChannelConfig config() {
+		return config;
+	}
+
+	@Override
+	public Context currentContext() {
+		return observer.currentContext();
+	}
+
+	@Override
+	public boolean isOpen() {
+		return open;
+	}
+
+	@Override
+	public boolean isActive() {
+		// Not bound to the parent connection, so that closing this channel
+		// after the parent connection notifies the ChannelOperations
+		return open && active;
+	}
+
+	@Override
+	public boolean isWritable() {
+		// The chunked writes resume when the previous requests are sent
+		return requesting && parent().isWritable() && super.isWritable();
+	}
+
+	@Override
+	public ChannelMetadata metadata() {
+		return METADATA;
+	}
+
+	@Override
+	public void onUncaughtException(Connection connection, Throwable error) {
+		observer.onUncaughtException(connection, error);
+	}
+
+	/**
+	 * Closes this channel once its {@link reactor.netty.channel.ChannelOperations} are terminated,
+	 * the connection observers are notified first.
+	 */
+	@Override
+	@SuppressWarnings("FutureReturnValueIgnored")
+	public void onStateChange(Connection connection, State newState) {
+		observer.onStateChange(connection, newState);
+		if (newState == State.DISCONNECTING) {
+			//"FutureReturnValueIgnored" this is deliberate
+			close();
+		}
+	}
+
+	/**
+	 * Writes the buffered messages to the parent connection, once the previous requests are sent.
+	 */
+	@Override
+	public void run() {
+		if (!isActive()) {
+			return;
+		}
+		requesting = true;
+		Object msg;
+		while ((msg = buffered.poll()) != null) {
+			pipeliningHandler.write(this, msg);
+		}
+		pipeliningHandler.flush();
+		pipeline().fireChannelWritabilityChanged();
+	}
+
+	@Override
+	protected AbstractUnsafe newUnsafe() {
+		return new PipelinedUnsafe();
+	}
+
+	@Override
+	protected boolean isCompatible(EventLoop loop) {
+		return loop == parent().eventLoop();
+	}
+
+	@Override
+	protected SocketAddress localAddress0() {
+		return parent().localAddress();
+	}
+
+	@Override
+	protected SocketAddress remoteAddress0() {
+		return parent().remoteAddress();
+	}
+
+	@Override
+	protected void doBind(SocketAddress localAddress) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	protected void doDisconnect() {
+		doClose();
+	}
+
+	@Override
+	protected void doClose() {
+		if (!open) {
+			return;
+		}
+		open = false;
+		Object msg;
+		while ((msg = buffered.poll()) != null) {
+			ReferenceCountUtil.release(msg);
+		}
+		pipeliningHandler.onPipelinedChannelClosed(this);
+	}
+
+	@Override
+	protected void doBeginRead() {
+		// the response is read by the parent connection
+		if (!responded) {
+			parent().read();
+		}
+	}
+
+	@Override
+	protected void doWrite(ChannelOutboundBuffer in) {
+		Object msg;
+		while ((msg = in.current()) != null) {
+			// ChannelOutboundBuffer#remove releases the message
+			ReferenceCountUtil.retain(msg);
+			if (requesting) {
+				pipeliningHandler.write(this, msg);
+			}
+			else {
+				buffered.offer(msg);
+			}
+			in.remove();
+		}
+		if (requesting) {
+			pipeliningHandler.flush();
+		}
+	}
+
+	final class PipelinedUnsafe extends AbstractUnsafe {
+
+		@Override
+		public void connect(SocketAddress remoteAddress, @Nullable SocketAddress localAddress, ChannelPromise promise) {
+			promise.setFailure(new UnsupportedOperationException());
+		}
+	}
+}
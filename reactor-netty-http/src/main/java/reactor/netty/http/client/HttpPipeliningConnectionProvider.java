@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http.client;
+
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.resolver.AddressResolverGroup;
+import io.netty.util.internal.PlatformDependent;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.netty.Connection;
+import reactor.netty.ConnectionObserver;
+import reactor.netty.channel.ChannelOperations;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.transport.TransportConfig;
+import reactor.util.Logger;
+import reactor.util.Loggers;
+import reactor.util.annotation.Nullable;
+
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * {@link ConnectionProvider} pipelining the idempotent HTTP/1.1 requests on the connections acquired
+ * from the parent {@link ConnectionProvider}. A request is written to a connection that already waits
+ * for responses when that connection has less than {@link HttpClientConfig#pipelining()} requests in flight,
+ * otherwise a new connection is acquired. A connection is released to the parent {@link ConnectionProvider}
+ * once it has no request in flight.
+ *
+ * @since 1.0.0
+ */
+final class HttpPipeliningConnectionProvider implements ConnectionProvider {
+
+	/**
+	 * Returns whether the request can be pipelined: a {@code GET} or {@code HEAD} request
+	 * which is not a websocket upgrade, when pipelining is enabled.
+	 *
+	 * @param config the request configuration
+	 * @return whether the request can be pipelined
+	 */
+	static boolean canPipeline(HttpClientConfig config) {
+		return config.pipelining > 0 &&
+				config.websocketClientSpec == null &&
+				(HttpMethod.GET.equals(config.method) || HttpMethod.HEAD.equals(config.method));
+	}
+
+	final ConnectionProvider parent;
+	final ConcurrentMap<PipelinedConnectionsKey, PipelinedConnections> pipelinedConnections =
+			PlatformDependent.newConcurrentHashMap();
+
+	HttpPipeliningConnectionProvider(ConnectionProvider parent) {
+		this.parent = parent;
+	}
+
+	@Override
+	public Mono<? extends Connection> acquire(
+			TransportConfig config,
+			ConnectionObserver connectionObserver,
+			@Nullable Supplier<? extends SocketAddress> remote,
+			@Nullable AddressResolverGroup<?> resolverGroup) {
+		Objects.requireNonNull(remote, "remoteAddress");
+		return Mono.create(sink -> {
+			SocketAddress remoteAddress = Objects.requireNonNull(remote.get(), "Remote Address supplier returned null");
+			PipelinedConnections connections =
+					pipelinedConnections.computeIfAbsent(new PipelinedConnectionsKey(remoteAddress, config.channelHash()),
+							key -> new PipelinedConnections(pipelinedConnections, key));
+
+			PendingRequest request = new PendingRequest(connectionObserver, config.channelOperationsProvider(), sink);
+			sink.onCancel(request);
+
+			HttpPipeliningHandler handler = connections.reserve(((HttpClientConfig) config).pipelining, request);
+			if (handler != null) {
+				if (log.isDebugEnabled()) {
+					log.debug("Acquiring a new connection for pipelining requests to [{}]", remoteAddress);
+				}
+				parent.acquire(config, ConnectionObserver.emptyListener(), () -> remoteAddress, resolverGroup)
+				      .subscribe(handler::attach, handler::fail);
+			}
+		});
+	}
+
+	@Override
+	public void disposeWhen(SocketAddress address) {
+		parent.disposeWhen(address);
+	}
+
+	static final Logger log = Loggers.getLogger(HttpPipeliningConnectionProvider.class);
+
+	/**
+	 * The connections to a remote address, the requests are pipelined on these connections
+	 * until they are released to the parent {@link ConnectionProvider}. The connections are removed
+	 * from the provider once the last one is released or closed.
+	 */
+	static final class PipelinedConnections {
+
+		final ConcurrentMap<PipelinedConnectionsKey, PipelinedConnections> owner;
+		final PipelinedConnectionsKey                                      key;
+		final List<HttpPipeliningHandler>                                  handlers = new ArrayList<>();
+
+		boolean evicted;
+
+		PipelinedConnections(ConcurrentMap<PipelinedConnectionsKey, PipelinedConnections> owner,
+				PipelinedConnectionsKey key) {
+			this.owner = owner;
+			this.key = key;
+		}
+
+		/**
+		 * Reserves a connection for the request, the request is opened on that connection once it is attached.
+		 *
+		 * @param maxInFlightRequests the maximum number of requests in flight per connection
+		 * @param request the request
+		 * @return a new {@link HttpPipeliningHandler} when a new connection must be acquired, null otherwise
+		 */
+		@Nullable
+		synchronized HttpPipeliningHandler reserve(int maxInFlightRequests, PendingRequest request) {
+			if (evicted) {
+				// Evicted after being looked up, when another instance is registered meanwhile
+				// this one is still used for this request only
+				evicted = false;
+				owner.putIfAbsent(key, this);
+			}
+			for (HttpPipeliningHandler handler : handlers) {
+				if (handler.reserved < maxInFlightRequests) {
+					handler.reserved++;
+					if (handler.attached) {
+						handler.execute(request);
+					}
+					else {
+						handler.waiting.add(request);
+					}
+					return null;
+				}
+			}
+			HttpPipeliningHandler handler = new HttpPipeliningHandler(this);
+			handler.reserved = 1;
+			handler.waiting.add(request);
+			handlers.add(handler);
+			return handler;
+		}
+
+		/**
+		 * Returns the requests waiting for the connection, the following requests are opened on that connection.
+		 */
+		synchronized List<PendingRequest> attach(HttpPipeliningHandler handler) {
+			handler.attached = true;
+			return drainWaiting(handler);
+		}
+
+		/**
+		 * Returns the requests waiting for the connection, which cannot be acquired.
+		 */
+		synchronized List<PendingRequest> fail(HttpPipeliningHandler handler) {
+			remove(handler);
+			handler.reserved -= handler.waiting.size();
+			return drainWaiting(handler);
+		}
+
+		/**
+		 * No more requests are pipelined on the connection.
+		 */
+		synchronized void drain(HttpPipeliningHandler handler) {
+			remove(handler);
+		}
+
+		/**
+		 * Releases the reservation of a request.
+		 *
+		 * @return true when the connection has no more request in flight, and can be released
+		 */
+		synchronized boolean release(HttpPipeliningHandler handler) {
+			if (--handler.reserved == 0) {
+				remove(handler);
+				return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Removes the connection, the connections are removed from the provider when it is the last one.
+		 * The caller must hold the lock of this instance.
+		 */
+		void remove(HttpPipeliningHandler handler) {
+			if (handlers.remove(handler) && handlers.isEmpty()) {
+				evicted = true;
+				owner.remove(key, this);
+			}
+		}
+
+		static List<PendingRequest> drainWaiting(HttpPipeliningHandler handler) {
+			if (handler.waiting.isEmpty()) {
+				return Collections.emptyList();
+			}
+			List<PendingRequest> waiting = new ArrayList<>(handler.waiting);
+			handler.waiting.clear();
+			return waiting;
+		}
+	}
+
+	static final class PipelinedConnectionsKey {
+
+		final SocketAddress remoteAddress;
+		final int           pipelineKey;
+
+		PipelinedConnectionsKey(SocketAddress remoteAddress, int pipelineKey) {
+			this.remoteAddress = remoteAddress;
+			this.pipelineKey = pipelineKey;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			PipelinedConnectionsKey that = (PipelinedConnectionsKey) o;
+			return pipelineKey == that.pipelineKey &&
+					Objects.equals(remoteAddress, that.remoteAddress);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(remoteAddress, pipelineKey);
+		}
+	}
+
+	/**
+	 * A request waiting for a {@link HttpPipelinedChannel} on a pipelined connection.
+	 */
+	static final class PendingRequest implements Disposable {
+
+		final ConnectionObserver        observer;
+		final ChannelOperations.OnSetup opsFactory;
+		final MonoSink<Connection>      sink;
+
+		volatile boolean cancelled;
+
+		PendingRequest(ConnectionObserver observer, ChannelOperations.OnSetup opsFactory, MonoSink<Connection> sink) {
+			this.observer = observer;
+			this.opsFactory = opsFactory;
+			this.sink = sink;
+		}
+
+		@Override
+		public void dispose() {
+			cancelled = true;
+		}
+
+		@Override
+		public boolean isDisposed() {
+			return cancelled;
+		}
+	}
+}
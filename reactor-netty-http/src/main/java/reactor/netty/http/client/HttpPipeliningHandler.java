@@ -0,0 +1,390 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http.client;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpStatusClass;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.ReferenceCountUtil;
+import reactor.netty.Connection;
+import reactor.netty.ConnectionObserver;
+import reactor.netty.NettyPipeline;
+import reactor.netty.channel.AbortedException;
+import reactor.netty.channel.ChannelOperations;
+import reactor.util.Logger;
+import reactor.util.Loggers;
+
+import static reactor.netty.ReactorNetty.format;
+
+/**
+ * {@link ChannelDuplexHandler} pipelining the requests of {@link HttpPipelinedChannel}s on a HTTP/1.1 connection.
+ * The requests are written to the connection in the order they are opened, and the responses are routed
+ * to the {@link HttpPipelinedChannel}s in the same order.
+ *
+ * <p>When a request terminates before its response is received, the response cannot be matched anymore
+ * and the connection is closed. When the connection is closed, the requests without response are closed,
+ * {@link HttpClientOperations} report them as retryable.
+ *
+ * @since 1.0.0
+ */
+final class HttpPipeliningHandler extends ChannelDuplexHandler {
+
+	final HttpPipeliningConnectionProvider.PipelinedConnections connections;
+
+	/**
+	 * The requests waiting for the connection to be acquired, guarded by {@link #connections}
+	 */
+	final List<HttpPipeliningConnectionProvider.PendingRequest> waiting = new ArrayList<>(4);
+
+	/**
+	 * The number of requests reserved on this connection, guarded by {@link #connections}
+	 */
+	int reserved;
+
+	/**
+	 * Whether the connection is acquired, guarded by {@link #connections}
+	 */
+	boolean attached;
+
+	// The requests waiting for their response, in request order
+	final ArrayDeque<HttpPipelinedChannel> inFlight = new ArrayDeque<>();
+
+	// The requests not yet written to the connection, the first one is writing
+	final ArrayDeque<HttpPipelinedChannel> requests = new ArrayDeque<>();
+
+	Connection            connection;
+	ChannelHandlerContext ctx;
+	boolean               persistent = true;
+	boolean               informational;
+	HttpPipelinedChannel  reading;
+
+	HttpPipeliningHandler(HttpPipeliningConnectionProvider.PipelinedConnections connections) {
+		this.connections = connections;
+	}
+
+	/**
+	 * Installs this handler on the connection acquired from the parent {@link reactor.netty.resources.ConnectionProvider},
+	 * and opens the requests waiting for it.
+	 *
+	 * @param connection the connection acquired from the parent {@link reactor.netty.resources.ConnectionProvider}
+	 */
+	void attach(Connection connection) {
+		Channel channel = connection.channel();
+		if (!channel.eventLoop().inEventLoop()) {
+			channel.eventLoop().execute(() -> attach(connection));
+			return;
+		}
+		this.connection = connection;
+		ChannelPipeline pipeline = channel.pipeline();
+		pipeline.addBefore(pipeline.get(NettyPipeline.HttpMetricsHandler) != null ?
+						NettyPipeline.HttpMetricsHandler : NettyPipeline.ReactiveBridge,
+				NettyPipeline.HttpPipeliningHandler, this);
+
+		if (log.isDebugEnabled()) {
+			log.debug(format(channel, "Pipelining requests on the connection"));
+		}
+
+		for (HttpPipeliningConnectionProvider.PendingRequest request : connections.attach(this)) {
+			open(request);
+		}
+	}
+
+	/**
+	 * Fails the requests waiting for the connection, which cannot be acquired.
+	 *
+	 * @param error the error
+	 */
+	void fail(Throwable error) {
+		for (HttpPipeliningConnectionProvider.PendingRequest request : connections.fail(this)) {
+			request.sink.error(error);
+		}
+	}
+
+	/**
+	 * Opens the request on the event loop of the connection.
+	 */
+	void execute(HttpPipeliningConnectionProvider.PendingRequest request) {
+		ctx.channel().eventLoop().execute(() -> open(request));
+	}
+
+	/**
+	 * Opens a {@link HttpPipelinedChannel} for the request, the request is written to the connection
+	 * once the previous requests are sent.
+	 */
+	@SuppressWarnings("FutureReturnValueIgnored")
+	void open(HttpPipeliningConnectionProvider.PendingRequest request) {
+		Channel channel = ctx.channel();
+		if (request.cancelled) {
+			onRequestTerminated();
+			return;
+		}
+		if (!channel.isActive() || !persistent) {
+			onRequestTerminated();
+			request.sink.error(AbortedException.beforeSend());
+			return;
+		}
+
+		HttpPipelinedChannel child = new HttpPipelinedChannel(channel, this, request.observer);
+		ChannelOperations.addReactiveBridge(child, ChannelOperations.OnSetup.empty(), child);
+		ChannelOperations<?, ?> ops = request.opsFactory.create(Connection.from(child), child, null);
+		if (ops == null) {
+			onRequestTerminated();
+			request.sink.error(new IllegalStateException("No ChannelOperations for the pipelined request"));
+			return;
+		}
+
+		// The registration completes on the event loop of the connection, the channel is not notified as active
+		//"FutureReturnValueIgnored" this is deliberate
+		channel.eventLoop().register(child);
+		child.active = true;
+
+		inFlight.offer(child);
+		requests.offer(child);
+		if (requests.peek() == child) {
+			child.requesting = true;
+		}
+
+		if (log.isDebugEnabled()) {
+			log.debug(format(channel, "Pipelining HTTP request, in flight: {}"), inFlight.size());
+		}
+
+		ops.bind();
+		// First send a notification that the connection is ready and then change the state
+		// In case a cancellation was received, ChannelOperations will be disposed
+		// and there will be no subscription to the I/O handler at all.
+		request.sink.success(ops);
+		child.onStateChange(ops, ConnectionObserver.State.CONFIGURED);
+	}
+
+	/**
+	 * Writes a message of the request of a {@link HttpPipelinedChannel} to the connection.
+	 */
+	@SuppressWarnings("FutureReturnValueIgnored")
+	void write(HttpPipelinedChannel child, Object msg) {
+		child.requestStarted = true;
+		//"FutureReturnValueIgnored" this is deliberate
+		ctx.write(msg);
+		if (msg instanceof LastHttpContent) {
+			child.requested = true;
+			child.requesting = false;
+			requests.remove(child);
+			writeNext();
+		}
+	}
+
+	@SuppressWarnings("FutureReturnValueIgnored")
+	void flush() {
+		//"FutureReturnValueIgnored" this is deliberate
+		ctx.flush();
+	}
+
+	void writeNext() {
+		HttpPipelinedChannel next = requests.peek();
+		if (next != null && !next.requesting) {
+			ctx.executor().execute(next);
+		}
+	}
+
+	/**
+	 * A {@link HttpPipelinedChannel} closed before receiving its response leaves the response
+	 * without request, the connection is closed.
+	 */
+	@SuppressWarnings("FutureReturnValueIgnored")
+	void onPipelinedChannelClosed(HttpPipelinedChannel child) {
+		if (reading == child) {
+			reading = null;
+		}
+		boolean writing = requests.peek() == child;
+		requests.remove(child);
+		if (writing) {
+			writeNext();
+		}
+		if (inFlight.remove(child) && child.requestStarted && ctx.channel().isActive()) {
+			if (log.isDebugEnabled()) {
+				log.debug(format(ctx.channel(), "Pipelined HTTP request terminated " +
+						"without response, closing the connection"));
+			}
+			persistent = false;
+			connections.drain(this);
+			//"FutureReturnValueIgnored" this is deliberate
+			ctx.close();
+		}
+		onRequestTerminated();
+	}
+
+	void onRequestTerminated() {
+		if (connections.release(this)) {
+			release();
+		}
+	}
+
+	/**
+	 * Releases the connection to the parent {@link reactor.netty.resources.ConnectionProvider}
+	 * once there is no request in flight.
+	 */
+	@SuppressWarnings("FutureReturnValueIgnored")
+	void release() {
+		Channel channel = ctx.channel();
+		if (!persistent || !channel.isActive()) {
+			//"FutureReturnValueIgnored" this is deliberate
+			channel.close();
+			return;
+		}
+
+		if (log.isDebugEnabled()) {
+			log.debug(format(channel, "No more pipelined requests, releasing the connection"));
+		}
+
+		ctx.pipeline().remove(this);
+		ChannelOperations<?, ?> ops = connection.as(ChannelOperations.class);
+		if (ops != null) {
+			ops.listener().onStateChange(ops, ConnectionObserver.State.DISCONNECTING);
+		}
+		else if (connection instanceof ConnectionObserver) {
+			((ConnectionObserver) connection).onStateChange(connection, ConnectionObserver.State.DISCONNECTING);
+		}
+		else {
+			connection.dispose();
+		}
+	}
+
+	@Override
+	public void handlerAdded(ChannelHandlerContext ctx) {
+		this.ctx = ctx;
+	}
+
+	@Override
+	@SuppressWarnings("FutureReturnValueIgnored")
+	public void channelRead(ChannelHandlerContext ctx, Object msg) {
+		if (!(msg instanceof HttpObject)) {
+			ctx.fireChannelRead(msg);
+			return;
+		}
+
+		HttpPipelinedChannel child = inFlight.peek();
+		if (child == null) {
+			if (log.isDebugEnabled()) {
+				log.debug(format(ctx.channel(), "Received a response without pipelined request, closing the connection"));
+			}
+			ReferenceCountUtil.release(msg);
+			persistent = false;
+			connections.drain(this);
+			//"FutureReturnValueIgnored" this is deliberate
+			ctx.close();
+			return;
+		}
+
+		if (msg instanceof HttpResponse) {
+			HttpResponseStatus status = ((HttpResponse) msg).status();
+			// An informational response precedes the response of the request, without being routed to it
+			informational = status.codeClass() == HttpStatusClass.INFORMATIONAL &&
+					status.code() != HttpResponseStatus.SWITCHING_PROTOCOLS.code();
+		}
+		if (informational) {
+			if (log.isDebugEnabled() && msg instanceof HttpResponse) {
+				log.debug(format(ctx.channel(), "Skipping informational response {}"), ((HttpResponse) msg).status());
+			}
+			ReferenceCountUtil.release(msg);
+			if (msg instanceof LastHttpContent) {
+				informational = false;
+				ctx.read();
+			}
+			return;
+		}
+
+		if (msg instanceof HttpResponse && !HttpUtil.isKeepAlive((HttpResponse) msg)) {
+			// The following requests are retried on another connection
+			persistent = false;
+			connections.drain(this);
+		}
+
+		boolean last = msg instanceof LastHttpContent;
+		if (last) {
+			inFlight.poll();
+			child.responded = true;
+		}
+		reading = child;
+		child.pipeline().fireChannelRead(msg);
+
+		if (last) {
+			if (!persistent) {
+				//"FutureReturnValueIgnored" this is deliberate
+				ctx.close();
+			}
+			else if (!inFlight.isEmpty()) {
+				ctx.read();
+			}
+		}
+	}
+
+	@Override
+	public void channelReadComplete(ChannelHandlerContext ctx) {
+		HttpPipelinedChannel child = reading;
+		if (child != null) {
+			reading = null;
+			child.pipeline().fireChannelReadComplete();
+		}
+		ctx.fireChannelReadComplete();
+	}
+
+	@Override
+	@SuppressWarnings("FutureReturnValueIgnored")
+	public void channelInactive(ChannelHandlerContext ctx) {
+		persistent = false;
+		connections.drain(this);
+		List<HttpPipelinedChannel> children = new ArrayList<>(inFlight);
+		children.addAll(requests);
+		for (HttpPipelinedChannel child : children) {
+			//"FutureReturnValueIgnored" this is deliberate
+			child.close();
+		}
+		ctx.fireChannelInactive();
+	}
+
+	@Override
+	public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+		HttpPipelinedChannel child = requests.peek();
+		if (child != null && child.requesting) {
+			child.pipeline().fireChannelWritabilityChanged();
+		}
+		ctx.fireChannelWritabilityChanged();
+	}
+
+	@Override
+	@SuppressWarnings("FutureReturnValueIgnored")
+	public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+		if (log.isDebugEnabled()) {
+			log.debug(format(ctx.channel(), "The pipelined connection observed an error, closing the connection"), cause);
+		}
+		persistent = false;
+		connections.drain(this);
+		//"FutureReturnValueIgnored" this is deliberate
+		ctx.close();
+	}
+
+	static final Logger log = Loggers.getLogger(HttpPipeliningHandler.class);
+}
@@ -18,6 +18,7 @@ package reactor.netty.http.client;
 import io.micrometer.core.instrument.Timer;
 import reactor.netty.Metrics;
 import reactor.netty.channel.MeterKey;
+import reactor.netty.http.EventLoopLocalMetrics;
 import reactor.netty.http.MicrometerHttpMetricsRecorder;
 
 import java.net.SocketAddress;
@@ -44,9 +45,13 @@ final class MicrometerHttpClientMetricsRecorder extends MicrometerHttpMetricsRec
 
 	@Override
 	public void recordDataReceivedTime(SocketAddress remoteAddress, String uri, String method, String status, Duration time) {
+		String uriTag = limitUriTag(uri);
 		String address = Metrics.formatSocketAddress(remoteAddress);
-		Timer dataReceivedTime = dataReceivedTimeCache.computeIfAbsent(new MeterKey(uri, address, method, status),
-				key -> filter(dataReceivedTimeBuilder.tags(REMOTE_ADDRESS, address, URI, uri, METHOD, method, STATUS, status)
+		if (EventLoopLocalMetrics.recordDataReceivedTime(this, address, uriTag, method, status, time)) {
+			return;
+		}
+		Timer dataReceivedTime = dataReceivedTimeCache.computeIfAbsent(new MeterKey(uriTag, address, method, status),
+				key -> filter(dataReceivedTimeBuilder.tags(REMOTE_ADDRESS, address, URI, uriTag, METHOD, method, STATUS, status)
 				                                     .register(REGISTRY)));
 		if (dataReceivedTime != null) {
 			dataReceivedTime.record(time);
@@ -55,9 +60,13 @@ final class MicrometerHttpClientMetricsRecorder extends MicrometerHttpMetricsRec
 
 	@Override
 	public void recordDataSentTime(SocketAddress remoteAddress, String uri, String method, Duration time) {
+		String uriTag = limitUriTag(uri);
 		String address = Metrics.formatSocketAddress(remoteAddress);
-		Timer dataSentTime = dataSentTimeCache.computeIfAbsent(new MeterKey(uri, address, method, null),
-				key -> filter(dataSentTimeBuilder.tags(REMOTE_ADDRESS, address, URI, uri, METHOD, method)
+		if (EventLoopLocalMetrics.recordDataSentTime(this, address, uriTag, method, null, time)) {
+			return;
+		}
+		Timer dataSentTime = dataSentTimeCache.computeIfAbsent(new MeterKey(uriTag, address, method, null),
+				key -> filter(dataSentTimeBuilder.tags(REMOTE_ADDRESS, address, URI, uriTag, METHOD, method)
 				                                 .register(REGISTRY)));
 		if (dataSentTime != null) {
 			dataSentTime.record(time);
@@ -66,9 +75,13 @@ final class MicrometerHttpClientMetricsRecorder extends MicrometerHttpMetricsRec
 
 	@Override
 	public void recordResponseTime(SocketAddress remoteAddress, String uri, String method, String status, Duration time) {
+		String uriTag = limitUriTag(uri);
 		String address = Metrics.formatSocketAddress(remoteAddress);
-		Timer responseTime = responseTimeCache.computeIfAbsent(new MeterKey(uri, address, method, status),
-				key -> filter(responseTimeBuilder.tags(REMOTE_ADDRESS, address, URI, uri, METHOD, method, STATUS, status)
+		if (EventLoopLocalMetrics.recordResponseTime(this, address, uriTag, method, status, time)) {
+			return;
+		}
+		Timer responseTime = responseTimeCache.computeIfAbsent(new MeterKey(uriTag, address, method, status),
+				key -> filter(responseTimeBuilder.tags(REMOTE_ADDRESS, address, URI, uriTag, METHOD, method, STATUS, status)
 				                                 .register(REGISTRY)));
 		if (responseTime != null) {
 			responseTime.record(time);
@@ -34,12 +34,45 @@ public final class PrematureCloseException extends IOException {
 	public static final PrematureCloseException TEST_EXCEPTION =
 			new PrematureCloseException("Simulated prematurely closed connection");
 
+	/**
+	 * Whether the connection was closed before the response to a pipelined request,
+	 * such a request can be retried on another connection
+	 */
+	final boolean beforePipelinedResponse;
+
 	PrematureCloseException(String message) {
+		this(message, false);
+	}
+
+	PrematureCloseException(String message, boolean beforePipelinedResponse) {
 		super(message);
+		this.beforePipelinedResponse = beforePipelinedResponse;
 	}
 
 	PrematureCloseException(Throwable throwable) {
 		super(throwable);
+		this.beforePipelinedResponse = false;
+	}
+
+	/**
+	 * Creates the error signalled when the connection is closed before the response to a pipelined request.
+	 *
+	 * @return a new {@link PrematureCloseException}
+	 */
+	static PrematureCloseException beforePipelinedResponse() {
+		return new PrematureCloseException("Connection prematurely closed BEFORE response to a pipelined request",
+				true);
+	}
+
+	/**
+	 * Return true if the connection was closed before the response to a pipelined request,
+	 * such a request can be retried on another connection.
+	 *
+	 * @param err the error to check
+	 * @return true if the connection was closed before the response to a pipelined request
+	 */
+	static boolean isBeforePipelinedResponse(Throwable err) {
+		return err instanceof PrematureCloseException && ((PrematureCloseException) err).beforePipelinedResponse;
 	}
 
 	@Override
@@ -19,11 +19,13 @@ package reactor.netty.http.client;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.net.URI;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
+import io.netty.util.internal.PlatformDependent;
+import reactor.netty.ReactorNetty;
 import reactor.util.annotation.Nullable;
 
 final class UriEndpointFactory {
@@ -31,9 +33,6 @@ final class UriEndpointFactory {
 	final boolean defaultSecure;
 	final BiFunction<String, Integer, InetSocketAddress> inetSocketAddressFunction;
 
-	static final Pattern URL_PATTERN = Pattern.compile(
-			"(?:(\\w+)://)?((?:\\[.+?])|(?<!\\[)(?:[^/?]+?))(?::(\\d{2,5}))?([/?].*)?");
-
 	UriEndpointFactory(Supplier<? extends SocketAddress> connectAddress, boolean defaultSecure,
 			BiFunction<String, Integer, InetSocketAddress> inetSocketAddressFunction) {
 		this.connectAddress = connectAddress;
@@ -45,30 +44,140 @@ final class UriEndpointFactory {
 		return createUriEndpoint(url, isWs, connectAddress);
 	}
 
+	/**
+	 * Parses the url in a single pass: {@code [scheme://]host[:port][/path][?query]}, the host may be
+	 * an IPv6 address in brackets. The parsed scheme, host and port of the urls with a scheme are kept
+	 * in a bounded cache, see {@link ReactorNetty#HTTP_CLIENT_URI_ENDPOINT_CACHE_SIZE}.
+	 */
 	UriEndpoint createUriEndpoint(String url, boolean isWs, Supplier<? extends SocketAddress> connectAddress) {
 		if (url.startsWith("/")) {
 			return new UriEndpoint(resolveScheme(isWs), "localhost", 80, connectAddress, url);
 		}
-		else {
-			Matcher matcher = URL_PATTERN.matcher(url);
-			if (matcher.matches()) {
-				// scheme is optional in pattern. use default if it's not specified
-				String scheme = matcher.group(1) != null ? matcher.group(1).toLowerCase()
-						: resolveScheme(isWs);
-				String host = cleanHostString(matcher.group(2));
-
-				String portString = matcher.group(3);
-				int port = portString != null ? Integer.parseInt(portString)
-						: (UriEndpoint.isSecureScheme(scheme) ? 443 : 80);
-				String pathAndQuery = cleanPathAndQuery(matcher.group(4));
-				return new UriEndpoint(scheme, host, port,
-						() -> inetSocketAddressFunction.apply(host, port),
-						pathAndQuery);
+
+		int schemeEnd = schemeEnd(url);
+		int authorityStart = schemeEnd == -1 ? 0 : schemeEnd + 3;
+		int authorityEnd = authorityEnd(url, authorityStart);
+		String pathAndQuery = cleanPathAndQuery(authorityEnd < url.length() ? url.substring(authorityEnd) : null);
+
+		if (schemeEnd == -1 || CACHE_SIZE <= 0) {
+			Authority authority = parseAuthority(url, resolveScheme(url, schemeEnd, isWs), authorityStart, authorityEnd);
+			return new UriEndpoint(authority.scheme, authority.host, authority.port, authority, pathAndQuery);
+		}
+
+		// scheme://host[:port]
+		String key = url.substring(0, authorityEnd);
+		Authority authority = AUTHORITIES.get(key);
+		if (authority == null || authority.inetSocketAddressFunction != inetSocketAddressFunction) {
+			if (authority == null && AUTHORITIES.size() >= CACHE_SIZE) {
+				evictAuthority();
 			}
-			else {
+			authority = parseAuthority(url, resolveScheme(url, schemeEnd, isWs), authorityStart, authorityEnd);
+			AUTHORITIES.put(key, authority);
+		}
+		return new UriEndpoint(authority.scheme, authority.host, authority.port, authority, pathAndQuery);
+	}
+
+	/**
+	 * Makes room for a new authority by evicting a single cached one, so that the other authorities,
+	 * and their resolved remote addresses, remain cached.
+	 */
+	static void evictAuthority() {
+		Iterator<String> keys = AUTHORITIES.keySet().iterator();
+		if (keys.hasNext()) {
+			AUTHORITIES.remove(keys.next());
+		}
+	}
+
+	Authority parseAuthority(String url, String scheme, int start, int end) {
+		int hostStart = start;
+		int hostEnd = end;
+		int port = -1;
+		if (start < end && url.charAt(start) == '[') {
+			// IPv6 address, the brackets are removed
+			int bracket = url.indexOf(']', start + 1);
+			if (bracket == -1 || bracket > end) {
 				throw new IllegalArgumentException("Unable to parse url [" + url + "]");
 			}
+			if (bracket + 1 < end && (url.charAt(bracket + 1) != ':' || (port = port(url, bracket + 2, end)) == -1)) {
+				throw new IllegalArgumentException("Unable to parse url [" + url + "]");
+			}
+			hostStart = start + 1;
+			hostEnd = bracket;
+		}
+		else {
+			int colon = url.lastIndexOf(':', end - 1);
+			if (colon > start && (port = port(url, colon + 1, end)) != -1) {
+				hostEnd = colon;
+			}
+		}
+		if (hostStart == hostEnd) {
+			throw new IllegalArgumentException("Unable to parse url [" + url + "]");
+		}
+		if (port == -1) {
+			port = UriEndpoint.isSecureScheme(scheme) ? 443 : 80;
 		}
+		return new Authority(scheme, url.substring(hostStart, hostEnd), port, inetSocketAddressFunction);
+	}
+
+	String resolveScheme(String url, int schemeEnd, boolean isWs) {
+		if (schemeEnd == -1) {
+			return resolveScheme(isWs);
+		}
+		// avoid allocating the well known schemes
+		for (String scheme : SCHEMES) {
+			if (scheme.length() == schemeEnd && url.regionMatches(true, 0, scheme, 0, schemeEnd)) {
+				return scheme;
+			}
+		}
+		return url.substring(0, schemeEnd).toLowerCase();
+	}
+
+	/**
+	 * Returns the end of the scheme followed by {@code ://}, or -1 when there is no scheme.
+	 */
+	static int schemeEnd(String url) {
+		int length = url.length();
+		int i = 0;
+		while (i < length && isSchemeChar(url.charAt(i))) {
+			i++;
+		}
+		return i > 0 && url.startsWith("://", i) ? i : -1;
+	}
+
+	/**
+	 * Returns the start of the path, of the query or of the fragment, or the end of the url.
+	 */
+	static int authorityEnd(String url, int start) {
+		int length = url.length();
+		for (int i = start; i < length; i++) {
+			char c = url.charAt(i);
+			if (c == '/' || c == '?' || c == '#') {
+				return i;
+			}
+		}
+		return length;
+	}
+
+	static boolean isSchemeChar(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+	}
+
+	/**
+	 * Returns the port made of 2 to 5 digits, or -1 when it is not a port.
+	 */
+	static int port(String url, int start, int end) {
+		if (end - start < 2 || end - start > 5) {
+			return -1;
+		}
+		int port = 0;
+		for (int i = start; i < end; i++) {
+			char c = url.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			port = port * 10 + (c - '0');
+		}
+		return port <= 65535 ? port : -1;
 	}
 
 	UriEndpoint createUriEndpoint(URI url, boolean isWs) {
@@ -132,4 +241,45 @@ final class UriEndpointFactory {
 			return defaultSecure ? HttpClient.HTTPS_SCHEME : HttpClient.HTTP_SCHEME;
 		}
 	}
+
+	static final String[] SCHEMES =
+			{HttpClient.HTTP_SCHEME, HttpClient.HTTPS_SCHEME, HttpClient.WS_SCHEME, HttpClient.WSS_SCHEME};
+
+	static final int CACHE_SIZE =
+			Integer.parseInt(System.getProperty(ReactorNetty.HTTP_CLIENT_URI_ENDPOINT_CACHE_SIZE, "256"));
+
+	/**
+	 * The parsed scheme, host and port of the urls, by {@code scheme://host[:port]}
+	 */
+	static final ConcurrentMap<String, Authority> AUTHORITIES = PlatformDependent.newConcurrentHashMap();
+
+	/**
+	 * The scheme, host and port of an url, supplying the remote address which is created once.
+	 */
+	static final class Authority implements Supplier<InetSocketAddress> {
+		final String scheme;
+		final String host;
+		final int port;
+		final BiFunction<String, Integer, InetSocketAddress> inetSocketAddressFunction;
+
+		volatile InetSocketAddress address;
+
+		Authority(String scheme, String host, int port,
+				BiFunction<String, Integer, InetSocketAddress> inetSocketAddressFunction) {
+			this.scheme = scheme;
+			this.host = host;
+			this.port = port;
+			this.inetSocketAddressFunction = inetSocketAddressFunction;
+		}
+
+		@Override
+		public InetSocketAddress get() {
+			InetSocketAddress address = this.address;
+			if (address == null) {
+				address = inetSocketAddressFunction.apply(host, port);
+				this.address = address;
+			}
+			return address;
+		}
+	}
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http.client;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.netty.channel.Channel;
+import io.netty.handler.codec.compression.ZlibCodecFactory;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketClientExtension;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketClientExtensionHandler;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketClientExtensionHandshaker;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionData;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionFilterProvider;
+import io.netty.handler.codec.http.websocketx.extensions.compression.DeflateFrameClientExtensionHandshaker;
+import io.netty.handler.codec.http.websocketx.extensions.compression.PerMessageDeflateClientExtensionHandshaker;
+import reactor.netty.http.websocket.WebsocketCompression;
+import reactor.util.annotation.Nullable;
+
+import static reactor.netty.http.websocket.WebsocketCompression.JZLIB_AVAILABLE;
+import static reactor.netty.http.websocket.WebsocketCompression.MAX_WINDOW_BITS;
+import static reactor.netty.http.websocket.WebsocketCompression.windowBits;
+
+/**
+ * Negotiates the {@code permessage-deflate} websocket extension with the settings of a {@link WebsocketClientSpec}.
+ * <p>The Netty handshaker limits the client window and drops the client context only when the server responds so,
+ * while RFC 7692 lets the client do so on its own: the parameters are added to the server response before it is
+ * handed to the Netty handshaker.
+ * <p>At most {@link WebsocketClientSpec#maxContextTakeoverSessions()} sessions of all the clients keep their compression
+ * context between the messages, the other sessions negotiate {@code client_no_context_takeover} and
+ * {@code server_no_context_takeover} so that their deflater and inflater are released after each message.
+ *
+ * @since 1.0.0
+ */
+final class WebsocketClientCompressionHandshaker implements WebSocketClientExtensionHandshaker {
+
+	static final String PERMESSAGE_DEFLATE_EXTENSION = "permessage-deflate";
+	static final String CLIENT_MAX_WINDOW             = "client_max_window_bits";
+	static final String CLIENT_NO_CONTEXT             = "client_no_context_takeover";
+	static final String SERVER_NO_CONTEXT             = "server_no_context_takeover";
+
+	/**
+	 * The number of client sessions keeping their compression context
+	 */
+	static final AtomicInteger CONTEXT_TAKEOVER_SESSIONS = new AtomicInteger();
+
+	/**
+	 * Creates the websocket compression handler of a connection, which negotiates the {@code permessage-deflate}
+	 * and the {@code deflate-frame} extensions.
+	 *
+	 * @param channel the connection
+	 * @param spec the websocket client configuration
+	 * @return a new {@link WebSocketClientExtensionHandler}
+	 */
+	static WebSocketClientExtensionHandler newHandler(Channel channel, WebsocketClientSpec spec) {
+		WebSocketExtensionFilterProvider filterProvider = WebsocketCompression.filterProvider(spec);
+		return new WebSocketClientExtensionHandler(
+				new WebsocketClientCompressionHandshaker(channel, spec, filterProvider),
+				new DeflateFrameClientExtensionHandshaker(spec.compressionLevel(), false, filterProvider),
+				new DeflateFrameClientExtensionHandshaker(spec.compressionLevel(), true, filterProvider));
+	}
+
+	final Channel                            channel;
+	final WebsocketClientSpec                spec;
+	final WebSocketExtensionFilterProvider   filterProvider;
+	final WebSocketClientExtensionHandshaker handshaker;
+	final boolean                            allowClientWindowSize;
+	final int                                clientMaxWindowBits;
+	final boolean                            clientNoContextTakeover;
+	final boolean                            serverNoContextTakeover;
+
+	boolean contextTakeover;
+
+	WebsocketClientCompressionHandshaker(Channel channel, WebsocketClientSpec spec,
+			WebSocketExtensionFilterProvider filterProvider) {
+		this.channel = channel;
+		this.spec = spec;
+		this.filterProvider = filterProvider;
+		this.contextTakeover = !(spec.clientNoContextTakeover() && spec.serverNoContextTakeover()) &&
+				WebsocketCompression.tryAcquireContextTakeover(CONTEXT_TAKEOVER_SESSIONS, spec);
+		if (contextTakeover) {
+			channel.closeFuture()
+			       .addListener(f -> release());
+		}
+		this.clientMaxWindowBits = JZLIB_AVAILABLE ? spec.clientMaxWindowBits() : MAX_WINDOW_BITS;
+		this.clientNoContextTakeover = spec.clientNoContextTakeover() || !contextTakeover;
+		this.serverNoContextTakeover = spec.serverNoContextTakeover() || !contextTakeover;
+		this.allowClientWindowSize =
+				ZlibCodecFactory.isSupportingWindowSizeAndMemLevel() || clientMaxWindowBits < MAX_WINDOW_BITS;
+		this.handshaker = newHandshaker(clientNoContextTakeover, serverNoContextTakeover);
+	}
+
+	@Override
+	public WebSocketExtensionData newRequestData() {
+		return handshaker.newRequestData();
+	}
+
+	@Override
+	@Nullable
+	public WebSocketClientExtension handshakeExtension(WebSocketExtensionData extensionData) {
+		if (!PERMESSAGE_DEFLATE_EXTENSION.equals(extensionData.name())) {
+			return null;
+		}
+
+		Map<String, String> parameters = extensionData.parameters();
+		Map<String, String> response = null;
+		if (clientNoContextTakeover && !parameters.containsKey(CLIENT_NO_CONTEXT)) {
+			response = new HashMap<>(parameters);
+			response.put(CLIENT_NO_CONTEXT, null);
+		}
+		if (clientMaxWindowBits < MAX_WINDOW_BITS && allowClientWindowSize &&
+				windowBits(parameters.get(CLIENT_MAX_WINDOW)) > clientMaxWindowBits) {
+			if (response == null) {
+				response = new HashMap<>(parameters);
+			}
+			response.put(CLIENT_MAX_WINDOW, Integer.toString(clientMaxWindowBits));
+		}
+
+		// RFC 7692 lets the server drop its context or request the client to do so
+		// even if the client did not offer it, while the Netty handshaker rejects such a response
+		WebSocketClientExtensionHandshaker handshaker = this.handshaker;
+		boolean serverNoContext = parameters.containsKey(SERVER_NO_CONTEXT);
+		boolean clientNoContext = parameters.containsKey(CLIENT_NO_CONTEXT);
+		if ((serverNoContext && !serverNoContextTakeover) || (clientNoContext && !clientNoContextTakeover)) {
+			handshaker = newHandshaker(clientNoContextTakeover || clientNoContext,
+					serverNoContextTakeover || serverNoContext);
+		}
+
+		WebSocketClientExtension extension =
+				handshaker.handshakeExtension(response != null ?
+						new WebSocketExtensionData(extensionData.name(), response) :
+						extensionData);
+		if (extension == null) {
+			release();
+		}
+		return extension;
+	}
+
+	WebSocketClientExtensionHandshaker newHandshaker(boolean clientNoContext, boolean serverNoContext) {
+		return new PerMessageDeflateClientExtensionHandshaker(spec.compressionLevel(),
+				allowClientWindowSize,
+				spec.serverMaxWindowBits(),
+				clientNoContext,
+				serverNoContext,
+				filterProvider);
+	}
+
+	void release() {
+		if (contextTakeover) {
+			contextTakeover = false;
+			CONTEXT_TAKEOVER_SESSIONS.decrementAndGet();
+		}
+	}
+}
@@ -15,37 +15,94 @@
  */
 package reactor.netty.http.server;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.util.AsciiString;
 import reactor.util.Logger;
 import reactor.util.Loggers;
+import reactor.util.annotation.Nullable;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.Locale;
 import java.util.Objects;
 
+import static reactor.netty.ReactorNetty.ACCESS_LOG_FILE;
+import static reactor.netty.ReactorNetty.ACCESS_LOG_QUEUE_SIZE;
+
 final class AccessLog {
 	static final Logger log = Loggers.getLogger("reactor.netty.http.server.AccessLog");
 	static final DateTimeFormatter DATE_TIME_FORMATTER =
 			DateTimeFormatter.ofPattern("dd/MMM/yyyy:HH:mm:ss Z", Locale.US);
-	static final String COMMON_LOG_FORMAT =
-			"{} - {} [{}] \"{} {} {}\" {} {} {} {} ms";
-	static final String MISSING = "-";
+	static final String MISSING = AccessLogFormat.MISSING;
+
+	/**
+	 * The background appender, {@code null} when the records are written with the logger
+	 */
+	@Nullable
+	static final AccessLogAppender APPENDER = createAppender();
+
+	static volatile CachedDate cachedDate = new CachedDate(0, "");
 
-	final String zonedDateTime;
+	final AccessLogFormat format;
+	final CharSequence[] requestHeaderValues;
+	final CharSequence[] responseHeaderValues;
+
+	String zonedDateTime;
 
 	String address;
 	CharSequence method;
 	CharSequence uri;
+	String route;
 	String protocol;
 	String user = MISSING;
 	CharSequence status;
 	long contentLength;
 	boolean chunked;
-	long startTime = System.currentTimeMillis();
+	long startTime;
+	long startNanos;
+	long latencyNanos;
+	long bytesReceived;
 	int port;
+	String connectionId;
 
-	AccessLog() {
-		this.zonedDateTime = ZonedDateTime.now().format(DATE_TIME_FORMATTER);
+	AccessLog(AccessLogFormat format) {
+		this.format = format;
+		this.requestHeaderValues = new CharSequence[format.requestHeaders.length];
+		this.responseHeaderValues = new CharSequence[format.responseHeaders.length];
+		reset();
+	}
+
+	/**
+	 * Resets this record so that it can be reused for the next request on the same connection.
+	 *
+	 * @return this record
+	 */
+	AccessLog reset() {
+		this.startTime = System.currentTimeMillis();
+		this.startNanos = System.nanoTime();
+		this.zonedDateTime = formatDate(startTime);
+		this.status = null;
+		this.route = null;
+		this.contentLength = 0;
+		this.chunked = false;
+		this.latencyNanos = 0;
+		this.bytesReceived = 0;
+		Arrays.fill(requestHeaderValues, null);
+		Arrays.fill(responseHeaderValues, null);
+		return this;
+	}
+
+	AccessLog connectionId(String connectionId) {
+		this.connectionId = connectionId;
+		return this;
 	}
 
 	AccessLog address(String address) {
@@ -68,6 +125,11 @@ final class AccessLog {
 		return this;
 	}
 
+	AccessLog route(@Nullable String route) {
+		this.route = route;
+		return this;
+	}
+
 	AccessLog protocol(String protocol) {
 		this.protocol = Objects.requireNonNull(protocol, "protocol");
 		return this;
@@ -95,14 +157,122 @@ final class AccessLog {
 		return this;
 	}
 
-	long duration() {
-		return System.currentTimeMillis() - startTime;
+	AccessLog increaseBytesReceived(long bytesReceived) {
+		this.bytesReceived += bytesReceived;
+		return this;
+	}
+
+	AccessLog requestHeaders(HttpHeaders headers) {
+		AsciiString[] names = format.requestHeaders;
+		for (int i = 0; i < names.length; i++) {
+			requestHeaderValues[i] = headers.get(names[i]);
+		}
+		return this;
+	}
+
+	AccessLog requestHeaders(Http2Headers headers) {
+		AsciiString[] names = format.requestHeaders;
+		for (int i = 0; i < names.length; i++) {
+			requestHeaderValues[i] = headers.get(names[i]);
+		}
+		return this;
+	}
+
+	AccessLog responseHeaders(HttpHeaders headers) {
+		AsciiString[] names = format.responseHeaders;
+		for (int i = 0; i < names.length; i++) {
+			responseHeaderValues[i] = headers.get(names[i]);
+		}
+		return this;
+	}
+
+	AccessLog responseHeaders(Http2Headers headers) {
+		AsciiString[] names = format.responseHeaders;
+		for (int i = 0; i < names.length; i++) {
+			responseHeaderValues[i] = headers.get(names[i]);
+		}
+		return this;
+	}
+
+	/**
+	 * Completes the record and, when selected by the sampling configuration, writes it either
+	 * to the background appender, encoding it in a buffer obtained from the given allocator,
+	 * or to the logger.
+	 *
+	 * @param alloc the allocator of the channel
+	 */
+	void log(ByteBufAllocator alloc) {
+		this.latencyNanos = System.nanoTime() - startNanos;
+		if (!format.shouldLog(this)) {
+			return;
+		}
+		AccessLogAppender appender = APPENDER;
+		if (appender != null) {
+			ByteBuf buf = alloc.directBuffer(256);
+			try {
+				format.encode(this, buf);
+				buf.writeByte('\n');
+			}
+			catch (Throwable t) {
+				buf.release();
+				throw t;
+			}
+			appender.append(buf);
+		}
+		else if (log.isInfoEnabled()) {
+			ByteBuf buf = alloc.heapBuffer(256);
+			try {
+				format.encode(this, buf);
+				log.info(buf.toString(StandardCharsets.UTF_8));
+			}
+			finally {
+				buf.release();
+			}
+		}
+	}
+
+	/**
+	 * Returns the formatted date for the given time, reusing the value formatted for the
+	 * same second.
+	 *
+	 * @param epochMillis the time in milliseconds
+	 * @return the formatted date
+	 */
+	static String formatDate(long epochMillis) {
+		long epochSecond = epochMillis / 1000;
+		CachedDate cached = cachedDate;
+		if (cached.epochSecond != epochSecond) {
+			cached = new CachedDate(epochSecond,
+					ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault())
+					             .format(DATE_TIME_FORMATTER));
+			cachedDate = cached;
+		}
+		return cached.value;
 	}
 
-	void log() {
-		if (log.isInfoEnabled()) {
-			log.info(COMMON_LOG_FORMAT, address, user, zonedDateTime,
-					method, uri, protocol, status, (contentLength > -1 ? contentLength : MISSING), port, duration());
+	@Nullable
+	static AccessLogAppender createAppender() {
+		String destination = System.getProperty(ACCESS_LOG_FILE);
+		if (destination == null || destination.isEmpty()) {
+			return null;
+		}
+		try {
+			return AccessLogAppender.create(destination,
+					Integer.parseInt(System.getProperty(ACCESS_LOG_QUEUE_SIZE, "65536")));
+		}
+		catch (IOException e) {
+			log.error("Failed to open the access log destination " + destination + ", fallback to the logger", e);
+			return null;
+		}
+	}
+
+	static final class CachedDate {
+		final long   epochSecond;
+		final String value;
+
+		CachedDate(long epochSecond, String value) {
+			this.epochSecond = epochSecond;
+			this.value = value;
 		}
 	}
 }
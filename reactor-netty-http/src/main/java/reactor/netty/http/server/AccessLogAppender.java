@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http.server;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.netty.buffer.ByteBuf;
+import io.netty.util.internal.PlatformDependent;
+import reactor.util.Logger;
+import reactor.util.Loggers;
+import reactor.util.Metrics;
+
+import static reactor.netty.Metrics.ACCESS_LOG_DROPPED;
+import static reactor.netty.Metrics.HTTP_SERVER_PREFIX;
+import static reactor.netty.Metrics.REGISTRY;
+
+/**
+ * A bounded, batching appender writing the encoded access log records from a dedicated
+ * background thread, so that the event loops only pay the cost of encoding the record and
+ * enqueuing it. When the queue is full the record is dropped and counted.
+ */
+final class AccessLogAppender implements Runnable {
+
+	static final String STDOUT = "stdout";
+
+	static final int BATCH_SIZE = 256;
+
+	static final long PARK_NANOS = 10_000_000L;
+
+	static final long SHUTDOWN_TIMEOUT_MILLIS = 100L;
+
+	/**
+	 * Creates and starts a new appender writing to the given destination.
+	 *
+	 * @param destination a file path or {@code stdout}
+	 * @param capacity the maximum number of records waiting to be written
+	 * @return the started appender
+	 * @throws IOException if the file cannot be opened
+	 */
+	static AccessLogAppender create(String destination, int capacity) throws IOException {
+		WritableByteChannel channel;
+		if (STDOUT.equalsIgnoreCase(destination)) {
+			channel = Channels.newChannel(new FileOutputStream(FileDescriptor.out));
+		}
+		else {
+			channel = FileChannel.open(Paths.get(destination),
+					StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		}
+		AccessLogAppender appender = new AccessLogAppender(channel, capacity);
+		appender.start();
+		return appender;
+	}
+
+	final WritableByteChannel channel;
+	final Queue<ByteBuf>      queue;
+	final AtomicLong          dropped = new AtomicLong();
+	final ByteBuf[]           batch   = new ByteBuf[BATCH_SIZE];
+	final ByteBuffer[]        buffers = new ByteBuffer[BATCH_SIZE];
+	final Thread              writer;
+
+	volatile boolean parked;
+	volatile boolean running = true;
+
+	AccessLogAppender(WritableByteChannel channel, int capacity) {
+		this.channel = channel;
+		this.queue = PlatformDependent.newFixedMpscQueue(capacity);
+		this.writer = new Thread(this, "reactor-http-access-log");
+		this.writer.setDaemon(true);
+	}
+
+	void start() {
+		writer.start();
+		Runtime.getRuntime().addShutdownHook(new Thread(this::dispose, "reactor-http-access-log-shutdown"));
+		if (Metrics.isInstrumentationAvailable()) {
+			MicrometerAccessLogAppenderMeterRegistrar.registerMetrics(this);
+		}
+	}
+
+	/**
+	 * Enqueues an encoded record. The ownership of the buffer is transferred to the appender,
+	 * which releases it once written or dropped.
+	 *
+	 * @param record the encoded record
+	 */
+	void append(ByteBuf record) {
+		if (!running || !queue.offer(record)) {
+			record.release();
+			dropped.incrementAndGet();
+			return;
+		}
+		if (parked) {
+			LockSupport.unpark(writer);
+		}
+	}
+
+	/**
+	 * Returns the number of records dropped because the queue was full.
+	 *
+	 * @return the number of dropped records
+	 */
+	long dropped() {
+		return dropped.get();
+	}
+
+	void dispose() {
+		if (running) {
+			running = false;
+			LockSupport.unpark(writer);
+			try {
+				writer.join(SHUTDOWN_TIMEOUT_MILLIS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	public void run() {
+		while (running || !queue.isEmpty()) {
+			int size = 0;
+			ByteBuf record;
+			while (size < BATCH_SIZE && (record = queue.poll()) != null) {
+				batch[size++] = record;
+			}
+			if (size == 0) {
+				parked = true;
+				if (queue.isEmpty() && running) {
+					LockSupport.parkNanos(this, PARK_NANOS);
+				}
+				parked = false;
+				continue;
+			}
+			write(size);
+		}
+		try {
+			channel.close();
+		}
+		catch (IOException e) {
+			log.debug("Failed to close the access log destination", e);
+		}
+	}
+
+	void write(int size) {
+		try {
+			if (channel instanceof GatheringByteChannel) {
+				long remaining = 0;
+				for (int i = 0; i < size; i++) {
+					ByteBuf record = batch[i];
+					buffers[i] = record.nioBuffer();
+					remaining += record.readableBytes();
+				}
+				while (remaining > 0) {
+					remaining -= ((GatheringByteChannel) channel).write(buffers, 0, size);
+				}
+			}
+			else {
+				for (int i = 0; i < size; i++) {
+					ByteBuf record = batch[i];
+					while (record.isReadable()) {
+						record.readBytes(channel, record.readableBytes());
+					}
+				}
+			}
+		}
+		catch (IOException e) {
+			log.error("Failed to write the access log", e);
+		}
+		finally {
+			for (int i = 0; i < size; i++) {
+				batch[i].release();
+				batch[i] = null;
+				buffers[i] = null;
+			}
+		}
+	}
+
+	static final Logger log = Loggers.getLogger(AccessLogAppender.class);
+
+	static final class MicrometerAccessLogAppenderMeterRegistrar {
+
+		static void registerMetrics(AccessLogAppender appender) {
+			FunctionCounter.builder(HTTP_SERVER_PREFIX + ACCESS_LOG_DROPPED, appender, AccessLogAppender::dropped)
+			               .description("The number of access log records dropped because the appender queue was full")
+			               .register(REGISTRY);
+		}
+	}
+}
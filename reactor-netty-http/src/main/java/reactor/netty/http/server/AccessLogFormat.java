@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.util.AsciiString;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An access log format compiled into a flat array of field writers, see {@link AccessLogSpec}
+ * for the supported directives.
+ */
+final class AccessLogFormat {
+
+	static final AccessLogFormat DEFAULT = compile(AccessLogSpec.DEFAULT_FORMAT, 1, -1, -1);
+
+	static final String MISSING = "-";
+
+	final FieldWriter[]  writers;
+	final AsciiString[]  requestHeaders;
+	final AsciiString[]  responseHeaders;
+	final int            sampleRate;
+	final int            errorStatusThreshold;
+	final long           latencyThresholdNanos;
+
+	AccessLogFormat(FieldWriter[] writers, AsciiString[] requestHeaders, AsciiString[] responseHeaders,
+			int sampleRate, int errorStatusThreshold, long latencyThresholdNanos) {
+		this.writers = writers;
+		this.requestHeaders = requestHeaders;
+		this.responseHeaders = responseHeaders;
+		this.sampleRate = sampleRate;
+		this.errorStatusThreshold = errorStatusThreshold;
+		this.latencyThresholdNanos = latencyThresholdNanos;
+	}
+
+	/**
+	 * Returns whether the given completed record has to be logged, according to the sampling
+	 * configuration.
+	 *
+	 * @param log the completed record
+	 * @return true if the record has to be logged
+	 */
+	boolean shouldLog(AccessLog log) {
+		if (sampleRate == 1) {
+			return true;
+		}
+		if (errorStatusThreshold != -1 && parseStatus(log.status) >= errorStatusThreshold) {
+			return true;
+		}
+		if (latencyThresholdNanos != -1 && log.latencyNanos >= latencyThresholdNanos) {
+			return true;
+		}
+		return sampleRate != 0 && ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+	}
+
+	void encode(AccessLog log, ByteBuf buf) {
+		for (FieldWriter writer : writers) {
+			writer.write(log, buf);
+		}
+	}
+
+	/**
+	 * Compiles the given format.
+	 *
+	 * @param format the format
+	 * @param sampleRate log one in {@code sampleRate} records, {@code 0} to log only the
+	 * records matching the thresholds
+	 * @param errorStatusThreshold the response status from which all records are logged,
+	 * {@code -1} if not configured
+	 * @param latencyThresholdNanos the latency from which all records are logged,
+	 * {@code -1} if not configured
+	 * @return the compiled format
+	 * @throws IllegalArgumentException if the format is not valid
+	 */
+	static AccessLogFormat compile(String format, int sampleRate, int errorStatusThreshold, long latencyThresholdNanos) {
+		List<FieldWriter> writers = new ArrayList<>();
+		List<AsciiString> requestHeaders = new ArrayList<>();
+		List<AsciiString> responseHeaders = new ArrayList<>();
+		StringBuilder literal = new StringBuilder();
+
+		int length = format.length();
+		for (int i = 0; i < length; i++) {
+			char c = format.charAt(i);
+			if (c != '%') {
+				literal.append(c);
+				continue;
+			}
+			if (++i == length) {
+				throw new IllegalArgumentException("Incomplete directive at the end of the format [" + format + "]");
+			}
+			c = format.charAt(i);
+			if (c == '%') {
+				literal.append(c);
+				continue;
+			}
+			flush(literal, writers);
+			switch (c) {
+				case 'a':
+					writers.add((log, buf) -> writeAscii(buf, log.address));
+					break;
+				case 'p':
+					writers.add((log, buf) -> writeDecimal(buf, log.port));
+					break;
+				case 'c':
+					writers.add((log, buf) -> writeAscii(buf, log.connectionId));
+					break;
+				case 't':
+					writers.add((log, buf) -> writeAscii(buf, log.zonedDateTime));
+					break;
+				case 'u':
+					writers.add((log, buf) -> writeAscii(buf, log.user));
+					break;
+				case 'm':
+					writers.add((log, buf) -> writeAscii(buf, log.method));
+					break;
+				case 'U':
+					writers.add((log, buf) -> writeUtf8(buf, log.uri));
+					break;
+				case 'R':
+					writers.add((log, buf) -> writeUtf8(buf, log.route));
+					break;
+				case 'H':
+					writers.add((log, buf) -> writeAscii(buf, log.protocol));
+					break;
+				case 'r':
+					writers.add((log, buf) -> {
+						writeAscii(buf, log.method);
+						buf.writeByte(' ');
+						writeUtf8(buf, log.uri);
+						buf.writeByte(' ');
+						writeAscii(buf, log.protocol);
+					});
+					break;
+				case 's':
+					writers.add((log, buf) -> writeAscii(buf, log.status));
+					break;
+				case 'b':
+					writers.add((log, buf) -> {
+						if (log.contentLength > -1) {
+							writeDecimal(buf, log.contentLength);
+						}
+						else {
+							writeAscii(buf, MISSING);
+						}
+					});
+					break;
+				case 'O':
+					writers.add((log, buf) -> writeDecimal(buf, Math.max(log.contentLength, 0)));
+					break;
+				case 'I':
+					writers.add((log, buf) -> writeDecimal(buf, log.bytesReceived));
+					break;
+				case 'D':
+					writers.add((log, buf) -> writeDecimal(buf, log.latencyNanos / 1_000));
+					break;
+				case 'T':
+					writers.add((log, buf) -> writeDecimal(buf, log.latencyNanos / 1_000_000));
+					break;
+				case '{':
+					int close = format.indexOf('}', i);
+					if (close == -1 || close + 1 == length || close == i + 1) {
+						throw new IllegalArgumentException("Invalid header directive in the format [" + format + "]");
+					}
+					// HTTP/2 header names are lower case, HTTP/1.1 ones are looked up case-insensitively
+					AsciiString name = new AsciiString(format.substring(i + 1, close)).toLowerCase();
+					char type = format.charAt(close + 1);
+					if (type == 'i') {
+						int index = requestHeaders.size();
+						requestHeaders.add(name);
+						writers.add((log, buf) -> writeUtf8(buf, log.requestHeaderValues[index]));
+					}
+					else if (type == 'o') {
+						int index = responseHeaders.size();
+						responseHeaders.add(name);
+						writers.add((log, buf) -> writeUtf8(buf, log.responseHeaderValues[index]));
+					}
+					else {
+						throw new IllegalArgumentException("Unknown header directive %{" + name + "}" + type +
+								" in the format [" + format + "]");
+					}
+					i = close + 1;
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown directive %" + c + " in the format [" + format + "]");
+			}
+		}
+		flush(literal, writers);
+
+		return new AccessLogFormat(writers.toArray(new FieldWriter[0]),
+				requestHeaders.toArray(new AsciiString[0]),
+				responseHeaders.toArray(new AsciiString[0]),
+				sampleRate, errorStatusThreshold, latencyThresholdNanos);
+	}
+
+	static void flush(StringBuilder literal, List<FieldWriter> writers) {
+		if (literal.length() > 0) {
+			byte[] bytes = literal.toString().getBytes(StandardCharsets.UTF_8);
+			writers.add((log, buf) -> buf.writeBytes(bytes));
+			literal.setLength(0);
+		}
+	}
+
+	static int parseStatus(CharSequence status) {
+		if (status == null || status.length() < 3) {
+			return -1;
+		}
+		int code = 0;
+		for (int i = 0; i < 3; i++) {
+			char c = status.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			code = code * 10 + (c - '0');
+		}
+		return code;
+	}
+
+	static void writeAscii(ByteBuf buf, CharSequence value) {
+		ByteBufUtil.writeAscii(buf, value != null ? value : MISSING);
+	}
+
+	static void writeUtf8(ByteBuf buf, CharSequence value) {
+		ByteBufUtil.writeUtf8(buf, value != null ? value : MISSING);
+	}
+
+	static void writeDecimal(ByteBuf buf, long value) {
+		if (value < 0) {
+			buf.writeByte('-');
+			value = -value;
+		}
+		long divisor = 1;
+		while (divisor <= value / 10) {
+			divisor *= 10;
+		}
+		while (divisor > 0) {
+			buf.writeByte((int) ('0' + (value / divisor) % 10));
+			divisor /= 10;
+		}
+	}
+
+	interface FieldWriter {
+
+		void write(AccessLog log, ByteBuf buf);
+	}
+}
@@ -16,24 +16,52 @@
 
 package reactor.netty.http.server;
 
+import java.util.ArrayDeque;
+
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufHolder;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.LastHttpContent;
+import reactor.netty.channel.ChannelOperations;
 
 /**
  * @author Violeta Georgieva
  */
 final class AccessLogHandler extends ChannelDuplexHandler {
 
-	AccessLog accessLog = new AccessLog();
+	final AccessLogFormat format;
+
+	/**
+	 * The records of the requests waiting for their response to be written, in the order of the requests,
+	 * the responses to pipelined requests are written in the same order
+	 */
+	final ArrayDeque<AccessLog> pending = new ArrayDeque<>(1);
+
+	/**
+	 * The record of the request currently receiving its content
+	 */
+	AccessLog reading;
+
+	/**
+	 * The record of the last completed response, reused for the next request on this connection
+	 */
+	AccessLog recycled;
+
+	HttpTrafficHandler trafficHandler;
+
+	AccessLogHandler(AccessLogFormat format) {
+		this.format = format;
+		this.recycled = new AccessLog(format);
+	}
 
 	@Override
 	public void channelRead(ChannelHandlerContext ctx, Object msg) {
@@ -41,12 +69,26 @@ final class AccessLogHandler extends ChannelDuplexHandler {
 			final HttpRequest request = (HttpRequest) msg;
 			final SocketChannel channel = (SocketChannel) ctx.channel();
 
-			accessLog = new AccessLog()
+			AccessLog accessLog = recycled;
+			if (accessLog != null) {
+				recycled = null;
+				accessLog.reset();
+			}
+			else {
+				accessLog = new AccessLog(format);
+			}
+			reading = accessLog
 			        .address(channel.remoteAddress().getHostString())
 			        .port(channel.localAddress().getPort())
+			        .connectionId(channel.id().asShortText())
 			        .method(request.method().name())
 			        .uri(request.uri())
-			        .protocol(request.protocolVersion().text());
+			        .protocol(request.protocolVersion().text())
+			        .requestHeaders(request.headers());
+			pending.offer(accessLog);
+		}
+		if (msg instanceof HttpContent && reading != null) {
+			reading.increaseBytesReceived(((HttpContent) msg).content().readableBytes());
 		}
 		ctx.fireChannelRead(msg);
 	}
@@ -54,6 +96,13 @@ final class AccessLogHandler extends ChannelDuplexHandler {
 	@Override
 	@SuppressWarnings("FutureReturnValueIgnored")
 	public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+		// The record of the oldest request without a complete response
+		final AccessLog accessLog = pending.peek();
+		if (accessLog == null) {
+			//"FutureReturnValueIgnored" this is deliberate
+			ctx.write(msg, promise);
+			return;
+		}
 		if (msg instanceof HttpResponse) {
 			final HttpResponse response = (HttpResponse) msg;
 			final HttpResponseStatus status = response.status();
@@ -66,18 +115,29 @@ final class AccessLogHandler extends ChannelDuplexHandler {
 
 			final boolean chunked = HttpUtil.isTransferEncodingChunked(response);
 			accessLog.status(status.codeAsText())
-			         .chunked(chunked);
+			         .chunked(chunked)
+			         .responseHeaders(response.headers());
+			ChannelOperations<?, ?> ops = ChannelOperations.get(responseChannel(ctx));
+			if (ops instanceof HttpServerOperations) {
+				accessLog.route(((HttpServerOperations) ops).routeTemplate);
+			}
 			if (!chunked) {
 				accessLog.contentLength(HttpUtil.getContentLength(response, -1));
 			}
 		}
 		if (msg instanceof LastHttpContent) {
+			pending.poll();
+			if (reading == accessLog) {
+				reading = null;
+			}
 			accessLog.increaseContentLength(((LastHttpContent) msg).content().readableBytes());
 			ctx.write(msg, promise.unvoid())
 			   .addListener(future -> {
 			       if (future.isSuccess()) {
-			           accessLog.log();
+			           accessLog.log(ctx.alloc());
 			       }
+			       // The record is no longer referenced once its response is written
+			       recycled = accessLog;
 			   });
 			return;
 		}
@@ -90,4 +150,18 @@ final class AccessLogHandler extends ChannelDuplexHandler {
 		//"FutureReturnValueIgnored" this is deliberate
 		ctx.write(msg, promise);
 	}
+
+	/**
+	 * Returns the channel of the response being written, the {@link HttpPipelinedChannel} of a pipelined
+	 * request processed concurrently with the previous requests, or the connection.
+	 */
+	Channel responseChannel(ChannelHandlerContext ctx) {
+		if (trafficHandler == null) {
+			trafficHandler = ctx.pipeline().get(HttpTrafficHandler.class);
+		}
+		if (trafficHandler != null && trafficHandler.writing != null) {
+			return trafficHandler.writing;
+		}
+		return ctx.channel();
+	}
 }
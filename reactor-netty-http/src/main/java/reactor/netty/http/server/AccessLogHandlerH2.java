@@ -22,6 +22,7 @@ import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.codec.http2.Http2DataFrame;
 import io.netty.handler.codec.http2.Http2Headers;
 import io.netty.handler.codec.http2.Http2HeadersFrame;
+import reactor.netty.channel.ChannelOperations;
 
 /**
  * @author Violeta Georgieva
@@ -29,7 +30,11 @@ import io.netty.handler.codec.http2.Http2HeadersFrame;
 final class AccessLogHandlerH2 extends ChannelDuplexHandler {
 	static final String H2_PROTOCOL_NAME = "HTTP/2.0";
 
-	AccessLog accessLog = new AccessLog();
+	final AccessLog accessLog;
+
+	AccessLogHandlerH2(AccessLogFormat format) {
+		this.accessLog = new AccessLog(format);
+	}
 
 	@Override
 	public void channelRead(ChannelHandlerContext ctx, Object msg) {
@@ -39,12 +44,18 @@ final class AccessLogHandlerH2 extends ChannelDuplexHandler {
 			                                                 .parent();
 			final Http2Headers headers = requestHeaders.headers();
 
-			accessLog = new AccessLog()
-			        .address(channel.remoteAddress().getHostString())
-			        .port(channel.localAddress().getPort())
-			        .method(headers.method())
-			        .uri(headers.path())
-			        .protocol(H2_PROTOCOL_NAME);
+			// A stream carries a single request, the record created with the handler is reused
+			accessLog.reset()
+			         .address(channel.remoteAddress().getHostString())
+			         .port(channel.localAddress().getPort())
+			         .connectionId(channel.id().asShortText())
+			         .method(headers.method())
+			         .uri(headers.path())
+			         .protocol(H2_PROTOCOL_NAME)
+			         .requestHeaders(headers);
+		}
+		if (msg instanceof Http2DataFrame) {
+			accessLog.increaseBytesReceived(((Http2DataFrame) msg).content().readableBytes());
 		}
 		ctx.fireChannelRead(msg);
 	}
@@ -59,7 +70,12 @@ final class AccessLogHandlerH2 extends ChannelDuplexHandler {
 			lastContent = responseHeaders.isEndStream();
 
 			accessLog.status(headers.status())
-			         .chunked(true);
+			         .chunked(true)
+			         .responseHeaders(headers);
+			ChannelOperations<?, ?> ops = ChannelOperations.get(ctx.channel());
+			if (ops instanceof HttpServerOperations) {
+				accessLog.route(((HttpServerOperations) ops).routeTemplate);
+			}
 		}
 		if (msg instanceof Http2DataFrame) {
 			final Http2DataFrame data = (Http2DataFrame) msg;
@@ -71,7 +87,7 @@ final class AccessLogHandlerH2 extends ChannelDuplexHandler {
 			ctx.write(msg, promise.unvoid())
 			   .addListener(future -> {
 			       if (future.isSuccess()) {
-			           accessLog.log();
+			           accessLog.log(ctx.alloc());
 			       }
 			   });
 			return;
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http.server;
+
+import reactor.util.annotation.Nullable;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * A configuration builder for the HTTP server access log.
+ * <p>The format is a pattern where the following directives are replaced with the
+ * corresponding values of each request:
+ * <ul>
+ *     <li>{@code %a} - the remote address</li>
+ *     <li>{@code %p} - the local port</li>
+ *     <li>{@code %c} - the connection id</li>
+ *     <li>{@code %t} - the time when the request was received</li>
+ *     <li>{@code %u} - the remote user, always {@code -}</li>
+ *     <li>{@code %m} - the request method</li>
+ *     <li>{@code %U} - the request uri</li>
+ *     <li>{@code %R} - the template of the matched route, {@code -} when the request is not routed
+ *     with {@link HttpServerRoutes}</li>
+ *     <li>{@code %H} - the request protocol</li>
+ *     <li>{@code %r} - the request line, i.e. {@code %m %U %H}</li>
+ *     <li>{@code %s} - the response status</li>
+ *     <li>{@code %b} - the number of bytes sent, {@code -} when unknown</li>
+ *     <li>{@code %O} - the number of bytes sent</li>
+ *     <li>{@code %I} - the number of bytes received</li>
+ *     <li>{@code %D} - the time taken to serve the request, in microseconds</li>
+ *     <li>{@code %T} - the time taken to serve the request, in milliseconds</li>
+ *     <li>{@code %{Name}i} - the value of the {@code Name} request header</li>
+ *     <li>{@code %{Name}o} - the value of the {@code Name} response header</li>
+ *     <li>{@code %%} - the {@code %} character</li>
+ * </ul>
+ * The format is compiled once, when the {@link AccessLogSpec} is built.
+ *
+ * @since 1.0.0
+ */
+public final class AccessLogSpec {
+
+	/**
+	 * The default format: the Common Log Format followed by the local port and the time taken
+	 * to serve the request in milliseconds.
+	 */
+	public static final String DEFAULT_FORMAT = "%a - %u [%t] \"%m %U %H\" %s %b %p %T ms";
+
+	public interface Builder {
+
+		/**
+		 * Build a new {@link AccessLogSpec}
+		 *
+		 * @return a new {@link AccessLogSpec}
+		 * @throws IllegalArgumentException if the format is not valid
+		 */
+		AccessLogSpec build();
+
+		/**
+		 * Sets the access log format, by default {@link #DEFAULT_FORMAT}.
+		 *
+		 * @param format the access log format
+		 * @return {@code this}
+		 */
+		Builder format(String format);
+
+		/**
+		 * Logs one in {@code sampleRate} requests. With {@code 1}, the default, all requests
+		 * are logged. With {@code 0}, only the requests matching
+		 * {@link #errorStatusThreshold(int)} or {@link #latencyThreshold(Duration)} are logged.
+		 *
+		 * @param sampleRate the sample rate
+		 * @return {@code this}
+		 */
+		Builder sampleRate(int sampleRate);
+
+		/**
+		 * Always logs the requests with a response status greater than or equal to the given
+		 * status, regardless of the sample rate.
+		 *
+		 * @param errorStatusThreshold the response status threshold, e.g. {@code 500}
+		 * @return {@code this}
+		 */
+		Builder errorStatusThreshold(int errorStatusThreshold);
+
+		/**
+		 * Always logs the requests that took longer than or equal to the given latency,
+		 * regardless of the sample rate.
+		 *
+		 * @param latencyThreshold the latency threshold
+		 * @return {@code this}
+		 */
+		Builder latencyThreshold(Duration latencyThreshold);
+	}
+
+	/**
+	 * Creates a builder for {@link AccessLogSpec}.
+	 *
+	 * @return a new {@link AccessLogSpec.Builder}
+	 */
+	public static Builder builder() {
+		return new Build();
+	}
+
+	/**
+	 * Returns the configured access log format.
+	 *
+	 * @return the configured access log format
+	 */
+	public String format() {
+		return format;
+	}
+
+	/**
+	 * Returns the configured sample rate.
+	 *
+	 * @return the configured sample rate
+	 */
+	public int sampleRate() {
+		return sampleRate;
+	}
+
+	/**
+	 * Returns the configured response status threshold or null.
+	 *
+	 * @return the configured response status threshold or null
+	 */
+	@Nullable
+	public Integer errorStatusThreshold() {
+		return errorStatusThreshold;
+	}
+
+	/**
+	 * Returns the configured latency threshold or null.
+	 *
+	 * @return the configured latency threshold or null
+	 */
+	@Nullable
+	public Duration latencyThreshold() {
+		return latencyThreshold;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof AccessLogSpec)) {
+			return false;
+		}
+		AccessLogSpec that = (AccessLogSpec) o;
+		return format.equals(that.format) &&
+				sampleRate == that.sampleRate &&
+				Objects.equals(errorStatusThreshold, that.errorStatusThreshold) &&
+				Objects.equals(latencyThreshold, that.latencyThreshold);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(format, sampleRate, errorStatusThreshold, latencyThreshold);
+	}
+
+	final String format;
+	final int sampleRate;
+	final Integer errorStatusThreshold;
+	final Duration latencyThreshold;
+	final AccessLogFormat compiled;
+
+	AccessLogSpec(Build build) {
+		this.format = build.format;
+		this.sampleRate = build.sampleRate;
+		this.errorStatusThreshold = build.errorStatusThreshold;
+		this.latencyThreshold = build.latencyThreshold;
+		this.compiled = AccessLogFormat.compile(format, sampleRate,
+				errorStatusThreshold != null ? errorStatusThreshold : -1,
+				latencyThreshold != null ? latencyThreshold.toNanos() : -1);
+	}
+
+	static final class Build implements Builder {
+		String format = DEFAULT_FORMAT;
+		int sampleRate = 1;
+		Integer errorStatusThreshold;
+		Duration latencyThreshold;
+
+		@Override
+		public AccessLogSpec build() {
+			return new AccessLogSpec(this);
+		}
+
+		@Override
+		public Builder format(String format) {
+			this.format = Objects.requireNonNull(format, "format");
+			return this;
+		}
+
+		@Override
+		public Builder sampleRate(int sampleRate) {
+			if (sampleRate < 0) {
+				throw new IllegalArgumentException("sampleRate must be positive or zero");
+			}
+			this.sampleRate = sampleRate;
+			return this;
+		}
+
+		@Override
+		public Builder errorStatusThreshold(int errorStatusThreshold) {
+			if (errorStatusThreshold < 100 || errorStatusThreshold > 999) {
+				throw new IllegalArgumentException("errorStatusThreshold must be a valid status code");
+			}
+			this.errorStatusThreshold = errorStatusThreshold;
+			return this;
+		}
+
+		@Override
+		public Builder latencyThreshold(Duration latencyThreshold) {
+			Objects.requireNonNull(latencyThreshold, "latencyThreshold");
+			if (latencyThreshold.isNegative()) {
+				throw new IllegalArgumentException("latencyThreshold must be positive");
+			}
+			this.latencyThreshold = latencyThreshold;
+			return this;
+		}
+	}
+}
@@ -15,14 +15,19 @@
  */
 package reactor.netty.http.server;
 
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 
 import io.netty.channel.Channel;
 import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpRequest;
+import io.netty.util.NetUtil;
+import reactor.netty.ReactorNetty;
 import reactor.netty.transport.AddressUtils;
 import reactor.util.Logger;
 import reactor.util.Loggers;
@@ -39,6 +44,10 @@ import static reactor.netty.ReactorNetty.format;
  * using the {@code "Forwarded"}, or {@code "X-Forwarded-*"}
  * HTTP request headers.
  *
+ * <p>The {@code "Forwarded"} header is read with a single pass tokenizer. When trusted proxies are
+ * configured with {@link ReactorNetty#FORWARDED_TRUSTED_PROXIES}, the headers are read only from these proxies
+ * and the chain of proxies is walked from the right to the first address that is not trusted.
+ *
  * @author Brian Clozel
  * @since 0.8
  * @see <a href="https://tools.ietf.org/html/rfc7239">rfc7239</a>
@@ -47,31 +56,67 @@ final class ConnectionInfo {
 
 	static final Logger  log                     = Loggers.getLogger(ConnectionInfo.class);
 
-	static final Pattern FORWARDED_HOST_PATTERN  = Pattern.compile("host=\"?([^;,\"]+)\"?");
-	static final Pattern FORWARDED_PROTO_PATTERN = Pattern.compile("proto=\"?([^;,\"]+)\"?");
-	static final Pattern FORWARDED_FOR_PATTERN   = Pattern.compile("for=\"?([^;,\"]+)\"?");
-	static final Pattern PORT_PATTERN            = Pattern.compile("\\d*");
 	static final String  FORWARDED_HEADER        = "Forwarded";
 	static final String  XFORWARDED_IP_HEADER    = "X-Forwarded-For";
 	static final String  XFORWARDED_HOST_HEADER  = "X-Forwarded-Host";
 	static final String  XFORWARDED_PORT_HEADER  = "X-Forwarded-Port";
 	static final String  XFORWARDED_PROTO_HEADER = "X-Forwarded-Proto";
 
+	@Nullable
+	static final TrustedProxies TRUSTED_PROXIES =
+			TrustedProxies.parse(System.getProperty(ReactorNetty.FORWARDED_TRUSTED_PROXIES));
+
 	final InetSocketAddress hostAddress;
 
 	final InetSocketAddress remoteAddress;
 
 	final String scheme;
 
+	// The header values the information was obtained from, so that it can be reused by the next requests
+	// of a persistent connection when a proxy sends the same headers
+	final boolean fromHeaders;
+	@Nullable
+	final String  forwarded;
+	@Nullable
+	final String  xForwardedFor;
+	@Nullable
+	final String  xForwardedHost;
+	@Nullable
+	final String  xForwardedPort;
+	@Nullable
+	final String  xForwardedProto;
+
 	@Nullable
 	static ConnectionInfo from(Channel channel, boolean headers, HttpRequest request, boolean secured,
 			SocketAddress remoteAddress) {
+		return from(channel, headers, request, secured, remoteAddress, null);
+	}
+
+	/**
+	 * Resolve the connection information, reusing the information of the previous request
+	 * of the same connection when it was obtained from the same values.
+	 *
+	 * @param channel the current channel
+	 * @param headers whether the {@code "Forwarded"}/{@code "X-Forwarded-*"} HTTP request headers are read
+	 * @param request the current server request
+	 * @param secured is transport secure (SSL)
+	 * @param remoteAddress the remote address of the current connection
+	 * @param previous the information of the previous request of the same connection or {@code null}
+	 * @return the connection information
+	 */
+	@Nullable
+	static ConnectionInfo from(Channel channel, boolean headers, HttpRequest request, boolean secured,
+			SocketAddress remoteAddress, @Nullable ConnectionInfo previous) {
 		if (!(remoteAddress instanceof InetSocketAddress)) {
 			return null;
 		}
 		else {
 			if (headers) {
-				return ConnectionInfo.newForwardedConnectionInfo(request, channel, secured, (InetSocketAddress) remoteAddress);
+				return ConnectionInfo.newForwardedConnectionInfo(request, channel, secured,
+						(InetSocketAddress) remoteAddress, TRUSTED_PROXIES, previous);
+			}
+			else if (previous != null && !previous.fromHeaders) {
+				return previous;
 			}
 			else {
 				return ConnectionInfo.newConnectionInfo(channel, secured, (InetSocketAddress) remoteAddress);
@@ -98,38 +143,92 @@ final class ConnectionInfo {
 	 * @param request the current server request
 	 * @param channel the current channel
 	 * @param secured is transport secure (SSL)
+	 * @param trustedProxies the proxies allowed to send the headers or {@code null} to allow all of them
+	 * @param previous the information of the previous request of the same connection or {@code null}
 	 * @return the connection information
 	 */
 	static ConnectionInfo newForwardedConnectionInfo(HttpRequest request, Channel channel, boolean secured,
-			InetSocketAddress remoteAddress) {
-		String forwardedHeader = request.headers().get(FORWARDED_HEADER);
+			InetSocketAddress remoteAddress, @Nullable TrustedProxies trustedProxies, @Nullable ConnectionInfo previous) {
+		if (trustedProxies != null && !trustedProxies.contains(remoteAddress.getAddress())) {
+			if (previous != null && !previous.fromHeaders) {
+				return previous;
+			}
+			return newConnectionInfo(channel, secured, remoteAddress);
+		}
+		HttpHeaders headers = request.headers();
+		// Only the first hop is read when all proxies are trusted
+		boolean allHops = trustedProxies != null;
+		String forwardedHeader = headerValue(headers, FORWARDED_HEADER, allHops);
 		if (forwardedHeader != null) {
-			return parseForwardedInfo(forwardedHeader, (SocketChannel) channel, secured, remoteAddress);
+			if (previous != null && forwardedHeader.equals(previous.forwarded)) {
+				return previous;
+			}
+			return parseForwardedInfo(forwardedHeader, ((SocketChannel) channel).localAddress(), secured,
+					remoteAddress, trustedProxies);
 		}
 		else {
-			return parseXForwardedInfo(request, (SocketChannel) channel, secured, remoteAddress);
+			String ipHeader = headerValue(headers, XFORWARDED_IP_HEADER, allHops);
+			String hostHeader = headerValue(headers, XFORWARDED_HOST_HEADER, allHops);
+			String portHeader = headerValue(headers, XFORWARDED_PORT_HEADER, allHops);
+			String protoHeader = headerValue(headers, XFORWARDED_PROTO_HEADER, allHops);
+			if (previous != null && previous.fromHeaders && previous.forwarded == null &&
+					Objects.equals(ipHeader, previous.xForwardedFor) &&
+					Objects.equals(hostHeader, previous.xForwardedHost) &&
+					Objects.equals(portHeader, previous.xForwardedPort) &&
+					Objects.equals(protoHeader, previous.xForwardedProto)) {
+				return previous;
+			}
+			return parseXForwardedInfo(ipHeader, hostHeader, portHeader, protoHeader, (SocketChannel) channel,
+					secured, remoteAddress, trustedProxies);
 		}
 	}
 
-	static ConnectionInfo parseForwardedInfo(String forwardedHeader, SocketChannel channel, boolean secured,
-			InetSocketAddress remoteAddress) {
-		InetSocketAddress hostAddress = channel.localAddress();
-		String scheme = secured ? "https" : "http";
+	@Nullable
+	static String headerValue(HttpHeaders headers, String name, boolean all) {
+		if (!all) {
+			return headers.get(name);
+		}
+		// Multiple header fields are equivalent to a single comma separated one
+		List<String> values = headers.getAll(name);
+		if (values.isEmpty()) {
+			return null;
+		}
+		return values.size() == 1 ? values.get(0) : String.join(",", values);
+	}
 
-		String forwarded = forwardedHeader.split(",", 2)[0];
-		Matcher hostMatcher = FORWARDED_HOST_PATTERN.matcher(forwarded);
-		if (hostMatcher.find()) {
-			hostAddress = parseAddress(hostMatcher.group(1), hostAddress.getPort());
+	static ConnectionInfo parseForwardedInfo(String forwardedHeader, InetSocketAddress hostAddress, boolean secured,
+			InetSocketAddress remoteAddress, @Nullable TrustedProxies trustedProxies) {
+		ForwardedElement forwarded;
+		if (trustedProxies == null) {
+			forwarded = new ForwardedElement();
+			forwarded.parse(forwardedHeader, 0);
+		}
+		else {
+			List<ForwardedElement> elements = new ArrayList<>(4);
+			int index = 0;
+			do {
+				ForwardedElement element = new ForwardedElement();
+				index = element.parse(forwardedHeader, index);
+				elements.add(element);
+			}
+			while (index < forwardedHeader.length());
+			// Each proxy appends the address of its client, the first address that is not a trusted proxy
+			// from the right is the client
+			int i = elements.size() - 1;
+			while (i > 0 && trustedProxies.contains(elements.get(i).forValue)) {
+				i--;
+			}
+			forwarded = elements.get(i);
 		}
-		Matcher protoMatcher = FORWARDED_PROTO_PATTERN.matcher(forwarded);
-		if (protoMatcher.find()) {
-			scheme = protoMatcher.group(1).trim();
+
+		if (forwarded.host != null) {
+			hostAddress = parseAddress(forwarded.host, hostAddress.getPort());
 		}
-		Matcher forMatcher = FORWARDED_FOR_PATTERN.matcher(forwarded);
-		if (forMatcher.find()) {
-			remoteAddress = parseAddress(forMatcher.group(1).trim(), remoteAddress.getPort());
+		String scheme = forwarded.proto != null ? forwarded.proto : secured ? "https" : "http";
+		if (forwarded.forValue != null) {
+			remoteAddress = parseAddress(forwarded.forValue, remoteAddress.getPort());
 		}
-		return new ConnectionInfo(hostAddress, remoteAddress, scheme);
+		return new ConnectionInfo(hostAddress, remoteAddress, scheme, forwardedHeader, null, null, null, null);
 	}
 
 	static InetSocketAddress parseAddress(String address, int defaultPort) {
@@ -137,59 +236,115 @@ final class ConnectionInfo {
 		int ipV6HostSeparatorIdx = address.lastIndexOf(']');
 		if (separatorIdx > ipV6HostSeparatorIdx) {
 			if (separatorIdx == address.indexOf(':') || ipV6HostSeparatorIdx > -1) {
-				String port = address.substring(separatorIdx + 1);
-				if (PORT_PATTERN.matcher(port).matches()) {
-					return AddressUtils.createUnresolved(address.substring(0, separatorIdx),
-							Integer.parseInt(port));
-				}
-				else {
-					return AddressUtils.createUnresolved(address.substring(0, separatorIdx), defaultPort);
-				}
+				return AddressUtils.createUnresolved(address.substring(0, separatorIdx),
+						parsePort(address, separatorIdx + 1, defaultPort));
 			}
 		}
 		return AddressUtils.createUnresolved(address, defaultPort);
 	}
 
-	static ConnectionInfo parseXForwardedInfo(HttpRequest request, SocketChannel channel, boolean secured,
-			InetSocketAddress remoteAddress) {
+	static int parsePort(String address, int start, int defaultPort) {
+		int length = address.length();
+		if (start == length || length - start > 5) {
+			return defaultPort;
+		}
+		int port = 0;
+		for (int i = start; i < length; i++) {
+			char c = address.charAt(i);
+			if (c < '0' || c > '9') {
+				return defaultPort;
+			}
+			port = port * 10 + (c - '0');
+		}
+		return port <= 0xFFFF ? port : defaultPort;
+	}
+
+	static ConnectionInfo parseXForwardedInfo(@Nullable String ipHeader, @Nullable String hostHeader,
+			@Nullable String portHeader, @Nullable String protoHeader, SocketChannel channel, boolean secured,
+			InetSocketAddress remoteAddress, @Nullable TrustedProxies trustedProxies) {
 		InetSocketAddress hostAddress = channel.localAddress();
 		String scheme = secured ? "https" : "http";
-		String ipHeader = request.headers().get(XFORWARDED_IP_HEADER);
+		// With trusted proxies, the host, port and proto are read at the hop of the client address,
+		// the values at its left may be sent by the client
+		int hop = trustedProxies == null ? -1 : ipHeader != null ? trustedProxies.clientHop(ipHeader) : 0;
 		if (ipHeader != null) {
-			remoteAddress = parseAddress(ipHeader.split(",", 2)[0], remoteAddress.getPort());
+			remoteAddress = parseAddress(hopValue(ipHeader, hop), remoteAddress.getPort());
 		}
-		String hostHeader = request.headers().get(XFORWARDED_HOST_HEADER);
 		if (hostHeader != null) {
-			String portHeader = request.headers().get(XFORWARDED_PORT_HEADER);
 			if (portHeader != null) {
 				int port;
 				try {
-					port = Integer.parseInt(portHeader.split(",", 2)[0].trim());
+					port = Integer.parseInt(hopValue(portHeader, hop));
 				}
 				catch (NumberFormatException e) {
 					log.debug(format(channel, "Invalid value [" + portHeader + "] for the header [X-Forwarded-Port]"));
 					port = hostAddress.getPort();
 				}
-				hostAddress = AddressUtils.createUnresolved(
-						hostHeader.split(",", 2)[0].trim(), port);
+				hostAddress = AddressUtils.createUnresolved(hopValue(hostHeader, hop), port);
 			}
 			else {
-				hostAddress = AddressUtils.createUnresolved(
-						hostHeader.split(",", 2)[0].trim(),
-						hostAddress.getPort());
+				hostAddress = AddressUtils.createUnresolved(hopValue(hostHeader, hop), hostAddress.getPort());
 			}
 		}
-		String protoHeader = request.headers().get(XFORWARDED_PROTO_HEADER);
 		if (protoHeader != null) {
-			scheme = protoHeader.split(",", 2)[0].trim();
+			scheme = hopValue(protoHeader, hop);
 		}
-		return new ConnectionInfo(hostAddress, remoteAddress, scheme);
+		return new ConnectionInfo(hostAddress, remoteAddress, scheme, null, ipHeader, hostHeader, portHeader,
+				protoHeader);
+	}
+
+	static String firstValue(String header) {
+		int separatorIdx = header.indexOf(',');
+		return (separatorIdx == -1 ? header : header.substring(0, separatorIdx)).trim();
+	}
+
+	/**
+	 * Returns the value of a comma separated header at the given hop, counted from the right,
+	 * or the first value when the hop is negative or when the header has fewer values.
+	 *
+	 * @param header a comma separated header, such as {@code "X-Forwarded-Host"}
+	 * @param hop the number of values at the right of the value
+	 * @return the value at the given hop
+	 */
+	static String hopValue(String header, int hop) {
+		if (hop < 0) {
+			return firstValue(header);
+		}
+		int end = header.length();
+		for (int i = 0; i < hop; i++) {
+			int separatorIdx = header.lastIndexOf(',', end - 1);
+			if (separatorIdx == -1) {
+				break;
+			}
+			end = separatorIdx;
+		}
+		return header.substring(header.lastIndexOf(',', end - 1) + 1, end).trim();
 	}
 
 	ConnectionInfo(InetSocketAddress hostAddress, InetSocketAddress remoteAddress, String scheme) {
 		this.hostAddress = hostAddress;
 		this.remoteAddress = remoteAddress;
 		this.scheme = scheme;
+		this.fromHeaders = false;
+		this.forwarded = null;
+		this.xForwardedFor = null;
+		this.xForwardedHost = null;
+		this.xForwardedPort = null;
+		this.xForwardedProto = null;
+	}
+
+	ConnectionInfo(InetSocketAddress hostAddress, InetSocketAddress remoteAddress, String scheme,
+			@Nullable String forwarded, @Nullable String xForwardedFor, @Nullable String xForwardedHost,
+			@Nullable String xForwardedPort, @Nullable String xForwardedProto) {
+		this.hostAddress = hostAddress;
+		this.remoteAddress = remoteAddress;
+		this.scheme = scheme;
+		this.fromHeaders = true;
+		this.forwarded = forwarded;
+		this.xForwardedFor = xForwardedFor;
+		this.xForwardedHost = xForwardedHost;
+		this.xForwardedPort = xForwardedPort;
+		this.xForwardedProto = xForwardedProto;
 	}
 
 	InetSocketAddress getHostAddress() {
@@ -203,4 +358,260 @@ final class ConnectionInfo {
 	String getScheme() {
 		return scheme;
 	}
+
+	/**
+	 * The {@code for}, {@code host} and {@code proto} parameters of an element of the {@code "Forwarded"} header.
+	 */
+	static final class ForwardedElement {
+
+		@Nullable
+		String forValue;
+		@Nullable
+		String host;
+		@Nullable
+		String proto;
+
+		/**
+		 * Parses the element starting at the given index, the first occurrence of each parameter is kept.
+		 *
+		 * @param header the {@code "Forwarded"} header
+		 * @param start the index of the element
+		 * @return the index of the next element, or the length of the header
+		 */
+		int parse(String header, int start) {
+			int length = header.length();
+			int i = start;
+			while (i < length) {
+				char c = header.charAt(i);
+				if (c == ',') {
+					return i + 1;
+				}
+				if (c == ';' || c == ' ' || c == '\t') {
+					i++;
+					continue;
+				}
+				int nameStart = i;
+				while (i < length && (c = header.charAt(i)) != '=' && c != ';' && c != ',') {
+					i++;
+				}
+				if (i == length || c != '=') {
+					// A parameter without value is skipped
+					continue;
+				}
+				int nameEnd = trimEnd(header, nameStart, i);
+				i = skipWhitespaces(header, i + 1);
+
+				String value;
+				if (i < length && header.charAt(i) == '"') {
+					StringBuilder escaped = null;
+					int valueStart = ++i;
+					while (i < length && (c = header.charAt(i)) != '"') {
+						if (c == '\\' && i + 1 < length) {
+							if (escaped == null) {
+								escaped = new StringBuilder(header.length() - valueStart).append(header, valueStart, i);
+							}
+							escaped.append(header.charAt(i + 1));
+							i += 2;
+							continue;
+						}
+						if (escaped != null) {
+							escaped.append(c);
+						}
+						i++;
+					}
+					value = escaped != null ? escaped.toString() : header.substring(valueStart, i);
+					if (i < length) {
+						i++;
+					}
+				}
+				else {
+					int valueStart = i;
+					while (i < length && (c = header.charAt(i)) != ';' && c != ',') {
+						i++;
+					}
+					value = header.substring(valueStart, trimEnd(header, valueStart, i));
+				}
+
+				int nameLength = nameEnd - nameStart;
+				if (nameLength == 3) {
+					if (forValue == null && header.regionMatches(true, nameStart, "for", 0, 3)) {
+						forValue = value;
+					}
+				}
+				else if (nameLength == 4) {
+					if (host == null && header.regionMatches(true, nameStart, "host", 0, 4)) {
+						host = value;
+					}
+				}
+				else if (nameLength == 5) {
+					if (proto == null && header.regionMatches(true, nameStart, "proto", 0, 5)) {
+						proto = value;
+					}
+				}
+			}
+			return length;
+		}
+
+		static int skipWhitespaces(String header, int i) {
+			int length = header.length();
+			char c;
+			while (i < length && ((c = header.charAt(i)) == ' ' || c == '\t')) {
+				i++;
+			}
+			return i;
+		}
+
+		static int trimEnd(String header, int start, int end) {
+			char c;
+			while (end > start && ((c = header.charAt(end - 1)) == ' ' || c == '\t')) {
+				end--;
+			}
+			return end;
+		}
+	}
+
+	/**
+	 * The addresses and networks, in CIDR notation, of the proxies allowed to send the
+	 * {@code "Forwarded"}/{@code "X-Forwarded-*"} HTTP request headers.
+	 */
+	static final class TrustedProxies {
+
+		/**
+		 * Parses a comma separated list of addresses and networks in CIDR notation,
+		 * such as {@code 10.0.0.0/8, 192.168.1.1, fd00::/8}.
+		 *
+		 * @param value the list of addresses and networks
+		 * @return the trusted proxies or {@code null} when the list is empty
+		 */
+		@Nullable
+		static TrustedProxies parse(@Nullable String value) {
+			if (value == null) {
+				return null;
+			}
+			List<byte[]> networks = new ArrayList<>();
+			List<Integer> prefixes = new ArrayList<>();
+			for (String cidr : value.split(",")) {
+				cidr = cidr.trim();
+				if (cidr.isEmpty()) {
+					continue;
+				}
+				int prefixIdx = cidr.indexOf('/');
+				byte[] network = NetUtil.createByteArrayFromIpAddressString(
+						prefixIdx == -1 ? cidr : cidr.substring(0, prefixIdx));
+				int prefix = network == null ? -1 : network.length * 8;
+				if (network != null && prefixIdx != -1) {
+					prefix = parsePort(cidr, prefixIdx + 1, -1);
+				}
+				if (network == null || prefix < 0 || prefix > network.length * 8) {
+					log.warn("Invalid trusted proxy [" + cidr + "], it is ignored");
+					continue;
+				}
+				networks.add(network);
+				prefixes.add(prefix);
+			}
+			if (networks.isEmpty()) {
+				return null;
+			}
+			int[] prefixLengths = new int[prefixes.size()];
+			for (int i = 0; i < prefixLengths.length; i++) {
+				prefixLengths[i] = prefixes.get(i);
+			}
+			return new TrustedProxies(networks.toArray(new byte[0][]), prefixLengths);
+		}
+
+		final byte[][] networks;
+		final int[]    prefixes;
+
+		TrustedProxies(byte[][] networks, int[] prefixes) {
+			this.networks = networks;
+			this.prefixes = prefixes;
+		}
+
+		/**
+		 * Returns the hop of the client of a chain of proxies, i.e. the number of trusted addresses
+		 * at the right of the first address from the right that is not trusted.
+		 *
+		 * @param header a comma separated list of addresses, such as {@code "X-Forwarded-For"}
+		 * @return the hop of the client
+		 */
+		int clientHop(String header) {
+			int hop = 0;
+			int end = header.length();
+			while (true) {
+				int start = header.lastIndexOf(',', end - 1) + 1;
+				if (start == 0 || !contains(header.substring(start, end).trim())) {
+					return hop;
+				}
+				end = start - 1;
+				hop++;
+			}
+		}
+
+		boolean contains(@Nullable InetAddress address) {
+			return address != null && contains(address.getAddress());
+		}
+
+		/**
+		 * Returns whether the given node of a {@code "Forwarded"} or {@code "X-Forwarded-For"} header,
+		 * with an optional port, is a trusted proxy. The obfuscated and unknown nodes are not trusted.
+		 *
+		 * @param node the node
+		 * @return true if the node is a trusted proxy
+		 */
+		boolean contains(@Nullable String node) {
+			if (node == null || node.isEmpty()) {
+				return false;
+			}
+			String ip;
+			if (node.charAt(0) == '[') {
+				int ipV6HostSeparatorIdx = node.indexOf(']');
+				ip = node.substring(1, ipV6HostSeparatorIdx == -1 ? node.length() : ipV6HostSeparatorIdx);
+			}
+			else {
+				int separatorIdx = node.indexOf(':');
+				ip = separatorIdx != -1 && separatorIdx == node.lastIndexOf(':') ? node.substring(0, separatorIdx) : node;
+			}
+			byte[] address = NetUtil.createByteArrayFromIpAddressString(ip);
+			return address != null && contains(address);
+		}
+
+		boolean contains(byte[] address) {
+			if (address.length == 16 && isIpV4Mapped(address)) {
+				byte[] ipV4 = new byte[4];
+				System.arraycopy(address, 12, ipV4, 0, 4);
+				address = ipV4;
+			}
+			for (int i = 0; i < networks.length; i++) {
+				byte[] network = networks[i];
+				if (network.length == address.length && matches(network, prefixes[i], address)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		static boolean isIpV4Mapped(byte[] address) {
+			for (int i = 0; i < 10; i++) {
+				if (address[i] != 0) {
+					return false;
+				}
+			}
+			return address[10] == (byte) 0xFF && address[11] == (byte) 0xFF;
+		}
+
+		static boolean matches(byte[] network, int prefix, byte[] address) {
+			int bytes = prefix >> 3;
+			for (int i = 0; i < bytes; i++) {
+				if (network[i] != address[i]) {
+					return false;
+				}
+			}
+			int bits = prefix & 7;
+			if (bits == 0) {
+				return true;
+			}
+			int mask = (0xFF << (8 - bits)) & 0xFF;
+			return (network[bytes] & mask) == (address[bytes] & mask);
+		}
+	}
 }
@@ -16,10 +16,8 @@
 
 package reactor.netty.http.server;
 
-import java.net.URI;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -41,32 +39,13 @@ final class DefaultHttpServerRoutes implements HttpServerRoutes {
 	private final CopyOnWriteArrayList<HttpRouteHandler> handlers =
 			new CopyOnWriteArrayList<>();
 
+	private volatile CompiledRoutes compiled;
+
 	@Override
 	public HttpServerRoutes directory(String uri, Path directory,
 			@Nullable Function<HttpServerResponse, HttpServerResponse> interceptor) {
 		Objects.requireNonNull(directory, "directory");
-		return route(HttpPredicate.prefix(uri), (req, resp) -> {
-
-			String prefix = URI.create(req.uri())
-			                   .getPath()
-			                   .replaceFirst(uri, "");
-
-			if(prefix.charAt(0) == '/'){
-				prefix = prefix.substring(1);
-			}
-
-			Path p = directory.resolve(prefix);
-			if (Files.isReadable(p)) {
-
-				if (interceptor != null) {
-					return interceptor.apply(resp)
-					                  .sendFile(p);
-				}
-				return resp.sendFile(p);
-			}
-
-			return resp.sendNotFound();
-		});
+		return route(HttpPredicate.prefix(uri), StaticFileHandler.directory(uri, directory, interceptor));
 	}
 
 	@Override
@@ -75,28 +54,32 @@ final class DefaultHttpServerRoutes implements HttpServerRoutes {
 		Objects.requireNonNull(condition, "condition");
 		Objects.requireNonNull(handler, "handler");
 
+		HttpRouteTree.Template template = HttpRouteTree.compile(condition);
 		if (condition instanceof HttpPredicate) {
 			handlers.add(new HttpRouteHandler(condition,
 					handler,
-					(HttpPredicate) condition));
+					template != null ? template : (HttpPredicate) condition,
+					template));
 		}
 		else {
-			handlers.add(new HttpRouteHandler(condition, handler, null));
+			handlers.add(new HttpRouteHandler(condition, handler, null, template));
 		}
 		return this;
 	}
 
 	@Override
 	public Publisher<Void> apply(HttpServerRequest request, HttpServerResponse response) {
-		final Iterator<HttpRouteHandler> iterator = handlers.iterator();
-		HttpRouteHandler cursor;
+		CompiledRoutes compiled = this.compiled;
+		if (compiled == null || compiled.handlers.length != handlers.size()) {
+			// routes are only ever appended, a stale snapshot is detected by its size
+			compiled = new CompiledRoutes(handlers.toArray(new HttpRouteHandler[0]));
+			this.compiled = compiled;
+		}
 
 		try {
-			while (iterator.hasNext()) {
-				cursor = iterator.next();
-				if (cursor.test(request)) {
-					return cursor.apply(request, response);
-				}
+			HttpRouteHandler cursor = compiled.select(request);
+			if (cursor != null) {
+				return cursor.apply(request, response);
 			}
 		}
 		catch (Throwable t) {
@@ -107,6 +90,59 @@ final class DefaultHttpServerRoutes implements HttpServerRoutes {
 		return response.sendNotFound();
 	}
 
+	/**
+	 * A snapshot of the registered routes where the compilable conditions are indexed in a
+	 * {@link HttpRouteTree} and only the remaining ones are evaluated linearly.
+	 */
+	static final class CompiledRoutes {
+
+		final HttpRouteHandler[] handlers;
+		final int[]              linear;
+		final HttpRouteTree      tree = new HttpRouteTree();
+
+		CompiledRoutes(HttpRouteHandler[] handlers) {
+			this.handlers = handlers;
+			int[] linear = new int[handlers.length];
+			int count = 0;
+			for (int i = 0; i < handlers.length; i++) {
+				HttpRouteTree.Template template = handlers[i].template;
+				if (template != null) {
+					tree.add(i, template);
+				}
+				else {
+					linear[count++] = i;
+				}
+			}
+			this.linear = Arrays.copyOf(linear, count);
+		}
+
+		@Nullable
+		HttpRouteHandler select(HttpServerRequest request) {
+			String uri = request.uri();
+			if (!uri.startsWith("/")) {
+				// absolute-form and asterisk-form request targets are rare, keep the original semantics
+				for (HttpRouteHandler handler : handlers) {
+					if (handler.test(request)) {
+						return handler;
+					}
+				}
+				return null;
+			}
+
+			int best = tree.find(request.method(), uri, HttpRouteTree.pathEnd(uri), HttpRouteTree.NO_MATCH);
+			for (int index : linear) {
+				if (index >= best) {
+					break;
+				}
+				if (handlers[index].test(request)) {
+					best = index;
+					break;
+				}
+			}
+			return best != HttpRouteTree.NO_MATCH ? handlers[best] : null;
+		}
+	}
+
 	/**
 	 */
 	static final class HttpRouteHandler
@@ -117,18 +153,26 @@ final class DefaultHttpServerRoutes implements HttpServerRoutes {
 		final BiFunction<? super HttpServerRequest, ? super HttpServerResponse, ? extends Publisher<Void>>
 		                                                    handler;
 		final Function<? super String, Map<String, String>> resolver;
+		final HttpRouteTree.Template                        template;
+		final String                                        routeTemplate;
 
 		HttpRouteHandler(Predicate<? super HttpServerRequest> condition,
 				BiFunction<? super HttpServerRequest, ? super HttpServerResponse, ? extends Publisher<Void>> handler,
-				@Nullable Function<? super String, Map<String, String>> resolver) {
+				@Nullable Function<? super String, Map<String, String>> resolver,
+				@Nullable HttpRouteTree.Template template) {
 			this.condition = Objects.requireNonNull(condition, "condition");
 			this.handler = Objects.requireNonNull(handler, "handler");
 			this.resolver = resolver;
+			this.template = template;
+			this.routeTemplate = condition instanceof HttpPredicate ? ((HttpPredicate) condition).uri : null;
 		}
 
 		@Override
 		public Publisher<Void> apply(HttpServerRequest request,
 				HttpServerResponse response) {
+			if (routeTemplate != null && request instanceof HttpServerOperations) {
+				((HttpServerOperations) request).routeTemplate = routeTemplate;
+			}
 			return handler.apply(request.paramsResolver(resolver), response);
 		}
 
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http.server;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+
+import io.netty.handler.codec.DateFormatter;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.util.AsciiString;
+import reactor.util.annotation.Nullable;
+
+/**
+ * The headers added to every response of an {@link HttpServer}, converted to {@link AsciiString} once
+ * so that the responses share them, and the {@code Date} header, formatted at most once per second.
+ */
+final class DefaultResponseHeaders {
+
+	/**
+	 * Returns the headers added to every response, or {@code null} when there are none.
+	 *
+	 * @param headers the configured response headers
+	 * @param date whether the {@code Date} header is added
+	 * @return the headers added to every response or {@code null}
+	 */
+	@Nullable
+	static DefaultResponseHeaders create(HttpHeaders headers, boolean date) {
+		if (headers.isEmpty() && !date) {
+			return null;
+		}
+		int size = headers.size();
+		AsciiString[] names = new AsciiString[size];
+		AsciiString[] values = new AsciiString[size];
+		Iterator<Map.Entry<CharSequence, CharSequence>> it = headers.iteratorCharSequence();
+		for (int i = 0; i < size; i++) {
+			Map.Entry<CharSequence, CharSequence> header = it.next();
+			names[i] = AsciiString.of(header.getKey());
+			values[i] = AsciiString.of(header.getValue());
+		}
+		return new DefaultResponseHeaders(names, values, date);
+	}
+
+	static volatile CachedDate cachedDate = new CachedDate(0, AsciiString.EMPTY_STRING);
+
+	final AsciiString[] names;
+	final AsciiString[] values;
+	final boolean       date;
+
+	DefaultResponseHeaders(AsciiString[] names, AsciiString[] values, boolean date) {
+		this.names = names;
+		this.values = values;
+		this.date = date;
+	}
+
+	/**
+	 * Adds the headers to the given response headers.
+	 *
+	 * @param responseHeaders the response headers
+	 */
+	void addTo(HttpHeaders responseHeaders) {
+		if (date) {
+			responseHeaders.set(HttpHeaderNames.DATE, date(System.currentTimeMillis()));
+		}
+		for (int i = 0; i < names.length; i++) {
+			responseHeaders.add(names[i], values[i]);
+		}
+	}
+
+	/**
+	 * Returns the {@code Date} header value of the given time, formatted once per second.
+	 *
+	 * @param epochMillis the time in milliseconds
+	 * @return the {@code Date} header value
+	 */
+	static AsciiString date(long epochMillis) {
+		long epochSecond = epochMillis / 1000;
+		CachedDate cached = cachedDate;
+		if (cached.epochSecond != epochSecond) {
+			cached = new CachedDate(epochSecond, AsciiString.of(DateFormatter.format(new Date(epochSecond * 1000))));
+			cachedDate = cached;
+		}
+		return cached.value;
+	}
+
+	static final class CachedDate {
+
+		final long        epochSecond;
+		final AsciiString value;
+
+		CachedDate(long epochSecond, AsciiString value) {
+			this.epochSecond = epochSecond;
+			this.value = value;
+		}
+	}
+}
@@ -26,6 +26,7 @@ import io.netty.handler.ssl.SslHandler;
 import reactor.netty.Connection;
 import reactor.netty.ConnectionObserver;
 import reactor.netty.http.Http2StreamBridgeHandler;
+import reactor.util.annotation.Nullable;
 
 /**
  * Server specific {@link Http2StreamBridgeHandler}.
@@ -34,18 +35,21 @@ import reactor.netty.http.Http2StreamBridgeHandler;
  */
 final class Http2StreamBridgeServerHandler extends Http2StreamBridgeHandler {
 
-	final ServerCookieDecoder cookieDecoder;
-	final ServerCookieEncoder cookieEncoder;
-	final ConnectionObserver  listener;
-	final boolean             readForwardHeaders;
+	final ServerCookieDecoder    cookieDecoder;
+	final ServerCookieEncoder    cookieEncoder;
+	final DefaultResponseHeaders defaultResponseHeaders;
+	final ConnectionObserver     listener;
+	final boolean                readForwardHeaders;
 
-	SocketAddress             remoteAddress;
-	Boolean                   secured;
+	SocketAddress                remoteAddress;
+	Boolean                      secured;
 
 	Http2StreamBridgeServerHandler(ConnectionObserver listener, boolean readForwardHeaders,
-			ServerCookieEncoder encoder, ServerCookieDecoder decoder) {
+			ServerCookieEncoder encoder, ServerCookieDecoder decoder,
+			@Nullable DefaultResponseHeaders defaultResponseHeaders) {
 		this.cookieDecoder = decoder;
 		this.cookieEncoder = encoder;
+		this.defaultResponseHeaders = defaultResponseHeaders;
 		this.listener = listener;
 		this.readForwardHeaders = readForwardHeaders;
 	}
@@ -80,7 +84,8 @@ final class Http2StreamBridgeServerHandler extends Http2StreamBridgeHandler {
 						                    secured,
 						                    remoteAddress),
 						cookieEncoder,
-						cookieDecoder);
+						cookieDecoder,
+						defaultResponseHeaders);
 			}
 			catch (RuntimeException e) {
 				HttpServerOperations.sendDecodingFailures(ctx, e, msg);
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http.server;
+
+import java.net.SocketAddress;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import io.netty.channel.AbstractChannel;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelConfig;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelMetadata;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.DefaultChannelConfig;
+import io.netty.channel.EventLoop;
+import io.netty.util.ReferenceCountUtil;
+import reactor.util.annotation.Nullable;
+
+/**
+ * A {@link Channel} carrying a pipelined HTTP/1.1 request that is processed concurrently with the previous
+ * requests of its parent connection. The response written to this channel is buffered until the responses
+ * to the previous requests are sent, then it is written to the parent connection by the {@link HttpTrafficHandler}.
+ *
+ * <p>The channel is registered to the event loop of its parent connection and becomes active without
+ * notifying the connection observers, it is closed once its response is sent.
+ */
+final class HttpPipelinedChannel extends AbstractChannel implements ChannelFutureListener, Runnable {
+
+	static final ChannelMetadata METADATA = new ChannelMetadata(false);
+
+	final HttpTrafficHandler trafficHandler;
+	final ChannelConfig      config;
+
+	/**
+	 * The messages written before the previous responses are sent
+	 */
+	final Queue<Object> buffered = new ArrayDeque<>();
+
+	boolean open = true;
+	boolean active;
+
+	/**
+	 * Whether the previous responses are sent and the messages are written to the parent connection
+	 */
+	boolean responding;
+
+	/**
+	 * Whether the last message of the response is written to the parent connection
+	 */
+	boolean responded;
+
+	HttpPipelinedChannel(Channel parent, HttpTrafficHandler trafficHandler) {
+		super(parent);
+		this.trafficHandler = trafficHandler;
+		this.config = new DefaultChannelConfig(this);
+	}
+
+	@Override
+	public ChannelConfig config() {
+		return config;
+	}
+
+	@Override
+	public boolean isOpen() {
+		return open;
+	}
+
+	@Override
+	public boolean isActive() {
+		return open && active && parent().isActive();
+	}
+
+	@Override
+	public boolean isWritable() {
+		// The chunked writes resume when the previous responses are sent
+		return responding && parent().isWritable() && super.isWritable();
+	}
+
+	@Override
+	public ChannelMetadata metadata() {
+		return METADATA;
+	}
+
+	/**
+	 * Writes the buffered messages to the parent connection, once the previous responses are sent.
+	 */
+	@Override
+	public void run() {
+		if (!isActive()) {
+			return;
+		}
+		responding = true;
+		Object msg;
+		while ((msg = buffered.poll()) != null) {
+			trafficHandler.write(this, msg);
+		}
+		trafficHandler.flush();
+		pipeline().fireChannelWritabilityChanged();
+	}
+
+	/**
+	 * Closes this channel once the last message of the response is sent.
+	 */
+	@Override
+	@SuppressWarnings("FutureReturnValueIgnored")
+	public void operationComplete(ChannelFuture future) {
+		//"FutureReturnValueIgnored" this is deliberate
+		close();
+	}
+
+	@Override
+	protected AbstractUnsafe newUnsafe() {
+		return new PipelinedUnsafe();
+	}
+
+	@Override
+	protected boolean isCompatible(EventLoop loop) {
+		return loop == parent().eventLoop();
+	}
+
+	@Override
+	protected SocketAddress localAddress0() {
+		return parent().localAddress();
+	}
+
+	@Override
+	protected SocketAddress remoteAddress0() {
+		return parent().remoteAddress();
+	}
+
+	@Override
+	protected void doBind(SocketAddress localAddress) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	protected void doDisconnect() {
+		doClose();
+	}
+
+	@Override
+	protected void doClose() {
+		if (!open) {
+			return;
+		}
+		open = false;
+		Object msg;
+		while ((msg = buffered.poll()) != null) {
+			ReferenceCountUtil.release(msg);
+		}
+		trafficHandler.onPipelinedChannelClosed(this);
+	}
+
+	@Override
+	protected void doBeginRead() {
+		// the request is read by the parent connection
+	}
+
+	@Override
+	protected void doWrite(ChannelOutboundBuffer in) {
+		Object msg;
+		while ((msg = in.current()) != null) {
+			// ChannelOutboundBuffer#remove releases the message
+			ReferenceCountUtil.retain(msg);
+			if (responding) {
+				trafficHandler.write(this, msg);
+			}
+			else {
+				buffered.offer(msg);
+			}
+			in.remove();
+		}
+		if (responding) {
+			trafficHandler.flush();
+		}
+	}
+
+	final class PipelinedUnsafe extends AbstractUnsafe {
+
+		@Override
+		public void connect(SocketAddress remoteAddress, @Nullable SocketAddress localAddress, ChannelPromise promise) {
+			promise.setFailure(new UnsupportedOperationException());
+		}
+	}
+}
@@ -0,0 +1,405 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.netty.http.server;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import io.netty.handler.codec.http.HttpMethod;
+import reactor.netty.http.server.HttpPredicate.HttpPrefixPredicate;
+import reactor.netty.http.server.HttpPredicate.UriPathTemplate;
+import reactor.util.annotation.Nullable;
+
+/**
+ * A radix tree, partitioned by {@link HttpMethod}, compiled from the URI templates of the
+ * {@link HttpPredicate} conditions registered with {@link DefaultHttpServerRoutes}.
+ * <p>Templates made of literal characters, {@code {var}} path variables and a trailing
+ * {@code {var}**} or {@code **} are supported. Any other template, or a condition that
+ * restricts the protocol version, cannot be compiled and has to be evaluated linearly.
+ * This includes the templates with dots, which match any character with {@link UriPathTemplate}.</p>
+ * <p>Matching does not allocate and resolves to the lowest declaration index amongst all
+ * matching routes, preserving the "first declared wins" contract of {@link HttpServerRoutes}.</p>
+ */
+final class HttpRouteTree {
+
+	static final int NO_MATCH = Integer.MAX_VALUE;
+
+	final Map<HttpMethod, Node> methodRoots = new HashMap<>();
+
+	Node anyMethodRoot;
+
+	/**
+	 * Adds a compiled template to the tree.
+	 *
+	 * @param index the declaration index of the route
+	 * @param template the compiled template
+	 */
+	void add(int index, Template template) {
+		Node root;
+		if (template.method == null) {
+			if (anyMethodRoot == null) {
+				anyMethodRoot = new Node("");
+			}
+			root = anyMethodRoot;
+		}
+		else {
+			root = methodRoots.computeIfAbsent(template.method, m -> new Node(""));
+		}
+
+		Node n = root;
+		n.min = Math.min(n.min, index);
+		for (int i = 0; i < template.kinds.length; i++) {
+			switch (template.kinds[i]) {
+				case Template.LITERAL:
+					n = n.insert(template.values[i], index);
+					break;
+				case Template.VARIABLE:
+					if (n.variable == null) {
+						n.variable = new Node("");
+					}
+					n = n.variable;
+					n.min = Math.min(n.min, index);
+					break;
+				default:
+					n.catchAll = Math.min(n.catchAll, index);
+					return;
+			}
+		}
+		n.route = Math.min(n.route, index);
+	}
+
+	/**
+	 * Finds the lowest declaration index of the routes matching the given method and path.
+	 *
+	 * @param method the request method
+	 * @param path a string starting with the request path
+	 * @param end the index in {@code path} where the path ends (e.g. the query delimiter)
+	 * @param best an upper bound for the index to find, routes declared after it are ignored
+	 * @return the lowest matching declaration index or {@code best} if there is none
+	 */
+	int find(HttpMethod method, String path, int end, int best) {
+		Node root = methodRoots.get(method);
+		if (root != null) {
+			best = root.find(path, 0, end, best);
+		}
+		if (anyMethodRoot != null) {
+			best = anyMethodRoot.find(path, 0, end, best);
+		}
+		return best;
+	}
+
+	/**
+	 * Compiles the given route condition into a {@link Template}.
+	 *
+	 * @param condition the route condition
+	 * @return the compiled {@link Template} or {@code null} if the condition has to be
+	 * evaluated linearly
+	 */
+	@Nullable
+	static Template compile(Predicate<?> condition) {
+		if (condition instanceof HttpPredicate) {
+			HttpPredicate predicate = (HttpPredicate) condition;
+			if (predicate.protocol != null || predicate.uri == null) {
+				return null;
+			}
+			return Template.parse(predicate.uri, predicate.method);
+		}
+		if (condition instanceof HttpPrefixPredicate) {
+			HttpPrefixPredicate predicate = (HttpPrefixPredicate) condition;
+			if (predicate.prefix.indexOf('?') != -1) {
+				return null;
+			}
+			return new Template(predicate.method,
+					new byte[]{Template.LITERAL, Template.CATCH_ALL},
+					new String[]{predicate.prefix, null});
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the index where the path ends in the given origin-form request URI.
+	 *
+	 * @param uri the request URI, starting with {@code /}
+	 * @return the index of the query delimiter or the length of the URI
+	 */
+	static int pathEnd(String uri) {
+		int end = uri.lastIndexOf('?');
+		return end != -1 ? end : uri.length();
+	}
+
+	static final class Node {
+
+		static final char[] EMPTY_INDICES = new char[0];
+		static final Node[] EMPTY_CHILDREN = new Node[0];
+
+		String label;
+		char[] indices = EMPTY_INDICES;
+		Node[] children = EMPTY_CHILDREN;
+		Node variable;
+
+		/**
+		 * The route ending exactly at this node
+		 */
+		int route = NO_MATCH;
+		/**
+		 * The route matching any remainder from this node
+		 */
+		int catchAll = NO_MATCH;
+		/**
+		 * The lowest route in this subtree, used for pruning
+		 */
+		int min = NO_MATCH;
+
+		Node(String label) {
+			this.label = label;
+		}
+
+		int find(String path, int pos, int end, int best) {
+			if (min >= best) {
+				return best;
+			}
+			int length = label.length();
+			if (length > end - pos || !path.regionMatches(pos, label, 0, length)) {
+				return best;
+			}
+			pos += length;
+
+			if (catchAll < best) {
+				best = catchAll;
+			}
+			if (pos == end) {
+				if (route < best) {
+					best = route;
+				}
+			}
+			else {
+				char c = path.charAt(pos);
+				for (int i = 0; i < indices.length; i++) {
+					if (indices[i] == c) {
+						best = children[i].find(path, pos, end, best);
+						break;
+					}
+				}
+			}
+			if (variable != null) {
+				int next = path.indexOf('/', pos);
+				best = variable.find(path, next == -1 || next > end ? end : next, end, best);
+			}
+			return best;
+		}
+
+		Node insert(String literal, int index) {
+			Node n = this;
+			int i = 0;
+			while (i < literal.length()) {
+				char c = literal.charAt(i);
+				int idx = indexOf(n.indices, c);
+				if (idx == -1) {
+					Node child = new Node(literal.substring(i));
+					child.min = index;
+					n.addChild(c, child);
+					return child;
+				}
+				Node child = n.children[idx];
+				int common = 0;
+				int max = Math.min(child.label.length(), literal.length() - i);
+				while (common < max && child.label.charAt(common) == literal.charAt(i + common)) {
+					common++;
+				}
+				if (common < child.label.length()) {
+					Node head = new Node(child.label.substring(0, common));
+					child.label = child.label.substring(common);
+					head.addChild(child.label.charAt(0), child);
+					head.min = child.min;
+					n.children[idx] = head;
+					child = head;
+				}
+				child.min = Math.min(child.min, index);
+				i += common;
+				n = child;
+			}
+			return n;
+		}
+
+		void addChild(char c, Node child) {
+			indices = Arrays.copyOf(indices, indices.length + 1);
+			indices[indices.length - 1] = c;
+			children = Arrays.copyOf(children, children.length + 1);
+			children[children.length - 1] = child;
+		}
+
+		static int indexOf(char[] indices, char c) {
+			for (int i = 0; i < indices.length; i++) {
+				if (indices[i] == c) {
+					return i;
+				}
+			}
+			return -1;
+		}
+	}
+
+	/**
+	 * A URI template split in literal, path variable and catch-all parts. It also resolves
+	 * the path variables of a matched URI without regular expressions.
+	 */
+	static final class Template implements Function<Object, Map<String, String>> {
+
+		static final byte LITERAL   = 0;
+		static final byte VARIABLE  = 1;
+		static final byte CATCH_ALL = 2;
+
+		static final String UNSUPPORTED_CHARACTERS = "\\[]()^$|+?*{}.";
+
+		final HttpMethod method;
+		final byte[]     kinds;
+		final String[]   values;
+		final boolean    hasVariables;
+
+		Template(@Nullable HttpMethod method, byte[] kinds, String[] values) {
+			this.method = method;
+			this.kinds = kinds;
+			this.values = values;
+			boolean hasVariables = false;
+			for (int i = 0; i < kinds.length; i++) {
+				if (kinds[i] != LITERAL && values[i] != null) {
+					hasVariables = true;
+					break;
+				}
+			}
+			this.hasVariables = hasVariables;
+		}
+
+		@Nullable
+		static Template parse(String uri, @Nullable HttpMethod method) {
+			if (!uri.startsWith("/")) {
+				return null;
+			}
+			String s = UriPathTemplate.filterQueryParams(uri);
+
+			List<Byte> kinds = new ArrayList<>();
+			List<String> values = new ArrayList<>();
+			StringBuilder literal = new StringBuilder();
+			int length = s.length();
+			for (int i = 0; i < length; i++) {
+				char c = s.charAt(i);
+				if (c == '{') {
+					int close = s.indexOf('}', i + 1);
+					if (close == -1) {
+						return null;
+					}
+					String name = s.substring(i + 1, close);
+					if (name.isEmpty() || name.indexOf('/') != -1) {
+						return null;
+					}
+					flush(literal, kinds, values);
+					if (s.startsWith("**", close + 1)) {
+						if (close + 3 != length) {
+							return null;
+						}
+						kinds.add(CATCH_ALL);
+						values.add(name);
+						break;
+					}
+					if (close + 1 != length && s.charAt(close + 1) != '/') {
+						return null;
+					}
+					kinds.add(VARIABLE);
+					values.add(name);
+					i = close;
+				}
+				else if (c == '*') {
+					if (i + 2 != length || s.charAt(i + 1) != '*') {
+						return null;
+					}
+					flush(literal, kinds, values);
+					kinds.add(CATCH_ALL);
+					values.add(null);
+					break;
+				}
+				else if (UNSUPPORTED_CHARACTERS.indexOf(c) != -1) {
+					return null;
+				}
+				else {
+					literal.append(c);
+				}
+			}
+			flush(literal, kinds, values);
+
+			byte[] k = new byte[kinds.size()];
+			for (int i = 0; i < k.length; i++) {
+				k[i] = kinds.get(i);
+			}
+			return new Template(method, k, values.toArray(new String[0]));
+		}
+
+		static void flush(StringBuilder literal, List<Byte> kinds, List<String> values) {
+			if (literal.length() > 0) {
+				kinds.add(LITERAL);
+				values.add(literal.toString());
+				literal.setLength(0);
+			}
+		}
+
+		@Override
+		@Nullable
+		public Map<String, String> apply(Object key) {
+			if (!hasVariables) {
+				return null;
+			}
+			String path = key.toString();
+			int end;
+			if (path.startsWith("/")) {
+				end = pathEnd(path);
+			}
+			else {
+				path = UriPathTemplate.filterQueryParams(UriPathTemplate.filterHostAndPort(path));
+				end = path.length();
+			}
+
+			Map<String, String> params = new HashMap<>();
+			int pos = 0;
+			for (int i = 0; i < kinds.length; i++) {
+				String value = values[i];
+				switch (kinds[i]) {
+					case LITERAL:
+						if (value.length() > end - pos || !path.regionMatches(pos, value, 0, value.length())) {
+							return null;
+						}
+						pos += value.length();
+						break;
+					case VARIABLE:
+						int next = path.indexOf('/', pos);
+						next = next == -1 || next > end ? end : next;
+						params.put(value, path.substring(pos, next));
+						pos = next;
+						break;
+					default:
+						if (value != null) {
+							params.put(value, path.substring(pos, end));
+						}
+						pos = end;
+				}
+			}
+			return pos == end && !params.isEmpty() ? params : null;
+		}
+	}
+}
@@ -25,6 +25,7 @@ import java.util.function.Function;
 import java.util.function.Supplier;
 
 import io.netty.channel.group.ChannelGroup;
+import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.cookie.ServerCookieDecoder;
 import io.netty.handler.codec.http.cookie.ServerCookieEncoder;
 import io.netty.handler.ssl.SslContext;
@@ -86,6 +87,49 @@ public abstract class HttpServer extends ServerTransport<HttpServer, HttpServerC
 		return HttpServerBind.applyTcpServerConfig(tcpServer.configuration());
 	}
 
+	/**
+	 * Enables the access log with the given configuration. The format is compiled once, when
+	 * this method is invoked, and the records are sampled according to the configuration.
+	 *
+	 * @param accessLog configures the {@link AccessLogSpec}
+	 * @return a new {@link HttpServer}
+	 * @throws IllegalArgumentException if the format is not valid
+	 * @since 1.0.0
+	 */
+	public final HttpServer accessLog(Consumer<AccessLogSpec.Builder> accessLog) {
+		Objects.requireNonNull(accessLog, "accessLog");
+		AccessLogSpec.Builder builder = AccessLogSpec.builder();
+		accessLog.accept(builder);
+		AccessLogSpec spec = builder.build();
+		if (spec.equals(configuration().accessLog)) {
+			return this;
+		}
+		HttpServer dup = duplicate();
+		dup.configuration().accessLog = spec;
+		return dup;
+	}
+
+	/**
+	 * Specifies whether the access log is enabled with the {@link AccessLogSpec#DEFAULT_FORMAT default format}.
+	 * When disabled, the access log is enabled only if the
+	 * {@link reactor.netty.ReactorNetty#ACCESS_LOG_ENABLED} system property is set.
+	 *
+	 * @param enable true enables the access log
+	 * @return a new {@link HttpServer}
+	 * @since 1.0.0
+	 */
+	public final HttpServer accessLog(boolean enable) {
+		if (enable) {
+			return accessLog(spec -> {});
+		}
+		else if (configuration().accessLog != null) {
+			HttpServer dup = duplicate();
+			dup.configuration().accessLog = null;
+			return dup;
+		}
+		return this;
+	}
+
 	@Override
 	public final HttpServer bindAddress(Supplier<? extends SocketAddress> bindAddressSupplier) {
 		return super.bindAddress(bindAddressSupplier);
@@ -191,6 +235,23 @@ public abstract class HttpServer extends ServerTransport<HttpServer, HttpServerC
 		return dup;
 	}
 
+	/**
+	 * Specifies whether a {@code Date} header is added to every response. Its value is formatted
+	 * at most once per second and shared by the responses.
+	 *
+	 * @param dateHeaderEnabled if true a {@code Date} header is added to every response
+	 * @return a new {@link HttpServer}
+	 * @since 1.0.0
+	 */
+	public final HttpServer dateHeader(boolean dateHeaderEnabled) {
+		if (dateHeaderEnabled == configuration().dateHeader) {
+			return this;
+		}
+		HttpServer dup = duplicate();
+		dup.configuration().dateHeader = dateHeaderEnabled;
+		return dup;
+	}
+
 	/**
 	 * Specifies whether support for the {@code "Forwarded"} and {@code "X-Forwarded-*"}
 	 * HTTP request headers for deriving information about the connection is enabled.
@@ -275,6 +336,9 @@ public abstract class HttpServer extends ServerTransport<HttpServer, HttpServerC
 	 * that will be used for the metrics with {@link reactor.netty.Metrics#URI} tag.
 	 * For example instead of using the actual uri {@code "/users/1"} as uri tag value, templated uri
 	 * {@code "/users/{id}"} can be used.
+	 * <p>When the request is handled by a route declared with {@link HttpServerRoutes}, the function
+	 * receives the template of that route instead of the actual uri, so that {@link Function#identity()}
+	 * is enough to tag the routed requests with templated uris.
 	 * <p><strong>Note:</strong>
 	 * It is strongly recommended applications to configure an upper limit for the number of the URI tags.
 	 * For example:
@@ -333,6 +397,33 @@ public abstract class HttpServer extends ServerTransport<HttpServer, HttpServerC
 		return this;
 	}
 
+	/**
+	 * Specifies the maximum number of pipelined HTTP/1.1 requests processed concurrently per connection.
+	 * When enabled, the pipelined {@code GET} and {@code HEAD} requests without body are dispatched to the
+	 * handler as soon as they are received, and their responses are buffered until the responses of the
+	 * previous requests are sent, so that the responses are still sent in the order of the requests.
+	 * The other requests, and the requests beyond this limit, are processed one after the other.
+	 * As the HTTP metrics are recorded on the connection, this setting has no effect when they are enabled
+	 * with {@link #metrics(boolean, Function)}.
+	 * Default to {@code 0}, the pipelined requests are processed one after the other.
+	 *
+	 * @param maxInFlightRequests the maximum number of pipelined requests processed concurrently per connection,
+	 * {@code 0} to process them one after the other
+	 * @return a new {@link HttpServer}
+	 * @since 1.0.0
+	 */
+	public final HttpServer pipelining(int maxInFlightRequests) {
+		if (maxInFlightRequests < 0) {
+			throw new IllegalArgumentException("maxInFlightRequests must be positive");
+		}
+		if (maxInFlightRequests == configuration().pipelining) {
+			return this;
+		}
+		HttpServer dup = duplicate();
+		dup.configuration().pipelining = maxInFlightRequests;
+		return dup;
+	}
+
 	@Override
 	public final HttpServer port(int port) {
 		return super.port(port);
@@ -391,6 +482,24 @@ public abstract class HttpServer extends ServerTransport<HttpServer, HttpServerC
 		return dup;
 	}
 
+	/**
+	 * Apply the headers added to every response, before the handler sets its own. The names and values
+	 * are converted to {@link io.netty.util.AsciiString} once, when the server is configured, so that
+	 * the responses share them and the encoder copies them as is.
+	 *
+	 * @param headersBuilder the headers {@link Consumer} to invoke when configuring the server
+	 * @return a new {@link HttpServer}
+	 * @since 1.0.0
+	 */
+	public final HttpServer responseHeaders(Consumer<? super HttpHeaders> headersBuilder) {
+		Objects.requireNonNull(headersBuilder, "headersBuilder");
+		HttpServer dup = duplicate();
+		HttpHeaders headers = configuration().responseHeaders.copy();
+		headersBuilder.accept(headers);
+		dup.configuration().responseHeaders = headers;
+		return dup;
+	}
+
 	/**
 	 * Define routes for the server through the provided {@link HttpServerRoutes} builder.
 	 *
@@ -23,7 +23,9 @@ import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
 import io.netty.handler.codec.haproxy.HAProxyMessageDecoder;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
 import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.codec.http.HttpServerUpgradeHandler;
 import io.netty.handler.codec.http.cookie.ServerCookieDecoder;
@@ -95,6 +97,16 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 		return cookieDecoder;
 	}
 
+	/**
+	 * Return the configured access log or null.
+	 *
+	 * @return the configured access log or null
+	 */
+	@Nullable
+	public AccessLogSpec accessLog() {
+		return accessLog;
+	}
+
 	/**
 	 * Return the configured {@link ServerCookieEncoder} or the default {@link ServerCookieEncoder#STRICT}.
 	 *
@@ -104,6 +116,15 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 		return cookieEncoder;
 	}
 
+	/**
+	 * Returns whether a {@code Date} header is added to every response.
+	 *
+	 * @return true if a {@code Date} header is added to every response
+	 */
+	public boolean isDateHeader() {
+		return dateHeader;
+	}
+
 	/**
 	 * Return the configured HTTP request decoder options or the default.
 	 *
@@ -151,6 +172,17 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 		return minCompressionSize;
 	}
 
+	/**
+	 * Returns the maximum number of pipelined HTTP/1.1 requests processed concurrently per connection,
+	 * or {@code 0} when the pipelined requests are processed one after the other.
+	 * The pipelined requests are also processed one after the other when the HTTP metrics are enabled.
+	 *
+	 * @return the maximum number of pipelined HTTP/1.1 requests processed concurrently per connection
+	 */
+	public int pipelining() {
+		return pipelining;
+	}
+
 	/**
 	 * Return the HTTP protocol to support. Default is {@link HttpProtocol#HTTP11}.
 	 *
@@ -170,6 +202,15 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 		return proxyProtocolSupportType;
 	}
 
+	/**
+	 * Return a copy of the headers added to every response.
+	 *
+	 * @return a copy of the headers added to every response
+	 */
+	public HttpHeaders responseHeaders() {
+		return responseHeaders.copy();
+	}
+
 	/**
 	 * Returns the current {@link SslProvider} if that {@link TcpServer} secured via SSL
 	 * transport or null
@@ -197,16 +238,20 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 
 	// Protected/Package private write API
 
+	AccessLogSpec                                      accessLog;
 	BiPredicate<HttpServerRequest, HttpServerResponse> compressPredicate;
 	ServerCookieDecoder                                cookieDecoder;
 	ServerCookieEncoder                                cookieEncoder;
+	boolean                                            dateHeader;
 	HttpRequestDecoderSpec                             decoder;
 	boolean                                            forwarded;
 	Http2SettingsSpec                                  http2Settings;
 	int                                                minCompressionSize;
+	int                                                pipelining;
 	HttpProtocol[]                                     protocols;
 	int                                                _protocols;
 	ProxyProtocolSupportType                           proxyProtocolSupportType;
+	HttpHeaders                                        responseHeaders;
 	SslProvider                                        sslProvider;
 	Function<String, String>                           uriTagValue;
 
@@ -220,20 +265,25 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 		this.protocols = new HttpProtocol[]{HttpProtocol.HTTP11};
 		this._protocols = h11;
 		this.proxyProtocolSupportType = ProxyProtocolSupportType.OFF;
+		this.responseHeaders = new DefaultHttpHeaders();
 	}
 
 	HttpServerConfig(HttpServerConfig parent) {
 		super(parent);
+		this.accessLog = parent.accessLog;
 		this.compressPredicate = parent.compressPredicate;
 		this.cookieDecoder = parent.cookieDecoder;
 		this.cookieEncoder = parent.cookieEncoder;
+		this.dateHeader = parent.dateHeader;
 		this.decoder = parent.decoder;
 		this.forwarded = parent.forwarded;
 		this.http2Settings = parent.http2Settings;
 		this.minCompressionSize = parent.minCompressionSize;
+		this.pipelining = parent.pipelining;
 		this.protocols = parent.protocols;
 		this._protocols = parent._protocols;
 		this.proxyProtocolSupportType = parent.proxyProtocolSupportType;
+		this.responseHeaders = parent.responseHeaders;
 		this.sslProvider = parent.sslProvider;
 		this.uriTagValue = parent.uriTagValue;
 	}
@@ -256,9 +306,23 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 	@Override
 	protected ChannelPipelineConfigurer defaultOnChannelInit() {
 		return super.defaultOnChannelInit()
-		            .then(new HttpServerChannelInitializer(compressPredicate, cookieDecoder, cookieEncoder,
-		                decoder, forwarded, http2Settings(), metricsRecorder(), minCompressionSize, channelOperationsProvider(),
-		                    _protocols, proxyProtocolSupportType, sslProvider, uriTagValue));
+		            .then(new HttpServerChannelInitializer(
+		                    accessLogFormat(),
+		                    compressPredicate,
+		                    cookieDecoder,
+		                    cookieEncoder,
+		                    DefaultResponseHeaders.create(responseHeaders, dateHeader),
+		                    decoder,
+		                    forwarded,
+		                    http2Settings(),
+		                    metricsRecorder(),
+		                    minCompressionSize,
+		                    channelOperationsProvider(),
+		                    pipelining,
+		                    _protocols,
+		                    proxyProtocolSupportType,
+		                    sslProvider,
+		                    uriTagValue));
 	}
 
 	@Override
@@ -289,6 +353,14 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 		this._protocols = _protocols;
 	}
 
+	@Nullable
+	AccessLogFormat accessLogFormat() {
+		if (accessLog != null) {
+			return accessLog.compiled;
+		}
+		return ACCESS_LOG ? AccessLogFormat.DEFAULT : null;
+	}
+
 	Http2Settings http2Settings() {
 		Http2Settings settings = Http2Settings.defaultSettings();
 
@@ -324,17 +396,18 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 		return settings;
 	}
 
-	static void addStreamHandlers(Channel ch, ChannelOperations.OnSetup opsFactory,
+	static void addStreamHandlers(Channel ch, @Nullable AccessLogFormat accessLogFormat, ChannelOperations.OnSetup opsFactory,
 			ConnectionObserver listener, boolean readForwardHeaders,
-			ServerCookieEncoder encoder, ServerCookieDecoder decoder) {
-		if (ACCESS_LOG) {
+			ServerCookieEncoder encoder, ServerCookieDecoder decoder,
+			@Nullable DefaultResponseHeaders defaultResponseHeaders) {
+		if (accessLogFormat != null) {
 			ch.pipeline()
-			  .addLast(NettyPipeline.AccessLogHandler, new AccessLogHandlerH2());
+			  .addLast(NettyPipeline.AccessLogHandler, new AccessLogHandlerH2(accessLogFormat));
 		}
 		ch.pipeline()
 		  .addLast(NettyPipeline.H2ToHttp11Codec, new Http2StreamFrameToHttpObjectCodec(true))
 		  .addLast(NettyPipeline.HttpTrafficHandler,
-		           new Http2StreamBridgeServerHandler(listener, readForwardHeaders, encoder, decoder));
+		           new Http2StreamBridgeServerHandler(listener, readForwardHeaders, encoder, decoder, defaultResponseHeaders));
 
 		ChannelOperations.addReactiveBridge(ch, opsFactory, listener);
 
@@ -376,8 +449,10 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 	}
 
 	static void configureH2Pipeline(ChannelPipeline p,
+			@Nullable AccessLogFormat accessLogFormat,
 			ServerCookieDecoder cookieDecoder,
 			ServerCookieEncoder cookieEncoder,
+			@Nullable DefaultResponseHeaders defaultResponseHeaders,
 			boolean forwarded,
 			Http2Settings http2Settings,
 			ConnectionObserver listener,
@@ -397,13 +472,16 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 
 		p.addLast(NettyPipeline.HttpCodec, http2FrameCodecBuilder.build())
 		 .addLast(NettyPipeline.H2MultiplexHandler,
-		          new Http2MultiplexHandler(new H2Codec(opsFactory, listener, forwarded, cookieEncoder, cookieDecoder)));
+		          new Http2MultiplexHandler(new H2Codec(accessLogFormat, opsFactory, listener, forwarded, cookieEncoder, cookieDecoder,
+		                  defaultResponseHeaders)));
 	}
 
 	static void configureHttp11OrH2CleartextPipeline(ChannelPipeline p,
+			@Nullable AccessLogFormat accessLogFormat,
 			@Nullable BiPredicate<HttpServerRequest, HttpServerResponse> compressPredicate,
 			ServerCookieDecoder cookieDecoder,
 			ServerCookieEncoder cookieEncoder,
+			@Nullable DefaultResponseHeaders defaultResponseHeaders,
 			HttpRequestDecoderSpec decoder,
 			boolean forwarded,
 			Http2Settings http2Settings,
@@ -411,13 +489,16 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 			@Nullable Supplier<? extends ChannelMetricsRecorder> metricsRecorder,
 			int minCompressionSize,
 			ChannelOperations.OnSetup opsFactory,
+			int pipelining,
 			@Nullable Function<String, String> uriTagValue) {
+		HttpServerMetricsRecorder httpMetricsRecorder = httpMetricsRecorder(metricsRecorder);
 		HttpServerCodec httpServerCodec =
 				new HttpServerCodec(decoder.maxInitialLineLength(), decoder.maxHeaderSize(),
 						decoder.maxChunkSize(), decoder.validateHeaders(), decoder.initialBufferSize());
 
 		Http11OrH2CleartextCodec
-				upgrader = new Http11OrH2CleartextCodec(cookieDecoder, cookieEncoder, p.get(NettyPipeline.LoggingHandler) != null,
+				upgrader = new Http11OrH2CleartextCodec(accessLogFormat, cookieDecoder, cookieEncoder, defaultResponseHeaders,
+						p.get(NettyPipeline.LoggingHandler) != null,
 						forwarded, http2Settings, listener, opsFactory, decoder.validateHeaders());
 
 		ChannelHandler http2ServerHandler = new H2CleartextCodec(upgrader);
@@ -430,10 +511,11 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 		            NettyPipeline.H2CUpgradeHandler, h2cUpgradeHandler)
 		 .addBefore(NettyPipeline.ReactiveBridge,
 		            NettyPipeline.HttpTrafficHandler,
-		            new HttpTrafficHandler(listener, forwarded, compressPredicate, cookieEncoder, cookieDecoder));
+		            new HttpTrafficHandler(listener, forwarded, compressPredicate, cookieEncoder, cookieDecoder,
+		                    defaultResponseHeaders, httpMetricsRecorder != null ? 0 : pipelining));
 
-		if (ACCESS_LOG) {
-			p.addAfter(NettyPipeline.H2CUpgradeHandler, NettyPipeline.AccessLogHandler, new AccessLogHandler());
+		if (accessLogFormat != null) {
+			p.addAfter(NettyPipeline.H2CUpgradeHandler, NettyPipeline.AccessLogHandler, new AccessLogHandler(accessLogFormat));
 		}
 
 		boolean alwaysCompress = compressPredicate == null && minCompressionSize == 0;
@@ -442,40 +524,42 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 			p.addBefore(NettyPipeline.HttpTrafficHandler, NettyPipeline.CompressionHandler, new SimpleCompressionHandler());
 		}
 
-		if (metricsRecorder != null) {
-			ChannelMetricsRecorder channelMetricsRecorder = metricsRecorder.get();
-			if (channelMetricsRecorder instanceof HttpServerMetricsRecorder) {
-				p.addAfter(NettyPipeline.HttpTrafficHandler, NettyPipeline.HttpMetricsHandler,
-				           new HttpServerMetricsHandler((HttpServerMetricsRecorder) channelMetricsRecorder, uriTagValue));
-				if (channelMetricsRecorder instanceof MicrometerHttpServerMetricsRecorder) {
-					// MicrometerHttpServerMetricsRecorder does not implement metrics on protocol level
-					// ChannelMetricsHandler will be removed from the pipeline
-					p.remove(NettyPipeline.ChannelMetricsHandler);
-				}
+		if (httpMetricsRecorder != null) {
+			p.addAfter(NettyPipeline.HttpTrafficHandler, NettyPipeline.HttpMetricsHandler,
+			           new HttpServerMetricsHandler(httpMetricsRecorder, uriTagValue));
+			if (httpMetricsRecorder instanceof MicrometerHttpServerMetricsRecorder) {
+				// MicrometerHttpServerMetricsRecorder does not implement metrics on protocol level
+				// ChannelMetricsHandler will be removed from the pipeline
+				p.remove(NettyPipeline.ChannelMetricsHandler);
 			}
 		}
 	}
 
 	static void configureHttp11Pipeline(ChannelPipeline p,
+			@Nullable AccessLogFormat accessLogFormat,
 			@Nullable BiPredicate<HttpServerRequest, HttpServerResponse> compressPredicate,
 			ServerCookieDecoder cookieDecoder,
 			ServerCookieEncoder cookieEncoder,
+			@Nullable DefaultResponseHeaders defaultResponseHeaders,
 			HttpRequestDecoderSpec decoder,
 			boolean forwarded,
 			ConnectionObserver listener,
 			@Nullable Supplier<? extends ChannelMetricsRecorder> metricsRecorder,
 			int minCompressionSize,
+			int pipelining,
 			@Nullable Function<String, String> uriTagValue) {
+		HttpServerMetricsRecorder httpMetricsRecorder = httpMetricsRecorder(metricsRecorder);
 		p.addBefore(NettyPipeline.ReactiveBridge,
 		            NettyPipeline.HttpCodec,
 		            new HttpServerCodec(decoder.maxInitialLineLength(), decoder.maxHeaderSize(),
 		                    decoder.maxChunkSize(), decoder.validateHeaders(), decoder.initialBufferSize()))
 		 .addBefore(NettyPipeline.ReactiveBridge,
 		            NettyPipeline.HttpTrafficHandler,
-		            new HttpTrafficHandler(listener, forwarded, compressPredicate, cookieEncoder, cookieDecoder));
+		            new HttpTrafficHandler(listener, forwarded, compressPredicate, cookieEncoder, cookieDecoder,
+		                    defaultResponseHeaders, httpMetricsRecorder != null ? 0 : pipelining));
 
-		if (ACCESS_LOG) {
-			p.addAfter(NettyPipeline.HttpCodec, NettyPipeline.AccessLogHandler, new AccessLogHandler());
+		if (accessLogFormat != null) {
+			p.addAfter(NettyPipeline.HttpCodec, NettyPipeline.AccessLogHandler, new AccessLogHandler(accessLogFormat));
 		}
 
 		boolean alwaysCompress = compressPredicate == null && minCompressionSize == 0;
@@ -484,20 +568,32 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 			p.addBefore(NettyPipeline.HttpTrafficHandler, NettyPipeline.CompressionHandler, new SimpleCompressionHandler());
 		}
 
-		if (metricsRecorder != null) {
-			ChannelMetricsRecorder channelMetricsRecorder = metricsRecorder.get();
-			if (channelMetricsRecorder instanceof HttpServerMetricsRecorder) {
-				p.addAfter(NettyPipeline.HttpTrafficHandler, NettyPipeline.HttpMetricsHandler,
-				           new HttpServerMetricsHandler((HttpServerMetricsRecorder) channelMetricsRecorder, uriTagValue));
-				if (channelMetricsRecorder instanceof MicrometerHttpServerMetricsRecorder) {
-					// MicrometerHttpServerMetricsRecorder does not implement metrics on protocol level
-					// ChannelMetricsHandler will be removed from the pipeline
-					p.remove(NettyPipeline.ChannelMetricsHandler);
-				}
+		if (httpMetricsRecorder != null) {
+			p.addAfter(NettyPipeline.HttpTrafficHandler, NettyPipeline.HttpMetricsHandler,
+			           new HttpServerMetricsHandler(httpMetricsRecorder, uriTagValue));
+			if (httpMetricsRecorder instanceof MicrometerHttpServerMetricsRecorder) {
+				// MicrometerHttpServerMetricsRecorder does not implement metrics on protocol level
+				// ChannelMetricsHandler will be removed from the pipeline
+				p.remove(NettyPipeline.ChannelMetricsHandler);
 			}
 		}
 	}
 
+	/**
+	 * Returns the recorder of the HTTP metrics, if any. The HTTP metrics handler records the requests
+	 * received on the connection, the pipelined requests are then processed one after the other.
+	 */
+	@Nullable
+	static HttpServerMetricsRecorder httpMetricsRecorder(
+			@Nullable Supplier<? extends ChannelMetricsRecorder> metricsRecorder) {
+		if (metricsRecorder == null) {
+			return null;
+		}
+		ChannelMetricsRecorder channelMetricsRecorder = metricsRecorder.get();
+		return channelMetricsRecorder instanceof HttpServerMetricsRecorder ?
+				(HttpServerMetricsRecorder) channelMetricsRecorder : null;
+	}
+
 	static final boolean ACCESS_LOG = Boolean.parseBoolean(System.getProperty(ACCESS_LOG_ENABLED, "false"));
 
 	static final int h2 = 0b010;
@@ -547,49 +643,61 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 
 	static final class H2Codec extends ChannelInitializer<Channel> {
 
+		final AccessLogFormat           accessLogFormat;
 		final boolean                   forwarded;
 		final ConnectionObserver        listener;
 		final ServerCookieEncoder       cookieEncoder;
 		final ServerCookieDecoder       cookieDecoder;
+		final DefaultResponseHeaders    defaultResponseHeaders;
 		final ChannelOperations.OnSetup opsFactory;
 
-		H2Codec(ChannelOperations.OnSetup opsFactory, ConnectionObserver listener, boolean forwarded,
-				ServerCookieEncoder encoder, ServerCookieDecoder decoder) {
+		H2Codec(@Nullable AccessLogFormat accessLogFormat, ChannelOperations.OnSetup opsFactory,
+				ConnectionObserver listener, boolean forwarded, ServerCookieEncoder encoder, ServerCookieDecoder decoder,
+				@Nullable DefaultResponseHeaders defaultResponseHeaders) {
+			this.accessLogFormat = accessLogFormat;
 			this.forwarded = forwarded;
 			this.listener = listener;
 			this.cookieEncoder = encoder;
 			this.cookieDecoder = decoder;
+			this.defaultResponseHeaders = defaultResponseHeaders;
 			this.opsFactory = opsFactory;
 		}
 
 		@Override
 		protected void initChannel(Channel ch) {
 			ch.pipeline().remove(this);
-			addStreamHandlers(ch, opsFactory, listener, forwarded, cookieEncoder, cookieDecoder);
+			addStreamHandlers(ch, accessLogFormat, opsFactory, listener, forwarded, cookieEncoder, cookieDecoder,
+					defaultResponseHeaders);
 		}
 	}
 
 	static final class Http11OrH2CleartextCodec extends ChannelInitializer<Channel>
 			implements HttpServerUpgradeHandler.UpgradeCodecFactory {
 
+		final AccessLogFormat           accessLogFormat;
 		final ServerCookieDecoder       cookieDecoder;
 		final ServerCookieEncoder       cookieEncoder;
+		final DefaultResponseHeaders    defaultResponseHeaders;
 		final boolean                   forwarded;
 		final Http2FrameCodec           http2FrameCodec;
 		final ConnectionObserver        listener;
 		final ChannelOperations.OnSetup opsFactory;
 
 		Http11OrH2CleartextCodec(
+				@Nullable AccessLogFormat accessLogFormat,
 				ServerCookieDecoder cookieDecoder,
 				ServerCookieEncoder cookieEncoder,
+				@Nullable DefaultResponseHeaders defaultResponseHeaders,
 				boolean debug,
 				boolean forwarded,
 				Http2Settings http2Settings,
 				ConnectionObserver listener,
 				ChannelOperations.OnSetup opsFactory,
 				boolean validate) {
+			this.accessLogFormat = accessLogFormat;
 			this.cookieDecoder = cookieDecoder;
 			this.cookieEncoder = cookieEncoder;
+			this.defaultResponseHeaders = defaultResponseHeaders;
 			this.forwarded = forwarded;
 			Http2FrameCodecBuilder http2FrameCodecBuilder =
 					Http2FrameCodecBuilder.forServer()
@@ -612,7 +720,8 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 		@Override
 		protected void initChannel(Channel ch) {
 			ch.pipeline().remove(this);
-			addStreamHandlers(ch, opsFactory, listener, forwarded, cookieEncoder, cookieDecoder);
+			addStreamHandlers(ch, accessLogFormat, opsFactory, listener, forwarded, cookieEncoder, cookieDecoder,
+					defaultResponseHeaders);
 		}
 
 		@Override
@@ -629,9 +738,11 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 
 	static final class H2OrHttp11Codec extends ApplicationProtocolNegotiationHandler {
 
+		final AccessLogFormat                                    accessLogFormat;
 		final BiPredicate<HttpServerRequest, HttpServerResponse> compressPredicate;
 		final ServerCookieDecoder                                cookieDecoder;
 		final ServerCookieEncoder                                cookieEncoder;
+		final DefaultResponseHeaders                             defaultResponseHeaders;
 		final HttpRequestDecoderSpec                             decoder;
 		final boolean                                            forwarded;
 		final Http2Settings                                      http2Settings;
@@ -639,12 +750,15 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 		final Supplier<? extends ChannelMetricsRecorder>         metricsRecorder;
 		final int                                                minCompressionSize;
 		final ChannelOperations.OnSetup                          opsFactory;
+		final int                                                pipelining;
 		final Function<String, String>                           uriTagValue;
 
 		H2OrHttp11Codec(
+				@Nullable AccessLogFormat accessLogFormat,
 				@Nullable BiPredicate<HttpServerRequest, HttpServerResponse> compressPredicate,
 				ServerCookieDecoder cookieDecoder,
 				ServerCookieEncoder cookieEncoder,
+				@Nullable DefaultResponseHeaders defaultResponseHeaders,
 				HttpRequestDecoderSpec decoder,
 				boolean forwarded,
 				Http2Settings http2Settings,
@@ -652,11 +766,14 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 				@Nullable Supplier<? extends ChannelMetricsRecorder> metricsRecorder,
 				int minCompressionSize,
 				ChannelOperations.OnSetup opsFactory,
+				int pipelining,
 				@Nullable Function<String, String> uriTagValue) {
 			super(ApplicationProtocolNames.HTTP_1_1);
+			this.accessLogFormat = accessLogFormat;
 			this.compressPredicate = compressPredicate;
 			this.cookieDecoder = cookieDecoder;
 			this.cookieEncoder = cookieEncoder;
+			this.defaultResponseHeaders = defaultResponseHeaders;
 			this.decoder = decoder;
 			this.forwarded = forwarded;
 			this.http2Settings = http2Settings;
@@ -664,6 +781,7 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 			this.metricsRecorder = metricsRecorder;
 			this.minCompressionSize = minCompressionSize;
 			this.opsFactory = opsFactory;
+			this.pipelining = pipelining;
 			this.uriTagValue = uriTagValue;
 		}
 
@@ -676,14 +794,15 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 			ChannelPipeline p = ctx.pipeline();
 
 			if (ApplicationProtocolNames.HTTP_2.equals(protocol)) {
-				configureH2Pipeline(p, cookieDecoder, cookieEncoder, forwarded, http2Settings,
+				configureH2Pipeline(p, accessLogFormat, cookieDecoder, cookieEncoder, defaultResponseHeaders, forwarded, http2Settings,
 						listener, opsFactory, decoder.validateHeaders());
 				return;
 			}
 
 			if (ApplicationProtocolNames.HTTP_1_1.equals(protocol)) {
-				configureHttp11Pipeline(p, compressPredicate, cookieDecoder, cookieEncoder, decoder, forwarded,
-						listener, metricsRecorder, minCompressionSize, uriTagValue);
+				configureHttp11Pipeline(p, accessLogFormat, compressPredicate, cookieDecoder, cookieEncoder, defaultResponseHeaders,
+						decoder, forwarded,
+						listener, metricsRecorder, minCompressionSize, pipelining, uriTagValue);
 				return;
 			}
 
@@ -693,43 +812,52 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 
 	static final class HttpServerChannelInitializer implements ChannelPipelineConfigurer {
 
+		final AccessLogFormat                                    accessLogFormat;
 		final BiPredicate<HttpServerRequest, HttpServerResponse> compressPredicate;
 		final ServerCookieDecoder                                cookieDecoder;
 		final ServerCookieEncoder                                cookieEncoder;
+		final DefaultResponseHeaders                             defaultResponseHeaders;
 		final HttpRequestDecoderSpec                             decoder;
 		final boolean                                            forwarded;
 		final Http2Settings                                      http2Settings;
 		final Supplier<? extends ChannelMetricsRecorder>         metricsRecorder;
 		final int                                                minCompressionSize;
 		final ChannelOperations.OnSetup                          opsFactory;
+		final int                                                pipelining;
 		final int                                                protocols;
 		final ProxyProtocolSupportType                           proxyProtocolSupportType;
 		final SslProvider                                        sslProvider;
 		final Function<String, String>                           uriTagValue;
 
 		HttpServerChannelInitializer(
+				@Nullable AccessLogFormat accessLogFormat,
 				@Nullable BiPredicate<HttpServerRequest, HttpServerResponse> compressPredicate,
 				ServerCookieDecoder cookieDecoder,
 				ServerCookieEncoder cookieEncoder,
+				@Nullable DefaultResponseHeaders defaultResponseHeaders,
 				HttpRequestDecoderSpec decoder,
 				boolean forwarded,
 				Http2Settings http2Settings,
 				@Nullable Supplier<? extends ChannelMetricsRecorder> metricsRecorder,
 				int minCompressionSize,
 				ChannelOperations.OnSetup opsFactory,
+				int pipelining,
 				int protocols,
 				ProxyProtocolSupportType proxyProtocolSupportType,
 				@Nullable SslProvider sslProvider,
 				@Nullable Function<String, String> uriTagValue) {
+			this.accessLogFormat = accessLogFormat;
 			this.compressPredicate = compressPredicate;
 			this.cookieDecoder = cookieDecoder;
 			this.cookieEncoder = cookieEncoder;
+			this.defaultResponseHeaders = defaultResponseHeaders;
 			this.decoder = decoder;
 			this.forwarded = forwarded;
 			this.http2Settings = http2Settings;
 			this.metricsRecorder = metricsRecorder;
 			this.minCompressionSize = minCompressionSize;
 			this.opsFactory = opsFactory;
+			this.pipelining = pipelining;
 			this.protocols = protocols;
 			this.proxyProtocolSupportType = proxyProtocolSupportType;
 			this.sslProvider = sslProvider;
@@ -746,9 +874,11 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 				if ((protocols & h11orH2) == h11orH2) {
 					channel.pipeline()
 					       .addBefore(NettyPipeline.ReactiveBridge, NettyPipeline.H2OrHttp11Codec, new H2OrHttp11Codec(
+					               accessLogFormat,
 					               compressPredicate(compressPredicate, minCompressionSize),
 					               cookieDecoder,
 					               cookieEncoder,
+					               defaultResponseHeaders,
 					               decoder,
 					               forwarded,
 					               http2Settings,
@@ -756,26 +886,32 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 					               metricsRecorder,
 					               minCompressionSize,
 					               opsFactory,
+					               pipelining,
 					               uriTagValue));
 				}
 				else if ((protocols & h11) == h11) {
 					configureHttp11Pipeline(
 							channel.pipeline(),
+							accessLogFormat,
 							compressPredicate(compressPredicate, minCompressionSize),
 							cookieDecoder,
 							cookieEncoder,
+							defaultResponseHeaders,
 							decoder,
 							forwarded,
 							observer,
 							metricsRecorder,
 							minCompressionSize,
+							pipelining,
 							uriTagValue);
 				}
 				else if ((protocols & h2) == h2) {
 					configureH2Pipeline(
 							channel.pipeline(),
+							accessLogFormat,
 							cookieDecoder,
 							cookieEncoder,
+							defaultResponseHeaders,
 							forwarded,
 							http2Settings,
 							observer,
@@ -787,9 +923,11 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 				if ((protocols & h11orH2C) == h11orH2C) {
 					configureHttp11OrH2CleartextPipeline(
 							channel.pipeline(),
+							accessLogFormat,
 							compressPredicate(compressPredicate, minCompressionSize),
 							cookieDecoder,
 							cookieEncoder,
+							defaultResponseHeaders,
 							decoder,
 							forwarded,
 							http2Settings,
@@ -797,26 +935,32 @@ public final class HttpServerConfig extends ServerTransportConfig<HttpServerConf
 							metricsRecorder,
 							minCompressionSize,
 							opsFactory,
+							pipelining,
 							uriTagValue);
 				}
 				else if ((protocols & h11) == h11) {
 					configureHttp11Pipeline(
 							channel.pipeline(),
+							accessLogFormat,
 							compressPredicate(compressPredicate, minCompressionSize),
 							cookieDecoder,
 							cookieEncoder,
+							defaultResponseHeaders,
 							decoder,
 							forwarded,
 							observer,
 							metricsRecorder,
 							minCompressionSize,
+							pipelining,
 							uriTagValue);
 				}
 				else if ((protocols & h2c) == h2c) {
 					configureH2Pipeline(
 							channel.pipeline(),
+							accessLogFormat,
 							cookieDecoder,
 							cookieEncoder,
+							defaultResponseHeaders,
 							forwarded,
 							http2Settings,
 							observer,
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http.server;
+
+import io.netty.handler.codec.http.multipart.DefaultHttpDataFactory;
+import io.netty.handler.codec.http.multipart.HttpDataFactory;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * A configuration builder for decoding the {@code multipart/form-data} and
+ * {@code application/x-www-form-urlencoded} request bodies with {@link HttpServerRequest#receiveForm(HttpServerFormDecoderSpec)}.
+ * <p>The parts up to {@link #maxInMemorySize()} bytes are kept in memory, the larger parts are written to
+ * temporary files, which are deleted once the request is terminated.
+ *
+ * @since 1.0.0
+ */
+public final class HttpServerFormDecoderSpec {
+
+	/**
+	 * The default maximum size of a part kept in memory, in bytes.
+	 */
+	public static final long DEFAULT_MAX_IN_MEMORY_SIZE = DefaultHttpDataFactory.MINSIZE;
+
+	public interface Builder {
+
+		/**
+		 * Build a new {@link HttpServerFormDecoderSpec}
+		 *
+		 * @return a new {@link HttpServerFormDecoderSpec}
+		 */
+		HttpServerFormDecoderSpec build();
+
+		/**
+		 * Sets the maximum size of a part kept in memory, by default {@link #DEFAULT_MAX_IN_MEMORY_SIZE}.
+		 * The larger parts are written to temporary files while they are received.
+		 * With {@code 0}, all parts are written to temporary files. With {@code -1}, all parts are kept in memory.
+		 *
+		 * @param maxInMemorySize the maximum size of a part kept in memory, in bytes
+		 * @return {@code this}
+		 */
+		Builder maxInMemorySize(long maxInMemorySize);
+
+		/**
+		 * Sets the maximum size of a part, by default {@code -1} for no limit.
+		 * The decoding fails as soon as a part exceeds this size.
+		 *
+		 * @param maxSize the maximum size of a part, in bytes
+		 * @return {@code this}
+		 */
+		Builder maxSize(long maxSize);
+
+		/**
+		 * Sets the charset used to decode the parts without an explicit charset, by default {@code UTF-8}.
+		 *
+		 * @param charset the default charset of the parts
+		 * @return {@code this}
+		 */
+		Builder charset(Charset charset);
+	}
+
+	/**
+	 * Creates a builder for {@link HttpServerFormDecoderSpec}.
+	 *
+	 * @return a new {@link HttpServerFormDecoderSpec.Builder}
+	 */
+	public static Builder builder() {
+		return new Build();
+	}
+
+	/**
+	 * Returns the configured maximum size of a part kept in memory.
+	 *
+	 * @return the configured maximum size of a part kept in memory
+	 */
+	public long maxInMemorySize() {
+		return maxInMemorySize;
+	}
+
+	/**
+	 * Returns the configured maximum size of a part.
+	 *
+	 * @return the configured maximum size of a part
+	 */
+	public long maxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Returns the configured default charset of the parts.
+	 *
+	 * @return the configured default charset of the parts
+	 */
+	public Charset charset() {
+		return charset;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof HttpServerFormDecoderSpec)) {
+			return false;
+		}
+		HttpServerFormDecoderSpec that = (HttpServerFormDecoderSpec) o;
+		return maxInMemorySize == that.maxInMemorySize &&
+				maxSize == that.maxSize &&
+				charset.equals(that.charset);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(maxInMemorySize, maxSize, charset);
+	}
+
+	/**
+	 * Creates the factory of the parts of a request, the factory keeps track of the parts to delete
+	 * their temporary files.
+	 *
+	 * @return a new {@link HttpDataFactory}
+	 */
+	HttpDataFactory newHttpDataFactory() {
+		DefaultHttpDataFactory factory;
+		if (maxInMemorySize == -1) {
+			factory = new DefaultHttpDataFactory(false, charset);
+		}
+		else if (maxInMemorySize == 0) {
+			factory = new DefaultHttpDataFactory(true, charset);
+		}
+		else {
+			factory = new DefaultHttpDataFactory(maxInMemorySize, charset);
+		}
+		factory.setMaxLimit(maxSize);
+		return factory;
+	}
+
+	final long maxInMemorySize;
+	final long maxSize;
+	final Charset charset;
+
+	HttpServerFormDecoderSpec(Build build) {
+		this.maxInMemorySize = build.maxInMemorySize;
+		this.maxSize = build.maxSize;
+		this.charset = build.charset;
+	}
+
+	static final class Build implements Builder {
+		long maxInMemorySize = DEFAULT_MAX_IN_MEMORY_SIZE;
+		long maxSize = -1;
+		Charset charset = StandardCharsets.UTF_8;
+
+		@Override
+		public HttpServerFormDecoderSpec build() {
+			return new HttpServerFormDecoderSpec(this);
+		}
+
+		@Override
+		public Builder maxInMemorySize(long maxInMemorySize) {
+			if (maxInMemorySize < -1) {
+				throw new IllegalArgumentException("maxInMemorySize must be positive, zero or -1");
+			}
+			this.maxInMemorySize = maxInMemorySize;
+			return this;
+		}
+
+		@Override
+		public Builder maxSize(long maxSize) {
+			if (maxSize < -1 || maxSize == 0) {
+				throw new IllegalArgumentException("maxSize must be positive or -1");
+			}
+			this.maxSize = maxSize;
+			return this;
+		}
+
+		@Override
+		public Builder charset(Charset charset) {
+			this.charset = Objects.requireNonNull(charset, "charset");
+			return this;
+		}
+	}
+}
@@ -78,7 +78,7 @@ final class HttpServerMetricsHandler extends ChannelDuplexHandler {
 				ChannelOperations<?,?> channelOps = ChannelOperations.get(ctx.channel());
 				if (channelOps instanceof HttpServerOperations) {
 					HttpServerOperations ops = (HttpServerOperations) channelOps;
-					String path = uriTagValue == null ? ops.path : uriTagValue.apply(ops.path);
+					String path = uriTag(ops);
 					String method = ops.method().name();
 					String status = ops.status().codeAsText().toString();
 					recorder.recordDataSentTime(
@@ -125,7 +125,7 @@ final class HttpServerMetricsHandler extends ChannelDuplexHandler {
 			ChannelOperations<?,?> channelOps = ChannelOperations.get(ctx.channel());
 			if (channelOps instanceof HttpServerOperations) {
 				HttpServerOperations ops = (HttpServerOperations) channelOps;
-				String path = uriTagValue == null ? ops.path : uriTagValue.apply(ops.path);
+				String path = uriTag(ops);
 				String method = ops.method().name();
 				recorder.recordDataReceivedTime(path, method, Duration.ofNanos(System.nanoTime() - dataReceivedTime));
 
@@ -145,10 +145,18 @@ final class HttpServerMetricsHandler extends ChannelDuplexHandler {
 		if (channelOps instanceof HttpServerOperations) {
 			HttpServerOperations ops = (HttpServerOperations) channelOps;
 			// Always take the remote address from the operations in order to consider proxy information
-			recorder.incrementErrorsCount(ops.remoteAddress(),
-					uriTagValue == null ? ops.path : uriTagValue.apply(ops.path));
+			recorder.incrementErrorsCount(ops.remoteAddress(), uriTag(ops));
 		}
 
 		ctx.fireExceptionCaught(cause);
 	}
+
+	/**
+	 * Returns the uri tag value, starting from the template of the matched route when the request
+	 * is routed by {@link HttpServerRoutes}, otherwise from the path.
+	 */
+	String uriTag(HttpServerOperations ops) {
+		String uri = ops.routeTemplate != null ? ops.routeTemplate : ops.path;
+		return uriTagValue == null ? uri : uriTagValue.apply(uri);
+	}
 }
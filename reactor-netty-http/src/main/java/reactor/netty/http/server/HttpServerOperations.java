@@ -21,10 +21,12 @@ import java.net.InetSocketAddress;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiFunction;
 import java.util.function.BiPredicate;
 import java.util.function.Consumer;
@@ -38,6 +40,7 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.DecoderException;
 import io.netty.handler.codec.TooLongFrameException;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpRequest;
 import io.netty.handler.codec.http.DefaultHttpResponse;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.FullHttpResponse;
@@ -56,6 +59,9 @@ import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.handler.codec.http.cookie.Cookie;
 import io.netty.handler.codec.http.cookie.ServerCookieDecoder;
 import io.netty.handler.codec.http.cookie.ServerCookieEncoder;
+import io.netty.handler.codec.http.multipart.HttpData;
+import io.netty.handler.codec.http.multipart.HttpPostRequestDecoder;
+import io.netty.handler.codec.http.multipart.InterfaceHttpData;
 import io.netty.handler.codec.http2.HttpConversionUtil;
 import io.netty.util.AsciiString;
 import io.netty.util.ReferenceCountUtil;
@@ -103,6 +109,13 @@ class HttpServerOperations extends HttpOperations<HttpServerRequest, HttpServerR
 
 	Function<? super String, Map<String, String>> paramsResolver;
 
+	/**
+	 * The template of the route that handles this request, used as the uri tag value of the
+	 * metrics and by the access log, {@code null} when the request is not routed by
+	 * {@link HttpServerRoutes} or by a route without a template
+	 */
+	String routeTemplate;
+
 	HttpServerOperations(HttpServerOperations replaced) {
 		super(replaced);
 		this.cookieHolder = replaced.cookieHolder;
@@ -110,6 +123,7 @@ class HttpServerOperations extends HttpOperations<HttpServerRequest, HttpServerR
 		this.responseHeaders = replaced.responseHeaders;
 		this.nettyResponse = replaced.nettyResponse;
 		this.paramsResolver = replaced.paramsResolver;
+		this.routeTemplate = replaced.routeTemplate;
 		this.nettyRequest = replaced.nettyRequest;
 		this.path = replaced.path;
 		this.compressionPredicate = replaced.compressionPredicate;
@@ -123,13 +137,17 @@ class HttpServerOperations extends HttpOperations<HttpServerRequest, HttpServerR
 			HttpRequest nettyRequest,
 			@Nullable ConnectionInfo connectionInfo,
 			ServerCookieEncoder encoder,
-			ServerCookieDecoder decoder) {
+			ServerCookieDecoder decoder,
+			@Nullable DefaultResponseHeaders defaultResponseHeaders) {
 		super(c, listener);
 		this.nettyRequest = nettyRequest;
 		this.path = resolvePath(nettyRequest.uri());
 		this.nettyResponse = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
 		this.responseHeaders = nettyResponse.headers();
 		this.responseHeaders.set(HttpHeaderNames.TRANSFER_ENCODING, HttpHeaderValues.CHUNKED);
+		if (defaultResponseHeaders != null) {
+			defaultResponseHeaders.addTo(this.responseHeaders);
+		}
 		this.compressionPredicate = compressionPredicate;
 		this.cookieHolder = Cookies.newServerRequestHolder(requestHeaders(), decoder);
 		this.connectionInfo = connectionInfo;
@@ -210,6 +228,15 @@ class HttpServerOperations extends HttpOperations<HttpServerRequest, HttpServerR
 		throw new IllegalStateException("request not parsed");
 	}
 
+	@Override
+	@Nullable
+	public Cookie cookie(CharSequence name) {
+		if (cookieHolder != null) {
+			return cookieHolder.getCookie(name);
+		}
+		throw new IllegalStateException("request not parsed");
+	}
+
 	@Override
 	public HttpServerResponse header(CharSequence name, CharSequence value) {
 		if (!hasSentHeaders()) {
@@ -302,6 +329,83 @@ class HttpServerOperations extends HttpOperations<HttpServerRequest, HttpServerR
 		}
 	}
 
+	@Override
+	public Flux<HttpData> receiveForm(HttpServerFormDecoderSpec formDecoderSpec) {
+		Objects.requireNonNull(formDecoderSpec, "formDecoderSpec");
+		return Flux.defer(() -> {
+			if (!isFormUrlencoded() && !HttpPostRequestDecoder.isMultipart(nettyRequest)) {
+				return Flux.error(new IllegalStateException("Request body is not a form, Content-Type: " +
+						nettyRequest.headers().get(HttpHeaderNames.CONTENT_TYPE)));
+			}
+			// The body of a full request is received as content, the decoder is given its headers only
+			HttpRequest request = nettyRequest instanceof HttpContent ?
+					new DefaultHttpRequest(nettyRequest.protocolVersion(), nettyRequest.method(), nettyRequest.uri(),
+							nettyRequest.headers()) :
+					nettyRequest;
+			HttpPostRequestDecoder decoder;
+			try {
+				decoder = new HttpPostRequestDecoder(formDecoderSpec.newHttpDataFactory(), request,
+						formDecoderSpec.charset());
+			}
+			catch (HttpPostRequestDecoder.ErrorDataDecoderException e) {
+				return Flux.error(e);
+			}
+			// The parts remain available to the handler until the request is terminated,
+			// then they are released and their temporary files deleted
+			onTerminate().subscribe(null, e -> destroyFormDecoder(decoder), () -> destroyFormDecoder(decoder));
+			// Each content is decoded when it is received, before it is released, the parts of the contents
+			// are then requested one by one. The empty last content of a chunked body is not received,
+			// it is offered to the decoder once the inbound is complete so that the last part is decoded.
+			AtomicBoolean lastReceived = new AtomicBoolean();
+			return receiveContent().map(content -> {
+			                           if (content instanceof LastHttpContent) {
+			                               lastReceived.set(true);
+			                           }
+			                           return decodeForm(decoder, content);
+			                       })
+			                       .concatWith(Mono.fromCallable(() -> lastReceived.get() ?
+			                               Collections.<HttpData>emptyList() :
+			                               decodeForm(decoder, LastHttpContent.EMPTY_LAST_CONTENT)))
+			                       .concatMapIterable(Function.identity(), 1);
+		});
+	}
+
+	final boolean isFormUrlencoded() {
+		String contentType = nettyRequest.headers().get(HttpHeaderNames.CONTENT_TYPE);
+		return contentType != null &&
+				contentType.regionMatches(true, 0, HttpHeaderValues.APPLICATION_X_WWW_FORM_URLENCODED.toString(),
+						0, HttpHeaderValues.APPLICATION_X_WWW_FORM_URLENCODED.length());
+	}
+
+	final void destroyFormDecoder(HttpPostRequestDecoder decoder) {
+		if (channel().eventLoop().inEventLoop()) {
+			decoder.destroy();
+		}
+		else {
+			channel().eventLoop().execute(decoder::destroy);
+		}
+	}
+
+	static List<HttpData> decodeForm(HttpPostRequestDecoder decoder, HttpContent content) {
+		decoder.offer(content);
+		List<HttpData> parts = null;
+		try {
+			while (decoder.hasNext()) {
+				InterfaceHttpData data = decoder.next();
+				if (data instanceof HttpData) {
+					if (parts == null) {
+						parts = new ArrayList<>();
+					}
+					parts.add((HttpData) data);
+				}
+			}
+		}
+		catch (HttpPostRequestDecoder.EndOfDataDecoderException e) {
+			// The last part is decoded
+		}
+		return parts != null ? parts : Collections.emptyList();
+	}
+
 	@Override
 	@Nullable
 	public InetSocketAddress hostAddress() {
@@ -515,7 +619,7 @@ class HttpServerOperations extends HttpOperations<HttpServerRequest, HttpServerR
 			responseHeaders.remove(HttpHeaderNames.TRANSFER_ENCODING)
 			               .remove(HttpHeaderNames.CONTENT_LENGTH);
 		}
-		if (compressionPredicate != null && compressionPredicate.test(this, this)) {
+		if (compressionPredicate != null && !isContentEncoded() && compressionPredicate.test(this, this)) {
 			compression(true);
 		}
 	}
@@ -23,6 +23,7 @@ import java.util.function.Function;
 
 import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.multipart.HttpData;
 import reactor.core.publisher.Flux;
 import reactor.netty.Connection;
 import reactor.netty.NettyInbound;
@@ -77,6 +78,33 @@ public interface HttpServerRequest extends NettyInbound, HttpInfos {
 		return receiveObject().ofType(HttpContent.class);
 	}
 
+	/**
+	 * Returns a {@link Flux} of the parts of a {@code multipart/form-data} or
+	 * {@code application/x-www-form-urlencoded} request body, decoded with the default
+	 * {@link HttpServerFormDecoderSpec}.
+	 *
+	 * @return a {@link Flux} of the parts of the request body
+	 * @see #receiveForm(HttpServerFormDecoderSpec)
+	 * @since 1.0.0
+	 */
+	default Flux<HttpData> receiveForm() {
+		return receiveForm(HttpServerFormDecoderSpec.builder().build());
+	}
+
+	/**
+	 * Returns a {@link Flux} of the parts of a {@code multipart/form-data} or
+	 * {@code application/x-www-form-urlencoded} request body. The body is decoded while it is received,
+	 * each part is emitted once it is complete and the body is read as the parts are requested.
+	 * <p>The parts, and their temporary files, are released once the request is terminated,
+	 * a part to keep afterwards must be copied or moved with {@link HttpData#renameTo(java.io.File)}.
+	 * The {@link Flux} fails with an {@link IllegalStateException} when the request body is not a form.
+	 *
+	 * @param formDecoderSpec the configuration of the decoder
+	 * @return a {@link Flux} of the parts of the request body
+	 * @since 1.0.0
+	 */
+	Flux<HttpData> receiveForm(HttpServerFormDecoderSpec formDecoderSpec);
+
 	/**
 	 * Returns the address of the host peer or {@code null} in case of Unix Domain Sockets.
 	 *
@@ -17,7 +17,6 @@
 package reactor.netty.http.server;
 
 import java.net.URI;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Objects;
@@ -29,7 +28,6 @@ import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpMethod;
 import org.reactivestreams.Publisher;
-import reactor.netty.ByteBufFlux;
 import reactor.netty.http.websocket.WebsocketInbound;
 import reactor.netty.http.websocket.WebsocketOutbound;
 import reactor.util.annotation.Nullable;
@@ -147,16 +145,7 @@ public interface HttpServerRoutes extends
 	default HttpServerRoutes file(Predicate<HttpServerRequest> uri, Path path,
 			@Nullable Function<HttpServerResponse, HttpServerResponse> interceptor) {
 		Objects.requireNonNull(path, "path");
-		return route(uri, (req, resp) -> {
-			if (!Files.isReadable(path)) {
-				return resp.send(ByteBufFlux.fromPath(path));
-			}
-			if (interceptor != null) {
-				return interceptor.apply(resp)
-				                  .sendFile(path);
-			}
-			return resp.sendFile(path);
-		});
+		return route(uri, StaticFileHandler.file(path, interceptor));
 	}
 
 	/**
@@ -17,6 +17,7 @@
 package reactor.netty.http.server;
 
 import java.net.SocketAddress;
+import java.util.ArrayDeque;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.function.BiPredicate;
@@ -28,7 +29,10 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.DecoderResult;
 import io.netty.handler.codec.DecoderResultProvider;
+import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
@@ -42,6 +46,7 @@ import io.netty.util.ReferenceCountUtil;
 import reactor.core.Exceptions;
 import reactor.netty.Connection;
 import reactor.netty.ConnectionObserver;
+import reactor.netty.channel.ChannelOperations;
 import reactor.util.annotation.Nullable;
 import reactor.util.concurrent.Queues;
 
@@ -52,6 +57,10 @@ import static reactor.netty.ReactorNetty.toPrettyHexDump;
 /**
  * Replace {@link io.netty.handler.codec.http.HttpServerKeepAliveHandler} with extra
  * handler management.
+ *
+ * <p>When pipelining is enabled, the pipelined {@code GET} and {@code HEAD} requests without body are
+ * dispatched to {@link HttpPipelinedChannel}s as soon as they are received, and the responses are
+ * written to the connection in the order of the requests.
  */
 final class HttpTrafficHandler extends ChannelDuplexHandler
 		implements Runnable, ChannelFutureListener {
@@ -67,6 +76,8 @@ final class HttpTrafficHandler extends ChannelDuplexHandler
 	final BiPredicate<HttpServerRequest, HttpServerResponse> compress;
 	final ServerCookieEncoder                                cookieEncoder;
 	final ServerCookieDecoder                                cookieDecoder;
+	final DefaultResponseHeaders                             defaultResponseHeaders;
+	final int                                                pipelining;
 
 	boolean persistentConnection = true;
 	// Track pending responses to support client pipelining: https://tools.ietf.org/html/rfc7230#section-6.3.2
@@ -74,19 +85,34 @@ final class HttpTrafficHandler extends ChannelDuplexHandler
 
 	Queue<Object> pipelined;
 
+	// The pipelined requests processed concurrently, in the order of the requests
+	ArrayDeque<HttpPipelinedChannel> inFlight;
+
+	// The pipelined request currently receiving its content
+	HttpPipelinedChannel reading;
+
+	// The pipelined request currently writing its response to the connection
+	HttpPipelinedChannel writing;
+
 	ChannelHandlerContext ctx;
 
+	// The connection information of the previous request, reused when a proxy sends the same headers
+	ConnectionInfo connectionInfo;
+
 	boolean overflow;
 	boolean nonInformationalResponse;
 
 	HttpTrafficHandler(ConnectionObserver listener, boolean readForwardHeaders,
 			@Nullable BiPredicate<HttpServerRequest, HttpServerResponse> compress,
-			ServerCookieEncoder encoder, ServerCookieDecoder decoder) {
+			ServerCookieEncoder encoder, ServerCookieDecoder decoder,
+			@Nullable DefaultResponseHeaders defaultResponseHeaders, int pipelining) {
 		this.listener = listener;
 		this.readForwardHeaders = readForwardHeaders;
 		this.compress = compress;
 		this.cookieEncoder = encoder;
 		this.cookieDecoder = decoder;
+		this.defaultResponseHeaders = defaultResponseHeaders;
+		this.pipelining = pipelining;
 	}
 
 	@Override
@@ -136,6 +162,9 @@ final class HttpTrafficHandler extends ChannelDuplexHandler
 				return;
 			}
 			if (pendingResponses > 1) {
+				if (!overflow && canDispatch(request) && dispatch(ctx, request)) {
+					return;
+				}
 				if (HttpServerOperations.log.isDebugEnabled()) {
 					HttpServerOperations.log.debug(format(ctx.channel(), "Buffering pipelined HTTP request, " +
 									"pending response count: {}, queue: {}"),
@@ -157,16 +186,19 @@ final class HttpTrafficHandler extends ChannelDuplexHandler
 
 				HttpServerOperations ops;
 				try {
+					connectionInfo = ConnectionInfo.from(ctx.channel(),
+					                                     readForwardHeaders,
+					                                     request,
+					                                     secure,
+					                                     remoteAddress,
+					                                     connectionInfo);
 					ops = new HttpServerOperations(Connection.from(ctx.channel()),
 							listener,
 							compress, request,
-							ConnectionInfo.from(ctx.channel(),
-							                    readForwardHeaders,
-							                    request,
-							                    secure,
-							                    remoteAddress),
+							connectionInfo,
 							cookieEncoder,
-							cookieDecoder);
+							cookieDecoder,
+							defaultResponseHeaders);
 				}
 				catch (RuntimeException e) {
 					sendDecodingFailures(e, msg);
@@ -180,6 +212,15 @@ final class HttpTrafficHandler extends ChannelDuplexHandler
 
 			}
 		}
+		else if (reading != null) {
+			HttpPipelinedChannel child = reading;
+			if (msg instanceof LastHttpContent) {
+				reading = null;
+				ctx.read();
+			}
+			child.pipeline().fireChannelRead(msg);
+			return;
+		}
 		else if (persistentConnection && pendingResponses == 0) {
 			if (msg instanceof LastHttpContent) {
 				DecoderResult decoderResult = ((LastHttpContent) msg).decoderResult();
@@ -227,6 +268,134 @@ final class HttpTrafficHandler extends ChannelDuplexHandler
 		HttpServerOperations.sendDecodingFailures(ctx, t, msg);
 	}
 
+	/**
+	 * Returns whether the pipelined request can be processed concurrently with the previous requests:
+	 * a {@code GET} or {@code HEAD} request without body, expectation or upgrade, within the limit
+	 * of requests processed concurrently.
+	 */
+	boolean canDispatch(HttpRequest request) {
+		if (pipelining == 0 || (inFlight != null && inFlight.size() >= pipelining) ||
+				!request.decoderResult().isSuccess()) {
+			return false;
+		}
+		HttpMethod method = request.method();
+		if (!HttpMethod.GET.equals(method) && !HttpMethod.HEAD.equals(method)) {
+			return false;
+		}
+		HttpHeaders headers = request.headers();
+		String contentLength = headers.get(HttpHeaderNames.CONTENT_LENGTH);
+		return (contentLength == null || "0".equals(contentLength)) &&
+				!headers.contains(HttpHeaderNames.TRANSFER_ENCODING) &&
+				!headers.contains(HttpHeaderNames.EXPECT) &&
+				!headers.contains(HttpHeaderNames.UPGRADE);
+	}
+
+	/**
+	 * Dispatches the pipelined request to a {@link HttpPipelinedChannel}, the response is written
+	 * to the connection once the responses to the previous requests are sent.
+	 *
+	 * @return false if the request cannot be dispatched, and must be buffered
+	 */
+	boolean dispatch(ChannelHandlerContext ctx, HttpRequest request) {
+		HttpPipelinedChannel child = new HttpPipelinedChannel(ctx.channel(), this);
+		HttpServerOperations ops;
+		try {
+			connectionInfo = ConnectionInfo.from(ctx.channel(),
+			                                     readForwardHeaders,
+			                                     request,
+			                                     secure,
+			                                     remoteAddress,
+			                                     connectionInfo);
+			ops = new HttpServerOperations(Connection.from(child),
+					listener,
+					compress,
+					request,
+					connectionInfo,
+					cookieEncoder,
+					cookieDecoder,
+					defaultResponseHeaders);
+		}
+		catch (RuntimeException e) {
+			// The failure is reported in the order of the requests
+			return false;
+		}
+
+		ChannelOperations.addReactiveBridge(child, ChannelOperations.OnSetup.empty(), listener);
+		// The registration completes on the event loop of the connection, the channel is not notified as active
+		//"FutureReturnValueIgnored" this is deliberate
+		ctx.channel().eventLoop().register(child);
+		child.active = true;
+
+		if (HttpServerOperations.log.isDebugEnabled()) {
+			HttpServerOperations.log.debug(format(ctx.channel(), "Dispatching pipelined HTTP request, " +
+							"pending response count: {}, in flight: {}"),
+					pendingResponses,
+					inFlight != null ? inFlight.size() + 1 : 1);
+		}
+
+		if (inFlight == null) {
+			inFlight = new ArrayDeque<>(pipelining);
+		}
+		inFlight.offer(child);
+		reading = child;
+
+		ops.bind();
+		listener.onStateChange(ops, ConnectionObserver.State.CONFIGURED);
+		child.pipeline().fireChannelRead(request);
+		return true;
+	}
+
+	/**
+	 * Writes a message of the response of a {@link HttpPipelinedChannel} to the connection.
+	 */
+	void write(HttpPipelinedChannel child, Object msg) {
+		HttpPipelinedChannel previous = writing;
+		writing = child;
+		try {
+			write(ctx, msg, ctx.newPromise());
+		}
+		finally {
+			writing = previous;
+		}
+	}
+
+	@SuppressWarnings("FutureReturnValueIgnored")
+	void flush() {
+		//"FutureReturnValueIgnored" this is deliberate
+		ctx.flush();
+	}
+
+	/**
+	 * A {@link HttpPipelinedChannel} closed before sending its response leaves a gap in the responses,
+	 * the connection is closed.
+	 */
+	@SuppressWarnings("FutureReturnValueIgnored")
+	void onPipelinedChannelClosed(HttpPipelinedChannel child) {
+		if (reading == child) {
+			reading = null;
+		}
+		if (inFlight != null && inFlight.remove(child) && !child.responded && ctx.channel().isActive()) {
+			if (HttpServerOperations.log.isDebugEnabled()) {
+				HttpServerOperations.log.debug(format(ctx.channel(), "Pipelined HTTP request terminated " +
+						"without response, closing the connection"));
+			}
+			//"FutureReturnValueIgnored" this is deliberate
+			ctx.close();
+		}
+	}
+
+	@SuppressWarnings("FutureReturnValueIgnored")
+	void closeInFlight() {
+		if (inFlight != null) {
+			HttpPipelinedChannel child;
+			while ((child = inFlight.poll()) != null) {
+				//"FutureReturnValueIgnored" this is deliberate
+				child.close();
+			}
+		}
+		reading = null;
+	}
+
 	void doPipeline(ChannelHandlerContext ctx, Object msg) {
 		if (pipelined == null) {
 			pipelined = Queues.unbounded()
@@ -262,6 +431,13 @@ final class HttpTrafficHandler extends ChannelDuplexHandler
 			}
 		}
 		if (msg instanceof LastHttpContent) {
+			// The pipelined requests processed concurrently are terminated by closing their channel
+			HttpPipelinedChannel child = writing;
+			ChannelFutureListener terminate = this;
+			if (child != null) {
+				child.responded = true;
+				terminate = child;
+			}
 			if (!shouldKeepAlive()) {
 				if (HttpServerOperations.log.isDebugEnabled()) {
 					HttpServerOperations.log.debug(format(ctx.channel(), "Detected non persistent http " +
@@ -269,13 +445,13 @@ final class HttpTrafficHandler extends ChannelDuplexHandler
 							pendingResponses);
 				}
 				ctx.write(msg, promise.unvoid())
-				   .addListener(this)
+				   .addListener(terminate)
 				   .addListener(ChannelFutureListener.CLOSE);
 				return;
 			}
 
 			ctx.write(msg, promise.unvoid())
-			   .addListener(this);
+			   .addListener(terminate);
 
 			if (!persistentConnection) {
 				return;
@@ -290,6 +466,23 @@ final class HttpTrafficHandler extends ChannelDuplexHandler
 				}
 			}
 
+			if (inFlight != null && !inFlight.isEmpty()) {
+				if (child != null) {
+					inFlight.poll();
+				}
+				HttpPipelinedChannel next = inFlight.peek();
+				if (next != null) {
+					if (HttpServerOperations.log.isDebugEnabled()) {
+						HttpServerOperations.log.debug(format(ctx.channel(), "Writing next pipelined " +
+										"response, pending response count: {}, in flight: {}"),
+								pendingResponses, inFlight.size());
+					}
+					ctx.executor()
+					   .execute(next);
+					return;
+				}
+			}
+
 			if (pipelined != null && !pipelined.isEmpty()) {
 				if (HttpServerOperations.log.isDebugEnabled()) {
 					HttpServerOperations.log.debug(format(ctx.channel(), "Draining next pipelined " +
@@ -324,6 +517,10 @@ final class HttpTrafficHandler extends ChannelDuplexHandler
 		while ((next = pipelined.peek()) != null) {
 			if (next instanceof HttpRequest) {
 				if (nextRequest != null) {
+					if (reading == null && canDispatch((HttpRequest) next) && dispatch(ctx, (HttpRequest) next)) {
+						pipelined.poll();
+						continue;
+					}
 					return;
 				}
 				if (!persistentConnection) {
@@ -340,21 +537,34 @@ final class HttpTrafficHandler extends ChannelDuplexHandler
 					return;
 				}
 
+				connectionInfo = ConnectionInfo.from(ctx.channel(),
+				                                     readForwardHeaders,
+				                                     nextRequest,
+				                                     secure,
+				                                     remoteAddress,
+				                                     connectionInfo);
 				HttpServerOperations ops = new HttpServerOperations(Connection.from(ctx.channel()),
 						listener,
 						compress,
 						nextRequest,
-						ConnectionInfo.from(ctx.channel(),
-						                    readForwardHeaders,
-						                    nextRequest,
-						                    secure,
-						                    remoteAddress),
+						connectionInfo,
 						cookieEncoder,
-						cookieDecoder);
+						cookieDecoder,
+						defaultResponseHeaders);
 				ops.bind();
 				listener.onStateChange(ops, ConnectionObserver.State.CONFIGURED);
 			}
-			ctx.fireChannelRead(pipelined.poll());
+			Object msg = pipelined.poll();
+			if (reading != null && msg instanceof HttpContent) {
+				HttpPipelinedChannel child = reading;
+				if (msg instanceof LastHttpContent) {
+					reading = null;
+				}
+				child.pipeline().fireChannelRead(msg);
+			}
+			else {
+				ctx.fireChannelRead(msg);
+			}
 		}
 		overflow = false;
 	}
@@ -377,9 +587,27 @@ final class HttpTrafficHandler extends ChannelDuplexHandler
 		HttpServerOperations.cleanHandlerTerminate(future.channel());
 	}
 
+	@Override
+	public void channelInactive(ChannelHandlerContext ctx) {
+		closeInFlight();
+		ctx.fireChannelInactive();
+	}
+
+	@Override
+	public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+		if (inFlight != null) {
+			HttpPipelinedChannel child = inFlight.peek();
+			if (child != null && child.responding) {
+				child.pipeline().fireChannelWritabilityChanged();
+			}
+		}
+		ctx.fireChannelWritabilityChanged();
+	}
+
 	@Override
 	public void handlerRemoved(ChannelHandlerContext ctx) {
 		discard();
+		closeInFlight();
 	}
 
 	final void discard() {
@@ -19,6 +19,7 @@ import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Timer;
 import reactor.netty.channel.MeterKey;
+import reactor.netty.http.EventLoopLocalMetrics;
 import reactor.netty.http.MicrometerHttpMetricsRecorder;
 
 import java.net.SocketAddress;
@@ -44,8 +45,12 @@ final class MicrometerHttpServerMetricsRecorder extends MicrometerHttpMetricsRec
 
 	@Override
 	public void recordDataReceivedTime(String uri, String method, Duration time) {
-		Timer dataReceivedTime = dataReceivedTimeCache.computeIfAbsent(new MeterKey(uri, null, method, null),
-				key -> filter(dataReceivedTimeBuilder.tags(URI, uri, METHOD, method)
+		String uriTag = limitUriTag(uri);
+		if (EventLoopLocalMetrics.recordDataReceivedTime(this, null, uriTag, method, null, time)) {
+			return;
+		}
+		Timer dataReceivedTime = dataReceivedTimeCache.computeIfAbsent(new MeterKey(uriTag, null, method, null),
+				key -> filter(dataReceivedTimeBuilder.tags(URI, uriTag, METHOD, method)
 				                                     .register(REGISTRY)));
 		if (dataReceivedTime != null) {
 			dataReceivedTime.record(time);
@@ -54,8 +59,12 @@ final class MicrometerHttpServerMetricsRecorder extends MicrometerHttpMetricsRec
 
 	@Override
 	public void recordDataSentTime(String uri, String method, String status, Duration time) {
-		Timer dataSentTime = dataSentTimeCache.computeIfAbsent(new MeterKey(uri, null, method, status),
-				key -> filter(dataSentTimeBuilder.tags(URI, uri, METHOD, method, STATUS, status)
+		String uriTag = limitUriTag(uri);
+		if (EventLoopLocalMetrics.recordDataSentTime(this, null, uriTag, method, status, time)) {
+			return;
+		}
+		Timer dataSentTime = dataSentTimeCache.computeIfAbsent(new MeterKey(uriTag, null, method, status),
+				key -> filter(dataSentTimeBuilder.tags(URI, uriTag, METHOD, method, STATUS, status)
 				                                 .register(REGISTRY)));
 		if (dataSentTime != null) {
 			dataSentTime.record(time);
@@ -64,8 +73,12 @@ final class MicrometerHttpServerMetricsRecorder extends MicrometerHttpMetricsRec
 
 	@Override
 	public void recordResponseTime(String uri, String method, String status, Duration time) {
-		Timer responseTime = responseTimeCache.computeIfAbsent(new MeterKey(uri, null, method, status),
-				key -> filter(responseTimeBuilder.tags(URI, uri, METHOD, method, STATUS, status)
+		String uriTag = limitUriTag(uri);
+		if (EventLoopLocalMetrics.recordResponseTime(this, null, uriTag, method, status, time)) {
+			return;
+		}
+		Timer responseTime = responseTimeCache.computeIfAbsent(new MeterKey(uriTag, null, method, status),
+				key -> filter(responseTimeBuilder.tags(URI, uriTag, METHOD, method, STATUS, status)
 				                                 .register(REGISTRY)));
 		if (responseTime != null) {
 			responseTime.record(time);
@@ -74,8 +87,12 @@ final class MicrometerHttpServerMetricsRecorder extends MicrometerHttpMetricsRec
 
 	@Override
 	public void recordDataReceived(SocketAddress remoteAddress, String uri, long bytes) {
-		DistributionSummary dataReceived = dataReceivedCache.computeIfAbsent(new MeterKey(uri, null, null, null),
-				key -> filter(dataReceivedBuilder.tags(URI, uri)
+		String uriTag = limitUriTag(uri);
+		if (EventLoopLocalMetrics.recordDataReceived(this, null, uriTag, bytes)) {
+			return;
+		}
+		DistributionSummary dataReceived = dataReceivedCache.computeIfAbsent(new MeterKey(uriTag, null, null, null),
+				key -> filter(dataReceivedBuilder.tags(URI, uriTag)
 				                                 .register(REGISTRY)));
 		if (dataReceived != null) {
 			dataReceived.record(bytes);
@@ -84,8 +101,12 @@ final class MicrometerHttpServerMetricsRecorder extends MicrometerHttpMetricsRec
 
 	@Override
 	public void recordDataSent(SocketAddress remoteAddress, String uri, long bytes) {
-		DistributionSummary dataSent = dataSentCache.computeIfAbsent(new MeterKey(uri, null, null, null),
-				key -> filter(dataSentBuilder.tags(URI, uri)
+		String uriTag = limitUriTag(uri);
+		if (EventLoopLocalMetrics.recordDataSent(this, null, uriTag, bytes)) {
+			return;
+		}
+		DistributionSummary dataSent = dataSentCache.computeIfAbsent(new MeterKey(uriTag, null, null, null),
+				key -> filter(dataSentBuilder.tags(URI, uriTag)
 				                             .register(REGISTRY)));
 		if (dataSent != null) {
 			dataSent.record(bytes);
@@ -94,8 +115,12 @@ final class MicrometerHttpServerMetricsRecorder extends MicrometerHttpMetricsRec
 
 	@Override
 	public void incrementErrorsCount(SocketAddress remoteAddress, String uri) {
-		Counter errors = errorsCache.computeIfAbsent(new MeterKey(uri, null, null, null),
-				key -> filter(errorsBuilder.tags(URI, uri)
+		String uriTag = limitUriTag(uri);
+		if (EventLoopLocalMetrics.incrementErrorsCount(this, null, uriTag)) {
+			return;
+		}
+		Counter errors = errorsCache.computeIfAbsent(new MeterKey(uriTag, null, null, null),
+				key -> filter(errorsBuilder.tags(URI, uriTag)
 				                           .register(REGISTRY)));
 		if (errors != null) {
 			errors.increment();
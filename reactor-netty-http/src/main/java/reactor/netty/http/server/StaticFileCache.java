@@ -0,0 +1,414 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http.server;
+
+import io.netty.handler.codec.DateFormatter;
+import io.netty.util.internal.PlatformDependent;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.ReactorNetty;
+import reactor.util.Logger;
+import reactor.util.Loggers;
+import reactor.util.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the files served by {@link StaticFileHandler} open, together with their metadata and validators.
+ * <p>The metadata of a kept file is checked for changes at most once per {@code validityNanos}, a changed
+ * file is reopened. When there are more than {@code maxSize} files, the files that were not used since
+ * the previous sweep are evicted. A file is closed once it is evicted and its transfers in progress complete.
+ * <p>When {@code precompressed} is enabled, the {@code .br} and {@code .gz} sidecar files that are not older than
+ * a file are looked up together with its metadata. When there is a {@code compressionCache} directory, a file
+ * without {@code .gz} sidecar is compressed into it in the background, the compressed file being used once ready.
+ */
+final class StaticFileCache {
+
+	static final StaticFileCache INSTANCE = new StaticFileCache(
+			Integer.parseInt(System.getProperty(ReactorNetty.STATIC_FILE_CACHE_SIZE, "1024")),
+			TimeUnit.MILLISECONDS.toNanos(
+					Long.parseLong(System.getProperty(ReactorNetty.STATIC_FILE_CACHE_VALIDITY, "1000"))),
+			Boolean.parseBoolean(System.getProperty(ReactorNetty.STATIC_FILE_PRECOMPRESSED, "false")),
+			compressionCache(System.getProperty(ReactorNetty.STATIC_FILE_COMPRESSION_CACHE)));
+
+	final int                             maxSize;
+	final long                            validityNanos;
+	final boolean                         precompressed;
+	@Nullable
+	final Path                            compressionCache;
+	final ConcurrentMap<Path, StaticFile> files = PlatformDependent.newConcurrentHashMap();
+
+	StaticFileCache(int maxSize, long validityNanos) {
+		this(maxSize, validityNanos, false, null);
+	}
+
+	StaticFileCache(int maxSize, long validityNanos, boolean precompressed, @Nullable Path compressionCache) {
+		this.maxSize = maxSize;
+		this.validityNanos = validityNanos;
+		this.precompressed = precompressed || compressionCache != null;
+		this.compressionCache = compressionCache;
+	}
+
+	/**
+	 * Returns the given file, retained for the caller which must {@link StaticFile#release() release} it,
+	 * or {@code null} when it is not a readable regular file.
+	 *
+	 * @param path the file to serve
+	 * @return the retained file or {@code null}
+	 * @throws IOException when the file cannot be read
+	 */
+	@Nullable
+	StaticFile acquire(Path path) throws IOException {
+		long now = System.nanoTime();
+		for (;;) {
+			StaticFile file = files.get(path);
+			if (file == null) {
+				return open(path, now);
+			}
+			if (now - file.validUntil >= 0) {
+				BasicFileAttributes attributes = attributes(path);
+				if (attributes == null || !file.matches(attributes)) {
+					if (files.remove(path, file)) {
+						discardCompressed(file);
+						file.release();
+					}
+					continue;
+				}
+				file.validUntil = now + validityNanos;
+				variants(file);
+			}
+			if (!file.used) {
+				file.used = true;
+			}
+			if (file.retain()) {
+				return file;
+			}
+			// evicted and closed concurrently
+			files.remove(path, file);
+		}
+	}
+
+	@Nullable
+	StaticFile open(Path path, long now) throws IOException {
+		BasicFileAttributes attributes = attributes(path);
+		if (attributes == null || !attributes.isRegularFile()) {
+			return null;
+		}
+		FileChannel channel;
+		try {
+			channel = FileChannel.open(path, StandardOpenOption.READ);
+		}
+		catch (NoSuchFileException | AccessDeniedException e) {
+			return null;
+		}
+		StaticFile file = new StaticFile(path, channel, attributes, now + validityNanos);
+		if (compressionCache != null) {
+			file.compressed = compressionCache.resolve(compressedName(file));
+		}
+		variants(file);
+		if (maxSize > 0) {
+			file.retain();
+			if (files.putIfAbsent(path, file) != null) {
+				// opened concurrently, this one is used only by the caller
+				file.release();
+			}
+			else if (files.size() > maxSize) {
+				evict(path);
+			}
+		}
+		return file;
+	}
+
+	/**
+	 * Evicts the files that were not used since the previous sweep, until there are at most
+	 * {@code maxSize} files. A second sweep evicts the files that were only used before the first one.
+	 *
+	 * @param inserted the file that was just inserted, which is not evicted
+	 */
+	void evict(Path inserted) {
+		for (int sweep = 0; sweep < 2; sweep++) {
+			for (Map.Entry<Path, StaticFile> entry : files.entrySet()) {
+				if (files.size() <= maxSize) {
+					return;
+				}
+				StaticFile file = entry.getValue();
+				if (entry.getKey().equals(inserted)) {
+					continue;
+				}
+				if (file.used) {
+					file.used = false;
+				}
+				else if (files.remove(entry.getKey(), file)) {
+					file.release();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Looks up the encoded variants of the given file, the sidecar files first, then the file
+	 * compressed into the {@code compressionCache}, scheduling its compression when missing.
+	 * The files that are themselves encoded variants have none.
+	 */
+	void variants(StaticFile file) throws IOException {
+		if (!precompressed) {
+			return;
+		}
+		String name = file.path.getFileName().toString();
+		if (name.endsWith(".br") || name.endsWith(".gz")) {
+			return;
+		}
+		file.br = variant(file, file.path.resolveSibling(name + ".br"));
+		Path gzip = variant(file, file.path.resolveSibling(name + ".gz"));
+		Path compressed = file.compressed;
+		if (gzip == null && compressed != null) {
+			gzip = variant(file, compressed);
+			if (gzip == null && StaticFile.COMPRESSING.compareAndSet(file, 0, 1) && file.retain()) {
+				try {
+					Schedulers.boundedElastic().schedule(() -> compress(file, compressed));
+				}
+				catch (RejectedExecutionException e) {
+					file.release();
+				}
+			}
+		}
+		file.gzip = gzip;
+	}
+
+	/**
+	 * Compresses the given file with gzip into the {@code compressionCache}, reading it from the
+	 * open channel so that the compressed content matches its validators. A file that does not
+	 * get smaller is left uncompressed.
+	 */
+	static void compress(StaticFile file, Path compressed) {
+		Path temp = null;
+		try {
+			temp = Files.createTempFile(compressed.getParent(), null, ".tmp");
+			try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), COMPRESSION_BUFFER_SIZE) {
+				{
+					def.setLevel(Deflater.BEST_COMPRESSION);
+				}
+			}) {
+				ByteBuffer buffer = ByteBuffer.allocate(COMPRESSION_BUFFER_SIZE);
+				long position = 0;
+				while (position < file.size) {
+					buffer.clear();
+					int read = file.channel.read(buffer, position);
+					if (read < 0) {
+						break;
+					}
+					out.write(buffer.array(), 0, read);
+					position += read;
+				}
+			}
+			if (Files.size(temp) < file.size) {
+				Files.move(temp, compressed, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+				file.gzip = compressed;
+			}
+		}
+		catch (IOException e) {
+			if (log.isDebugEnabled()) {
+				log.debug("Failed to compress the static file [" + file.path + "]", e);
+			}
+		}
+		finally {
+			file.release();
+			if (temp != null) {
+				try {
+					Files.deleteIfExists(temp);
+				}
+				catch (IOException e) {
+					// best effort, e.g. the file is locked on Windows
+				}
+			}
+		}
+	}
+
+	/**
+	 * Deletes the compressed file of a file that changed, the file compressed from its new content
+	 * having a different name.
+	 */
+	static void discardCompressed(StaticFile file) {
+		Path compressed = file.compressed;
+		if (compressed != null) {
+			try {
+				Files.deleteIfExists(compressed);
+			}
+			catch (IOException e) {
+				if (log.isDebugEnabled()) {
+					log.debug("Failed to delete the compressed static file [" + compressed + "]", e);
+				}
+			}
+		}
+	}
+
+	@Nullable
+	static Path variant(StaticFile file, Path path) throws IOException {
+		BasicFileAttributes attributes = attributes(path);
+		return attributes != null && attributes.isRegularFile() &&
+				attributes.lastModifiedTime().toMillis() >= file.lastModified ? path : null;
+	}
+
+	/**
+	 * Returns the name of the compressed file, derived from the file path and its validators.
+	 */
+	static String compressedName(StaticFile file) {
+		byte[] digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256")
+			                      .digest(file.path.toAbsolutePath().toString().getBytes(StandardCharsets.UTF_8));
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		StringBuilder name = new StringBuilder(96);
+		for (byte b : digest) {
+			name.append(Character.forDigit((b >> 4) & 0xF, 16))
+			    .append(Character.forDigit(b & 0xF, 16));
+		}
+		return name.append('-').append(Long.toHexString(file.lastModified))
+		           .append('-').append(Long.toHexString(file.size))
+		           .append(".gz")
+		           .toString();
+	}
+
+	@Nullable
+	static Path compressionCache(@Nullable String directory) {
+		if (directory == null || directory.isEmpty()) {
+			return null;
+		}
+		Path path = Paths.get(directory);
+		try {
+			return Files.createDirectories(path);
+		}
+		catch (IOException e) {
+			log.warn("The static file compression cache [" + path + "] cannot be created, it is disabled", e);
+			return null;
+		}
+	}
+
+	@Nullable
+	static BasicFileAttributes attributes(Path path) throws IOException {
+		try {
+			return Files.readAttributes(path, BasicFileAttributes.class);
+		}
+		catch (NoSuchFileException e) {
+			return null;
+		}
+	}
+
+	static final Logger log = Loggers.getLogger(StaticFileCache.class);
+
+	static final int COMPRESSION_BUFFER_SIZE = 8192;
+
+	/**
+	 * An open file, its validators and its encoded variants. The cache holds a reference until the file
+	 * is evicted, each transfer holds a reference until it completes.
+	 */
+	static final class StaticFile {
+
+		final Path          path;
+		final FileChannel   channel;
+		final long          size;
+		final long          lastModified;
+		@Nullable
+		final Object        fileKey;
+		final String        etag;
+		final String        lastModifiedHeader;
+
+		@Nullable
+		Path                compressed;
+
+		volatile long    validUntil;
+		volatile boolean used = true;
+		volatile int     refCnt = 1;
+		volatile int     compressing;
+		@Nullable
+		volatile Path    br;
+		@Nullable
+		volatile Path    gzip;
+
+		StaticFile(Path path, FileChannel channel, BasicFileAttributes attributes, long validUntil) {
+			this.path = path;
+			this.channel = channel;
+			this.size = attributes.size();
+			this.lastModified = attributes.lastModifiedTime().toMillis();
+			this.fileKey = attributes.fileKey();
+			this.etag = '"' + Long.toHexString(lastModified) + '-' + Long.toHexString(size) + '"';
+			this.lastModifiedHeader = DateFormatter.format(new Date(lastModified));
+			this.validUntil = validUntil;
+		}
+
+		boolean matches(BasicFileAttributes attributes) {
+			return size == attributes.size() &&
+					lastModified == attributes.lastModifiedTime().toMillis() &&
+					Objects.equals(fileKey, attributes.fileKey());
+		}
+
+		boolean retain() {
+			for (;;) {
+				int refCnt = this.refCnt;
+				if (refCnt == 0) {
+					return false;
+				}
+				if (REF_CNT.compareAndSet(this, refCnt, refCnt + 1)) {
+					return true;
+				}
+			}
+		}
+
+		void release() {
+			if (REF_CNT.decrementAndGet(this) == 0) {
+				try {
+					channel.close();
+				}
+				catch (IOException e) {
+					if (log.isDebugEnabled()) {
+						log.debug("Failed to close the static file [" + path + "]", e);
+					}
+				}
+			}
+		}
+
+		static final AtomicIntegerFieldUpdater<StaticFile> REF_CNT =
+				AtomicIntegerFieldUpdater.newUpdater(StaticFile.class, "refCnt");
+
+		static final AtomicIntegerFieldUpdater<StaticFile> COMPRESSING =
+				AtomicIntegerFieldUpdater.newUpdater(StaticFile.class, "compressing");
+	}
+}
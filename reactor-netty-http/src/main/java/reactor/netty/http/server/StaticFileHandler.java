@@ -0,0 +1,458 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http.server;
+
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.DateFormatter;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.netty.NettyOutbound;
+import reactor.netty.http.server.StaticFileCache.StaticFile;
+import reactor.util.Logger;
+import reactor.util.Loggers;
+import reactor.util.annotation.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Serves the files of a directory or a single file, kept open by a {@link StaticFileCache}.
+ * <p>The responses carry {@code ETag}, {@code Last-Modified} and {@code Accept-Ranges} headers,
+ * {@code If-None-Match} and {@code If-Modified-Since} are answered with {@code 304 Not Modified},
+ * and {@code Range} with {@code 206 Partial Content}, a single range as is and several ranges as
+ * {@code multipart/byteranges}. The content is sent with zero-byte copy when the connection allows it.
+ * <p>When the cache finds encoded variants of a file, the variant preferred by {@code Accept-Encoding} is sent
+ * with a {@code Content-Encoding} header, as is, so that compression does not prevent zero-byte copy.
+ */
+final class StaticFileHandler implements BiFunction<HttpServerRequest, HttpServerResponse, Publisher<Void>> {
+
+	/**
+	 * Returns a handler serving the files of the given directory, the route prefix being
+	 * removed from the request path to resolve a file. The paths resolving outside of the
+	 * directory are not found.
+	 *
+	 * @param prefix the route prefix
+	 * @param directory the directory to serve
+	 * @param interceptor a pre response processor
+	 * @return a handler serving the files of the given directory
+	 */
+	static StaticFileHandler directory(String prefix, Path directory,
+			@Nullable Function<HttpServerResponse, HttpServerResponse> interceptor) {
+		return directory(prefix, directory, interceptor, StaticFileCache.INSTANCE);
+	}
+
+	static StaticFileHandler directory(String prefix, Path directory,
+			@Nullable Function<HttpServerResponse, HttpServerResponse> interceptor, StaticFileCache cache) {
+		String target = prefix.startsWith("/") ? prefix : "/".concat(prefix);
+		Path root = directory.toAbsolutePath().normalize();
+		return new StaticFileHandler(req -> {
+			String path = req.fullPath();
+			int start = path.startsWith(target) ? target.length() : 0;
+			while (start < path.length() && path.charAt(start) == '/') {
+				start++;
+			}
+			Path file = root.resolve(path.substring(start)).normalize();
+			return file.startsWith(root) ? file : null;
+		}, interceptor, cache);
+	}
+
+	/**
+	 * Returns a handler serving the given file.
+	 *
+	 * @param path the file to serve
+	 * @param interceptor a pre response processor
+	 * @return a handler serving the given file
+	 */
+	static StaticFileHandler file(Path path, @Nullable Function<HttpServerResponse, HttpServerResponse> interceptor) {
+		return new StaticFileHandler(req -> path, interceptor, StaticFileCache.INSTANCE);
+	}
+
+	final Function<HttpServerRequest, Path>                  resolver;
+	final Function<HttpServerResponse, HttpServerResponse>   interceptor;
+	final StaticFileCache                                    cache;
+
+	StaticFileHandler(Function<HttpServerRequest, Path> resolver,
+			@Nullable Function<HttpServerResponse, HttpServerResponse> interceptor,
+			StaticFileCache cache) {
+		this.resolver = resolver;
+		this.interceptor = interceptor;
+		this.cache = cache;
+	}
+
+	@Override
+	public Publisher<Void> apply(HttpServerRequest request, HttpServerResponse response) {
+		StaticFile file;
+		try {
+			Path path = resolver.apply(request);
+			file = path != null ? cache.acquire(path) : null;
+		}
+		catch (IOException | InvalidPathException e) {
+			if (log.isDebugEnabled()) {
+				log.debug("Path not resolved", e);
+			}
+			file = null;
+		}
+		if (file == null) {
+			return response.sendNotFound();
+		}
+		Path br = file.br;
+		Path gzip = file.gzip;
+		if (br != null || gzip != null) {
+			response.addHeader(HttpHeaderNames.VARY, HttpHeaderNames.ACCEPT_ENCODING);
+			String encoding = encoding(request.requestHeaders().get(HttpHeaderNames.ACCEPT_ENCODING),
+					br != null, gzip != null);
+			StaticFile variant = encoding != null ? variant(BR.equals(encoding) ? br : gzip) : null;
+			if (variant != null) {
+				file.release();
+				file = variant;
+				response.header(HttpHeaderNames.CONTENT_ENCODING, encoding);
+			}
+		}
+		StaticFile acquired = file;
+		return Mono.using(() -> acquired, f -> send(request, response, f), StaticFile::release);
+	}
+
+	@Nullable
+	StaticFile variant(@Nullable Path path) {
+		try {
+			return path != null ? cache.acquire(path) : null;
+		}
+		catch (IOException e) {
+			if (log.isDebugEnabled()) {
+				log.debug("Encoded variant not resolved", e);
+			}
+			return null;
+		}
+	}
+
+	Publisher<Void> send(HttpServerRequest request, HttpServerResponse response, StaticFile file) {
+		HttpServerResponse res = interceptor != null ? interceptor.apply(response) : response;
+		res.header(HttpHeaderNames.ETAG, file.etag)
+		   .header(HttpHeaderNames.LAST_MODIFIED, file.lastModifiedHeader)
+		   .header(HttpHeaderNames.ACCEPT_RANGES, BYTES);
+
+		HttpHeaders headers = request.requestHeaders();
+		if (notModified(headers, file)) {
+			return res.status(HttpResponseStatus.NOT_MODIFIED)
+			          .send();
+		}
+
+		String range = headers.get(HttpHeaderNames.RANGE);
+		if (range == null || !ifRange(headers.get(HttpHeaderNames.IF_RANGE), file)) {
+			return res.sendFile(file.path, file.channel, 0, file.size);
+		}
+
+		List<long[]> ranges = ranges(range, file.size);
+		if (ranges == null) {
+			return res.sendFile(file.path, file.channel, 0, file.size);
+		}
+		if (ranges.isEmpty()) {
+			return res.status(HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+			          .header(HttpHeaderNames.CONTENT_RANGE, "bytes */" + file.size)
+			          .send();
+		}
+
+		res.status(HttpResponseStatus.PARTIAL_CONTENT);
+		if (ranges.size() == 1) {
+			long[] r = ranges.get(0);
+			return res.header(HttpHeaderNames.CONTENT_RANGE, contentRange(r, file.size))
+			          .sendFile(file.path, file.channel, r[0], r[1] - r[0] + 1);
+		}
+
+		String boundary = Long.toHexString(ThreadLocalRandom.current().nextLong());
+		String contentType = res.responseHeaders().get(HttpHeaderNames.CONTENT_TYPE);
+		byte[][] parts = new byte[ranges.size()][];
+		byte[] end = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+		long length = end.length;
+		for (int i = 0; i < parts.length; i++) {
+			long[] r = ranges.get(i);
+			StringBuilder part = new StringBuilder("\r\n--").append(boundary).append("\r\n");
+			if (contentType != null) {
+				part.append("Content-Type: ").append(contentType).append("\r\n");
+			}
+			part.append("Content-Range: ").append(contentRange(r, file.size)).append("\r\n\r\n");
+			parts[i] = part.toString().getBytes(StandardCharsets.US_ASCII);
+			length += parts[i].length + r[1] - r[0] + 1;
+		}
+		res.header(HttpHeaderNames.CONTENT_TYPE, MULTIPART_BYTERANGES + boundary)
+		   .header(HttpHeaderNames.CONTENT_LENGTH, Long.toString(length));
+
+		NettyOutbound out = res.sendHeaders();
+		for (int i = 0; i < parts.length; i++) {
+			long[] r = ranges.get(i);
+			out = out.sendObject(Unpooled.wrappedBuffer(parts[i]))
+			         .sendFile(file.path, file.channel, r[0], r[1] - r[0] + 1);
+		}
+		return out.sendObject(Unpooled.wrappedBuffer(end));
+	}
+
+	/**
+	 * Returns whether the representation of the client is current, {@code If-None-Match}
+	 * taking precedence over {@code If-Modified-Since}.
+	 */
+	static boolean notModified(HttpHeaders headers, StaticFile file) {
+		String ifNoneMatch = headers.get(HttpHeaderNames.IF_NONE_MATCH);
+		if (ifNoneMatch != null) {
+			return matches(ifNoneMatch, file.etag);
+		}
+		String ifModifiedSince = headers.get(HttpHeaderNames.IF_MODIFIED_SINCE);
+		if (ifModifiedSince != null) {
+			Date date = DateFormatter.parseHttpDate(ifModifiedSince);
+			return date != null && file.lastModified / 1000 <= date.getTime() / 1000;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns whether the given list of entity tags matches the given entity tag, using the
+	 * weak comparison.
+	 */
+	static boolean matches(String tags, String etag) {
+		int length = tags.length();
+		int i = 0;
+		while (i < length) {
+			char c = tags.charAt(i);
+			if (c == ' ' || c == '\t' || c == ',') {
+				i++;
+				continue;
+			}
+			if (c == '*') {
+				return true;
+			}
+			if (c == 'W' && tags.startsWith("/", i + 1)) {
+				i += 2;
+			}
+			int end = tags.indexOf(',', i);
+			if (end == -1) {
+				end = length;
+			}
+			int last = end;
+			while (last > i && (tags.charAt(last - 1) == ' ' || tags.charAt(last - 1) == '\t')) {
+				last--;
+			}
+			if (last - i == etag.length() && tags.startsWith(etag, i)) {
+				return true;
+			}
+			i = end + 1;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the encoding to send among the available variants, preferring {@code br} over {@code gzip}
+	 * for the same quality value.
+	 *
+	 * @param acceptEncoding the {@code Accept-Encoding} header value
+	 * @param br whether there is a {@code br} variant
+	 * @param gzip whether there is a {@code gzip} variant
+	 * @return the encoding or {@code null} when the content is sent as is
+	 */
+	@Nullable
+	static String encoding(@Nullable String acceptEncoding, boolean br, boolean gzip) {
+		if (acceptEncoding == null) {
+			return null;
+		}
+		float qBr = -1;
+		float qGzip = -1;
+		float qAny = -1;
+		int length = acceptEncoding.length();
+		int i = 0;
+		while (i < length) {
+			int end = acceptEncoding.indexOf(',', i);
+			if (end == -1) {
+				end = length;
+			}
+			int params = acceptEncoding.indexOf(';', i);
+			if (params == -1 || params > end) {
+				params = end;
+			}
+			int start = i;
+			int last = params;
+			while (start < last && (acceptEncoding.charAt(start) == ' ' || acceptEncoding.charAt(start) == '\t')) {
+				start++;
+			}
+			while (last > start && (acceptEncoding.charAt(last - 1) == ' ' || acceptEncoding.charAt(last - 1) == '\t')) {
+				last--;
+			}
+			float q = quality(acceptEncoding, params, end);
+			if (codingEquals(acceptEncoding, start, last, BR)) {
+				qBr = q;
+			}
+			else if (codingEquals(acceptEncoding, start, last, GZIP) || codingEquals(acceptEncoding, start, last, X_GZIP)) {
+				qGzip = q;
+			}
+			else if (codingEquals(acceptEncoding, start, last, "*")) {
+				qAny = q;
+			}
+			i = end + 1;
+		}
+		if (qBr < 0) {
+			qBr = qAny;
+		}
+		if (qGzip < 0) {
+			qGzip = qAny;
+		}
+		if (br && qBr > 0 && (!gzip || qBr >= qGzip)) {
+			return BR;
+		}
+		if (gzip && qGzip > 0) {
+			return GZIP;
+		}
+		return null;
+	}
+
+	static boolean codingEquals(String acceptEncoding, int start, int end, String coding) {
+		return end - start == coding.length() && acceptEncoding.regionMatches(true, start, coding, 0, coding.length());
+	}
+
+	/**
+	 * Parses the {@code q} parameter among the parameters of a content coding.
+	 *
+	 * @return the quality value, 1 when there is none and 0 when it is invalid
+	 */
+	static float quality(String acceptEncoding, int start, int end) {
+		int q = acceptEncoding.indexOf("q=", start);
+		if (q == -1 || q >= end) {
+			return 1;
+		}
+		try {
+			return Float.parseFloat(acceptEncoding.substring(q + 2, end).trim());
+		}
+		catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Returns whether the {@code Range} header applies, that is when there is no {@code If-Range} header
+	 * or when it matches the entity tag with the strong comparison or the exact modification date.
+	 */
+	static boolean ifRange(@Nullable String ifRange, StaticFile file) {
+		if (ifRange == null) {
+			return true;
+		}
+		if (ifRange.startsWith("\"")) {
+			return ifRange.equals(file.etag);
+		}
+		if (ifRange.startsWith("W/")) {
+			return false;
+		}
+		Date date = DateFormatter.parseHttpDate(ifRange);
+		return date != null && date.getTime() / 1000 == file.lastModified / 1000;
+	}
+
+	/**
+	 * Parses a {@code Range} header into inclusive {@code [first, last]} byte positions.
+	 *
+	 * @param range the {@code Range} header value
+	 * @param size the file size
+	 * @return the satisfiable ranges, possibly none, or {@code null} when the header is invalid or has
+	 * too many ranges, in which case it is ignored
+	 */
+	@Nullable
+	static List<long[]> ranges(String range, long size) {
+		if (!range.regionMatches(true, 0, BYTES_UNIT, 0, BYTES_UNIT.length())) {
+			return null;
+		}
+		List<long[]> ranges = new ArrayList<>(1);
+		int length = range.length();
+		int count = 0;
+		int i = BYTES_UNIT.length();
+		while (i < length) {
+			int end = range.indexOf(',', i);
+			if (end == -1) {
+				end = length;
+			}
+			int dash = range.indexOf('-', i);
+			if (dash == -1 || dash > end) {
+				return null;
+			}
+			long first = parsePosition(range, i, dash);
+			long last = parsePosition(range, dash + 1, end);
+			if (first == INVALID || last == INVALID || (first == EMPTY && last == EMPTY) ||
+					(first != EMPTY && last != EMPTY && last < first) || ++count > MAX_RANGES) {
+				return null;
+			}
+			if (first == EMPTY) {
+				// suffix range
+				if (last > 0 && size > 0) {
+					ranges.add(new long[]{Math.max(0, size - last), size - 1});
+				}
+			}
+			else if (first < size) {
+				ranges.add(new long[]{first, last == EMPTY ? size - 1 : Math.min(last, size - 1)});
+			}
+			i = end + 1;
+		}
+		return count == 0 ? null : ranges;
+	}
+
+	/**
+	 * Parses a byte position, ignoring the surrounding whitespaces.
+	 *
+	 * @return the position, {@link #EMPTY} when there are only whitespaces or {@link #INVALID}
+	 */
+	static long parsePosition(String range, int start, int end) {
+		while (start < end && (range.charAt(start) == ' ' || range.charAt(start) == '\t')) {
+			start++;
+		}
+		while (end > start && (range.charAt(end - 1) == ' ' || range.charAt(end - 1) == '\t')) {
+			end--;
+		}
+		if (start == end) {
+			return EMPTY;
+		}
+		if (end - start > 18) {
+			return INVALID;
+		}
+		long position = 0;
+		for (int i = start; i < end; i++) {
+			char c = range.charAt(i);
+			if (c < '0' || c > '9') {
+				return INVALID;
+			}
+			position = position * 10 + (c - '0');
+		}
+		return position;
+	}
+
+	static String contentRange(long[] range, long size) {
+		return "bytes " + range[0] + '-' + range[1] + '/' + size;
+	}
+
+	static final Logger log = Loggers.getLogger(StaticFileHandler.class);
+
+	static final String BR                   = "br";
+	static final String GZIP                 = "gzip";
+	static final String X_GZIP               = "x-gzip";
+	static final String BYTES                = "bytes";
+	static final String BYTES_UNIT           = "bytes=";
+	static final String MULTIPART_BYTERANGES = "multipart/byteranges; boundary=";
+	static final int    MAX_RANGES           = 16;
+	static final long   EMPTY                = -1;
+	static final long   INVALID              = -2;
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http.server;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.netty.channel.Channel;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionData;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionFilterProvider;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketServerExtension;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketServerExtensionHandler;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketServerExtensionHandshaker;
+import io.netty.handler.codec.http.websocketx.extensions.compression.DeflateFrameServerExtensionHandshaker;
+import io.netty.handler.codec.http.websocketx.extensions.compression.PerMessageDeflateServerExtensionHandshaker;
+import reactor.netty.http.websocket.WebsocketCompression;
+import reactor.util.Logger;
+import reactor.util.Loggers;
+import reactor.util.annotation.Nullable;
+
+import static reactor.netty.ReactorNetty.format;
+import static reactor.netty.http.websocket.WebsocketCompression.JZLIB_AVAILABLE;
+import static reactor.netty.http.websocket.WebsocketCompression.MAX_WINDOW_BITS;
+import static reactor.netty.http.websocket.WebsocketCompression.windowBits;
+
+/**
+ * Negotiates the {@code permessage-deflate} websocket extension with the settings of a {@link WebsocketServerSpec}.
+ * <p>The Netty handshaker limits the server window and drops the server context only when the client offers it,
+ * while RFC 7692 lets the server do so on its own: the parameters are added to the client offer before it is
+ * handed to the Netty handshaker.
+ * <p>At most {@link WebsocketServerSpec#maxContextTakeoverSessions()} sessions of all the servers keep their compression
+ * context between the messages, the other sessions negotiate {@code server_no_context_takeover} and
+ * {@code client_no_context_takeover} so that their deflater and inflater are released after each message.
+ *
+ * @since 1.0.0
+ */
+final class WebsocketServerCompressionHandshaker implements WebSocketServerExtensionHandshaker {
+
+	static final String PERMESSAGE_DEFLATE_EXTENSION = "permessage-deflate";
+	static final String SERVER_MAX_WINDOW             = "server_max_window_bits";
+	static final String SERVER_NO_CONTEXT             = "server_no_context_takeover";
+
+	/**
+	 * The number of server sessions keeping their compression context
+	 */
+	static final AtomicInteger CONTEXT_TAKEOVER_SESSIONS = new AtomicInteger();
+
+	final Channel                          channel;
+	final WebsocketServerSpec              spec;
+	final WebSocketExtensionFilterProvider filterProvider;
+
+	/**
+	 * Whether {@code permessage-deflate} is negotiated without server context takeover and with the default window,
+	 * the messages compressed once for a {@link WebsocketSessionGroup} can then be sent as is to this session
+	 */
+	boolean sharedCompression;
+
+	/**
+	 * Whether {@code permessage-deflate} is already negotiated, the fallback offers of the client are then declined
+	 */
+	boolean negotiated;
+
+	WebsocketServerCompressionHandshaker(Channel channel, WebsocketServerSpec spec) {
+		this.channel = channel;
+		this.spec = spec;
+		this.filterProvider = WebsocketCompression.filterProvider(spec);
+	}
+
+	/**
+	 * Creates the websocket compression handler of the connection, which negotiates the {@code permessage-deflate}
+	 * and the {@code x-webkit-deflate-frame} extensions.
+	 *
+	 * @return a new {@link WebSocketServerExtensionHandler}
+	 */
+	WebSocketServerExtensionHandler newHandler() {
+		return new WebSocketServerExtensionHandler(this,
+				new DeflateFrameServerExtensionHandshaker(spec.compressionLevel(), filterProvider));
+	}
+
+	@Override
+	@Nullable
+	public WebSocketServerExtension handshakeExtension(WebSocketExtensionData extensionData) {
+		if (negotiated || !PERMESSAGE_DEFLATE_EXTENSION.equals(extensionData.name())) {
+			return null;
+		}
+
+		Map<String, String> parameters = extensionData.parameters();
+		boolean serverNoContext = spec.serverNoContextTakeover() || parameters.containsKey(SERVER_NO_CONTEXT);
+		boolean contextTakeover = !serverNoContext &&
+				WebsocketCompression.tryAcquireContextTakeover(CONTEXT_TAKEOVER_SESSIONS, spec);
+		boolean limited = !serverNoContext && !contextTakeover;
+
+		Map<String, String> offer = null;
+		if ((spec.serverNoContextTakeover() || limited) && !parameters.containsKey(SERVER_NO_CONTEXT)) {
+			offer = new HashMap<>(parameters);
+			offer.put(SERVER_NO_CONTEXT, null);
+		}
+		int serverMaxWindowBits = spec.serverMaxWindowBits();
+		if (serverMaxWindowBits < MAX_WINDOW_BITS && JZLIB_AVAILABLE &&
+				windowBits(parameters.get(SERVER_MAX_WINDOW)) > serverMaxWindowBits) {
+			if (offer == null) {
+				offer = new HashMap<>(parameters);
+			}
+			offer.put(SERVER_MAX_WINDOW, Integer.toString(serverMaxWindowBits));
+		}
+
+		// Above the limit, the client is requested to drop its context too if it supports it,
+		// so that the inflater of the session is released after each message
+		WebSocketServerExtensionHandshaker handshaker =
+				new PerMessageDeflateServerExtensionHandshaker(spec.compressionLevel(),
+						true,
+						spec.clientMaxWindowBits(),
+						true,
+						spec.clientNoContextTakeover() || limited,
+						filterProvider);
+		Map<String, String> negotiatedParameters = offer != null ? offer : parameters;
+		WebSocketServerExtension extension =
+				handshaker.handshakeExtension(offer != null ?
+						new WebSocketExtensionData(extensionData.name(), offer) :
+						extensionData);
+		if (extension != null) {
+			negotiated = true;
+			sharedCompression = negotiatedParameters.containsKey(SERVER_NO_CONTEXT) &&
+					windowBits(negotiatedParameters.get(SERVER_MAX_WINDOW)) == MAX_WINDOW_BITS;
+		}
+
+		if (contextTakeover) {
+			if (extension == null) {
+				CONTEXT_TAKEOVER_SESSIONS.decrementAndGet();
+			}
+			else {
+				channel.closeFuture()
+				       .addListener(f -> CONTEXT_TAKEOVER_SESSIONS.decrementAndGet());
+			}
+		}
+		else if (limited && extension != null && log.isDebugEnabled()) {
+			log.debug(format(channel, "Negotiated permessage-deflate without context takeover, " +
+					"the maximum number of sessions keeping their compression context is reached"));
+		}
+		return extension;
+	}
+
+	static final Logger log = Loggers.getLogger(WebsocketServerCompressionHandshaker.class);
+}
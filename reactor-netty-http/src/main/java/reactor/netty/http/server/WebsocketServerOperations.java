@@ -34,7 +34,7 @@ import io.netty.handler.codec.http.websocketx.PongWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.WebSocketCloseStatus;
 import io.netty.handler.codec.http.websocketx.WebSocketServerHandshaker;
 import io.netty.handler.codec.http.websocketx.WebSocketServerHandshakerFactory;
-import io.netty.handler.codec.http.websocketx.extensions.compression.WebSocketServerCompressionHandler;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketServerExtensionHandler;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -64,6 +64,9 @@ final class WebsocketServerOperations extends HttpServerOperations
 	final MonoProcessor<WebSocketCloseStatus> onCloseState;
 	final boolean                             proxyPing;
 
+	@Nullable
+	WebsocketServerCompressionHandshaker compressionHandshaker;
+
 	volatile int closeSent;
 
 	@SuppressWarnings("FutureReturnValueIgnored")
@@ -99,8 +102,8 @@ final class WebsocketServerOperations extends HttpServerOperations
 			if (websocketServerSpec.compress()) {
 				removeHandler(NettyPipeline.CompressionHandler);
 
-				WebSocketServerCompressionHandler wsServerCompressionHandler =
-						new WebSocketServerCompressionHandler();
+				compressionHandshaker = new WebsocketServerCompressionHandshaker(channel, websocketServerSpec);
+				WebSocketServerExtensionHandler wsServerCompressionHandler = compressionHandshaker.newHandler();
 				try {
 					wsServerCompressionHandler.channelRead(channel.pipeline()
 					                                              .context(NettyPipeline.ReactiveBridge),
@@ -253,6 +256,20 @@ final class WebsocketServerOperations extends HttpServerOperations
 		}
 	}
 
+	/**
+	 * Closes the connection without the closing handshake, the messages not yet written are discarded.
+	 *
+	 * @param status the close status notified to {@link #receiveCloseStatus()}
+	 */
+	@SuppressWarnings("FutureReturnValueIgnored")
+	void closeNow(WebSocketCloseStatus status) {
+		if (CLOSE_SENT.getAndSet(this, 1) == 0) {
+			onCloseState.onNext(status);
+		}
+		//"FutureReturnValueIgnored" this is deliberate
+		channel().close();
+	}
+
 	@Override
 	public boolean isWebsocket() {
 		return true;
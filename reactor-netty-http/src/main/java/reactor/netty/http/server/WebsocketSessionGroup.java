@@ -0,0 +1,636 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http.server;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.EventLoop;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketCloseStatus;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionEncoder;
+import io.netty.util.AbstractReferenceCounted;
+import io.netty.util.ReferenceCounted;
+import reactor.netty.NettyPipeline;
+import reactor.netty.http.websocket.WebsocketOutbound;
+import reactor.util.Logger;
+import reactor.util.Loggers;
+import reactor.util.annotation.Nullable;
+
+import static reactor.netty.ReactorNetty.format;
+
+/**
+ * A group of server websocket sessions receiving the same messages.
+ * <p>A message is encoded once into a websocket frame shared by all the sessions, which is written to the sessions
+ * of each event loop in a single task. The message is compressed once for the sessions which negotiated
+ * {@code permessage-deflate} without server context takeover, see
+ * {@link WebsocketServerSpec.Builder#serverNoContextTakeover(boolean)}, while the sessions keeping their compression
+ * context compress the message on their own.
+ * <p>A session is slow when its connection is not writable, i.e. the bytes waiting to be written exceed
+ * the high water mark of the connection, the {@link SlowConsumerPolicy} of the session decides then what happens
+ * to the message. The sessions added without a policy get the default policy of the group.
+ * <p>The sessions are removed from the group when their connection is closed. The sessions of a group must not
+ * send fragmented messages, as a message of the group could be written between two fragments.
+ *
+ * @since 1.0.0
+ */
+public final class WebsocketSessionGroup {
+
+	/**
+	 * What happens to a message when a session is slow.
+	 */
+	public enum SlowConsumerPolicy {
+
+		/**
+		 * The message is not sent to the session.
+		 */
+		DROP,
+
+		/**
+		 * The session is closed, the messages not yet written are discarded.
+		 */
+		DISCONNECT,
+
+		/**
+		 * The latest message is sent to the session once its connection is writable again,
+		 * the previous messages not yet sent are dropped.
+		 */
+		COALESCE
+	}
+
+	public interface Builder {
+
+		/**
+		 * Build a new {@link WebsocketSessionGroup}
+		 *
+		 * @return a new {@link WebsocketSessionGroup}
+		 */
+		WebsocketSessionGroup build();
+
+		/**
+		 * Sets what happens to a message when a session added without a policy is slow,
+		 * by default {@link SlowConsumerPolicy#DROP}.
+		 *
+		 * @param slowConsumerPolicy the slow consumer policy
+		 * @return {@code this}
+		 */
+		Builder slowConsumerPolicy(SlowConsumerPolicy slowConsumerPolicy);
+
+		/**
+		 * Sets the level of the messages compressed once for the sessions, from 0 (no compression)
+		 * to 9 (best compression), by default 6.
+		 *
+		 * @param compressionLevel the compression level
+		 * @return {@code this}
+		 */
+		Builder compressionLevel(int compressionLevel);
+
+		/**
+		 * Sets the minimum payload size of the messages compressed once for the sessions,
+		 * the smaller messages are sent uncompressed, by default 0.
+		 *
+		 * @param compressionMinPayloadSize the minimum payload size of the compressed messages, in bytes
+		 * @return {@code this}
+		 */
+		Builder compressionMinPayloadSize(int compressionMinPayloadSize);
+	}
+
+	/**
+	 * Creates a new {@link WebsocketSessionGroup} with the default settings.
+	 *
+	 * @return a new {@link WebsocketSessionGroup}
+	 */
+	public static WebsocketSessionGroup create() {
+		return builder().build();
+	}
+
+	/**
+	 * Creates a builder for {@link WebsocketSessionGroup}.
+	 *
+	 * @return a new {@link WebsocketSessionGroup.Builder}
+	 */
+	public static Builder builder() {
+		return new Build();
+	}
+
+	final SlowConsumerPolicy slowConsumerPolicy;
+	final int compressionLevel;
+	final int compressionMinPayloadSize;
+
+	final ConcurrentMap<Channel, Session>          sessions = new ConcurrentHashMap<>();
+	final ConcurrentMap<EventLoop, LoopSessions>   loops    = new ConcurrentHashMap<>();
+
+	/**
+	 * The number of sessions to which the messages compressed once are sent
+	 */
+	final AtomicInteger sharedCompressionSessions = new AtomicInteger();
+
+	WebsocketSessionGroup(Build build) {
+		this.slowConsumerPolicy = build.slowConsumerPolicy;
+		this.compressionLevel = build.compressionLevel;
+		this.compressionMinPayloadSize = build.compressionMinPayloadSize;
+	}
+
+	/**
+	 * Adds a session to this group, until its connection is closed or it is removed.
+	 * The default {@link SlowConsumerPolicy} of the group applies to the session.
+	 *
+	 * @param session the {@link WebsocketOutbound} of a server websocket session
+	 * @return {@code true} if the session was added, {@code false} if it is already a member of this group
+	 * @throws IllegalArgumentException if the session is not a server websocket session
+	 */
+	public boolean add(WebsocketOutbound session) {
+		return add(session, slowConsumerPolicy);
+	}
+
+	/**
+	 * Adds a session to this group, until its connection is closed or it is removed.
+	 *
+	 * @param session the {@link WebsocketOutbound} of a server websocket session
+	 * @param slowConsumerPolicy what happens to a message when the session is slow
+	 * @return {@code true} if the session was added, {@code false} if it is already a member of this group
+	 * @throws IllegalArgumentException if the session is not a server websocket session
+	 */
+	public boolean add(WebsocketOutbound session, SlowConsumerPolicy slowConsumerPolicy) {
+		Objects.requireNonNull(session, "session");
+		Objects.requireNonNull(slowConsumerPolicy, "slowConsumerPolicy");
+		if (!(session instanceof WebsocketServerOperations)) {
+			throw new IllegalArgumentException("Only the server websocket sessions can be added to a group");
+		}
+		WebsocketServerOperations ops = (WebsocketServerOperations) session;
+		Channel channel = ops.channel();
+		LoopSessions loopSessions = loops.computeIfAbsent(channel.eventLoop(), LoopSessions::new);
+		Session s = new Session(this, ops, loopSessions, slowConsumerPolicy);
+		if (sessions.putIfAbsent(channel, s) != null) {
+			return false;
+		}
+		loopSessions.size.incrementAndGet();
+		loopSessions.execute(() -> {
+			if (sessions.get(channel) == s) {
+				s.init();
+			}
+		});
+		channel.closeFuture()
+		       .addListener(f -> remove(channel));
+		return true;
+	}
+
+	/**
+	 * Removes a session from this group.
+	 *
+	 * @param session the {@link WebsocketOutbound} of a server websocket session
+	 * @return {@code true} if the session was removed, {@code false} if it is not a member of this group
+	 */
+	public boolean remove(WebsocketOutbound session) {
+		Objects.requireNonNull(session, "session");
+		return session instanceof WebsocketServerOperations &&
+				remove(((WebsocketServerOperations) session).channel());
+	}
+
+	/**
+	 * Returns the number of sessions of this group.
+	 *
+	 * @return the number of sessions of this group
+	 */
+	public int size() {
+		return sessions.size();
+	}
+
+	/**
+	 * Sends a text message to all the sessions of this group.
+	 *
+	 * @param text the text message
+	 */
+	public void broadcastString(String text) {
+		Objects.requireNonNull(text, "text");
+		broadcast(new TextWebSocketFrame(ByteBufUtil.writeUtf8(ByteBufAllocator.DEFAULT, text)));
+	}
+
+	/**
+	 * Sends a message to all the sessions of this group, the frame is released once the message is sent.
+	 *
+	 * @param frame an unfragmented {@link TextWebSocketFrame} or {@link BinaryWebSocketFrame}
+	 * @throws IllegalArgumentException if the frame is not an unfragmented text or binary frame
+	 */
+	public void broadcast(WebSocketFrame frame) {
+		Objects.requireNonNull(frame, "frame");
+		if (!(frame instanceof TextWebSocketFrame || frame instanceof BinaryWebSocketFrame) ||
+				!frame.isFinalFragment() || frame.rsv() != 0) {
+			frame.release();
+			throw new IllegalArgumentException("Only unfragmented text and binary frames can be broadcast");
+		}
+		if (sessions.isEmpty()) {
+			frame.release();
+			return;
+		}
+
+		boolean compress = sharedCompressionSessions.get() > 0 &&
+				frame.content().readableBytes() >= compressionMinPayloadSize;
+		Message message;
+		try {
+			message = new Message(frame, compress ? compressionLevel : -1);
+		}
+		catch (Throwable t) {
+			frame.release();
+			throw t;
+		}
+		try {
+			for (LoopSessions loopSessions : loops.values()) {
+				if (loopSessions.size.get() > 0) {
+					message.retain();
+					if (!loopSessions.execute(() -> loopSessions.write(message))) {
+						message.release();
+					}
+				}
+			}
+		}
+		finally {
+			message.release();
+		}
+	}
+
+	boolean remove(Channel channel) {
+		Session s = sessions.remove(channel);
+		if (s == null) {
+			return false;
+		}
+		s.loopSessions.size.decrementAndGet();
+		// Always deferred, the session can be closed while the sessions of its event loop are written
+		s.loopSessions.execute(s::dispose);
+		return true;
+	}
+
+	/**
+	 * Encodes the websocket frame header of a server message, which is not masked.
+	 */
+	static void encodeHeader(ByteBuf out, int opcode, boolean compressed, int length) {
+		out.writeByte(0x80 | (compressed ? 0x40 : 0) | opcode);
+		if (length < 126) {
+			out.writeByte(length);
+		}
+		else if (length <= 0xFFFF) {
+			out.writeByte(126);
+			out.writeShort(length);
+		}
+		else {
+			out.writeByte(127);
+			out.writeLong(length);
+		}
+	}
+
+	/**
+	 * Compresses a message with an empty context, as specified by {@code permessage-deflate}
+	 * without context takeover.
+	 */
+	static ByteBuf deflate(ByteBuf payload, int compressionLevel) {
+		byte[] input = ByteBufUtil.getBytes(payload);
+		ByteBuf out = ByteBufAllocator.DEFAULT.heapBuffer(input.length / 2 + 64);
+		Deflater deflater = new Deflater(compressionLevel, true);
+		try {
+			deflater.setInput(input);
+			for (;;) {
+				out.ensureWritable(Math.max(64, input.length / 8));
+				int writable = out.writableBytes();
+				int written = deflater.deflate(out.array(), out.arrayOffset() + out.writerIndex(), writable,
+						Deflater.SYNC_FLUSH);
+				out.writerIndex(out.writerIndex() + written);
+				if (written < writable) {
+					break;
+				}
+			}
+		}
+		catch (Throwable t) {
+			out.release();
+			throw t;
+		}
+		finally {
+			deflater.end();
+		}
+		// The message does not end with the empty block of the flush
+		int length = out.readableBytes();
+		if (length >= 4 && out.getInt(length - 4) == 0x0000FFFF) {
+			out.writerIndex(length - 4);
+		}
+		return out;
+	}
+
+	/**
+	 * A message encoded once for all the sessions of the group.
+	 */
+	static final class Message extends AbstractReferenceCounted {
+
+		/**
+		 * The frame written to the sessions compressing their messages on their own
+		 */
+		final WebSocketFrame frame;
+
+		/**
+		 * The uncompressed websocket frame
+		 */
+		final ByteBuf encoded;
+
+		/**
+		 * The compressed websocket frame, if the group has sessions without server context takeover
+		 */
+		@Nullable
+		final ByteBuf compressed;
+
+		Message(WebSocketFrame frame, int compressionLevel) {
+			this.frame = frame;
+			int opcode = frame instanceof TextWebSocketFrame ? 0x1 : 0x2;
+			ByteBuf payload = frame.content();
+			if (compressionLevel != -1) {
+				ByteBuf deflated = deflate(payload, compressionLevel);
+				try {
+					this.compressed = ByteBufAllocator.DEFAULT.directBuffer(deflated.readableBytes() + 10);
+					encodeHeader(compressed, opcode, true, deflated.readableBytes());
+					compressed.writeBytes(deflated);
+				}
+				finally {
+					deflated.release();
+				}
+			}
+			else {
+				this.compressed = null;
+			}
+			int length = payload.readableBytes();
+			this.encoded = ByteBufAllocator.DEFAULT.directBuffer(length + 10);
+			encodeHeader(encoded, opcode, false, length);
+			encoded.writeBytes(payload, payload.readerIndex(), length);
+		}
+
+		@Override
+		protected void deallocate() {
+			frame.release();
+			encoded.release();
+			if (compressed != null) {
+				compressed.release();
+			}
+		}
+
+		@Override
+		public ReferenceCounted touch(Object hint) {
+			return this;
+		}
+	}
+
+	/**
+	 * The sessions of the group registered to an event loop, only accessed from this event loop
+	 */
+	static final class LoopSessions {
+
+		final EventLoop     loop;
+		final Set<Session>  sessions = new LinkedHashSet<>();
+		final List<Session> written  = new ArrayList<>();
+
+		/**
+		 * The number of sessions of the group registered to the event loop, including those not yet initialized
+		 */
+		final AtomicInteger size = new AtomicInteger();
+
+		LoopSessions(EventLoop loop) {
+			this.loop = loop;
+		}
+
+		boolean execute(Runnable task) {
+			try {
+				loop.execute(task);
+				return true;
+			}
+			catch (RejectedExecutionException e) {
+				if (log.isDebugEnabled()) {
+					log.debug("Cannot write to the websocket sessions of a group, the event loop is shut down", e);
+				}
+				return false;
+			}
+		}
+
+		void write(Message message) {
+			try {
+				for (Session session : sessions) {
+					if (session.write(message)) {
+						written.add(session);
+					}
+				}
+				for (int i = 0; i < written.size(); i++) {
+					written.get(i).channel.flush();
+				}
+			}
+			finally {
+				written.clear();
+				message.release();
+			}
+		}
+	}
+
+	/**
+	 * A session of the group, only accessed from its event loop
+	 */
+	static final class Session extends ChannelInboundHandlerAdapter {
+
+		final WebsocketSessionGroup     group;
+		final WebsocketServerOperations ops;
+		final Channel                   channel;
+		final LoopSessions              loopSessions;
+		final SlowConsumerPolicy        slowConsumerPolicy;
+
+		/**
+		 * Whether the session compresses its messages on its own
+		 */
+		boolean compressing;
+
+		/**
+		 * Whether the messages compressed once are sent to the session
+		 */
+		boolean sharedCompression;
+
+		boolean active;
+
+		/**
+		 * The latest message not sent to a slow session, with {@link SlowConsumerPolicy#COALESCE}
+		 */
+		@Nullable
+		Message pending;
+
+		Session(WebsocketSessionGroup group, WebsocketServerOperations ops, LoopSessions loopSessions,
+				SlowConsumerPolicy slowConsumerPolicy) {
+			this.group = group;
+			this.ops = ops;
+			this.channel = ops.channel();
+			this.loopSessions = loopSessions;
+			this.slowConsumerPolicy = slowConsumerPolicy;
+		}
+
+		void init() {
+			if (!channel.isActive()) {
+				return;
+			}
+			WebsocketServerCompressionHandshaker compressionHandshaker = ops.compressionHandshaker;
+			sharedCompression = compressionHandshaker != null && compressionHandshaker.sharedCompression;
+			compressing = !sharedCompression && channel.pipeline().get(WebSocketExtensionEncoder.class) != null;
+			if (sharedCompression) {
+				group.sharedCompressionSessions.incrementAndGet();
+			}
+			if (slowConsumerPolicy == SlowConsumerPolicy.COALESCE) {
+				channel.pipeline().addBefore(NettyPipeline.ReactiveBridge, null, this);
+			}
+			loopSessions.sessions.add(this);
+			active = true;
+		}
+
+		void dispose() {
+			if (!active) {
+				return;
+			}
+			active = false;
+			loopSessions.sessions.remove(this);
+			if (sharedCompression) {
+				group.sharedCompressionSessions.decrementAndGet();
+			}
+			if (pending != null) {
+				pending.release();
+				pending = null;
+			}
+			if (slowConsumerPolicy == SlowConsumerPolicy.COALESCE && channel.pipeline().context(this) != null) {
+				channel.pipeline().remove(this);
+			}
+		}
+
+		/**
+		 * Writes a message to the session, unless it is slow.
+		 *
+		 * @return {@code true} if the message is written and the session must be flushed
+		 */
+		@SuppressWarnings("FutureReturnValueIgnored")
+		boolean write(Message message) {
+			if (!channel.isActive()) {
+				return false;
+			}
+			if (!channel.isWritable()) {
+				switch (slowConsumerPolicy) {
+					case DISCONNECT:
+						if (log.isDebugEnabled()) {
+							log.debug(format(channel, "Closing the slow websocket session of a group"));
+						}
+						ops.closeNow(SLOW_CONSUMER);
+						break;
+					case COALESCE:
+						message.retain();
+						if (pending != null) {
+							pending.release();
+						}
+						pending = message;
+						break;
+					default:
+						if (log.isTraceEnabled()) {
+							log.trace(format(channel, "Dropping a message to the slow websocket session of a group"));
+						}
+				}
+				return false;
+			}
+			if (pending != null) {
+				// The coalesced message is older than this message
+				pending.release();
+				pending = null;
+			}
+			//"FutureReturnValueIgnored" this is deliberate
+			channel.write(encode(message), channel.voidPromise());
+			return true;
+		}
+
+		Object encode(Message message) {
+			if (compressing) {
+				return message.frame.retainedDuplicate();
+			}
+			if (sharedCompression && message.compressed != null) {
+				return message.compressed.retainedDuplicate();
+			}
+			return message.encoded.retainedDuplicate();
+		}
+
+		@Override
+		@SuppressWarnings("FutureReturnValueIgnored")
+		public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+			Message message = pending;
+			if (message != null && ctx.channel().isWritable()) {
+				pending = null;
+				try {
+					//"FutureReturnValueIgnored" this is deliberate
+					ctx.channel().writeAndFlush(encode(message), ctx.channel().voidPromise());
+				}
+				finally {
+					message.release();
+				}
+			}
+			ctx.fireChannelWritabilityChanged();
+		}
+	}
+
+	static final class Build implements Builder {
+		SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.DROP;
+		int compressionLevel = 6;
+		int compressionMinPayloadSize;
+
+		@Override
+		public WebsocketSessionGroup build() {
+			return new WebsocketSessionGroup(this);
+		}
+
+		@Override
+		public Builder slowConsumerPolicy(SlowConsumerPolicy slowConsumerPolicy) {
+			this.slowConsumerPolicy = Objects.requireNonNull(slowConsumerPolicy, "slowConsumerPolicy");
+			return this;
+		}
+
+		@Override
+		public Builder compressionLevel(int compressionLevel) {
+			if (compressionLevel < 0 || compressionLevel > 9) {
+				throw new IllegalArgumentException("compressionLevel must be between 0 and 9");
+			}
+			this.compressionLevel = compressionLevel;
+			return this;
+		}
+
+		@Override
+		public Builder compressionMinPayloadSize(int compressionMinPayloadSize) {
+			if (compressionMinPayloadSize < 0) {
+				throw new IllegalArgumentException("compressionMinPayloadSize must be positive or zero");
+			}
+			this.compressionMinPayloadSize = compressionMinPayloadSize;
+			return this;
+		}
+	}
+
+	static final WebSocketCloseStatus SLOW_CONSUMER = new WebSocketCloseStatus(1008, "Slow consumer");
+
+	static final Logger log = Loggers.getLogger(WebsocketSessionGroup.class);
+}
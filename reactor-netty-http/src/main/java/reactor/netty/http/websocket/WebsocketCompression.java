@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http.websocket;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionFilter;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionFilterProvider;
+import reactor.util.annotation.Nullable;
+
+/**
+ * The {@code permessage-deflate} settings shared by the websocket server and client compression handshakers.
+ * <p>The sessions keeping their compression context are counted once for all the servers, and once for all
+ * the clients, whatever the spec they are configured with, {@link WebsocketSpec#maxContextTakeoverSessions()}
+ * is checked against these counts.
+ *
+ * @since 1.0.0
+ */
+public final class WebsocketCompression {
+
+	/**
+	 * The default and maximum window of the deflater and the inflater, in bits
+	 */
+	public static final int MAX_WINDOW_BITS = 15;
+
+	/**
+	 * Whether the windows smaller than the default one are supported, the deflater requires JZlib then
+	 */
+	public static final boolean JZLIB_AVAILABLE = isJZlibAvailable();
+
+	/**
+	 * Reserves a session keeping its compression context, unless the maximum number of such sessions
+	 * configured with the spec is reached.
+	 *
+	 * @param sessions the number of sessions keeping their compression context, either on the server
+	 * or on the client side
+	 * @param spec the websocket configuration of the session
+	 * @return {@code true} if the session keeps its compression context, {@code sessions} must then be
+	 * decremented once the session is closed
+	 */
+	public static boolean tryAcquireContextTakeover(AtomicInteger sessions, WebsocketSpec spec) {
+		int maxContextTakeoverSessions = spec.maxContextTakeoverSessions();
+		if (maxContextTakeoverSessions == -1) {
+			sessions.incrementAndGet();
+			return true;
+		}
+		for (;;) {
+			int current = sessions.get();
+			if (current >= maxContextTakeoverSessions) {
+				return false;
+			}
+			if (sessions.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Returns the filter sending the messages smaller than {@link WebsocketSpec#compressionMinPayloadSize()}
+	 * uncompressed.
+	 *
+	 * @param spec the websocket configuration
+	 * @return the filter of the compressed messages
+	 */
+	public static WebSocketExtensionFilterProvider filterProvider(WebsocketSpec spec) {
+		return spec.compressionMinPayloadSize() > 0 ?
+				new MinPayloadSizeFilter(spec.compressionMinPayloadSize()) :
+				WebSocketExtensionFilterProvider.DEFAULT;
+	}
+
+	/**
+	 * Parses a window bits parameter.
+	 *
+	 * @param value the value of the parameter
+	 * @return the window bits, {@link #MAX_WINDOW_BITS} when the parameter is missing or invalid
+	 */
+	public static int windowBits(@Nullable String value) {
+		if (value == null) {
+			return MAX_WINDOW_BITS;
+		}
+		try {
+			return Integer.parseInt(value);
+		}
+		catch (NumberFormatException e) {
+			return MAX_WINDOW_BITS;
+		}
+	}
+
+	static boolean isJZlibAvailable() {
+		try {
+			Class.forName("com.jcraft.jzlib.Deflater", false, WebsocketCompression.class.getClassLoader());
+			return true;
+		}
+		catch (Throwable t) {
+			return false;
+		}
+	}
+
+	/**
+	 * Sends the text and binary messages smaller than the minimum payload size uncompressed, the fragmented
+	 * messages are always compressed as all their frames must be either compressed or not.
+	 */
+	static final class MinPayloadSizeFilter implements WebSocketExtensionFilter, WebSocketExtensionFilterProvider {
+
+		final int minPayloadSize;
+
+		MinPayloadSizeFilter(int minPayloadSize) {
+			this.minPayloadSize = minPayloadSize;
+		}
+
+		@Override
+		public boolean mustSkip(WebSocketFrame frame) {
+			return (frame instanceof TextWebSocketFrame || frame instanceof BinaryWebSocketFrame) &&
+					frame.isFinalFragment() &&
+					frame.content().readableBytes() < minPayloadSize;
+		}
+
+		@Override
+		public WebSocketExtensionFilter encoderFilter() {
+			return this;
+		}
+
+		@Override
+		public WebSocketExtensionFilter decoderFilter() {
+			return WebSocketExtensionFilter.NEVER_SKIP;
+		}
+	}
+
+	private WebsocketCompression() {
+	}
+}
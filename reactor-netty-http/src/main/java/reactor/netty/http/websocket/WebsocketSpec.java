@@ -16,6 +16,7 @@
 
 package reactor.netty.http.websocket;
 
+import reactor.netty.ReactorNetty;
 import reactor.util.annotation.Nullable;
 
 import java.util.Objects;
@@ -59,11 +60,78 @@ public interface WebsocketSpec {
 	 */
 	boolean compress();
 
+	/**
+	 * Returns the configured compression level.
+	 *
+	 * @return returns the configured compression level.
+	 * @since 1.0.0
+	 */
+	int compressionLevel();
+
+	/**
+	 * Returns the configured minimum payload size of the compressed frames.
+	 *
+	 * @return returns the configured minimum payload size of the compressed frames.
+	 * @since 1.0.0
+	 */
+	int compressionMinPayloadSize();
+
+	/**
+	 * Returns the configured {@code server_max_window_bits}.
+	 *
+	 * @return returns the configured {@code server_max_window_bits}.
+	 * @since 1.0.0
+	 */
+	int serverMaxWindowBits();
+
+	/**
+	 * Returns the configured {@code client_max_window_bits}.
+	 *
+	 * @return returns the configured {@code client_max_window_bits}.
+	 * @since 1.0.0
+	 */
+	int clientMaxWindowBits();
+
+	/**
+	 * Returns whether {@code server_no_context_takeover} is negotiated.
+	 *
+	 * @return returns whether {@code server_no_context_takeover} is negotiated.
+	 * @since 1.0.0
+	 */
+	boolean serverNoContextTakeover();
+
+	/**
+	 * Returns whether {@code client_no_context_takeover} is negotiated.
+	 *
+	 * @return returns whether {@code client_no_context_takeover} is negotiated.
+	 * @since 1.0.0
+	 */
+	boolean clientNoContextTakeover();
+
+	/**
+	 * Returns the configured maximum number of concurrent sessions keeping their compression context.
+	 *
+	 * @return returns the configured maximum number of concurrent sessions keeping their compression context.
+	 * @since 1.0.0
+	 */
+	int maxContextTakeoverSessions();
+
 	class Builder<SPEC extends Builder<SPEC>> implements Supplier<SPEC> {
+
+		static final int DEFAULT_MAX_CONTEXT_TAKEOVER_SESSIONS =
+				Integer.parseInt(System.getProperty(ReactorNetty.WEBSOCKET_MAX_CONTEXT_TAKEOVER_SESSIONS, "-1"));
+
 		String protocols;
 		int maxFramePayloadLength = 65536;
 		boolean handlePing;
 		boolean compress;
+		int compressionLevel = 6;
+		int compressionMinPayloadSize;
+		int serverMaxWindowBits = 15;
+		int clientMaxWindowBits = 15;
+		boolean serverNoContextTakeover;
+		boolean clientNoContextTakeover;
+		int maxContextTakeoverSessions = DEFAULT_MAX_CONTEXT_TAKEOVER_SESSIONS;
 
 		protected Builder() {
 		}
@@ -123,10 +191,135 @@ public interface WebsocketSpec {
 			return get();
 		}
 
+		/**
+		 * Sets the compression level of the websocket compression extension, from 0 (no compression)
+		 * to 9 (best compression). 6 by default.
+		 *
+		 * @param compressionLevel the compression level
+		 * @return {@literal this}
+		 * @throws IllegalArgumentException if compressionLevel is not between 0 and 9
+		 * @since 1.0.0
+		 */
+		public final SPEC compressionLevel(int compressionLevel) {
+			if (compressionLevel < 0 || compressionLevel > 9) {
+				throw new IllegalArgumentException("Compression level must be between 0 and 9");
+			}
+			this.compressionLevel = compressionLevel;
+			return get();
+		}
+
+		/**
+		 * Sets the minimum payload size of the compressed frames, the smaller text and binary messages
+		 * are sent uncompressed, as the compression of small payloads costs more than it saves.
+		 * 0 by default.
+		 *
+		 * @param compressionMinPayloadSize the minimum payload size of the compressed frames, in bytes
+		 * @return {@literal this}
+		 * @throws IllegalArgumentException if compressionMinPayloadSize is negative
+		 * @since 1.0.0
+		 */
+		public final SPEC compressionMinPayloadSize(int compressionMinPayloadSize) {
+			if (compressionMinPayloadSize < 0) {
+				throw new IllegalArgumentException("Compression min payload size must be positive or zero");
+			}
+			this.compressionMinPayloadSize = compressionMinPayloadSize;
+			return get();
+		}
+
+		/**
+		 * Sets the {@code server_max_window_bits} of the websocket compression extension, the base-2 logarithm
+		 * of the sliding window size used by the server to compress the messages, from 9 to 15. 15 by default.
+		 * The server limits its window to this size, the client requests the server to do so.
+		 * A window smaller than 15 requires {@code com.jcraft:jzlib} to compress the messages.
+		 *
+		 * @param serverMaxWindowBits the base-2 logarithm of the server sliding window size
+		 * @return {@literal this}
+		 * @throws IllegalArgumentException if serverMaxWindowBits is not between 9 and 15
+		 * @since 1.0.0
+		 */
+		public final SPEC serverMaxWindowBits(int serverMaxWindowBits) {
+			this.serverMaxWindowBits = checkWindowBits(serverMaxWindowBits);
+			return get();
+		}
+
+		/**
+		 * Sets the {@code client_max_window_bits} of the websocket compression extension, the base-2 logarithm
+		 * of the sliding window size used by the client to compress the messages, from 9 to 15. 15 by default.
+		 * The client limits its window to this size, the server requests the client to do so when the client
+		 * supports it. A window smaller than 15 requires {@code com.jcraft:jzlib} to compress the messages.
+		 *
+		 * @param clientMaxWindowBits the base-2 logarithm of the client sliding window size
+		 * @return {@literal this}
+		 * @throws IllegalArgumentException if clientMaxWindowBits is not between 9 and 15
+		 * @since 1.0.0
+		 */
+		public final SPEC clientMaxWindowBits(int clientMaxWindowBits) {
+			this.clientMaxWindowBits = checkWindowBits(clientMaxWindowBits);
+			return get();
+		}
+
+		/**
+		 * Sets flag whether the server compresses each message with an empty context, so that it does not keep
+		 * its compression context between the messages. The server negotiates {@code server_no_context_takeover},
+		 * the client requests the server to do so. False by default.
+		 *
+		 * @param serverNoContextTakeover whether the server compresses each message with an empty context
+		 * @return {@literal this}
+		 * @since 1.0.0
+		 */
+		public final SPEC serverNoContextTakeover(boolean serverNoContextTakeover) {
+			this.serverNoContextTakeover = serverNoContextTakeover;
+			return get();
+		}
+
+		/**
+		 * Sets flag whether the client compresses each message with an empty context, so that it does not keep
+		 * its compression context between the messages. The client negotiates {@code client_no_context_takeover},
+		 * the server requests the client to do so. False by default.
+		 *
+		 * @param clientNoContextTakeover whether the client compresses each message with an empty context
+		 * @return {@literal this}
+		 * @since 1.0.0
+		 */
+		public final SPEC clientNoContextTakeover(boolean clientNoContextTakeover) {
+			this.clientNoContextTakeover = clientNoContextTakeover;
+			return get();
+		}
+
+		/**
+		 * Sets the maximum number of concurrent sessions keeping their compression context between the messages,
+		 * the sessions are counted across all the servers, or all the clients, whatever their spec.
+		 * A compression context costs about 300KB, above this number the sessions negotiate
+		 * {@code server_no_context_takeover} and {@code client_no_context_takeover}, when the peer supports it,
+		 * and release their context after each message. The peers rejecting a {@code server_no_context_takeover}
+		 * they did not request, such as the Netty clients, cannot negotiate the compression above this number.
+		 * By default the {@code reactor.netty.websocket.maxContextTakeoverSessions} system property,
+		 * -1 for no limit when not set.
+		 *
+		 * @param maxContextTakeoverSessions the maximum number of concurrent sessions keeping their compression context
+		 * @return {@literal this}
+		 * @throws IllegalArgumentException if maxContextTakeoverSessions is less than -1
+		 * @since 1.0.0
+		 */
+		public final SPEC maxContextTakeoverSessions(int maxContextTakeoverSessions) {
+			if (maxContextTakeoverSessions < -1) {
+				throw new IllegalArgumentException("Max context takeover sessions must be positive, zero or -1");
+			}
+			this.maxContextTakeoverSessions = maxContextTakeoverSessions;
+			return get();
+		}
+
 		@Override
 		@SuppressWarnings("unchecked")
 		public SPEC get() {
 			return (SPEC) this;
 		}
+
+		static int checkWindowBits(int windowBits) {
+			if (windowBits < 9 || windowBits > 15) {
+				throw new IllegalArgumentException("Window bits must be between 9 and 15");
+			}
+			return windowBits;
+		}
 	}
 }
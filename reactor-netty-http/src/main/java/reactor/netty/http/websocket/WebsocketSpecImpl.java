@@ -28,12 +28,26 @@ public class WebsocketSpecImpl implements WebsocketSpec {
 	private final int maxFramePayloadLength;
 	private final boolean proxyPing;
 	private final boolean compress;
+	private final int compressionLevel;
+	private final int compressionMinPayloadSize;
+	private final int serverMaxWindowBits;
+	private final int clientMaxWindowBits;
+	private final boolean serverNoContextTakeover;
+	private final boolean clientNoContextTakeover;
+	private final int maxContextTakeoverSessions;
 
 	protected WebsocketSpecImpl(WebsocketSpec.Builder<?> builder) {
 		this.protocols = builder.protocols;
 		this.maxFramePayloadLength = builder.maxFramePayloadLength;
 		this.proxyPing = builder.handlePing;
 		this.compress = builder.compress;
+		this.compressionLevel = builder.compressionLevel;
+		this.compressionMinPayloadSize = builder.compressionMinPayloadSize;
+		this.serverMaxWindowBits = builder.serverMaxWindowBits;
+		this.clientMaxWindowBits = builder.clientMaxWindowBits;
+		this.serverNoContextTakeover = builder.serverNoContextTakeover;
+		this.clientNoContextTakeover = builder.clientNoContextTakeover;
+		this.maxContextTakeoverSessions = builder.maxContextTakeoverSessions;
 	}
 
 	@Override
@@ -55,4 +69,39 @@ public class WebsocketSpecImpl implements WebsocketSpec {
 	public boolean compress() {
 		return compress;
 	}
+
+	@Override
+	public final int compressionLevel() {
+		return compressionLevel;
+	}
+
+	@Override
+	public final int compressionMinPayloadSize() {
+		return compressionMinPayloadSize;
+	}
+
+	@Override
+	public final int serverMaxWindowBits() {
+		return serverMaxWindowBits;
+	}
+
+	@Override
+	public final int clientMaxWindowBits() {
+		return clientMaxWindowBits;
+	}
+
+	@Override
+	public final boolean serverNoContextTakeover() {
+		return serverNoContextTakeover;
+	}
+
+	@Override
+	public final boolean clientNoContextTakeover() {
+		return clientNoContextTakeover;
+	}
+
+	@Override
+	public final int maxContextTakeoverSessions() {
+		return maxContextTakeoverSessions;
+	}
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.channel;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.netty.Metrics;
+import reactor.netty.http.MicrometerHttpMetricsRecorder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HttpChannelMetricsHandlerTest {
+
+	static final String NAME = "reactor.netty.test.http.channel";
+
+	static final SocketAddress REMOTE_ADDRESS = InetSocketAddress.createUnresolved("localhost", 8080);
+
+	MeterRegistry registry;
+
+	@Before
+	public void setUp() {
+		registry = new SimpleMeterRegistry();
+		Metrics.REGISTRY.add(registry);
+	}
+
+	@After
+	public void tearDown() {
+		Metrics.REGISTRY.remove(registry);
+		registry.clear();
+	}
+
+	@Test
+	public void dataMetersAreResolvedOncePerConnectionForHttpRecorders() {
+		MicrometerHttpMetricsRecorder recorder = new MicrometerHttpMetricsRecorder(NAME, "http") {};
+		assertThat(recorder.resolveDataMeters).isTrue();
+
+		ChannelMetricsHandler handler = new ChannelMetricsHandler(recorder, REMOTE_ADDRESS, true);
+		EmbeddedChannel channel = new EmbeddedChannel(handler);
+
+		channel.writeInbound(Unpooled.wrappedBuffer(new byte[3]), Unpooled.wrappedBuffer(new byte[5]));
+		channel.writeOutbound(Unpooled.wrappedBuffer(new byte[4]));
+		assertThat(handler.dataReceivedRecorder).isNotNull();
+		assertThat(handler.dataSentRecorder).isNotNull();
+
+		DistributionSummary dataReceived = registry.find(NAME + Metrics.DATA_RECEIVED).summary();
+		assertThat(dataReceived).isNotNull();
+		assertThat(dataReceived.count()).isEqualTo(1);
+		assertThat(dataReceived.totalAmount()).isEqualTo(8);
+
+		DistributionSummary dataSent = registry.find(NAME + Metrics.DATA_SENT).summary();
+		assertThat(dataSent).isNotNull();
+		assertThat(dataSent.count()).isEqualTo(1);
+		assertThat(dataSent.totalAmount()).isEqualTo(4);
+
+		channel.finishAndReleaseAll();
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static reactor.netty.Metrics.DATA_RECEIVED;
+import static reactor.netty.Metrics.ERRORS;
+import static reactor.netty.Metrics.METHOD;
+import static reactor.netty.Metrics.REMOTE_ADDRESS;
+import static reactor.netty.Metrics.RESPONSE_TIME;
+import static reactor.netty.Metrics.STATUS;
+import static reactor.netty.Metrics.URI;
+import static reactor.netty.http.EventLoopLocalMeters.DATA_RECEIVED_METER;
+import static reactor.netty.http.EventLoopLocalMeters.ERRORS_METER;
+import static reactor.netty.http.EventLoopLocalMeters.RESPONSE_TIME_METER;
+
+public class EventLoopLocalMetersTest {
+
+	static final String NAME = "reactor.netty.test.local";
+
+	MeterRegistry registry;
+
+	@Before
+	public void setUp() {
+		registry = new SimpleMeterRegistry();
+		Metrics.addRegistry(registry);
+	}
+
+	@After
+	public void tearDown() {
+		Metrics.removeRegistry(registry);
+		registry.clear();
+		registry.close();
+	}
+
+	@Test
+	public void valuesOfAllThreadsAreMergedOnScrape() throws Exception {
+		EventLoopLocalMeters meters = new EventLoopLocalMeters(NAME);
+
+		Runnable task = () -> {
+			for (int i = 0; i < 1000; i++) {
+				meters.record(RESPONSE_TIME_METER, null, "/test", "GET", "200", 2_000);
+			}
+		};
+		Thread thread = new Thread(task);
+		thread.start();
+		task.run();
+		thread.join();
+
+		FunctionTimer timer = registry.find(NAME + RESPONSE_TIME)
+		                              .tags(URI, "/test", METHOD, "GET", STATUS, "200")
+		                              .functionTimer();
+		assertThat(timer).isNotNull();
+		assertThat(timer.count()).isEqualTo(2000);
+		assertThat(timer.totalTime(TimeUnit.NANOSECONDS)).isEqualTo(4_000_000d);
+		assertThat(meters.aggregates).hasSize(1);
+		assertThat(meters.aggregates.values().iterator().next().cells).hasSize(2);
+	}
+
+	@Test
+	public void meterIsRegisteredOncePerTags() {
+		EventLoopLocalMeters meters = new EventLoopLocalMeters(NAME);
+		String address = "localhost:8080";
+
+		meters.record(DATA_RECEIVED_METER, address, "/a", null, null, 10);
+		// a distinct instance rendering the same tag value shares the cell
+		meters.record(DATA_RECEIVED_METER, new StringBuilder(address).toString(), "/a", null, null, 5);
+		meters.record(DATA_RECEIVED_METER, address, "/b", null, null, 1);
+		meters.record(ERRORS_METER, address, "/a", null, null, 1);
+
+		FunctionCounter a = registry.find(NAME + DATA_RECEIVED)
+		                            .tags(REMOTE_ADDRESS, "localhost:8080", URI, "/a")
+		                            .functionCounter();
+		FunctionCounter b = registry.find(NAME + DATA_RECEIVED)
+		                            .tags(REMOTE_ADDRESS, "localhost:8080", URI, "/b")
+		                            .functionCounter();
+		FunctionCounter errors = registry.find(NAME + ERRORS)
+		                                 .tags(REMOTE_ADDRESS, "localhost:8080", URI, "/a")
+		                                 .functionCounter();
+		assertThat(a).isNotNull();
+		assertThat(a.count()).isEqualTo(15);
+		assertThat(b).isNotNull();
+		assertThat(b.count()).isEqualTo(1);
+		assertThat(errors).isNotNull();
+		assertThat(errors.count()).isEqualTo(1);
+		assertThat(meters.aggregates).hasSize(3);
+	}
+
+	@Test
+	public void evictedMetersAreUnregisteredAndRecreatedOnUse() {
+		EventLoopLocalMeters meters = new EventLoopLocalMeters(NAME);
+
+		meters.record(ERRORS_METER, null, "/a", null, null, 1);
+		meters.record(ERRORS_METER, null, "/b", null, null, 1);
+
+		meters.evict("/a");
+
+		assertThat(registry.find(NAME + ERRORS).tags(URI, "/a").functionCounter()).isNull();
+		assertThat(registry.find(NAME + ERRORS).tags(URI, "/b").functionCounter()).isNotNull();
+		assertThat(meters.aggregates).hasSize(1);
+
+		meters.record(ERRORS_METER, null, "/a", null, null, 1);
+
+		FunctionCounter a = registry.find(NAME + ERRORS)
+		                            .tags(URI, "/a")
+		                            .functionCounter();
+		assertThat(a).isNotNull();
+		assertThat(a.count()).isEqualTo(1);
+		assertThat(meters.stripes.get().cells).hasSize(2);
+	}
+}
@@ -166,14 +166,24 @@ public class Http2Tests {
 
 	@Test
 	public void testMaxActiveStreams_1() throws Exception {
-		doTestMaxActiveStreams(HttpClient.create(), 1, 1, 1);
+		doTestMaxActiveStreams(HttpClient.create(), 1, 2, 0);
 
 		ConnectionProvider provider = ConnectionProvider.create("testMaxActiveStreams_1", 1);
-		doTestMaxActiveStreams(HttpClient.create(provider), 1, 1, 1);
+		doTestMaxActiveStreams(HttpClient.create(provider), 1, 2, 0);
 		provider.disposeLater()
 		        .block();
 
-		doTestMaxActiveStreams(HttpClient.newConnection(), 1, 1, 1);
+		doTestMaxActiveStreams(HttpClient.newConnection(), 1, 2, 0);
+	}
+
+	@Test
+	public void testMaxActiveStreamsAcquisitionsParked() throws Exception {
+		// The streams re-acquired while the single connection is at its max active streams
+		// are parked until the active stream is closed
+		ConnectionProvider provider = ConnectionProvider.create("testMaxActiveStreamsAcquisitionsParked", 1);
+		doTestMaxActiveStreams(HttpClient.create(provider), 1, 6, 6, 0);
+		provider.disposeLater()
+		        .block();
 	}
 
 	@Test
@@ -189,6 +199,11 @@ public class Http2Tests {
 	}
 
 	public void doTestMaxActiveStreams(HttpClient baseClient, int maxActiveStreams, int expectedOnNext, int expectedOnError) throws Exception {
+		doTestMaxActiveStreams(baseClient, maxActiveStreams, 2, expectedOnNext, expectedOnError);
+	}
+
+	public void doTestMaxActiveStreams(HttpClient baseClient, int maxActiveStreams, int requests,
+			int expectedOnNext, int expectedOnError) throws Exception {
 		SelfSignedCertificate cert = new SelfSignedCertificate();
 		SslContextBuilder serverCtx = SslContextBuilder.forServer(cert.certificate(), cert.privateKey());
 		SslContextBuilder clientCtx = SslContextBuilder.forClient()
@@ -215,7 +230,7 @@ public class Http2Tests {
 
 		CountDownLatch latch = new CountDownLatch(1);
 		List<? extends Signal<? extends String>> list =
-				Flux.range(0, 2)
+				Flux.range(0, requests)
 				    .flatMapDelayError(i ->
 				            client.post()
 				                  .uri("/echo")
@@ -231,12 +246,12 @@ public class Http2Tests {
 
 		assertThat(latch.await(30, TimeUnit.SECONDS)).as("latch 30s").isTrue();
 
-		assertThat(list).isNotNull().hasSize(2);
+		assertThat(list).isNotNull().hasSize(requests);
 
 		int onNext = 0;
 		int onError = 0;
 		String msg = "Max active streams is reached";
-		for (int i = 0; i < 2; i++) {
+		for (int i = 0; i < requests; i++) {
 			Signal<? extends String> signal = list.get(i);
 			if (signal.isOnNext()) {
 				onNext++;
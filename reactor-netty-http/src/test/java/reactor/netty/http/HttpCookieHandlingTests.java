@@ -19,6 +19,9 @@ import java.time.Duration;
 import java.util.Map;
 import java.util.Set;
 
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.cookie.ClientCookieDecoder;
 import io.netty.handler.codec.http.cookie.ClientCookieEncoder;
 import io.netty.handler.codec.http.cookie.Cookie;
@@ -32,11 +35,51 @@ import reactor.netty.http.client.HttpClient;
 import reactor.netty.http.server.HttpServer;
 import reactor.test.StepVerifier;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 /**
  * @author Violeta Georgieva
  */
 public class HttpCookieHandlingTests {
 
+	@Test
+	public void serverCookieIsDecodedLazily() {
+		HttpHeaders headers = new DefaultHttpHeaders()
+				.add(HttpHeaderNames.COOKIE, "tracking=1; session=abc;sessions=def;  other=\"2\"")
+				.add(HttpHeaderNames.COOKIE, "last=3");
+		Cookies cookies = Cookies.newServerRequestHolder(headers, ServerCookieDecoder.STRICT);
+
+		assertThat(cookies.getCookie("session")).isNotNull()
+		                                        .extracting(Cookie::value).isEqualTo("abc");
+		assertThat(cookies.getCookie("sessions")).isNotNull()
+		                                         .extracting(Cookie::value).isEqualTo("def");
+		assertThat(cookies.getCookie("other")).isNotNull()
+		                                      .extracting(Cookie::value).isEqualTo("2");
+		assertThat(cookies.getCookie("last")).isNotNull()
+		                                     .extracting(Cookie::value).isEqualTo("3");
+		assertThat(cookies.getCookie("sess")).isNull();
+		assertThat(cookies.cachedCookies).isNull();
+
+		assertThat(cookies.getCachedCookies()).hasSize(5);
+		assertThat(cookies.getCookie("session")).isNotNull()
+		                                        .extracting(Cookie::value).isEqualTo("abc");
+	}
+
+	@Test
+	public void clientCookieIsDecodedLazily() {
+		HttpHeaders headers = new DefaultHttpHeaders()
+				.add(HttpHeaderNames.SET_COOKIE, "tracking=1; Path=/")
+				.add(HttpHeaderNames.SET_COOKIE, "session=abc; HttpOnly");
+		Cookies cookies = Cookies.newClientResponseHolder(headers, ClientCookieDecoder.STRICT);
+
+		Cookie session = cookies.getCookie("session");
+		assertThat(session).isNotNull();
+		assertThat(session.value()).isEqualTo("abc");
+		assertThat(session.isHttpOnly()).isTrue();
+		assertThat(cookies.getCookie("Path")).isNull();
+		assertThat(cookies.cachedCookies).isNull();
+	}
+
 	@Test
 	@SuppressWarnings("CollectionUndefinedEquality")
 	public void clientWillIgnoreMalformedCookies() {
@@ -234,6 +234,43 @@ public class HttpMetricsHandlerTests {
 		checkExpectationsExisting("testUriTagValueResolver", sa.getHostString() + ":" + sa.getPort(), 1);
 	}
 
+	@Test
+	public void testRouteTemplateAsUriTagValue() throws Exception {
+		disposableServer =
+				httpServer.route(r -> r.post("/users/{id}", (req, res) -> res.header("Connection", "close")
+				                                                              .send(req.receive().retain())))
+				          .bindNow();
+
+		CountDownLatch latch = new CountDownLatch(1);
+		StepVerifier.create(httpClient.doOnResponse((res, conn) ->
+		                                  conn.channel()
+		                                      .closeFuture()
+		                                      .addListener(f -> latch.countDown()))
+		                              .post()
+		                              .uri("/users/1")
+		                              .send(body)
+		                              .responseContent()
+		                              .aggregate()
+		                              .asString())
+		            .expectNext("Hello World!")
+		            .expectComplete()
+		            .verify(Duration.ofSeconds(30));
+
+		assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+
+		Thread.sleep(1000);
+		String[] timerTags1 = new String[] {URI, "/users/{id}", METHOD, "POST", STATUS, "200"};
+		String[] timerTags2 = new String[] {URI, "/users/{id}", METHOD, "POST"};
+		String[] summaryTags = new String[] {URI, "/users/{id}"};
+
+		checkTimer(SERVER_RESPONSE_TIME, timerTags1, 1);
+		checkTimer(SERVER_DATA_SENT_TIME, timerTags1, 1);
+		checkTimer(SERVER_DATA_RECEIVED_TIME, timerTags2, 1);
+		checkDistributionSummary(SERVER_DATA_SENT, summaryTags, 1, 12);
+		checkDistributionSummary(SERVER_DATA_RECEIVED, summaryTags, 1, 12);
+		assertNull(registry.find(SERVER_RESPONSE_TIME).tags(URI, "/users/1").timer());
+	}
+
 	private void checkExpectationsExisting(String uri, String serverAddress, int index) {
 		String[] timerTags1 = new String[] {URI, uri, METHOD, "POST", STATUS, "200"};
 		String[] timerTags2 = new String[] {URI, uri, METHOD, "POST"};
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static reactor.netty.Metrics.OVERFLOW;
+
+public class UriTagLimiterTest {
+
+	@Test
+	public void valuesAreCollapsedWhenTheLimitIsReached() {
+		List<String> evicted = new ArrayList<>();
+		UriTagLimiter limiter = new UriTagLimiter(2, Long.MAX_VALUE, evicted::add);
+
+		assertThat(limiter.apply("/a")).isEqualTo("/a");
+		assertThat(limiter.apply("/b")).isEqualTo("/b");
+		assertThat(limiter.apply("/c")).isEqualTo(OVERFLOW);
+		assertThat(limiter.apply("/d")).isEqualTo(OVERFLOW);
+		assertThat(limiter.apply("/a")).isEqualTo("/a");
+
+		assertThat(limiter.collapsed()).isEqualTo(2);
+		assertThat(limiter.tags).containsOnlyKeys("/a", "/b");
+		assertThat(evicted).isEmpty();
+	}
+
+	@Test
+	public void idleValuesAreEvicted() {
+		List<String> evicted = new ArrayList<>();
+		UriTagLimiter limiter = new UriTagLimiter(2, 0, evicted::add);
+
+		limiter.apply("/a");
+		limiter.apply("/b");
+		limiter.apply("/a");
+
+		// a sweep clears the flags and evicts the values not used since their admission
+		limiter.sweep(System.nanoTime());
+
+		assertThat(evicted).containsExactly("/b");
+		assertThat(limiter.tags).containsOnlyKeys("/a");
+
+		// the next sweep evicts the values not used in between
+		limiter.sweep(System.nanoTime());
+
+		assertThat(evicted).containsExactly("/b", "/a");
+		assertThat(limiter.tags).isEmpty();
+
+		assertThat(limiter.apply("/c")).isEqualTo("/c");
+		assertThat(limiter.collapsed()).isEqualTo(0);
+	}
+
+	@Test
+	public void idleValuesAreEvictedBeforeCollapsing() {
+		List<String> evicted = new ArrayList<>();
+		UriTagLimiter limiter = new UriTagLimiter(1, 0, evicted::add);
+
+		limiter.apply("/a");
+		limiter.sweep(System.nanoTime());
+
+		assertThat(limiter.apply("/b")).isEqualTo("/b");
+		assertThat(evicted).containsExactly("/a");
+		assertThat(limiter.collapsed()).isEqualTo(0);
+	}
+}
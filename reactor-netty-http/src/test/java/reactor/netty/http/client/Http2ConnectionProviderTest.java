@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http.client;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class Http2ConnectionProviderTest {
+
+	@Test
+	public void reserveLeastLoadedConnection() {
+		List<Http2ConnectionProvider.ConnectionStreams> connections = new CopyOnWriteArrayList<>();
+		EmbeddedChannel channel1 = new EmbeddedChannel();
+		EmbeddedChannel channel2 = new EmbeddedChannel();
+		Http2ConnectionProvider.ConnectionStreams streams1 = Http2ConnectionProvider.ConnectionStreams.get(channel1, connections, null);
+		Http2ConnectionProvider.ConnectionStreams streams2 = Http2ConnectionProvider.ConnectionStreams.get(channel2, connections, null);
+		assertThat(Http2ConnectionProvider.ConnectionStreams.get(channel1, connections, null)).isSameAs(streams1);
+		assertThat(connections).containsExactly(streams1, streams2);
+
+		streams1.maxActive = 4;
+		streams2.maxActive = 4;
+		streams1.active.set(2);
+		streams2.active.set(1);
+
+		assertThat(Http2ConnectionProvider.ConnectionStreams.reserveLeastLoaded(connections)).isSameAs(streams2);
+		assertThat(streams2.active.get()).isEqualTo(2);
+		assertThat(Http2ConnectionProvider.ConnectionStreams.reserveLeastLoaded(connections)).isSameAs(streams1);
+		assertThat(streams1.active.get()).isEqualTo(3);
+
+		// Opening a stream would reach the high-water mark, the connections are acquired from the pool
+		assertThat(Http2ConnectionProvider.ConnectionStreams.reserveLeastLoaded(connections)).isSameAs(streams2);
+		assertThat(Http2ConnectionProvider.ConnectionStreams.reserveLeastLoaded(connections)).isNull();
+		assertThat(streams1.isAboveHighWaterMark()).isFalse();
+
+		streams1.onStreamClosed();
+		assertThat(streams1.active.get()).isEqualTo(2);
+
+		channel1.finishAndReleaseAll();
+		assertThat(connections).containsExactly(streams2);
+		channel2.finishAndReleaseAll();
+		assertThat(connections).isEmpty();
+	}
+
+	@Test
+	public void drainConnection() {
+		List<Http2ConnectionProvider.ConnectionStreams> connections = new CopyOnWriteArrayList<>();
+		EmbeddedChannel channel1 = new EmbeddedChannel();
+		EmbeddedChannel channel2 = new EmbeddedChannel();
+		Http2ConnectionProvider.ConnectionStreams streams1 = Http2ConnectionProvider.ConnectionStreams.get(channel1, connections, null);
+		Http2ConnectionProvider.ConnectionStreams streams2 = Http2ConnectionProvider.ConnectionStreams.get(channel2, connections, null);
+		streams1.active.set(1);
+		streams2.active.set(2);
+
+		streams1.drain("GOAWAY received");
+		assertThat(connections).containsExactly(streams2);
+		assertThat(Http2ConnectionProvider.ConnectionStreams.isDraining(channel1)).isTrue();
+		assertThat(Http2ConnectionProvider.ConnectionStreams.isDraining(channel2)).isFalse();
+		assertThat(streams1.tryReserve(1)).isFalse();
+
+		// The streams are opened on the other connection
+		assertThat(Http2ConnectionProvider.ConnectionStreams.reserveLeastLoaded(connections)).isSameAs(streams2);
+
+		// The active stream completes before the connection is closed
+		channel1.runPendingTasks();
+		assertThat(channel1.isOpen()).isTrue();
+
+		streams1.onStreamClosed();
+		channel1.runPendingTasks();
+		assertThat(channel1.isOpen()).isFalse();
+
+		channel1.finishAndReleaseAll();
+		channel2.finishAndReleaseAll();
+	}
+}
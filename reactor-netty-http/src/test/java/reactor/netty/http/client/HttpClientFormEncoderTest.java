@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.codec.http.multipart.HttpPostRequestEncoder;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class HttpClientFormEncoderTest {
+
+	static final String VALUE = "a b*c~d+e/f\u00e9\ud83d\ude00";
+
+	@Test
+	public void urlEncodedForm() throws Exception {
+		assertThat(urlEncoded(HttpPostRequestEncoder.EncoderMode.RFC1738))
+				.isEqualTo("key=" + URLEncoder.encode(VALUE, "UTF-8") + "&file=name.txt");
+		assertThat(urlEncoded(HttpPostRequestEncoder.EncoderMode.RFC3986))
+				.isEqualTo("key=" + URLEncoder.encode(VALUE, "UTF-8")
+				                              .replace("*", "%2A")
+				                              .replace("+", "%20")
+				                              .replace("%7E", "~") + "&file=name.txt");
+	}
+
+	String urlEncoded(HttpPostRequestEncoder.EncoderMode mode) throws Exception {
+		HttpClientFormEncoder encoder = new HttpClientFormEncoder(ByteBufAllocator.DEFAULT, newRequest(), false,
+				StandardCharsets.UTF_8, mode);
+		encoder.attr("key", VALUE)
+		       .file("file", "name.txt", new ByteArrayInputStream(new byte[]{1, 2, 3}), null);
+
+		HttpRequest request = encoder.finalizeRequest(false, false);
+		assertThat(encoder.isChunked()).isFalse();
+		assertThat(request.headers().get(HttpHeaderNames.CONTENT_TYPE)).isEqualTo("application/x-www-form-urlencoded");
+		ByteBuf content = ((FullHttpRequest) request).content();
+		try {
+			assertThat(encoder.length()).isEqualTo(content.readableBytes());
+			return content.toString(StandardCharsets.US_ASCII);
+		}
+		finally {
+			content.release();
+		}
+	}
+
+	@Test
+	public void multipartForm() throws Exception {
+		// The stream is read while the body is read, its size is unknown
+		multipartForm(true);
+	}
+
+	@Test
+	public void multipartFormWithContentLength() throws Exception {
+		// The stream is read when the request is finalized, so that the length of the body is known
+		multipartForm(false);
+	}
+
+	void multipartForm(boolean chunked) throws Exception {
+		Path file = Files.createTempFile("multipart", ".txt");
+		try {
+			Files.write(file, "file content".getBytes(StandardCharsets.UTF_8));
+			HttpRequest request = newRequest();
+			HttpClientFormEncoder encoder = new HttpClientFormEncoder(ByteBufAllocator.DEFAULT, request, true,
+					StandardCharsets.UTF_8, HttpPostRequestEncoder.EncoderMode.RFC1738);
+			encoder.attr("key", VALUE)
+			       .file("file", file.toFile())
+			       .textFile("text", new ByteArrayInputStream("text content".getBytes(StandardCharsets.UTF_8)));
+
+			assertThat(encoder.finalizeRequest(false, chunked)).isSameAs(request);
+			assertThat(encoder.isChunked()).isTrue();
+			String boundary = encoder.boundary;
+			assertThat(request.headers().get(HttpHeaderNames.CONTENT_TYPE))
+					.isEqualTo("multipart/form-data; boundary=" + boundary);
+
+			ByteBuf body = Unpooled.buffer();
+			Object chunk;
+			while ((chunk = encoder.readChunk(ByteBufAllocator.DEFAULT)) != null) {
+				HttpContent content = (HttpContent) chunk;
+				body.writeBytes(content.content());
+				content.release();
+				assertThat(chunk instanceof LastHttpContent).isEqualTo(encoder.isEndOfInput());
+			}
+			encoder.close();
+
+			assertThat(encoder.progress()).isEqualTo(body.readableBytes());
+			assertThat(encoder.length()).isEqualTo(chunked ? -1 : body.readableBytes());
+			assertThat(body.toString(StandardCharsets.UTF_8)).isEqualTo(
+					"--" + boundary + "\r\n" +
+					"content-disposition: form-data; name=\"key\"\r\n" +
+					"content-type: text/plain; charset=UTF-8\r\n\r\n" +
+					VALUE + "\r\n" +
+					"--" + boundary + "\r\n" +
+					"content-disposition: form-data; name=\"file\"; filename=\"" + file.getFileName() + "\"\r\n" +
+					"content-length: 12\r\n" +
+					"content-type: application/octet-stream\r\n" +
+					"content-transfer-encoding: binary\r\n\r\n" +
+					"file content\r\n" +
+					"--" + boundary + "\r\n" +
+					"content-disposition: form-data; name=\"text\"; filename=\"\"\r\n" +
+					(chunked ? "" : "content-length: 12\r\n") +
+					"content-type: text/plain; charset=UTF-8\r\n\r\n" +
+					"text content\r\n" +
+					"--" + boundary + "--\r\n");
+			body.release();
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void cancelledFormReleasesItsParts() {
+		// the form is cleaned on cancel or termination whatever cleanOnTerminate
+		HttpClientFormEncoder encoder = new HttpClientFormEncoder(ByteBufAllocator.DEFAULT, newRequest(), true,
+				StandardCharsets.UTF_8, HttpPostRequestEncoder.EncoderMode.RFC1738);
+		encoder.cleanOnTerminate(false)
+		       .file("file", "name.bin", new ByteArrayInputStream(new byte[]{1, 2, 3}), null);
+
+		encoder.finalizeRequest(false, false);
+		ByteBuf content = ((HttpClientFormEncoder.FilePart) encoder.parts.get(0)).content;
+		assertThat(content).isNotNull();
+		assertThat(content.refCnt()).isEqualTo(1);
+
+		encoder.run();
+		assertThat(content.refCnt()).isEqualTo(0);
+
+		AtomicBoolean streamClosed = new AtomicBoolean();
+		InputStream stream = new ByteArrayInputStream(new byte[]{1, 2, 3}) {
+			@Override
+			public void close() {
+				streamClosed.set(true);
+			}
+		};
+		encoder = new HttpClientFormEncoder(ByteBufAllocator.DEFAULT, newRequest(), true,
+				StandardCharsets.UTF_8, HttpPostRequestEncoder.EncoderMode.RFC1738);
+		encoder.cleanOnTerminate(false)
+		       .textFile("text", stream);
+
+		encoder.finalizeRequest(false, true);
+		assertThat(streamClosed.get()).isFalse();
+
+		encoder.run();
+		assertThat(streamClosed.get()).isTrue();
+	}
+
+	@Test
+	public void streamFilenameIsRequired() {
+		HttpClientFormEncoder encoder = new HttpClientFormEncoder(ByteBufAllocator.DEFAULT, newRequest(), true,
+				StandardCharsets.UTF_8, HttpPostRequestEncoder.EncoderMode.RFC1738);
+		assertThatExceptionOfType(NullPointerException.class)
+				.isThrownBy(() -> encoder.file("file", null, new ByteArrayInputStream(new byte[0]), null))
+				.withMessage("filename");
+	}
+
+	static HttpRequest newRequest() {
+		return new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/");
+	}
+}
@@ -61,6 +61,7 @@ import io.netty.channel.ChannelId;
 import io.netty.channel.group.ChannelGroup;
 import io.netty.channel.group.DefaultChannelGroup;
 import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.handler.codec.LineBasedFrameDecoder;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
 import io.netty.handler.codec.http.HttpClientCodec;
 import io.netty.handler.codec.http.HttpContentDecompressor;
@@ -2405,6 +2406,137 @@ public class HttpClientTest {
 		assertThat(info.requestHeaders().get("testIssue1031")).isEqualTo(expectedLocation);
 	}
 
+	@Test
+	public void pipeliningRequests() {
+		AtomicInteger connections = new AtomicInteger();
+		disposableServer =
+				HttpServer.create()
+				          .port(0)
+				          .doOnConnection(conn -> connections.incrementAndGet())
+				          .handle((req, res) -> res.sendString(Mono.delay(Duration.ofMillis(50))
+				                                                   .map(l -> req.uri())))
+				          .wiretap(true)
+				          .bindNow();
+
+		ConnectionProvider provider = ConnectionProvider.create("pipeliningRequests", 10);
+		HttpClient client =
+				HttpClient.create(provider)
+				          .port(disposableServer.port())
+				          .pipelining(4)
+				          .wiretap(true);
+
+		List<String> responses =
+				Flux.range(1, 8)
+				    .flatMap(i -> client.get()
+				                        .uri("/" + i)
+				                        .responseContent()
+				                        .aggregate()
+				                        .asString()
+				                        .map(body -> "/" + i + " " + body))
+				    .collectList()
+				    .block(Duration.ofSeconds(30));
+
+		assertThat(responses).isNotNull();
+		assertThat(responses).hasSize(8);
+		assertThat(responses).allMatch(r -> r.substring(0, r.indexOf(' ')).equals(r.substring(r.indexOf(' ') + 1)));
+		// The 8 requests are pipelined on 2 connections
+		assertThat(connections.get()).isEqualTo(2);
+
+		provider.disposeLater()
+		        .block(Duration.ofSeconds(30));
+	}
+
+	@Test
+	public void pipeliningRequestsRetriedWhenConnectionClosed() {
+		AtomicInteger connections = new AtomicInteger();
+		AtomicBoolean first = new AtomicBoolean(true);
+		disposableServer =
+				HttpServer.create()
+				          .port(0)
+				          .doOnConnection(conn -> connections.incrementAndGet())
+				          .handle((req, res) -> {
+				              if (first.compareAndSet(true, false)) {
+				                  // The queued requests of the connection are left without response
+				                  return res.sendString(Mono.delay(Duration.ofMillis(100))
+				                                            .map(l -> req.uri()))
+				                            .then()
+				                            .then(Mono.fromRunnable(() -> res.withConnection(Connection::dispose)));
+				              }
+				              return res.sendString(Mono.just(req.uri()));
+				          })
+				          .wiretap(true)
+				          .bindNow();
+
+		ConnectionProvider provider = ConnectionProvider.create("pipeliningRequestsRetriedWhenConnectionClosed", 10);
+		HttpClient client =
+				HttpClient.create(provider)
+				          .port(disposableServer.port())
+				          .pipelining(4)
+				          .wiretap(true);
+
+		List<String> responses =
+				Flux.range(1, 4)
+				    .flatMap(i -> client.get()
+				                        .uri("/" + i)
+				                        .responseContent()
+				                        .aggregate()
+				                        .asString()
+				                        .map(body -> "/" + i + " " + body))
+				    .collectList()
+				    .block(Duration.ofSeconds(30));
+
+		assertThat(responses).isNotNull();
+		assertThat(responses).hasSize(4);
+		assertThat(responses).allMatch(r -> r.substring(0, r.indexOf(' ')).equals(r.substring(r.indexOf(' ') + 1)));
+		// The requests queued on the closed connection are retried on a new connection
+		assertThat(connections.get()).isEqualTo(2);
+
+		provider.disposeLater()
+		        .block(Duration.ofSeconds(30));
+	}
+
+	@Test
+	public void pipeliningRequestsSkipInformationalResponses() {
+		disposableServer =
+				TcpServer.create()
+				         .port(0)
+				         .doOnConnection(conn -> conn.addHandlerLast(new LineBasedFrameDecoder(1024)))
+				         .handle((in, out) ->
+				             out.sendString(in.receive()
+				                              .asString()
+				                              .filter(line -> line.startsWith("GET "))
+				                              .map(line -> {
+				                                  String uri = line.substring(4, line.indexOf(' ', 4));
+				                                  return "HTTP/1.1 100 Continue\r\n\r\n" +
+				                                          "HTTP/1.1 200 OK\r\nContent-Length: " + uri.length() +
+				                                          "\r\n\r\n" + uri;
+				                              })))
+				         .wiretap(true)
+				         .bindNow();
+
+		ConnectionProvider provider = ConnectionProvider.create("pipeliningRequestsSkipInformationalResponses", 10);
+		HttpClient client =
+				HttpClient.create(provider)
+				          .port(disposableServer.port())
+				          .pipelining(4)
+				          .wiretap(true);
+
+		List<String> responses =
+				Flux.range(1, 4)
+				    .flatMap(i -> client.get()
+				                        .uri("/" + i)
+				                        .responseSingle((res, body) -> body.asString()
+				                                                           .map(b -> res.status().code() + " /" + i + " " + b)))
+				    .collectList()
+				    .block(Duration.ofSeconds(30));
+
+		assertThat(responses).isNotNull();
+		assertThat(responses).containsExactlyInAnyOrder("200 /1 /1", "200 /2 /2", "200 /3 /3", "200 /4 /4");
+
+		provider.disposeLater()
+		        .block(Duration.ofSeconds(30));
+	}
+
 	@Test
 	public void testIssue1159() {
 		disposableServer =
@@ -21,7 +21,6 @@ import java.net.URI;
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.BiFunction;
-import java.util.regex.Matcher;
 
 import org.junit.Test;
 import reactor.netty.transport.AddressUtils;
@@ -29,7 +28,6 @@ import reactor.netty.transport.AddressUtils;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
 
 public class UriEndpointFactoryTest {
 	private final UriEndpointFactoryBuilder builder = new UriEndpointFactoryBuilder();
@@ -39,49 +37,99 @@ public class UriEndpointFactoryTest {
 		List<String[]> inputs = Arrays.asList(
 				new String[]{"http://localhost:80/path", "http", "localhost", "80", "/path"},
 				new String[]{"http://localhost:80/path?key=val", "http", "localhost", "80", "/path?key=val"},
-				new String[]{"http://localhost/path", "http", "localhost", null, "/path"},
-				new String[]{"http://localhost/path?key=val", "http", "localhost", null, "/path?key=val"},
-				new String[]{"http://localhost/", "http", "localhost", null, "/"},
-				new String[]{"http://localhost/?key=val", "http", "localhost", null, "/?key=val"},
-				new String[]{"http://localhost", "http", "localhost", null, null},
-				new String[]{"http://localhost?key=val", "http", "localhost", null, "?key=val"},
-				new String[]{"http://localhost:80", "http", "localhost", "80", null},
-				new String[]{"http://localhost:80?key=val", "http", "localhost", "80", "?key=val"},
-				new String[]{"http://localhost/:1234", "http", "localhost", null, "/:1234"},
-				new String[]{"http://[::1]:80/path", "http", "[::1]", "80", "/path"},
-				new String[]{"http://[::1]:80/path?key=val", "http", "[::1]", "80", "/path?key=val"},
-				new String[]{"http://[::1]/path", "http", "[::1]", null, "/path"},
-				new String[]{"http://[::1]/path?key=val", "http", "[::1]", null, "/path?key=val"},
-				new String[]{"http://[::1]/", "http", "[::1]", null, "/"},
-				new String[]{"http://[::1]/?key=val", "http", "[::1]", null, "/?key=val"},
-				new String[]{"http://[::1]", "http", "[::1]", null, null},
-				new String[]{"http://[::1]?key=val", "http", "[::1]", null, "?key=val"},
-				new String[]{"http://[::1]:80", "http", "[::1]", "80", null},
-				new String[]{"http://[::1]:80?key=val", "http", "[::1]", "80", "?key=val"},
-				new String[]{"localhost:80/path", null, "localhost", "80", "/path"},
-				new String[]{"localhost:80/path?key=val", null, "localhost", "80", "/path?key=val"},
-				new String[]{"localhost/path", null, "localhost", null, "/path"},
-				new String[]{"localhost/path?key=val", null, "localhost", null, "/path?key=val"},
-				new String[]{"localhost/", null, "localhost", null, "/"},
-				new String[]{"localhost/?key=val", null, "localhost", null, "/?key=val"},
-				new String[]{"localhost", null, "localhost", null, null},
-				new String[]{"localhost?key=val", null, "localhost", null, "?key=val"},
-				new String[]{"localhost:80", null, "localhost", "80", null},
-				new String[]{"localhost:80?key=val", null, "localhost", "80", "?key=val"},
-				new String[]{"localhost/:1234", null, "localhost", null, "/:1234"}
+				new String[]{"http://localhost/path", "http", "localhost", "80", "/path"},
+				new String[]{"http://localhost/path?key=val", "http", "localhost", "80", "/path?key=val"},
+				new String[]{"http://localhost/", "http", "localhost", "80", "/"},
+				new String[]{"http://localhost/?key=val", "http", "localhost", "80", "/?key=val"},
+				new String[]{"http://localhost", "http", "localhost", "80", "/"},
+				new String[]{"http://localhost?key=val", "http", "localhost", "80", "/?key=val"},
+				new String[]{"http://localhost:80", "http", "localhost", "80", "/"},
+				new String[]{"http://localhost:80?key=val", "http", "localhost", "80", "/?key=val"},
+				new String[]{"http://localhost/:1234", "http", "localhost", "80", "/:1234"},
+				new String[]{"http://[::1]:80/path", "http", "::1", "80", "/path"},
+				new String[]{"http://[::1]:80/path?key=val", "http", "::1", "80", "/path?key=val"},
+				new String[]{"http://[::1]/path", "http", "::1", "80", "/path"},
+				new String[]{"http://[::1]/path?key=val", "http", "::1", "80", "/path?key=val"},
+				new String[]{"http://[::1]/", "http", "::1", "80", "/"},
+				new String[]{"http://[::1]/?key=val", "http", "::1", "80", "/?key=val"},
+				new String[]{"http://[::1]", "http", "::1", "80", "/"},
+				new String[]{"http://[::1]?key=val", "http", "::1", "80", "/?key=val"},
+				new String[]{"http://[::1]:80", "http", "::1", "80", "/"},
+				new String[]{"http://[::1]:80?key=val", "http", "::1", "80", "/?key=val"},
+				new String[]{"localhost:80/path", "http", "localhost", "80", "/path"},
+				new String[]{"localhost:80/path?key=val", "http", "localhost", "80", "/path?key=val"},
+				new String[]{"localhost/path", "http", "localhost", "80", "/path"},
+				new String[]{"localhost/path?key=val", "http", "localhost", "80", "/path?key=val"},
+				new String[]{"localhost/", "http", "localhost", "80", "/"},
+				new String[]{"localhost/?key=val", "http", "localhost", "80", "/?key=val"},
+				new String[]{"localhost", "http", "localhost", "80", "/"},
+				new String[]{"localhost?key=val", "http", "localhost", "80", "/?key=val"},
+				new String[]{"localhost:80", "http", "localhost", "80", "/"},
+				new String[]{"localhost:80?key=val", "http", "localhost", "80", "/?key=val"},
+				new String[]{"localhost/:1234", "http", "localhost", "80", "/:1234"}
 				);
 
+		UriEndpointFactory factory = this.builder.build();
 		for(String[] input : inputs) {
-			Matcher matcher = UriEndpointFactory.URL_PATTERN
-					.matcher(input[0]);
-			assertTrue(matcher.matches());
-			assertEquals(input[1], matcher.group(1));
-			assertEquals(input[2], matcher.group(2));
-			assertEquals(input[3], matcher.group(3));
-			assertEquals(input[4], matcher.group(4));
+			UriEndpoint endpoint = factory.createUriEndpoint(input[0], false);
+			assertEquals(input[1], endpoint.scheme);
+			assertEquals(input[2], endpoint.host);
+			assertEquals(Integer.parseInt(input[3]), endpoint.port);
+			assertEquals(input[4], endpoint.pathAndQuery);
 		}
 	}
 
+	@Test
+	public void shouldParseUrls_3() {
+		UriEndpointFactory factory = this.builder.build();
+
+		UriEndpoint endpoint = factory.createUriEndpoint("HTTPS://Example.com:8443/path#fragment", false);
+		assertThat(endpoint.scheme).isEqualTo("https");
+		assertThat(endpoint.host).isEqualTo("Example.com");
+		assertThat(endpoint.port).isEqualTo(8443);
+		assertThat(endpoint.pathAndQuery).isEqualTo("/path");
+
+		assertThat(factory.createUriEndpoint("example.com#fragment", false).toExternalForm())
+				.isEqualTo("http://example.com/");
+		assertThat(factory.createUriEndpoint("https://[::1]", false).toExternalForm())
+				.isEqualTo("https://[::1]/");
+
+		assertThatExceptionOfType(IllegalArgumentException.class)
+				.isThrownBy(() -> factory.createUriEndpoint("http://", false));
+		assertThatExceptionOfType(IllegalArgumentException.class)
+				.isThrownBy(() -> factory.createUriEndpoint("http://[::1/path", false));
+		assertThatExceptionOfType(IllegalArgumentException.class)
+				.isThrownBy(() -> factory.createUriEndpoint("http://[::1]:abc/path", false));
+	}
+
+	@Test
+	public void createUriEndpointCachesAuthority() {
+		UriEndpointFactory factory = this.builder.build();
+
+		UriEndpoint endpoint1 = factory.createUriEndpoint("http://example.com:8080/foo", false);
+		UriEndpoint endpoint2 = factory.createUriEndpoint("http://example.com:8080/bar?key=val", false);
+		assertThat(endpoint2.remoteAddress).isSameAs(endpoint1.remoteAddress);
+		assertThat(endpoint2.getRemoteAddress()).isSameAs(endpoint1.getRemoteAddress());
+		assertThat(endpoint2.pathAndQuery).isEqualTo("/bar?key=val");
+
+		// The cached remote address is not shared with another address mapper
+		UriEndpoint endpoint3 = new UriEndpointFactory(factory.connectAddress, false, InetSocketAddress::createUnresolved)
+				.createUriEndpoint("http://example.com:8080/foo", false);
+		assertThat(endpoint3.remoteAddress).isNotSameAs(endpoint1.remoteAddress);
+	}
+
+	@Test
+	public void createUriEndpointEvictsASingleAuthority() {
+		UriEndpointFactory factory = this.builder.build();
+		UriEndpointFactory.AUTHORITIES.clear();
+
+		for (int i = 0; i < UriEndpointFactory.CACHE_SIZE + 1; i++) {
+			factory.createUriEndpoint("http://host" + i + ":8080/foo", false);
+		}
+		assertThat(UriEndpointFactory.AUTHORITIES).hasSize(UriEndpointFactory.CACHE_SIZE);
+		assertThat(UriEndpointFactory.AUTHORITIES).containsKey("http://host" + UriEndpointFactory.CACHE_SIZE + ":8080");
+	}
+
 	@Test
 	public void shouldParseUrls_2() throws Exception {
 		List<String[]> inputs = Arrays.asList(
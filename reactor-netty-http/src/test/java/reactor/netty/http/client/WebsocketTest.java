@@ -19,6 +19,9 @@ package reactor.netty.http.client;
 import java.nio.charset.Charset;
 import java.time.Duration;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -26,8 +29,14 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Predicate;
+import java.util.zip.Deflater;
 
 import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.handler.codec.CorruptedFrameException;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpResponseStatus;
@@ -42,6 +51,7 @@ import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
 import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.FluxProcessor;
 import reactor.core.publisher.Mono;
@@ -53,6 +63,8 @@ import reactor.netty.DisposableServer;
 import reactor.netty.channel.AbortedException;
 import reactor.netty.http.server.HttpServer;
 import reactor.netty.http.server.WebsocketServerSpec;
+import reactor.netty.http.server.WebsocketSessionGroup;
+import reactor.netty.http.websocket.WebsocketCompression;
 import reactor.netty.http.websocket.WebsocketInbound;
 import reactor.netty.http.websocket.WebsocketOutbound;
 import reactor.netty.resources.ConnectionProvider;
@@ -60,6 +72,7 @@ import reactor.test.StepVerifier;
 import reactor.util.Logger;
 import reactor.util.Loggers;
 import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
@@ -1375,4 +1388,414 @@ public class WebsocketTest {
 		            .verify(Duration.ofSeconds(30));
 		assertThat(clientHandler.get()).isEqualTo(compress);
 	}
+
+	@Test
+	public void testCompressionNoContextTakeover() {
+		doTestCompressionParameters(WebsocketServerSpec.builder().compress(true).serverNoContextTakeover(true),
+				WebsocketClientSpec.builder().compress(true),
+				"permessage-deflate;server_no_context_takeover");
+		doTestCompressionParameters(WebsocketServerSpec.builder().compress(true).clientNoContextTakeover(true),
+				WebsocketClientSpec.builder().compress(true).clientNoContextTakeover(true),
+				"permessage-deflate;client_no_context_takeover");
+		doTestCompressionParameters(WebsocketServerSpec.builder().compress(true),
+				WebsocketClientSpec.builder().compress(true).serverNoContextTakeover(true),
+				"permessage-deflate;server_no_context_takeover");
+	}
+
+	@Test
+	public void testCompressionMaxContextTakeoverSessions() {
+		doTestCompressionParameters(WebsocketServerSpec.builder().compress(true).maxContextTakeoverSessions(0),
+				WebsocketClientSpec.builder().compress(true).maxContextTakeoverSessions(-1),
+				"permessage-deflate;server_no_context_takeover");
+		doTestCompressionParameters(WebsocketServerSpec.builder().compress(true).maxContextTakeoverSessions(-1),
+				WebsocketClientSpec.builder().compress(true).maxContextTakeoverSessions(0),
+				"permessage-deflate;server_no_context_takeover");
+	}
+
+	@Test
+	public void testCompressionMaxContextTakeoverSessionsInlineSpec() throws Exception {
+		// The spec is built for each request, the sessions are counted across all of them
+		httpServer =
+				HttpServer.create()
+				          .port(0)
+				          .handle((req, res) ->
+				              res.sendWebsocket(
+				                  (in, out) -> out.sendString(in.receive().asString()),
+				                  WebsocketServerSpec.builder().compress(true).maxContextTakeoverSessions(1).build()))
+				          .wiretap(true)
+				          .bindNow();
+
+		HttpClient client =
+				HttpClient.create()
+				          .remoteAddress(httpServer::address)
+				          .wiretap(true);
+
+		CompletableFuture<String> first = new CompletableFuture<>();
+		Disposable firstSession =
+				client.websocket(WebsocketClientSpec.builder().compress(true).build())
+				      .uri("/")
+				      .handle((in, out) -> {
+				          first.complete(in.headers().get(HttpHeaderNames.SEC_WEBSOCKET_EXTENSIONS));
+				          return in.receive().then();
+				      })
+				      .subscribe();
+
+		try {
+			assertThat(first.get(30, TimeUnit.SECONDS).split("\\s*;\\s*")).containsExactly("permessage-deflate");
+
+			String second =
+					client.websocket(WebsocketClientSpec.builder().compress(true).build())
+					      .uri("/")
+					      .handle((in, out) -> Mono.justOrEmpty(in.headers().get(HttpHeaderNames.SEC_WEBSOCKET_EXTENSIONS)))
+					      .blockLast(Duration.ofSeconds(30));
+
+			assertThat(second).isNotNull();
+			assertThat(second.split("\\s*;\\s*"))
+					.containsExactlyInAnyOrder("permessage-deflate", "server_no_context_takeover");
+		}
+		finally {
+			firstSession.dispose();
+		}
+	}
+
+	@Test
+	public void testCompressionFallbackOffers() throws Exception {
+		httpServer =
+				HttpServer.create()
+				          .port(0)
+				          .handle((req, res) ->
+				              res.sendWebsocket(
+				                  (in, out) -> out.sendString(in.receive().asString()),
+				                  WebsocketServerSpec.builder().compress(true).maxContextTakeoverSessions(2).build()))
+				          .wiretap(true)
+				          .bindNow();
+
+		// The client offers permessage-deflate twice, the fallback offer is declined without holding a session
+		CompletableFuture<String> first = new CompletableFuture<>();
+		Disposable firstSession =
+				HttpClient.create()
+				          .remoteAddress(httpServer::address)
+				          .headers(h -> h.set(HttpHeaderNames.SEC_WEBSOCKET_EXTENSIONS,
+				                  "permessage-deflate; client_max_window_bits, permessage-deflate"))
+				          .wiretap(true)
+				          .websocket()
+				          .uri("/")
+				          .handle((in, out) -> {
+				              first.complete(in.headers().get(HttpHeaderNames.SEC_WEBSOCKET_EXTENSIONS));
+				              return in.receive().then();
+				          })
+				          .subscribe();
+
+		try {
+			assertThat(first.get(30, TimeUnit.SECONDS).split("\\s*,\\s*")).hasSize(1);
+
+			String second =
+					HttpClient.create()
+					          .remoteAddress(httpServer::address)
+					          .wiretap(true)
+					          .websocket(WebsocketClientSpec.builder().compress(true).build())
+					          .uri("/")
+					          .handle((in, out) -> Mono.justOrEmpty(in.headers().get(HttpHeaderNames.SEC_WEBSOCKET_EXTENSIONS)))
+					          .blockLast(Duration.ofSeconds(30));
+
+			// The second session keeps its compression context
+			assertThat(second).isNotNull();
+			assertThat(second.split("\\s*;\\s*")).containsExactly("permessage-deflate");
+		}
+		finally {
+			firstSession.dispose();
+		}
+	}
+
+	@Test
+	public void testCompressionMinPayloadSize() {
+		doTestCompressionParameters(WebsocketServerSpec.builder().compress(true).compressionMinPayloadSize(1024),
+				WebsocketClientSpec.builder().compress(true).compressionMinPayloadSize(1024).compressionLevel(9),
+				"permessage-deflate");
+	}
+
+	@Test
+	public void testCompressionMinPayloadSizeFrames() {
+		httpServer =
+				HttpServer.create()
+				          .port(0)
+				          .handle((req, res) ->
+				              res.sendWebsocket(
+				                  (in, out) -> out.sendString(in.receive().asString()),
+				                  WebsocketServerSpec.builder()
+				                                     .compress(true)
+				                                     .compressionMinPayloadSize(1024)
+				                                     .compressionLevel(1)
+				                                     .serverMaxWindowBits(10)
+				                                     .build()))
+				          .wiretap(true)
+				          .bindNow();
+
+		// The frames as received from the server, before they are decompressed
+		List<WebSocketFrame> frames = new CopyOnWriteArrayList<>();
+		ChannelInboundHandlerAdapter probe = new ChannelInboundHandlerAdapter() {
+			@Override
+			public void channelRead(ChannelHandlerContext ctx, Object msg) {
+				if (msg instanceof TextWebSocketFrame) {
+					frames.add(((TextWebSocketFrame) msg).copy());
+				}
+				ctx.fireChannelRead(msg);
+			}
+		};
+
+		StringBuilder large = new StringBuilder();
+		Random random = new Random(0);
+		while (large.length() < 4096) {
+			large.append("word").append(random.nextInt(100)).append(' ');
+		}
+
+		StepVerifier.create(
+		        HttpClient.create()
+		                  .remoteAddress(httpServer::address)
+		                  .wiretap(true)
+		                  .websocket(WebsocketClientSpec.builder().compress(true).build())
+		                  .uri("/")
+		                  .handle((in, out) -> {
+		                      in.withConnection(c -> c.channel().pipeline().addAfter("ws-decoder", "probe", probe));
+		                      return out.sendString(Flux.just("test", large.toString()))
+		                                .then()
+		                                .thenMany(in.receive()
+		                                            .asString()
+		                                            .take(2)
+		                                            .collectList()
+		                                            .map(list -> Tuples.of(in.headers()
+		                                                                     .get(HttpHeaderNames.SEC_WEBSOCKET_EXTENSIONS),
+		                                                                   list)));
+		                  }))
+		            .assertNext(t -> {
+		                // Without JZlib the window of the server deflater cannot be limited
+		                if (WebsocketCompression.JZLIB_AVAILABLE) {
+		                    assertThat(t.getT1().split("\\s*;\\s*"))
+		                            .containsExactlyInAnyOrder("permessage-deflate", "server_max_window_bits=10");
+		                }
+		                else {
+		                    assertThat(t.getT1().split("\\s*;\\s*")).containsExactly("permessage-deflate");
+		                }
+		                assertThat(t.getT2()).containsExactly("test", large.toString());
+		            })
+		            .expectComplete()
+		            .verify(Duration.ofSeconds(30));
+
+		try {
+			assertThat(frames).hasSize(2);
+			// The small message is sent uncompressed, the RSV1 bit is not set
+			assertThat(frames.get(0).rsv() & 0x4).isEqualTo(0);
+			assertThat(frames.get(0).content().toString(Charset.defaultCharset())).isEqualTo("test");
+			// The large message is compressed, with the configured level
+			assertThat(frames.get(1).rsv() & 0x4).isEqualTo(0x4);
+			if (!WebsocketCompression.JZLIB_AVAILABLE) {
+				byte[] payload = large.toString().getBytes(Charset.defaultCharset());
+				assertThat(deflatedLength(payload, 1)).isNotEqualTo(deflatedLength(payload, 9));
+				assertThat(frames.get(1).content().readableBytes()).isEqualTo(deflatedLength(payload, 1));
+			}
+			else {
+				assertThat(frames.get(1).content().readableBytes()).isLessThan(large.length());
+			}
+		}
+		finally {
+			frames.forEach(WebSocketFrame::release);
+		}
+	}
+
+	/**
+	 * Returns the length of the payload of a {@code permessage-deflate} message compressed with a new context,
+	 * the trailing {@code 0x00 0x00 0xff 0xff} of the flushed block is not sent.
+	 */
+	private static int deflatedLength(byte[] payload, int level) {
+		Deflater deflater = new Deflater(level, true);
+		try {
+			deflater.setInput(payload);
+			byte[] buffer = new byte[payload.length + 64];
+			return deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH) - 4;
+		}
+		finally {
+			deflater.end();
+		}
+	}
+
+	private void doTestCompressionParameters(WebsocketServerSpec.Builder serverSpec,
+			WebsocketClientSpec.Builder clientSpec, String expectedExtensions) {
+		httpServer =
+				HttpServer.create()
+				          .port(0)
+				          .handle((req, res) ->
+				              res.sendWebsocket(
+				                  (in, out) -> out.sendString(in.receive().asString()),
+				                  serverSpec.build()))
+				          .wiretap(true)
+				          .bindNow();
+
+		StepVerifier.create(
+		        HttpClient.create()
+		                  .remoteAddress(httpServer::address)
+		                  .wiretap(true)
+		                  .websocket(clientSpec.build())
+		                  .uri("/")
+		                  .handle((in, out) ->
+		                      out.sendString(Flux.just("test", "test", "test"))
+		                         .then()
+		                         .thenMany(in.receive()
+		                                     .asString()
+		                                     .take(3)
+		                                     .collectList()
+		                                     .map(list -> Tuples.of(in.headers()
+		                                                              .get(HttpHeaderNames.SEC_WEBSOCKET_EXTENSIONS),
+		                                                            list)))))
+		            .assertNext(t -> {
+		                assertThat(t.getT1().split("\\s*;\\s*")).containsExactlyInAnyOrder(expectedExtensions.split(";"));
+		                assertThat(t.getT2()).containsExactly("test", "test", "test");
+		            })
+		            .expectComplete()
+		            .verify(Duration.ofSeconds(30));
+
+		httpServer.disposeNow();
+	}
+
+	@Test
+	public void testSessionGroupBroadcast() throws Exception {
+		WebsocketSessionGroup group = WebsocketSessionGroup.create();
+		CountDownLatch joined = new CountDownLatch(3);
+		BiFunction<WebsocketInbound, WebsocketOutbound, Publisher<Void>> handler =
+				(in, out) -> {
+				    group.add(out);
+				    joined.countDown();
+				    return in.receive().then();
+				};
+		httpServer =
+				HttpServer.create()
+				          .port(0)
+				          .route(r -> r.ws("/shared", handler,
+				                              WebsocketServerSpec.builder().compress(true).serverNoContextTakeover(true).build())
+				                       .ws("/", handler, WebsocketServerSpec.builder().compress(true).build()))
+				          .wiretap(true)
+				          .bindNow();
+
+		CompletableFuture<List<List<String>>> received =
+				Flux.merge(receiveBroadcast("/shared", true),
+				           receiveBroadcast("/", true),
+				           receiveBroadcast("/", false))
+				    .collectList()
+				    .toFuture();
+
+		assertThat(joined.await(30, TimeUnit.SECONDS)).isTrue();
+		assertThat(group.size()).isEqualTo(3);
+
+		StringBuilder tick = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			tick.append("tick ").append(i % 10).append(' ');
+		}
+		group.broadcastString(tick.toString());
+		group.broadcast(new TextWebSocketFrame("last"));
+
+		assertThat(received.get(30, TimeUnit.SECONDS))
+				.hasSize(3)
+				.allSatisfy(messages -> assertThat(messages).containsExactly(tick.toString(), "last"));
+	}
+
+	@Test
+	public void testSessionGroupSlowConsumerDrop() throws Exception {
+		// The messages broadcast while the session is slow are not sent
+		assertThat(doTestSessionGroupSlowConsumer(WebsocketSessionGroup.SlowConsumerPolicy.DROP))
+				.containsExactly("last");
+	}
+
+	@Test
+	public void testSessionGroupSlowConsumerDisconnect() throws Exception {
+		// The slow session is closed
+		assertThat(doTestSessionGroupSlowConsumer(WebsocketSessionGroup.SlowConsumerPolicy.DISCONNECT))
+				.isEmpty();
+	}
+
+	@Test
+	public void testSessionGroupSlowConsumerCoalesce() throws Exception {
+		// The latest message broadcast while the session is slow is sent once it is writable again
+		assertThat(doTestSessionGroupSlowConsumer(WebsocketSessionGroup.SlowConsumerPolicy.COALESCE))
+				.containsExactly("m2", "last");
+	}
+
+	private List<String> doTestSessionGroupSlowConsumer(WebsocketSessionGroup.SlowConsumerPolicy policy) throws Exception {
+		// The default policy of the group is overridden by the policy of the session
+		WebsocketSessionGroup group =
+				WebsocketSessionGroup.builder()
+				                     .slowConsumerPolicy(policy == WebsocketSessionGroup.SlowConsumerPolicy.DROP ?
+				                             WebsocketSessionGroup.SlowConsumerPolicy.DISCONNECT :
+				                             WebsocketSessionGroup.SlowConsumerPolicy.DROP)
+				                     .build();
+		AtomicReference<Channel> serverChannel = new AtomicReference<>();
+		CountDownLatch joined = new CountDownLatch(1);
+		httpServer =
+				HttpServer.create()
+				          .port(0)
+				          .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(4096, 8192))
+				          .childOption(ChannelOption.SO_SNDBUF, 4096)
+				          .handle((req, res) -> res.sendWebsocket((in, out) -> {
+				              out.withConnection(c -> serverChannel.set(c.channel()));
+				              group.add(out, policy);
+				              joined.countDown();
+				              return in.receive().then();
+				          }))
+				          .bindNow();
+
+		// The client does not read until the messages are broadcast to the slow session
+		CompletableFuture<Void> resume = new CompletableFuture<>();
+		CompletableFuture<List<String>> received =
+				HttpClient.create()
+				          .remoteAddress(httpServer::address)
+				          .option(ChannelOption.SO_RCVBUF, 4096)
+				          .websocket()
+				          .uri("/")
+				          .handle((in, out) -> in.receive()
+				                                 .asString()
+				                                 .concatMap(message -> Mono.fromFuture(resume).thenReturn(message), 1)
+				                                 .filter(message -> message.length() < 16)
+				                                 .takeUntil("last"::equals))
+				          .collectList()
+				          .toFuture();
+
+		assertThat(joined.await(30, TimeUnit.SECONDS)).isTrue();
+		Channel channel = serverChannel.get();
+
+		String filler = new String(new char[16384]).replace('\0', 'x');
+		for (int i = 0; i < 1000 && channel.isWritable(); i++) {
+			group.broadcastString(filler);
+			Thread.sleep(10);
+		}
+		assertThat(channel.isWritable()).isFalse();
+
+		group.broadcastString("m1");
+		group.broadcastString("m2");
+
+		if (policy == WebsocketSessionGroup.SlowConsumerPolicy.DISCONNECT) {
+			assertThat(channel.closeFuture().await(30, TimeUnit.SECONDS)).isTrue();
+			resume.complete(null);
+		}
+		else {
+			resume.complete(null);
+			for (int i = 0; i < 3000 && !channel.isWritable(); i++) {
+				Thread.sleep(10);
+			}
+			assertThat(channel.isWritable()).isTrue();
+			assertThat(group.size()).isEqualTo(1);
+			group.broadcastString("last");
+		}
+
+		return received.get(30, TimeUnit.SECONDS);
+	}
+
+	private Mono<List<String>> receiveBroadcast(String uri, boolean compress) {
+		return HttpClient.create()
+		                 .remoteAddress(httpServer::address)
+		                 .wiretap(true)
+		                 .websocket(WebsocketClientSpec.builder().compress(compress).build())
+		                 .uri(uri)
+		                 .handle((in, out) -> in.receive()
+		                                        .asString()
+		                                        .take(2))
+		                 .collectList();
+	}
 }
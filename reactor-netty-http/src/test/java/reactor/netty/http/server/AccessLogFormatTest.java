@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http.server;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class AccessLogFormatTest {
+
+	@Test
+	public void encodeAllDirectives() {
+		AccessLogFormat format = AccessLogFormat.compile(
+				"%a %p %c %u \"%r\" %s %b %O %I %D %T %{User-Agent}i %{Content-Type}o %{X-Missing}i 100%%",
+				1, -1, -1);
+		AccessLog accessLog = new AccessLog(format)
+				.address("127.0.0.1")
+				.port(8080)
+				.connectionId("a1b2c3d4")
+				.method("POST")
+				.uri("/orders")
+				.protocol("HTTP/1.1")
+				.requestHeaders(new DefaultHttpHeaders().add("user-agent", "curl"))
+				.responseHeaders(new DefaultHttpHeaders().add("content-type", "application/json"))
+				.increaseBytesReceived(5)
+				.status("201")
+				.contentLength(7);
+		accessLog.latencyNanos = 2_500_000;
+
+		assertThat(encode(format, accessLog)).isEqualTo(
+				"127.0.0.1 8080 a1b2c3d4 - \"POST /orders HTTP/1.1\" 201 7 7 5 2500 2 curl application/json - 100%");
+	}
+
+	@Test
+	public void encodeNonAsciiUri() {
+		AccessLogFormat format = AccessLogFormat.compile("%U", 1, -1, -1);
+		AccessLog accessLog = new AccessLog(format).uri("/café");
+
+		assertThat(encode(format, accessLog)).isEqualTo("/café");
+	}
+
+	@Test
+	public void encodeRouteTemplate() {
+		AccessLogFormat format = AccessLogFormat.compile("%U %R", 1, -1, -1);
+		AccessLog accessLog = new AccessLog(format).uri("/users/1");
+
+		assertThat(encode(format, accessLog)).isEqualTo("/users/1 -");
+
+		accessLog.route("/users/{id}");
+
+		assertThat(encode(format, accessLog)).isEqualTo("/users/1 /users/{id}");
+
+		accessLog.reset();
+
+		assertThat(accessLog.route).isNull();
+	}
+
+	@Test
+	public void invalidFormat() {
+		assertThatExceptionOfType(IllegalArgumentException.class)
+				.isThrownBy(() -> AccessLogFormat.compile("%z", 1, -1, -1));
+		assertThatExceptionOfType(IllegalArgumentException.class)
+				.isThrownBy(() -> AccessLogFormat.compile("%s %", 1, -1, -1));
+		assertThatExceptionOfType(IllegalArgumentException.class)
+				.isThrownBy(() -> AccessLogFormat.compile("%{User-Agent", 1, -1, -1));
+		assertThatExceptionOfType(IllegalArgumentException.class)
+				.isThrownBy(() -> AccessLogFormat.compile("%{User-Agent}x", 1, -1, -1));
+		assertThatExceptionOfType(IllegalArgumentException.class)
+				.isThrownBy(() -> AccessLogSpec.builder().format("%{}i").build());
+	}
+
+	@Test
+	public void sampleErrorsAndSlowRequestsOnly() {
+		AccessLogSpec spec = AccessLogSpec.builder()
+		                                  .sampleRate(0)
+		                                  .errorStatusThreshold(500)
+		                                  .latencyThreshold(Duration.ofMillis(100))
+		                                  .build();
+		AccessLogFormat format = spec.compiled;
+
+		AccessLog accessLog = new AccessLog(format).status("200");
+		accessLog.latencyNanos = Duration.ofMillis(10).toNanos();
+		assertThat(format.shouldLog(accessLog)).isFalse();
+
+		accessLog.status("503");
+		assertThat(format.shouldLog(accessLog)).isTrue();
+
+		accessLog.status("200");
+		accessLog.latencyNanos = Duration.ofMillis(100).toNanos();
+		assertThat(format.shouldLog(accessLog)).isTrue();
+	}
+
+	@Test
+	public void sampleOneInN() {
+		AccessLogFormat format = AccessLogFormat.compile(AccessLogSpec.DEFAULT_FORMAT, 10, -1, -1);
+		AccessLog accessLog = new AccessLog(format).status("200");
+
+		int logged = 0;
+		for (int i = 0; i < 10_000; i++) {
+			if (format.shouldLog(accessLog)) {
+				logged++;
+			}
+		}
+		assertThat(logged).isBetween(700, 1300);
+		assertThat(AccessLogFormat.DEFAULT.shouldLog(accessLog)).isTrue();
+	}
+
+	@Test
+	public void writeDecimal() {
+		ByteBuf buf = Unpooled.buffer();
+		try {
+			for (long value : new long[]{0, 7, 10, 99, 1234567890123L}) {
+				buf.clear();
+				AccessLogFormat.writeDecimal(buf, value);
+				assertThat(buf.toString(StandardCharsets.US_ASCII)).isEqualTo(Long.toString(value));
+			}
+		}
+		finally {
+			buf.release();
+		}
+	}
+
+	static String encode(AccessLogFormat format, AccessLog accessLog) {
+		ByteBuf buf = Unpooled.buffer();
+		try {
+			format.encode(accessLog, buf);
+			return buf.toString(StandardCharsets.UTF_8);
+		}
+		finally {
+			buf.release();
+		}
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http.server;
+
+import java.nio.charset.StandardCharsets;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AccessLogTest {
+
+	@Test
+	public void encodeCommonLogFormat() {
+		AccessLog accessLog = new AccessLog(AccessLogFormat.DEFAULT)
+				.address("127.0.0.1")
+				.port(8080)
+				.method("GET")
+				.uri("/hello?q=reactor")
+				.protocol("HTTP/1.1")
+				.status("200")
+				.contentLength(12);
+
+		ByteBuf buf = Unpooled.buffer();
+		try {
+			AccessLogFormat.DEFAULT.encode(accessLog, buf);
+			String line = buf.toString(StandardCharsets.UTF_8);
+			assertThat(line).startsWith("127.0.0.1 - - [" + accessLog.zonedDateTime + "] \"GET /hello?q=reactor HTTP/1.1\" 200 12 8080 ")
+			                .endsWith(" ms\n");
+		}
+		finally {
+			buf.release();
+		}
+	}
+
+	@Test
+	public void encodeMissingContentLength() {
+		AccessLog accessLog = new AccessLog(AccessLogFormat.DEFAULT)
+				.address("127.0.0.1")
+				.port(8080)
+				.method("GET")
+				.uri("/")
+				.protocol("HTTP/1.1")
+				.status("200")
+				.contentLength(-1);
+
+		ByteBuf buf = Unpooled.buffer();
+		try {
+			AccessLogFormat.DEFAULT.encode(accessLog, buf);
+			assertThat(buf.toString(StandardCharsets.UTF_8)).contains("\" 200 - 8080 ");
+		}
+		finally {
+			buf.release();
+		}
+	}
+
+	@Test
+	public void resetClearsTheCapturedValues() {
+		AccessLogFormat format = AccessLogFormat.compile("%{X-Request-Id}i %{Content-Type}o %I", 1, -1, -1);
+		AccessLog accessLog = new AccessLog(format)
+				.requestHeaders(new DefaultHttpHeaders().add("x-request-id", "42"))
+				.responseHeaders(new DefaultHttpHeaders().add("Content-Type", "text/plain"))
+				.increaseBytesReceived(10);
+
+		assertThat(accessLog.requestHeaderValues).containsExactly("42");
+		assertThat(accessLog.responseHeaderValues).containsExactly("text/plain");
+		assertThat(accessLog.bytesReceived).isEqualTo(10);
+
+		accessLog.reset();
+
+		assertThat(accessLog.requestHeaderValues).containsOnlyNulls();
+		assertThat(accessLog.responseHeaderValues).containsOnlyNulls();
+		assertThat(accessLog.bytesReceived).isZero();
+	}
+
+	@Test
+	public void formatDateIsCachedPerSecond() {
+		long now = System.currentTimeMillis() / 1000 * 1000;
+		String date = AccessLog.formatDate(now);
+		assertThat(AccessLog.formatDate(now + 999)).isSameAs(date);
+		assertThat(AccessLog.formatDate(now + 1000)).isNotEqualTo(date);
+	}
+}
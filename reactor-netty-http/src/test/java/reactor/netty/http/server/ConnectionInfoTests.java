@@ -26,7 +26,13 @@ import java.util.function.Function;
 import javax.net.ssl.SSLException;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.DefaultHttpRequest;
 import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpVersion;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.ssl.SslHandler;
@@ -556,6 +562,126 @@ public class ConnectionInfoTests {
 		});
 	}
 
+	@Test
+	public void parsePortOutOfRange() {
+		testParseAddress("a.example.com:", inetSocketAddress -> assertThat(inetSocketAddress.getPort()).isEqualTo(8080));
+		testParseAddress("a.example.com:65536", inetSocketAddress -> assertThat(inetSocketAddress.getPort()).isEqualTo(8080));
+		testParseAddress("a.example.com:65535", inetSocketAddress -> assertThat(inetSocketAddress.getPort()).isEqualTo(65535));
+	}
+
+	@Test
+	public void forwardedElementTokenizer() {
+		ConnectionInfo.ForwardedElement element = new ConnectionInfo.ForwardedElement();
+		String header = "For = \"[2001:db8:cafe::17]:4711\" ;PROTO=https;by=203.0.113.43;host=\"a\\\"b;c,d\", for=192.0.2.43";
+
+		int next = element.parse(header, 0);
+
+		assertThat(element.forValue).isEqualTo("[2001:db8:cafe::17]:4711");
+		assertThat(element.proto).isEqualTo("https");
+		assertThat(element.host).isEqualTo("a\"b;c,d");
+		assertThat(header.substring(next)).isEqualTo(" for=192.0.2.43");
+	}
+
+	@Test
+	public void forwardedTrustedProxies() {
+		ConnectionInfo.TrustedProxies trustedProxies =
+				ConnectionInfo.TrustedProxies.parse("10.0.0.0/8, 192.168.1.1, fd00::/8, invalid");
+		assertThat(trustedProxies).isNotNull();
+		assertThat(trustedProxies.contains("10.1.2.3")).isTrue();
+		assertThat(trustedProxies.contains("10.1.2.3:8080")).isTrue();
+		assertThat(trustedProxies.contains("11.1.2.3")).isFalse();
+		assertThat(trustedProxies.contains("192.168.1.1")).isTrue();
+		assertThat(trustedProxies.contains("192.168.1.2")).isFalse();
+		assertThat(trustedProxies.contains("[fd12::1]:8080")).isTrue();
+		assertThat(trustedProxies.contains("fe12::1")).isFalse();
+		assertThat(trustedProxies.contains("::ffff:10.0.0.1")).isTrue();
+		assertThat(trustedProxies.contains("unknown")).isFalse();
+		assertThat(trustedProxies.contains("_hidden")).isFalse();
+		assertThat(ConnectionInfo.TrustedProxies.parse(" , invalid")).isNull();
+
+		InetSocketAddress hostAddress = new InetSocketAddress("127.0.0.1", 8080);
+		InetSocketAddress remoteAddress = new InetSocketAddress("10.0.0.1", 50000);
+		String header = "for=198.51.100.1;host=spoofed.example.com, for=192.0.2.60;host=a.example.com;proto=https, " +
+				"for=10.0.0.2;host=internal.example.com";
+		ConnectionInfo info = ConnectionInfo.parseForwardedInfo(header, hostAddress, false, remoteAddress, trustedProxies);
+		assertThat(info.getRemoteAddress().getHostString()).isEqualTo("192.0.2.60");
+		assertThat(info.getHostAddress().getHostString()).isEqualTo("a.example.com");
+		assertThat(info.getScheme()).isEqualTo("https");
+
+		info = ConnectionInfo.parseForwardedInfo(header, hostAddress, false, remoteAddress, null);
+		assertThat(info.getRemoteAddress().getHostString()).isEqualTo("198.51.100.1");
+		assertThat(info.getHostAddress().getHostString()).isEqualTo("spoofed.example.com");
+		assertThat(info.getScheme()).isEqualTo("http");
+
+		String forwardedFor = "198.51.100.1, 192.0.2.60, 10.0.0.2";
+		assertThat(trustedProxies.clientHop(forwardedFor)).isEqualTo(1);
+		assertThat(ConnectionInfo.hopValue(forwardedFor, trustedProxies.clientHop(forwardedFor))).isEqualTo("192.0.2.60");
+		forwardedFor = "10.0.0.3, 10.0.0.2";
+		assertThat(trustedProxies.clientHop(forwardedFor)).isEqualTo(1);
+		assertThat(ConnectionInfo.hopValue(forwardedFor, trustedProxies.clientHop(forwardedFor))).isEqualTo("10.0.0.3");
+	}
+
+	@Test
+	public void xForwardedTrustedProxiesReadAtClientHop() {
+		ConnectionInfo.TrustedProxies trustedProxies = ConnectionInfo.TrustedProxies.parse("10.0.0.0/8");
+		assertThat(trustedProxies).isNotNull();
+
+		SocketChannel channel = new NioSocketChannel();
+		InetSocketAddress remoteAddress = new InetSocketAddress("10.0.0.1", 50000);
+		HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/");
+		request.headers().add("X-Forwarded-For", "198.51.100.1, 192.0.2.60");
+		request.headers().add("X-Forwarded-For", "10.0.0.2");
+		request.headers().set("X-Forwarded-Host", "spoofed.example.com, a.example.com, internal.example.com");
+		request.headers().set("X-Forwarded-Port", "1234, 8443, 8080");
+		request.headers().set("X-Forwarded-Proto", "http, https, http");
+
+		ConnectionInfo info =
+				ConnectionInfo.newForwardedConnectionInfo(request, channel, false, remoteAddress, trustedProxies, null);
+		assertThat(info.getRemoteAddress().getHostString()).isEqualTo("192.0.2.60");
+		assertThat(info.getHostAddress().getHostString()).isEqualTo("a.example.com");
+		assertThat(info.getHostAddress().getPort()).isEqualTo(8443);
+		assertThat(info.getScheme()).isEqualTo("https");
+
+		// A proxy not sending the header at all hops, the first value is used
+		request.headers().set("X-Forwarded-Proto", "https");
+		info = ConnectionInfo.newForwardedConnectionInfo(request, channel, false, remoteAddress, trustedProxies, null);
+		assertThat(info.getScheme()).isEqualTo("https");
+
+		assertThat(ConnectionInfo.hopValue("a, b, c", -1)).isEqualTo("a");
+		assertThat(ConnectionInfo.hopValue("a, b, c", 0)).isEqualTo("c");
+		assertThat(ConnectionInfo.hopValue("a, b, c", 1)).isEqualTo("b");
+		assertThat(ConnectionInfo.hopValue("a, b, c", 5)).isEqualTo("a");
+	}
+
+	@Test
+	public void forwardedConnectionInfoReusedForSameHeaders() {
+		SocketChannel channel = new NioSocketChannel();
+		InetSocketAddress remoteAddress = new InetSocketAddress("10.0.0.1", 50000);
+		HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/");
+		request.headers().set("X-Forwarded-For", "192.0.2.60");
+		request.headers().set("X-Forwarded-Proto", "https");
+
+		ConnectionInfo info = ConnectionInfo.newForwardedConnectionInfo(request, channel, false, remoteAddress, null, null);
+		assertThat(info.getRemoteAddress().getHostString()).isEqualTo("192.0.2.60");
+		assertThat(info.getScheme()).isEqualTo("https");
+		assertThat(ConnectionInfo.newForwardedConnectionInfo(request, channel, false, remoteAddress, null, info))
+				.isSameAs(info);
+
+		request.headers().set("X-Forwarded-Proto", "http");
+		ConnectionInfo next = ConnectionInfo.newForwardedConnectionInfo(request, channel, false, remoteAddress, null, info);
+		assertThat(next).isNotSameAs(info);
+		assertThat(next.getScheme()).isEqualTo("http");
+
+		request.headers().set("Forwarded", "for=192.0.2.61");
+		info = ConnectionInfo.newForwardedConnectionInfo(request, channel, false, remoteAddress, null, next);
+		assertThat(info).isNotSameAs(next);
+		assertThat(info.getRemoteAddress().getHostString()).isEqualTo("192.0.2.61");
+		assertThat(ConnectionInfo.newForwardedConnectionInfo(request, channel, false, remoteAddress, null, info))
+				.isSameAs(info);
+
+		channel.unsafe().closeForcibly();
+	}
+
 	private void testClientRequest(Consumer<HttpHeaders> clientRequestHeadersConsumer,
 			Consumer<HttpServerRequest> serverRequestConsumer) {
 		testClientRequest(clientRequestHeadersConsumer, serverRequestConsumer, Function.identity(), Function.identity(), false);
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http.server;
+
+import java.util.Map;
+import java.util.function.Predicate;
+
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static reactor.netty.http.server.HttpRouteTree.NO_MATCH;
+
+public class HttpRouteTreeTest {
+
+	@Test
+	public void literalAndVariableTemplates() {
+		HttpRouteTree tree = tree(
+				HttpPredicate.get("/users/{id}"),
+				HttpPredicate.get("/users/me"),
+				HttpPredicate.post("/users/{id}/orders/{order}"));
+
+		assertThat(find(tree, HttpMethod.GET, "/users/me")).isEqualTo(0);
+		assertThat(find(tree, HttpMethod.GET, "/users/1?q=reactor")).isEqualTo(0);
+		assertThat(find(tree, HttpMethod.GET, "/users/1/orders/2")).isEqualTo(NO_MATCH);
+		assertThat(find(tree, HttpMethod.POST, "/users/1/orders/2")).isEqualTo(2);
+		assertThat(find(tree, HttpMethod.POST, "/users/1/orders")).isEqualTo(NO_MATCH);
+	}
+
+	@Test
+	public void firstDeclaredRouteWins() {
+		HttpRouteTree tree = tree(
+				HttpPredicate.get("/users/me"),
+				HttpPredicate.get("/users/{id}"),
+				HttpPredicate.prefix("/users"));
+
+		assertThat(find(tree, HttpMethod.GET, "/users/me")).isEqualTo(0);
+		assertThat(find(tree, HttpMethod.GET, "/users/1")).isEqualTo(1);
+		assertThat(find(tree, HttpMethod.GET, "/users/1/avatar")).isEqualTo(2);
+		assertThat(find(tree, HttpMethod.GET, "/users")).isEqualTo(2);
+		assertThat(find(tree, HttpMethod.GET, "/usersfoo")).isEqualTo(2);
+		assertThat(find(tree, HttpMethod.GET, "/user")).isEqualTo(NO_MATCH);
+	}
+
+	@Test
+	public void catchAllTemplates() {
+		HttpRouteTree tree = tree(
+				HttpPredicate.get("/files/{path}**"),
+				HttpPredicate.http("/any/**", null, null));
+
+		assertThat(find(tree, HttpMethod.GET, "/files/a/b/c.txt")).isEqualTo(0);
+		assertThat(find(tree, HttpMethod.GET, "/files/")).isEqualTo(0);
+		assertThat(find(tree, HttpMethod.DELETE, "/any/thing")).isEqualTo(1);
+		assertThat(find(tree, HttpMethod.DELETE, "/files/a")).isEqualTo(NO_MATCH);
+	}
+
+	@Test
+	public void unsupportedConditionsAreNotCompiled() {
+		assertThat(HttpRouteTree.compile(HttpPredicate.get("/test/(a|b)"))).isNull();
+		assertThat(HttpRouteTree.compile(HttpPredicate.get("/**/test"))).isNull();
+		assertThat(HttpRouteTree.compile(HttpPredicate.get("/test-{id}.json"))).isNull();
+		assertThat(HttpRouteTree.compile(HttpPredicate.get("/v1.0/test"))).isNull();
+		assertThat(HttpRouteTree.compile(HttpPredicate.http("/test", HttpVersion.HTTP_1_1, HttpMethod.GET))).isNull();
+		assertThat(HttpRouteTree.compile(HttpServerRoutes.INDEX_PREDICATE)).isNull();
+	}
+
+	@Test
+	public void templateResolvesVariables() {
+		HttpRouteTree.Template template = HttpRouteTree.compile(HttpPredicate.get("/{collection}/{id}/files/{path}**"));
+		assertThat(template).isNotNull();
+
+		Map<String, String> params = template.apply("/comments/1/files/a/b.txt?q=reactor");
+		assertThat(params).containsEntry("collection", "comments")
+		                  .containsEntry("id", "1")
+		                  .containsEntry("path", "a/b.txt")
+		                  .hasSize(3);
+
+		assertThat(template.apply("/comments/1")).isNull();
+
+		template = HttpRouteTree.compile(HttpPredicate.get("/comments"));
+		assertThat(template).isNotNull();
+		assertThat(template.apply("/comments")).isNull();
+	}
+
+	static HttpRouteTree tree(Predicate<?>... conditions) {
+		HttpRouteTree tree = new HttpRouteTree();
+		for (int i = 0; i < conditions.length; i++) {
+			HttpRouteTree.Template template = HttpRouteTree.compile(conditions[i]);
+			assertThat(template).isNotNull();
+			tree.add(i, template);
+		}
+		return tree;
+	}
+
+	static int find(HttpRouteTree tree, HttpMethod method, String uri) {
+		return tree.find(method, uri, HttpRouteTree.pathEnd(uri), NO_MATCH);
+	}
+}
@@ -18,6 +18,7 @@ package reactor.netty.http.server;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Field;
 import java.net.InetSocketAddress;
 import java.net.URISyntaxException;
@@ -26,6 +27,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -45,10 +47,13 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
 import io.netty.channel.group.ChannelGroup;
 import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.channel.group.DefaultChannelGroup;
 import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.handler.codec.DateFormatter;
 import io.netty.handler.codec.LineBasedFrameDecoder;
 import io.netty.handler.codec.http.DefaultFullHttpRequest;
 import io.netty.handler.codec.http.DefaultHttpContent;
@@ -57,11 +62,14 @@ import io.netty.handler.codec.http.FullHttpResponse;
 import io.netty.handler.codec.http.HttpClientCodec;
 import io.netty.handler.codec.http.HttpContentDecompressor;
 import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpMessage;
 import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpObjectDecoder;
 import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.codec.http.HttpVersion;
@@ -93,11 +101,13 @@ import reactor.netty.Connection;
 import reactor.netty.ConnectionObserver;
 import reactor.netty.DisposableServer;
 import reactor.netty.FutureMono;
+import reactor.netty.NettyPipeline;
 import reactor.netty.NettyOutbound;
 import reactor.netty.channel.AbortedException;
 import reactor.netty.http.HttpProtocol;
 import reactor.netty.http.client.HttpClient;
 import reactor.netty.http.client.HttpClientRequest;
+import reactor.netty.http.client.HttpClientResponse;
 import reactor.netty.http.client.PrematureCloseException;
 import reactor.netty.resources.ConnectionProvider;
 import reactor.netty.resources.LoopResources;
@@ -320,6 +330,295 @@ public class HttpServerTests {
 		client.disposeNow();
 	}
 
+	@Test
+	public void httpPipeliningConcurrent() throws Exception {
+		AtomicInteger started = new AtomicInteger();
+
+		disposableServer = HttpServer.create()
+		                             .port(0)
+		                             .pipelining(4)
+		                             .handle((req, resp) -> {
+		                                 // The first response is delayed, the next requests are processed meanwhile
+		                                 int d = started.incrementAndGet();
+		                                 return resp.sendString(Mono.delay(Duration.ofMillis(d == 1 ? 500 : 10))
+		                                                            .map(x -> req.uri() + " " + started.get()));
+		                             })
+		                             .wiretap(true)
+		                             .bindNow();
+
+		List<String> responses = new CopyOnWriteArrayList<>();
+		CountDownLatch latch = new CountDownLatch(3);
+
+		Connection client =
+				TcpClient.create()
+				         .port(disposableServer.port())
+				         .handle((in, out) -> {
+				                 in.withConnection(x ->
+				                         x.addHandlerFirst(new HttpClientCodec())
+				                          .addHandlerLast(new HttpObjectAggregator(1024)))
+				                   .receiveObject()
+				                   .ofType(FullHttpResponse.class)
+				                   .map(res -> res.content().toString(Charset.defaultCharset()))
+				                   .subscribe(res -> {
+				                       responses.add(res);
+				                       latch.countDown();
+				                   });
+
+				                 return out.sendObject(Flux.just("/1", "/2", "/3")
+				                                           .map(uri -> new DefaultFullHttpRequest(HttpVersion.HTTP_1_1,
+				                                                   HttpMethod.GET, uri)))
+				                           .neverComplete();
+				         })
+				         .wiretap(true)
+				         .connectNow();
+
+		assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+		assertThat(responses).hasSize(3);
+		assertThat(responses.get(0)).isEqualTo("/1 3");
+		assertThat(responses.get(1)).startsWith("/2 ");
+		assertThat(responses.get(2)).startsWith("/3 ");
+
+		client.disposeNow();
+	}
+
+	@Test
+	public void httpPipeliningConcurrentAccessLog() throws Exception {
+		AtomicInteger started = new AtomicInteger();
+		List<String> records = new CopyOnWriteArrayList<>();
+
+		disposableServer = HttpServer.create()
+		                             .port(0)
+		                             .pipelining(4)
+		                             .accessLog(true)
+		                             .route(r -> r.get("/items/{id}", (req, resp) -> {
+		                                 // The first response is delayed, the next requests are processed meanwhile
+		                                 int d = started.incrementAndGet();
+		                                 return resp.header("X-Uri", req.uri())
+		                                            .status(d == 2 ? HttpResponseStatus.NOT_FOUND : HttpResponseStatus.OK)
+		                                            .sendString(Mono.delay(Duration.ofMillis(d == 1 ? 500 : 10))
+		                                                            .map(x -> req.uri()));
+		                             }))
+		                             .doOnChannelInit((observer, channel, address) ->
+		                                 channel.pipeline().addBefore(NettyPipeline.AccessLogHandler, "accessLogProbe",
+		                                         new ChannelOutboundHandlerAdapter() {
+		                                             @Override
+		                                             public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+		                                                 if (msg instanceof HttpResponse) {
+		                                                     // The record of the response, stamped by the access log handler
+		                                                     AccessLog accessLog =
+		                                                             ((AccessLogHandler) ctx.pipeline().get(NettyPipeline.AccessLogHandler))
+		                                                                     .pending.peek();
+		                                                     records.add(((HttpResponse) msg).headers().get("X-Uri") + " " +
+		                                                             accessLog.uri + " " + accessLog.route + " " + accessLog.status);
+		                                                 }
+		                                                 ctx.write(msg, promise);
+		                                             }
+		                                         }))
+		                             .wiretap(true)
+		                             .bindNow();
+
+		CountDownLatch latch = new CountDownLatch(3);
+
+		Connection client =
+				TcpClient.create()
+				         .port(disposableServer.port())
+				         .handle((in, out) -> {
+				                 in.withConnection(x ->
+				                         x.addHandlerFirst(new HttpClientCodec())
+				                          .addHandlerLast(new HttpObjectAggregator(1024)))
+				                   .receiveObject()
+				                   .ofType(FullHttpResponse.class)
+				                   .subscribe(res -> latch.countDown());
+
+				                 return out.sendObject(Flux.just("/items/1", "/items/2", "/items/3")
+				                                           .map(uri -> new DefaultFullHttpRequest(HttpVersion.HTTP_1_1,
+				                                                   HttpMethod.GET, uri)))
+				                           .neverComplete();
+				         })
+				         .wiretap(true)
+				         .connectNow();
+
+		assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+		assertThat(records).hasSize(3);
+		assertThat(records.get(0)).isEqualTo("/items/1 /items/1 /items/{id} 200");
+		assertThat(records.get(1)).isEqualTo("/items/2 /items/2 /items/{id} 404");
+		assertThat(records.get(2)).isEqualTo("/items/3 /items/3 /items/{id} 200");
+
+		client.disposeNow();
+	}
+
+	@Test
+	public void httpPipeliningConcurrentMaxInFlightRequests() throws Exception {
+		AtomicInteger started = new AtomicInteger();
+
+		disposableServer = HttpServer.create()
+		                             .port(0)
+		                             .pipelining(2)
+		                             .handle((req, resp) -> {
+		                                 int d = started.incrementAndGet();
+		                                 return resp.sendString(Mono.delay(Duration.ofMillis(d == 1 ? 500 : 10))
+		                                                            .map(x -> req.uri() + " " + started.get()));
+		                             })
+		                             .wiretap(true)
+		                             .bindNow();
+
+		List<String> responses =
+				sendPipelined(new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/1"),
+				              new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/2"),
+				              new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/3"),
+				              new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/4"));
+
+		// The fourth request is beyond the limit, it is processed once the previous responses are sent
+		assertThat(responses).hasSize(4);
+		assertThat(responses.get(0)).isEqualTo("/1 3");
+		assertThat(responses.get(1)).startsWith("/2 ");
+		assertThat(responses.get(2)).startsWith("/3 ");
+		assertThat(responses.get(3)).isEqualTo("/4 4");
+	}
+
+	@Test
+	public void httpPipeliningConcurrentRequestWithBody() throws Exception {
+		AtomicInteger started = new AtomicInteger();
+
+		disposableServer = HttpServer.create()
+		                             .port(0)
+		                             .pipelining(4)
+		                             .handle((req, resp) -> {
+		                                 int d = started.incrementAndGet();
+		                                 return resp.sendString(req.receive()
+		                                                           .aggregate()
+		                                                           .asString()
+		                                                           .defaultIfEmpty("")
+		                                                           .delayElement(Duration.ofMillis(d == 1 ? 500 : 10))
+		                                                           .map(body -> req.uri() + body + " " + started.get()));
+		                             })
+		                             .wiretap(true)
+		                             .bindNow();
+
+		DefaultFullHttpRequest post =
+				new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/2",
+						Unpooled.copiedBuffer("abc", Charset.defaultCharset()));
+		HttpUtil.setContentLength(post, 3);
+
+		List<String> responses =
+				sendPipelined(new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/1"),
+				              post,
+				              new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/3"));
+
+		// The request with body is buffered, as well as the next requests
+		assertThat(responses).hasSize(3);
+		assertThat(responses.get(0)).isEqualTo("/1 1");
+		assertThat(responses.get(1)).startsWith("/2abc ");
+		assertThat(responses.get(2)).startsWith("/3 ");
+	}
+
+	@Test
+	public void httpPipeliningConcurrentMetricsEnabled() throws Exception {
+		AtomicInteger started = new AtomicInteger();
+
+		disposableServer = HttpServer.create()
+		                             .port(0)
+		                             .pipelining(4)
+		                             .metrics(true, s -> s)
+		                             .handle((req, resp) -> {
+		                                 int d = started.incrementAndGet();
+		                                 return resp.sendString(Mono.delay(Duration.ofMillis(d == 1 ? 500 : 10))
+		                                                            .map(x -> req.uri() + " " + started.get()));
+		                             })
+		                             .wiretap(true)
+		                             .bindNow();
+
+		List<String> responses =
+				sendPipelined(new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/1"),
+				              new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/2"),
+				              new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/3"));
+
+		// The requests are processed one after the other, so that the metrics handler records all of them
+		assertThat(responses).containsExactly("/1 1", "/2 2", "/3 3");
+	}
+
+	@Test
+	public void httpPipeliningConcurrentNoResponse() throws Exception {
+		AtomicInteger started = new AtomicInteger();
+
+		disposableServer = HttpServer.create()
+		                             .port(0)
+		                             .pipelining(4)
+		                             .handle((req, resp) -> {
+		                                 int d = started.incrementAndGet();
+		                                 if (d == 2) {
+		                                     // The pipelined request terminates without sending its response
+		                                     resp.withConnection(Connection::dispose);
+		                                     return Mono.never();
+		                                 }
+		                                 return resp.sendString(Mono.delay(Duration.ofMillis(d == 1 ? 500 : 10))
+		                                                            .map(x -> req.uri()));
+		                             })
+		                             .wiretap(true)
+		                             .bindNow();
+
+		List<String> responses = new CopyOnWriteArrayList<>();
+		CountDownLatch closed = new CountDownLatch(1);
+
+		Connection client =
+				TcpClient.create()
+				         .port(disposableServer.port())
+				         .handle((in, out) -> {
+				                 in.withConnection(x ->
+				                         x.addHandlerFirst(new HttpClientCodec())
+				                          .addHandlerLast(new HttpObjectAggregator(1024)))
+				                   .receiveObject()
+				                   .ofType(FullHttpResponse.class)
+				                   .subscribe(res -> responses.add(res.content().toString(Charset.defaultCharset())));
+
+				                 return out.sendObject(Flux.just("/1", "/2", "/3")
+				                                           .map(uri -> new DefaultFullHttpRequest(HttpVersion.HTTP_1_1,
+				                                                   HttpMethod.GET, uri)))
+				                           .neverComplete();
+				         })
+				         .wiretap(true)
+				         .connectNow();
+
+		client.onDispose(closed::countDown);
+
+		// The gap in the responses cannot be filled, the connection is closed
+		assertThat(closed.await(30, TimeUnit.SECONDS)).isTrue();
+		assertThat(responses).isEmpty();
+	}
+
+	/**
+	 * Sends the requests pipelined on a single connection and returns the contents of the responses.
+	 */
+	private List<String> sendPipelined(DefaultFullHttpRequest... requests) throws InterruptedException {
+		List<String> responses = new CopyOnWriteArrayList<>();
+		CountDownLatch latch = new CountDownLatch(requests.length);
+
+		Connection client =
+				TcpClient.create()
+				         .port(disposableServer.port())
+				         .handle((in, out) -> {
+				                 in.withConnection(x ->
+				                         x.addHandlerFirst(new HttpClientCodec())
+				                          .addHandlerLast(new HttpObjectAggregator(1024)))
+				                   .receiveObject()
+				                   .ofType(FullHttpResponse.class)
+				                   .map(res -> res.content().toString(Charset.defaultCharset()))
+				                   .subscribe(res -> {
+				                       responses.add(res);
+				                       latch.countDown();
+				                   });
+
+				                 return out.sendObject(Flux.just(requests))
+				                           .neverComplete();
+				         })
+				         .wiretap(true)
+				         .connectNow();
+
+		assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+		client.disposeNow();
+		return responses;
+	}
+
 	@Test
 	public void flushOnComplete() {
 
@@ -467,6 +766,29 @@ public class HttpServerTests {
 		assertThat(code).isEqualTo(404);
 	}
 
+	@Test
+	public void routeWithDotMatchesAnyCharacter() {
+		disposableServer = HttpServer.create()
+		                             .port(0)
+		                             .route(routes ->
+		                                     routes.get("/v1.0/hello",
+		                                             (req, resp) -> resp.sendString(Mono.just("hello!"))))
+		                             .wiretap(true)
+		                             .bindNow();
+
+		HttpClient client = HttpClient.create()
+		                              .port(disposableServer.port())
+		                              .wiretap(true);
+		assertThat(client.get()
+		                 .uri("/v1.0/hello")
+		                 .responseSingle((res, buf) -> Mono.just(res.status().code()))
+		                 .block()).isEqualTo(200);
+		assertThat(client.get()
+		                 .uri("/v1x0/hello")
+		                 .responseSingle((res, buf) -> Mono.just(res.status().code()))
+		                 .block()).isEqualTo(200);
+	}
+
 	@Test
 	public void startRouterAndAwait() throws InterruptedException {
 		ExecutorService ex = Executors.newSingleThreadExecutor();
@@ -1947,7 +2269,8 @@ public class HttpServerTests {
 				new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/"),
 				null,
 				ServerCookieEncoder.STRICT,
-				ServerCookieDecoder.STRICT);
+				ServerCookieDecoder.STRICT,
+				null);
 		ops.status(status);
 		HttpMessage response = ops.newFullBodyMessage(Unpooled.EMPTY_BUFFER);
 		assertThat(((FullHttpResponse) response).status().reasonPhrase()).isEqualTo(status.reasonPhrase());
@@ -1969,4 +2292,177 @@ public class HttpServerTests {
 
 		httpServer.disposeNow();
 	}
+
+	@Test
+	public void testDefaultResponseHeaders() {
+		disposableServer =
+				HttpServer.create()
+				          .port(0)
+				          .dateHeader(true)
+				          .responseHeaders(h -> h.set(HttpHeaderNames.SERVER, "reactor-netty")
+				                                 .set(HttpHeaderNames.CONTENT_TYPE, "application/json"))
+				          .handle((req, res) -> res.header(HttpHeaderNames.CONTENT_TYPE, "text/plain")
+				                                   .sendString(Mono.just("test")))
+				          .wiretap(true)
+				          .bindNow();
+
+		HttpHeaders headers =
+				HttpClient.create()
+				          .port(disposableServer.port())
+				          .wiretap(true)
+				          .get()
+				          .uri("/")
+				          .responseSingle((res, body) -> body.then(Mono.just(res.responseHeaders())))
+				          .block(Duration.ofSeconds(30));
+
+		assertThat(headers).isNotNull();
+		assertThat(headers.get(HttpHeaderNames.SERVER)).isEqualTo("reactor-netty");
+		assertThat(headers.getAll(HttpHeaderNames.CONTENT_TYPE)).containsExactly("text/plain");
+		assertThat(DateFormatter.parseHttpDate(headers.get(HttpHeaderNames.DATE))).isNotNull();
+		long now = System.currentTimeMillis();
+		assertThat(DefaultResponseHeaders.date(now)).isSameAs(DefaultResponseHeaders.date(now / 1000 * 1000));
+	}
+
+	@Test
+	public void testReceiveForm() {
+		doTestReceiveForm(true);
+		doTestReceiveForm(false);
+	}
+
+	private void doTestReceiveForm(boolean multipart) {
+		HttpServerFormDecoderSpec spec = HttpServerFormDecoderSpec.builder()
+		                                                          .maxInMemorySize(4)
+		                                                          .maxSize(32)
+		                                                          .build();
+		disposableServer =
+				HttpServer.create()
+				          .port(0)
+				          .handle((req, res) ->
+				                  res.sendString(req.receiveForm(spec)
+				                                    .map(data -> {
+				                                        try {
+				                                            return data.getName() + "=" + data.getString() +
+				                                                    (data.isInMemory() ? " (memory)" : " (disk)") + ";";
+				                                        }
+				                                        catch (IOException e) {
+				                                            throw new UncheckedIOException(e);
+				                                        }
+				                                    })))
+				          .wiretap(true)
+				          .bindNow();
+
+		String body =
+				HttpClient.create()
+				          .port(disposableServer.port())
+				          .wiretap(true)
+				          .post()
+				          .uri("/")
+				          .sendForm((req, form) -> form.multipart(multipart)
+				                                       .attr("small", "abc")
+				                                       .attr("large", "abcdefghij"))
+				          .responseContent()
+				          .aggregate()
+				          .asString()
+				          .block(Duration.ofSeconds(30));
+
+		assertThat(body).isEqualTo("small=abc (memory);large=abcdefghij (disk);");
+
+		HttpResponseStatus status =
+				HttpClient.create()
+				          .port(disposableServer.port())
+				          .wiretap(true)
+				          .post()
+				          .uri("/")
+				          .sendForm((req, form) -> form.multipart(multipart)
+				                                       .attr("tooLarge", "abcdefghijklmnopqrstuvwxyz0123456789")
+				                                       .attr("small", "abc"))
+				          .response()
+				          .map(HttpClientResponse::status)
+				          .block(Duration.ofSeconds(30));
+
+		assertThat(status).isEqualTo(HttpResponseStatus.INTERNAL_SERVER_ERROR);
+
+		disposableServer.disposeNow();
+		disposableServer = null;
+	}
+
+	@Test
+	public void testReceiveFormSlowConsumer() {
+		// The parts are consumed after the contents they are decoded from are released
+		String boundary = "boundary";
+		String body =
+				doTestReceiveFormChunked("multipart/form-data; boundary=" + boundary,
+						Flux.just("--" + boundary + "\r\n" +
+						          "content-disposition: form-data; name=\"first\"\r\n\r\n" +
+						          "abc\r\n",
+						          "--" + boundary + "\r\n" +
+						          "content-disposition: form-data; name=\"second\"\r\n\r\n" +
+						          "def\r\n",
+						          "--" + boundary + "\r\n" +
+						          "content-disposition: form-data; name=\"third\"\r\n\r\n" +
+						          "ghi\r\n" +
+						          "--" + boundary + "--\r\n"));
+
+		assertThat(body).isEqualTo("first=abc;second=def;third=ghi;");
+	}
+
+	@Test
+	public void testReceiveFormChunkedUrlencoded() {
+		// The last attribute is decoded once the empty last content of the chunked body is received
+		String body =
+				doTestReceiveFormChunked(HttpHeaderValues.APPLICATION_X_WWW_FORM_URLENCODED.toString(),
+						Flux.just("first=abc&sec", "ond=def&", "third=ghi"));
+
+		assertThat(body).isEqualTo("first=abc;second=def;third=ghi;");
+	}
+
+	private String doTestReceiveFormChunked(String contentType, Flux<String> chunks) {
+		disposableServer =
+				HttpServer.create()
+				          .port(0)
+				          .handle((req, res) ->
+				                  res.sendString(req.receiveForm()
+				                                    .concatMap(data -> Mono.fromCallable(() -> data.getName() + "=" + data.getString() + ";")
+				                                                           .delayElement(Duration.ofMillis(50)))))
+				          .wiretap(true)
+				          .bindNow();
+
+		return HttpClient.create()
+		                 .port(disposableServer.port())
+		                 .headers(h -> h.set(HttpHeaderNames.CONTENT_TYPE, contentType))
+		                 .wiretap(true)
+		                 .post()
+		                 .uri("/")
+		                 .send(ByteBufFlux.fromString(chunks))
+		                 .responseContent()
+		                 .aggregate()
+		                 .asString()
+		                 .block(Duration.ofSeconds(30));
+	}
+
+	@Test
+	public void testReceiveFormNotAForm() {
+		disposableServer =
+				HttpServer.create()
+				          .port(0)
+				          .handle((req, res) -> req.receiveForm()
+				                                   .then(res.send())
+				                                   .onErrorResume(IllegalStateException.class,
+				                                           e -> res.status(HttpResponseStatus.BAD_REQUEST).send()))
+				          .wiretap(true)
+				          .bindNow();
+
+		HttpResponseStatus status =
+				HttpClient.create()
+				          .port(disposableServer.port())
+				          .wiretap(true)
+				          .post()
+				          .uri("/")
+				          .send(ByteBufFlux.fromString(Mono.just("test")))
+				          .response()
+				          .map(HttpClientResponse::status)
+				          .block(Duration.ofSeconds(30));
+
+		assertThat(status).isEqualTo(HttpResponseStatus.BAD_REQUEST);
+	}
 }
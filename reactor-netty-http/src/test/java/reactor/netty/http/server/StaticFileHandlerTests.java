@@ -0,0 +1,336 @@
+/*
+ * Copyright (c) 2011-Present VMware, Inc. or its affiliates, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.netty.http.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientResponse;
+import reactor.netty.http.server.StaticFileCache.StaticFile;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StaticFileHandlerTests {
+
+	static final String CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz";
+
+	Path directory;
+	DisposableServer disposableServer;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("static");
+		Files.write(directory.resolve("file.txt"), CONTENT.getBytes(StandardCharsets.UTF_8));
+		disposableServer =
+				HttpServer.create()
+				          .port(0)
+				          .route(routes -> routes.directory("/static", directory,
+				                  res -> res.header(HttpHeaderNames.CONTENT_TYPE, "text/plain")))
+				          .wiretap(true)
+				          .bindNow();
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		disposableServer.disposeNow();
+		Files.deleteIfExists(directory.resolve("file.txt"));
+		Files.deleteIfExists(directory);
+	}
+
+	@Test
+	public void testValidators() {
+		Tuple2<HttpClientResponse, String> response = get("/static/file.txt", h -> {});
+		assertThat(response.getT1().status().code()).isEqualTo(200);
+		assertThat(response.getT2()).isEqualTo(CONTENT);
+		HttpHeaders headers = response.getT1().responseHeaders();
+		String etag = headers.get(HttpHeaderNames.ETAG);
+		String lastModified = headers.get(HttpHeaderNames.LAST_MODIFIED);
+		assertThat(etag).isNotNull();
+		assertThat(lastModified).isNotNull();
+		assertThat(headers.get(HttpHeaderNames.ACCEPT_RANGES)).isEqualTo("bytes");
+		assertThat(headers.getInt(HttpHeaderNames.CONTENT_LENGTH)).isEqualTo(CONTENT.length());
+
+		response = get("/static/file.txt", h -> h.set(HttpHeaderNames.IF_NONE_MATCH, "\"other\", W/" + etag));
+		assertThat(response.getT1().status().code()).isEqualTo(304);
+		assertThat(response.getT2()).isEmpty();
+
+		response = get("/static/file.txt", h -> h.set(HttpHeaderNames.IF_NONE_MATCH, "\"other\""));
+		assertThat(response.getT1().status().code()).isEqualTo(200);
+
+		response = get("/static/file.txt", h -> h.set(HttpHeaderNames.IF_MODIFIED_SINCE, lastModified));
+		assertThat(response.getT1().status().code()).isEqualTo(304);
+	}
+
+	@Test
+	public void testSingleRange() {
+		Tuple2<HttpClientResponse, String> response = get("/static/file.txt", h -> h.set(HttpHeaderNames.RANGE, "bytes=10-15"));
+		assertThat(response.getT1().status().code()).isEqualTo(206);
+		assertThat(response.getT1().responseHeaders().get(HttpHeaderNames.CONTENT_RANGE)).isEqualTo("bytes 10-15/36");
+		assertThat(response.getT2()).isEqualTo("abcdef");
+
+		response = get("/static/file.txt", h -> h.set(HttpHeaderNames.RANGE, "bytes=-4"));
+		assertThat(response.getT1().status().code()).isEqualTo(206);
+		assertThat(response.getT2()).isEqualTo("wxyz");
+
+		response = get("/static/file.txt", h -> h.set(HttpHeaderNames.RANGE, "bytes=100-"));
+		assertThat(response.getT1().status().code()).isEqualTo(416);
+		assertThat(response.getT1().responseHeaders().get(HttpHeaderNames.CONTENT_RANGE)).isEqualTo("bytes */36");
+
+		response = get("/static/file.txt", h -> h.set(HttpHeaderNames.RANGE, "bytes=10-15")
+		                                         .set(HttpHeaderNames.IF_RANGE, "\"other\""));
+		assertThat(response.getT1().status().code()).isEqualTo(200);
+		assertThat(response.getT2()).isEqualTo(CONTENT);
+	}
+
+	@Test
+	public void testMultipleRanges() {
+		Tuple2<HttpClientResponse, String> response = get("/static/file.txt", h -> h.set(HttpHeaderNames.RANGE, "bytes=0-1, 34-"));
+		assertThat(response.getT1().status().code()).isEqualTo(206);
+		String contentType = response.getT1().responseHeaders().get(HttpHeaderNames.CONTENT_TYPE);
+		assertThat(contentType).startsWith("multipart/byteranges; boundary=");
+		String boundary = contentType.substring("multipart/byteranges; boundary=".length());
+		assertThat(response.getT2())
+				.isEqualTo("\r\n--" + boundary + "\r\nContent-Type: text/plain\r\nContent-Range: bytes 0-1/36\r\n\r\n01" +
+						"\r\n--" + boundary + "\r\nContent-Type: text/plain\r\nContent-Range: bytes 34-35/36\r\n\r\nyz" +
+						"\r\n--" + boundary + "--\r\n");
+		assertThat(response.getT1().responseHeaders().getInt(HttpHeaderNames.CONTENT_LENGTH))
+				.isEqualTo(response.getT2().length());
+	}
+
+	@Test
+	public void testNotFound() {
+		assertThat(get("/static/missing.txt", h -> {}).getT1().status().code()).isEqualTo(404);
+		assertThat(get("/static/%2e%2e/file.txt", h -> {}).getT1().status().code()).isEqualTo(404);
+		assertThat(get("/static/", h -> {}).getT1().status().code()).isEqualTo(404);
+	}
+
+	@Test
+	public void testCacheReopensChangedFile() throws IOException {
+		StaticFileCache cache = new StaticFileCache(1, 0);
+		Path path = directory.resolve("file.txt");
+
+		StaticFile first = cache.acquire(path);
+		assertThat(first).isNotNull();
+		assertThat(cache.acquire(path)).isSameAs(first);
+		first.release();
+
+		Files.write(path, "changed".getBytes(StandardCharsets.UTF_8));
+		StaticFile second = cache.acquire(path);
+		assertThat(second).isNotNull().isNotSameAs(first);
+		assertThat(second.size).isEqualTo(7);
+		assertThat(first.channel.isOpen()).as("in use").isTrue();
+
+		first.release();
+		assertThat(first.channel.isOpen()).as("released").isFalse();
+		second.release();
+		assertThat(second.channel.isOpen()).as("cached").isTrue();
+
+		Files.delete(path);
+		assertThat(cache.acquire(path)).isNull();
+		assertThat(second.channel.isOpen()).isFalse();
+		assertThat(cache.files).isEmpty();
+	}
+
+	@Test
+	public void testCacheEvictsUnusedFiles() throws IOException {
+		StaticFileCache cache = new StaticFileCache(1, TimeUnit.HOURS.toNanos(1));
+		Path other = Files.write(directory.resolve("other.txt"), CONTENT.getBytes(StandardCharsets.UTF_8));
+		try {
+			StaticFile first = cache.acquire(directory.resolve("file.txt"));
+			assertThat(first).isNotNull();
+			first.release();
+
+			StaticFile second = cache.acquire(other);
+			assertThat(second).isNotNull();
+			second.release();
+			StaticFile third = cache.acquire(directory.resolve("file.txt"));
+			assertThat(third).isNotNull().isNotSameAs(first);
+			third.release();
+
+			assertThat(cache.files).hasSize(1);
+			assertThat(first.channel.isOpen()).isFalse();
+			assertThat(second.channel.isOpen()).isFalse();
+		}
+		finally {
+			Files.delete(other);
+		}
+	}
+
+	@Test
+	public void testEncoding() {
+		assertThat(StaticFileHandler.encoding(null, true, true)).isNull();
+		assertThat(StaticFileHandler.encoding("gzip, deflate, br", true, true)).isEqualTo("br");
+		assertThat(StaticFileHandler.encoding("gzip, deflate, br", false, true)).isEqualTo("gzip");
+		assertThat(StaticFileHandler.encoding("gzip;q=1.0, br;q=0.5", true, true)).isEqualTo("gzip");
+		assertThat(StaticFileHandler.encoding("br;q=0, *", true, true)).isEqualTo("gzip");
+		assertThat(StaticFileHandler.encoding("X-GZIP", false, true)).isEqualTo("gzip");
+		assertThat(StaticFileHandler.encoding("identity", true, true)).isNull();
+		assertThat(StaticFileHandler.encoding("*;q=0", true, true)).isNull();
+	}
+
+	@Test
+	public void testPrecompressedSidecars() throws IOException {
+		Path sidecars = Files.createTempDirectory("precompressed");
+		byte[] content = CONTENT.getBytes(StandardCharsets.UTF_8);
+		Files.write(sidecars.resolve("file.txt"), content);
+		Files.write(sidecars.resolve("file.txt.gz"), gzip(content));
+		Files.write(sidecars.resolve("file.txt.br"), "br".getBytes(StandardCharsets.UTF_8));
+		DisposableServer server =
+				HttpServer.create()
+				          .port(0)
+				          .route(routes -> routes.route(HttpPredicate.prefix("/static"),
+				                  StaticFileHandler.directory("/static", sidecars, null,
+				                          new StaticFileCache(16, 0, true, null))))
+				          .wiretap(true)
+				          .bindNow();
+		try {
+			Tuple2<HttpClientResponse, byte[]> response = getBytes(server, "/static/file.txt", h -> {});
+			assertThat(response.getT2()).isEqualTo(content);
+			assertThat(response.getT1().responseHeaders().get(HttpHeaderNames.VARY)).isEqualToIgnoringCase("accept-encoding");
+			assertThat(response.getT1().responseHeaders().get(HttpHeaderNames.CONTENT_ENCODING)).isNull();
+
+			response = getBytes(server, "/static/file.txt", h -> h.set(HttpHeaderNames.ACCEPT_ENCODING, "gzip"));
+			assertThat(response.getT1().responseHeaders().get(HttpHeaderNames.CONTENT_ENCODING)).isEqualTo("gzip");
+			assertThat(response.getT1().responseHeaders().get(HttpHeaderNames.VARY)).isEqualToIgnoringCase("accept-encoding");
+			assertThat(gunzip(response.getT2())).isEqualTo(content);
+
+			response = getBytes(server, "/static/file.txt", h -> h.set(HttpHeaderNames.ACCEPT_ENCODING, "gzip, br"));
+			assertThat(response.getT1().responseHeaders().get(HttpHeaderNames.CONTENT_ENCODING)).isEqualTo("br");
+			assertThat(new String(response.getT2(), StandardCharsets.UTF_8)).isEqualTo("br");
+		}
+		finally {
+			server.disposeNow();
+			delete(sidecars);
+		}
+	}
+
+	@Test
+	public void testCompressionCache() throws Exception {
+		Path files = Files.createTempDirectory("static");
+		Path compressionCache = Files.createTempDirectory("compressed");
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			builder.append(CONTENT);
+		}
+		byte[] content = builder.toString().getBytes(StandardCharsets.UTF_8);
+		Files.write(files.resolve("file.txt"), content);
+		StaticFileCache cache = new StaticFileCache(16, 0, false, compressionCache);
+		DisposableServer server =
+				HttpServer.create()
+				          .port(0)
+				          .route(routes -> routes.route(HttpPredicate.prefix("/static"),
+				                  StaticFileHandler.directory("/static", files, null, cache)))
+				          .wiretap(true)
+				          .bindNow();
+		try {
+			Tuple2<HttpClientResponse, byte[]> response =
+					getBytes(server, "/static/file.txt", h -> h.set(HttpHeaderNames.ACCEPT_ENCODING, "gzip"));
+			assertThat(response.getT2()).isEqualTo(content);
+
+			StaticFile file = cache.acquire(files.resolve("file.txt"));
+			assertThat(file).isNotNull();
+			for (int i = 0; i < 100 && file.gzip == null; i++) {
+				Thread.sleep(50);
+			}
+			file.release();
+			assertThat(file.gzip).isNotNull().startsWith(compressionCache);
+
+			response = getBytes(server, "/static/file.txt", h -> h.set(HttpHeaderNames.ACCEPT_ENCODING, "gzip"));
+			assertThat(response.getT1().responseHeaders().get(HttpHeaderNames.CONTENT_ENCODING)).isEqualTo("gzip");
+			assertThat(response.getT2().length).isLessThan(content.length);
+			assertThat(gunzip(response.getT2())).isEqualTo(content);
+		}
+		finally {
+			server.disposeNow();
+			delete(files);
+			delete(compressionCache);
+		}
+	}
+
+	static byte[] gzip(byte[] content) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(content);
+		}
+		return out.toByteArray();
+	}
+
+	static byte[] gunzip(byte[] content) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(content))) {
+			byte[] buffer = new byte[1024];
+			int read;
+			while ((read = gzip.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+		}
+		return out.toByteArray();
+	}
+
+	static void delete(Path directory) throws IOException {
+		try (Stream<Path> paths = Files.list(directory)) {
+			for (Path path : (Iterable<Path>) paths::iterator) {
+				Files.deleteIfExists(path);
+			}
+		}
+		Files.deleteIfExists(directory);
+	}
+
+	Tuple2<HttpClientResponse, byte[]> getBytes(DisposableServer server, String uri, Consumer<HttpHeaders> headers) {
+		return HttpClient.create()
+		                 .port(server.port())
+		                 .headers(headers)
+		                 .wiretap(true)
+		                 .get()
+		                 .uri(uri)
+		                 .responseSingle((res, body) -> body.asByteArray()
+		                                                    .defaultIfEmpty(new byte[0])
+		                                                    .map(b -> Tuples.of(res, b)))
+		                 .block(Duration.ofSeconds(30));
+	}
+
+	Tuple2<HttpClientResponse, String> get(String uri, Consumer<HttpHeaders> headers) {
+		return HttpClient.create()
+		                 .port(disposableServer.port())
+		                 .headers(headers)
+		                 .wiretap(true)
+		                 .get()
+		                 .uri(uri)
+		                 .responseSingle((res, body) -> body.asString()
+		                                                    .defaultIfEmpty("")
+		                                                    .map(s -> Tuples.of(res, s)))
+		                 .block(Duration.ofSeconds(30));
+	}
+}